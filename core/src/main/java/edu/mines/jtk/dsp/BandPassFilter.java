@@ -14,7 +14,11 @@ limitations under the License.
 ****************************************************************************/
 package edu.mines.jtk.dsp;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -31,6 +35,9 @@ import static edu.mines.jtk.util.ArrayMath.*;
  * repeated application to multiple input arrays. A cached transform 
  * can be reused while the lengths of input and output arrays do not 
  * change. Because caching consumes memory, it is disabled by default.
+ * <p>
+ * Filter coefficients, which depend only on the filter parameters, are
+ * shared by all band-pass filters constructed with the same parameters.
  *
  * @author Dave Hale, Colorado School of Mines
  * @version 2009.12.19
@@ -73,6 +80,7 @@ public class BandPassFilter {
     _kupper = kupper;
     _kwidth = kwidth;
     _aerror = aerror;
+    _design = new Design(klower,kupper,kwidth,aerror);
   }
 
   /**
@@ -170,6 +178,7 @@ public class BandPassFilter {
   private double _kupper;
   private double _kwidth;
   private double _aerror;
+  private Design _design;
   private FftFilter _ff1;
   private FftFilter _ff2;
   private FftFilter _ff3;
@@ -191,21 +200,7 @@ public class BandPassFilter {
 
   private void updateFilter1() {
     if (_ff1==null) {
-      KaiserWindow kw = KaiserWindow.fromErrorAndWidth(_aerror,_kwidth);
-      int nh = ((int)kw.getLength()+1)/2*2+1;
-      int nh1 = nh;
-      int kh1 = (nh1-1)/2;
-      _h1 = new float[nh1];
-      double kus = 2.0*_kupper;
-      double kls = 2.0*_klower;
-      for (int i1=0; i1<nh1; ++i1) {
-        double x1 = i1-kh1;
-        double w1 = kw.evaluate(x1);
-        double r = x1;
-        double kur = 2.0*_kupper*r;
-        double klr = 2.0*_klower*r;
-        _h1[i1] = (float)(w1*(kus*h1(kur)-kls*h1(klr)));
-      }
+      _h1 = getCoefficients1(_design);
       _ff1 = new FftFilter(_h1);
       _ff1.setExtrapolation(ffExtrap(_extrapolation));
       _ff1.setFilterCaching(_filterCaching);
@@ -214,27 +209,7 @@ public class BandPassFilter {
 
   private void updateFilter2() {
     if (_ff2==null) {
-      KaiserWindow kw = KaiserWindow.fromErrorAndWidth(_aerror,_kwidth);
-      int nh = ((int)kw.getLength()+1)/2*2+1;
-      int nh1 = nh;
-      int nh2 = nh;
-      int kh1 = (nh1-1)/2;
-      int kh2 = (nh2-1)/2;
-      _h2 = new float[nh2][nh1];
-      double kus = 4.0*_kupper*_kupper;
-      double kls = 4.0*_klower*_klower;
-      for (int i2=0; i2<nh2; ++i2) {
-        double x2 = i2-kh2;
-        double w2 = kw.evaluate(x2);
-        for (int i1=0; i1<nh1; ++i1) {
-          double x1 = i1-kh1;
-          double w1 = kw.evaluate(x1);
-          double r = sqrt(x1*x1+x2*x2);
-          double kur = 2.0*_kupper*r;
-          double klr = 2.0*_klower*r;
-          _h2[i2][i1] = (float)(w1*w2*(kus*h2(kur)-kls*h2(klr)));
-        }
-      }
+      _h2 = getCoefficients2(_design);
       _ff2 = new FftFilter(_h2);
       _ff2.setExtrapolation(ffExtrap(_extrapolation));
       _ff2.setFilterCaching(_filterCaching);
@@ -243,39 +218,192 @@ public class BandPassFilter {
 
   private void updateFilter3() {
     if (_ff3==null) {
-      KaiserWindow kw = KaiserWindow.fromErrorAndWidth(_aerror,_kwidth);
-      int nh = ((int)kw.getLength()+1)/2*2+1;
-      int nh1 = nh;
-      int nh2 = nh;
-      int nh3 = nh;
-      int kh1 = (nh1-1)/2;
-      int kh2 = (nh2-1)/2;
-      int kh3 = (nh3-1)/2;
-      _h3 = new float[nh3][nh2][nh1];
-      double kus = 8.0*_kupper*_kupper*_kupper;
-      double kls = 8.0*_klower*_klower*_klower;
-      for (int i3=0; i3<nh3; ++i3) {
-        double x3 = i3-kh3;
-        double w3 = kw.evaluate(x3);
-        for (int i2=0; i2<nh2; ++i2) {
-          double x2 = i2-kh2;
-          double w2 = kw.evaluate(x2);
-          for (int i1=0; i1<nh1; ++i1) {
-            double x1 = i1-kh1;
-            double w1 = kw.evaluate(x1);
-            double r = sqrt(x1*x1+x2*x2+x3*x3);
-            double kur = 2.0*_kupper*r;
-            double klr = 2.0*_klower*r;
-            _h3[i3][i2][i1] = (float)(w1*w2*w3*(kus*h3(kur)-kls*h3(klr)));
-          }
-        }
-      }
+      _h3 = getCoefficients3(_design);
       _ff3 = new FftFilter(_h3);
       _ff3.setExtrapolation(ffExtrap(_extrapolation));
       _ff3.setFilterCaching(_filterCaching);
     }
   }
 
+  /**
+   * Design parameters.
+   */
+  private static class Design {
+    final double klower,kupper,kwidth,aerror;
+    Design(double klower, double kupper, double kwidth, double aerror) {
+      this.klower = klower;
+      this.kupper = kupper;
+      this.kwidth = kwidth;
+      this.aerror = aerror;
+    }
+    public int hashCode() {
+      long lklower = Double.doubleToLongBits(klower);
+      long lkupper = Double.doubleToLongBits(kupper);
+      long lkwidth = Double.doubleToLongBits(kwidth);
+      long laerror = Double.doubleToLongBits(aerror);
+      return (int)(lklower^(lklower>>>32)) ^
+             (int)(lkupper^(lkupper>>>32)) ^
+             (int)(lkwidth^(lkwidth>>>32)) ^
+             (int)(laerror^(laerror>>>32));
+    }
+    public boolean equals(Object object) {
+      if (this==object)
+        return true;
+      if (object==null || this.getClass()!=object.getClass())
+        return false;
+      Design that = (Design)object;
+      return this.klower==that.klower &&
+             this.kupper==that.kupper &&
+             this.kwidth==that.kwidth &&
+             this.aerror==that.aerror;
+    }
+  }
+
+  /**
+   * Recently used arrays of filter coefficients, for different design
+   * parameters. These arrays are never modified, so they may be shared
+   * by all filters with the same design parameters. Each array is made
+   * only once while cached, and the least recently used arrays are
+   * discarded, so that programs that make filters with many different
+   * designs do not retain coefficients for all of them.
+   */
+  private static abstract class Cache<T> {
+    Cache(int nmax) {
+      _nmax = nmax;
+    }
+    synchronized T get(Design design) {
+      T h = _map.get(design);
+      if (h==null)
+        _map.put(design,h=make(design));
+      return h;
+    }
+    abstract T make(Design design);
+    private int _nmax;
+    private Map<Design,T> _map = new LinkedHashMap<Design,T>(16,0.75f,true) {
+      private static final long serialVersionUID = 1L;
+      protected boolean removeEldestEntry(Map.Entry<Design,T> eldest) {
+        return size()>_nmax;
+      }
+    };
+  }
+  private final static Cache<float[]> _h1s = new Cache<float[]>(16) {
+    float[] make(Design design) {
+      return makeCoefficients1(design);
+    }
+  };
+  private final static Cache<float[][]> _h2s = new Cache<float[][]>(8) {
+    float[][] make(Design design) {
+      return makeCoefficients2(design);
+    }
+  };
+  private final static Cache<float[][][]> _h3s = new Cache<float[][][]>(2) {
+    float[][][] make(Design design) {
+      return makeCoefficients3(design);
+    }
+  };
+  private static float[] getCoefficients1(Design design) {
+    return _h1s.get(design);
+  }
+  private static float[][] getCoefficients2(Design design) {
+    return _h2s.get(design);
+  }
+  private static float[][][] getCoefficients3(Design design) {
+    return _h3s.get(design);
+  }
+
+  /**
+   * Returns Kaiser window weights for lags -kh, ..., 0, ..., kh.
+   */
+  private static double[] makeWindow(Design design) {
+    KaiserWindow kw =
+      KaiserWindow.fromErrorAndWidth(design.aerror,design.kwidth);
+    int nh = ((int)kw.getLength()+1)/2*2+1;
+    int kh = (nh-1)/2;
+    double[] w = new double[nh];
+    for (int ih=0; ih<nh; ++ih)
+      w[ih] = kw.evaluate(ih-kh);
+    return w;
+  }
+
+  // Coefficients are symmetric about the filter origin, so that they are
+  // computed only for non-negative lags and then copied to negative lags.
+
+  private static float[] makeCoefficients1(Design design) {
+    double[] w = makeWindow(design);
+    int nh = w.length;
+    int kh = (nh-1)/2;
+    float[] h = new float[nh];
+    double kus = 2.0*design.kupper;
+    double kls = 2.0*design.klower;
+    for (int j1=0; j1<=kh; ++j1) {
+      double w1 = w[kh+j1];
+      double r = j1;
+      double kur = 2.0*design.kupper*r;
+      double klr = 2.0*design.klower*r;
+      h[kh+j1] = h[kh-j1] = (float)(w1*(kus*h1(kur)-kls*h1(klr)));
+    }
+    return h;
+  }
+
+  private static float[][] makeCoefficients2(final Design design) {
+    final double[] w = makeWindow(design);
+    final int nh = w.length;
+    final int kh = (nh-1)/2;
+    final float[][] h = new float[nh][nh];
+    final double kus = 4.0*design.kupper*design.kupper;
+    final double kls = 4.0*design.klower*design.klower;
+    Parallel.loop(kh+1,new Parallel.LoopInt() {
+    public void compute(int j2) {
+      double x2 = j2;
+      double w2 = w[kh+j2];
+      float[] hp = h[kh+j2];
+      float[] hm = h[kh-j2];
+      for (int j1=0; j1<=kh; ++j1) {
+        double x1 = j1;
+        double w1 = w[kh+j1];
+        double r = sqrt(x1*x1+x2*x2);
+        double kur = 2.0*design.kupper*r;
+        double klr = 2.0*design.klower*r;
+        float hj = (float)(w1*w2*(kus*h2(kur)-kls*h2(klr)));
+        hp[kh+j1] = hp[kh-j1] = hm[kh+j1] = hm[kh-j1] = hj;
+      }
+    }});
+    return h;
+  }
+
+  private static float[][][] makeCoefficients3(final Design design) {
+    final double[] w = makeWindow(design);
+    final int nh = w.length;
+    final int kh = (nh-1)/2;
+    final float[][][] h = new float[nh][nh][nh];
+    final double kus = 8.0*design.kupper*design.kupper*design.kupper;
+    final double kls = 8.0*design.klower*design.klower*design.klower;
+    Parallel.loop(kh+1,new Parallel.LoopInt() {
+    public void compute(int j3) {
+      double x3 = j3;
+      double w3 = w[kh+j3];
+      for (int j2=0; j2<=kh; ++j2) {
+        double x2 = j2;
+        double w2 = w[kh+j2];
+        float[] hpp = h[kh+j3][kh+j2];
+        float[] hpm = h[kh+j3][kh-j2];
+        float[] hmp = h[kh-j3][kh+j2];
+        float[] hmm = h[kh-j3][kh-j2];
+        for (int j1=0; j1<=kh; ++j1) {
+          double x1 = j1;
+          double w1 = w[kh+j1];
+          double r = sqrt(x1*x1+x2*x2+x3*x3);
+          double kur = 2.0*design.kupper*r;
+          double klr = 2.0*design.klower*r;
+          float hj = (float)(w1*w2*w3*(kus*h3(kur)-kls*h3(klr)));
+          hpp[kh+j1] = hpp[kh-j1] = hpm[kh+j1] = hpm[kh-j1] = hj;
+          hmp[kh+j1] = hmp[kh-j1] = hmm[kh+j1] = hmm[kh-j1] = hj;
+        }
+      }
+    }});
+    return h;
+  }
+
   private static double h1(double r) {
     return (r==0.0)?1.0:sin(PI*r)/(PI*r);
   }
@@ -441,6 +441,87 @@ public class CausalFilter {
     }
     Check.state(converged,"Wilson-Burg iterations converged");
   }
+
+  /**
+   * Wilson-Burg factorization for the specified 1-D auto-correlation,
+   * with iterations computed in the frequency domain. Like the method
+   * {@link #factorWilsonBurg(int,float,float[])}, this method
+   * modifies this filter so that its impulse response cascaded with its
+   * transpose approximates the specified auto-correlation. Coefficients
+   * differ only by errors caused by zero-padding of the auto-correlation,
+   * which are small when those iterations converge. The cost of each
+   * iteration is dominated by FFTs of the zero-padded auto-correlation,
+   * not by recursive filtering, so this method is much faster for
+   * filters with many lags.
+   * @param maxiter maximum number of Wilson-Burg iterations.
+   * @param epsilon tolerance for convergence. Iterations have converged
+   *  when the change in all filter coefficients is less than this factor 
+   *  times the square root of the zero-lag of the auto correlation.
+   * @param r the auto-correlation. This 1-D array must have odd length.
+   *  The middle array element is the zero-lag of the auto-correlation,
+   *  and other elements are symmetric about the middle element.
+   * @exception IllegalStateException if Wilson-Burg iterations do not
+   *  converge within the specified maximum number of iterations.
+   */
+  public void factorWilsonBurgFft(int maxiter, float epsilon, float[] r) {
+    Check.argument(r.length%2==1,"r.length is odd");
+    factorWilsonBurgFft(maxiter,epsilon,_lag1,zeroint(_m),zeroint(_m),
+      new float[][][]{{r}});
+  }
+
+  /**
+   * Wilson-Burg factorization for the specified 2-D auto-correlation,
+   * with iterations computed in the frequency domain. Like the method
+   * {@link #factorWilsonBurg(int,float,float[][])}, this method
+   * modifies this filter so that its impulse response cascaded with its
+   * transpose approximates the specified auto-correlation. Coefficients
+   * differ only by errors caused by zero-padding of the auto-correlation,
+   * which are small when those iterations converge. The cost of each
+   * iteration is dominated by FFTs of the zero-padded auto-correlation,
+   * not by recursive filtering, so this method is much faster for
+   * filters with many lags.
+   * FFTs in these iterations are computed in parallel.
+   * @param maxiter maximum number of Wilson-Burg iterations.
+   * @param epsilon tolerance for convergence. Iterations have converged
+   *  when the change in all filter coefficients is less than this factor 
+   *  times the square root of the zero-lag of the auto correlation.
+   * @param r the auto-correlation. This 2-D array must have odd lengths.
+   *  The middle array element is the zero-lag of the auto-correlation,
+   *  and other elements are symmetric about the middle element.
+   * @exception IllegalStateException if Wilson-Burg iterations do not
+   *  converge within the specified maximum number of iterations.
+   */
+  public void factorWilsonBurgFft(int maxiter, float epsilon, float[][] r) {
+    factorWilsonBurgFft(maxiter,epsilon,_lag1,_lag2,zeroint(_m),
+      new float[][][]{r});
+  }
+
+  /**
+   * Wilson-Burg factorization for the specified 3-D auto-correlation,
+   * with iterations computed in the frequency domain. Like the method
+   * {@link #factorWilsonBurg(int,float,float[][][])}, this method
+   * modifies this filter so that its impulse response cascaded with its
+   * transpose approximates the specified auto-correlation. Coefficients
+   * differ only by errors caused by zero-padding of the auto-correlation,
+   * which are small when those iterations converge. The cost of each
+   * iteration is dominated by FFTs of the zero-padded auto-correlation,
+   * not by recursive filtering, so this method is much faster for
+   * filters with many lags.
+   * FFTs in these iterations are computed in parallel.
+   * @param maxiter maximum number of Wilson-Burg iterations.
+   * @param epsilon tolerance for convergence. Iterations have converged
+   *  when the change in all filter coefficients is less than this factor 
+   *  times the square root of the zero-lag of the auto correlation.
+   * @param r the auto-correlation. This 3-D array must have odd lengths.
+   *  The middle array element is the zero-lag of the auto-correlation,
+   *  and other elements are symmetric about the middle element.
+   * @exception IllegalStateException if Wilson-Burg iterations do not
+   *  converge within the specified maximum number of iterations.
+   */
+  public void factorWilsonBurgFft(int maxiter, float epsilon, float[][][] r) {
+    factorWilsonBurgFft(maxiter,epsilon,_lag1,_lag2,_lag3,r);
+  }
+
   /*
   private static void checkA(CausalFilter cf, float[][][] r) {
     float[][][] t = new float[21][21][21];
@@ -1293,6 +1374,15 @@ public class CausalFilter {
     _max3 = max(lag3);
   }
 
+  private void factorWilsonBurgFft(
+    int maxiter, float epsilon,
+    int[] lag1, int[] lag2, int[] lag3, float[][][] r)
+  {
+    WilsonBurg.factor(maxiter,epsilon,lag1,lag2,lag3,r,_a);
+    _a0 = _a[0];
+    _a0i = 1.0f/_a[0];
+  }
+
   private void initA(float[] a) {
     _a = copy(a);
     _a0 = a[0];
@@ -412,4 +412,16 @@ public class EigenTensors2 implements Tensors2 {
   private float[][] _av;
   private float[][] _u1;
   private float[][] _u2;
+
+  // Gets tensor elements for specified indices, with the eigenvectors of
+  // this tensor but the specified eigenvalues. Allocates no arrays, so
+  // that filters may call this method for every sample in every iteration.
+  void getTensor(int i1, int i2, float au, float av, float[] a) {
+    float u1 = _u1[i2][i1];
+    float u2 = _u2[i2][i1];
+    au -= av;
+    a[0] = au*u1*u1+av; // a11
+    a[1] = au*u1*u2   ; // a12
+    a[2] = au*u2*u2+av; // a22
+  }
 }
@@ -735,6 +735,36 @@ public class EigenTensors3 implements Tensors3,Serializable {
   private float[][][] _w1; // w1 not compressed
   private float[][][] _w2; // w2 not compressed
 
+  // Gets tensor elements for specified indices, with the eigenvectors of
+  // this tensor but the specified eigenvalues. Allocates no arrays, so
+  // that filters may call this method for every sample in every iteration.
+  void getTensor(
+    int i1, int i2, int i3, float au, float av, float aw, float[] a)
+  {
+    float u1,u2,u3,w1,w2,w3;
+    if (_compressed) {
+      float[] u = _uss.getPoint(_iu[i3][i2][i1]);
+      u1 = u[0]; u2 = u[1]; u3 = u[2];
+      float[] w = _uss.getPoint(_iw[i3][i2][i1]);
+      w1 = w[0]; w2 = w[1]; w3 = w[2];
+    } else {
+      u1 = _u1[i3][i2][i1];
+      u2 = _u2[i3][i2][i1];
+      u3 = c3(u1,u2);
+      w1 = _w1[i3][i2][i1];
+      w2 = _w2[i3][i2][i1];
+      w3 = c3(w1,w2);
+    }
+    au -= av;
+    aw -= av;
+    a[0] = au*u1*u1+aw*w1*w1+av; // a11
+    a[1] = au*u1*u2+aw*w1*w2   ; // a12
+    a[2] = au*u1*u3+aw*w1*w3   ; // a13
+    a[3] = au*u2*u2+aw*w2*w2+av; // a22
+    a[4] = au*u2*u3+aw*w2*w3   ; // a23
+    a[5] = au*u3*u3+aw*w3*w3+av; // a33
+  }
+
   private static float c3(float c1, float c2) {
     float c3s = 1.0f-c1*c1-c2*c2;
     return (c3s>0.0f)?(float)Math.sqrt(c3s):0.0f;
@@ -15,6 +15,7 @@ limitations under the License.
 package edu.mines.jtk.dsp;
 
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -57,6 +58,10 @@ import static edu.mines.jtk.util.ArrayMath.*;
  * of a cached filter is recomputed only when the lengths of the input 
  * and output arrays have changed. Because this caching consumes memory,
  * it is disabled by default.
+ * <p>
+ * Fourier transforms of 2D and 3D arrays are computed in parallel.
+ * Transforms of rows and slices that are entirely zero, or that do not
+ * contribute to output values, are skipped.
  *
  * @author Dave Hale, Colorado School of Mines
  * @version 2009.12.14
@@ -236,28 +241,17 @@ public class FftFilter {
     int nx1 = x[0].length;
     int nx2 = x.length;
     updateFfts(nx1,nx2);
-    float[][] xfft = new float[_nfft2][_nfft1+2];
+    final float[][] xfft = new float[_nfft2][_nfft1+2];
     copy(nx1,nx2,x,xfft);
     extrapolate(xfft);
-    _fft1.realToComplex1(-1,_nfft2,xfft,xfft);
-    _fft2.complexToComplex2(-1,_nfft1/2+1,xfft,xfft);
-    int nk1 = _nfft1/2+1;
-    int nk2 = _nfft2;
-    for (int ik2=0; ik2<nk2; ++ik2) {
-      float[] x2 = xfft[ik2];
-      float[] h2 = _h2fft[ik2];
-      for (int ik1=0,k1r=0,k1i=1; ik1<nk1; ++ik1,k1r+=2,k1i+=2) {
-        float xr = x2[k1r];
-        float xi = x2[k1i];
-        float hr = h2[k1r];
-        float hi = h2[k1i];
-        x2[k1r] = xr*hr-xi*hi;
-        x2[k1i] = xr*hi+xi*hr;
-      }
-    }
+    forward(xfft);
+    final float[][] hfft = _h2fft;
+    Parallel.loop(_nfft2,new Parallel.LoopInt() {
+    public void compute(int ik2) {
+      multiply(hfft[ik2],xfft[ik2]);
+    }});
     if (!_filterCaching) _h2fft = null;
-    _fft2.complexToComplex2(1,_nfft1/2+1,xfft,xfft);
-    _fft1.complexToReal1(1,_nfft2,xfft,xfft);
+    inverse(nx2,xfft);
     copy(nx1,nx2,xfft,y);
   }
 
@@ -284,33 +278,18 @@ public class FftFilter {
     int nx2 = x[0].length;
     int nx3 = x.length;
     updateFfts(nx1,nx2,nx3);
-    float[][][] xfft = new float[_nfft3][_nfft2][_nfft1+2];
+    final float[][][] xfft = new float[_nfft3][_nfft2][_nfft1+2];
     copy(nx1,nx2,nx3,x,xfft);
     extrapolate(xfft);
-    _fft1.realToComplex1(-1,_nfft2,_nfft3,xfft,xfft);
-    _fft2.complexToComplex2(-1,_nfft1/2+1,_nfft3,xfft,xfft);
-    _fft3.complexToComplex3(-1,_nfft1/2+1,_nfft2,xfft,xfft);
-    int nk1 = _nfft1/2+1;
-    int nk2 = _nfft2;
-    int nk3 = _nfft3;
-    for (int ik3=0; ik3<nk3; ++ik3) {
-      for (int ik2=0; ik2<nk2; ++ik2) {
-        float[] x32 = xfft[ik3][ik2];
-        float[] h32 = _h3fft[ik3][ik2];
-        for (int ik1=0,k1r=0,k1i=1; ik1<nk1; ++ik1,k1r+=2,k1i+=2) {
-          float xr = x32[k1r];
-          float xi = x32[k1i];
-          float hr = h32[k1r];
-          float hi = h32[k1i];
-          x32[k1r] = xr*hr-xi*hi;
-          x32[k1i] = xr*hi+xi*hr;
-        }
-      }
-    }
+    forward(xfft);
+    final float[][][] hfft = _h3fft;
+    Parallel.loop(_nfft3,new Parallel.LoopInt() {
+    public void compute(int ik3) {
+      for (int ik2=0; ik2<_nfft2; ++ik2)
+        multiply(hfft[ik3][ik2],xfft[ik3][ik2]);
+    }});
     if (!_filterCaching) _h3fft = null;
-    _fft3.complexToComplex3(1,_nfft1/2+1,_nfft2,xfft,xfft);
-    _fft2.complexToComplex2(1,_nfft1/2+1,_nfft3,xfft,xfft);
-    _fft1.complexToReal1(1,_nfft2,_nfft3,xfft,xfft);
+    inverse(nx2,nx3,xfft);
     copy(nx1,nx2,nx3,xfft,y);
   }
 
@@ -374,8 +353,7 @@ public class FftFilter {
           _h2fft[jh2][jh1] = scale*_h2[ih2][ih1];
         }
       }
-      _fft1.realToComplex1(-1,_nfft2,_h2fft,_h2fft);
-      _fft2.complexToComplex2(-1,_nfft1/2+1,_h2fft,_h2fft);
+      forward(_h2fft);
     }
   }
 
@@ -407,10 +385,149 @@ public class FftFilter {
           }
         }
       }
-      _fft1.realToComplex1(-1,_nfft2,_nfft3,_h3fft,_h3fft);
-      _fft2.complexToComplex2(-1,_nfft1/2+1,_nfft3,_h3fft,_h3fft);
-      _fft3.complexToComplex3(-1,_nfft1/2+1,_nfft2,_h3fft,_h3fft);
+      forward(_h3fft);
+    }
+  }
+
+  // Number of complex samples with contiguous indices in 1st dimension
+  // in blocks that are transformed together along the 2nd dimension.
+  private static final int NB = 16;
+
+  /**
+   * Multiplies complex samples in x by those in h.
+   */
+  private static void multiply(float[] h, float[] x) {
+    int n = x.length;
+    for (int kr=0,ki=1; kr<n; kr+=2,ki+=2) {
+      float xr = x[kr];
+      float xi = x[ki];
+      float hr = h[kr];
+      float hi = h[ki];
+      x[kr] = xr*hr-xi*hi;
+      x[ki] = xr*hi+xi*hr;
+    }
+  }
+
+  private static boolean isZero(float[] x) {
+    int n = x.length;
+    for (int i=0; i<n; ++i) {
+      if (x[i]!=0.0f)
+        return false;
     }
+    return true;
+  }
+
+  private static boolean isZero(boolean[] z) {
+    int n = z.length;
+    for (int i=0; i<n; ++i) {
+      if (!z[i])
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Forward transform of a 2D array. Rows with only zeros are not
+   * transformed in the 1st dimension; their transforms are zero.
+   */
+  private void forward(final float[][] x) {
+    Parallel.loop(_nfft2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      if (!isZero(x[i2]))
+        _fft1.realToComplex(-1,x[i2],x[i2]);
+    }});
+    transform2(-1,x);
+  }
+
+  /**
+   * Inverse transform of a 2D array. Only the first m2 rows, those
+   * that contain output samples, are transformed in the 1st dimension.
+   */
+  private void inverse(int m2, final float[][] x) {
+    transform2(1,x);
+    Parallel.loop(m2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      _fft1.complexToReal(1,x[i2],x[i2]);
+    }});
+  }
+
+  /**
+   * Forward transform of a 3D array. Rows and slices with only zeros are
+   * not transformed in the 1st and 2nd dimensions.
+   */
+  private void forward(final float[][][] x) {
+    final boolean[][] z = new boolean[_nfft3][_nfft2];
+    Parallel.loop(_nfft3*_nfft2,new Parallel.LoopInt() {
+    public void compute(int i) {
+      int i3 = i/_nfft2;
+      int i2 = i%_nfft2;
+      float[] x32 = x[i3][i2];
+      z[i3][i2] = isZero(x32);
+      if (!z[i3][i2])
+        _fft1.realToComplex(-1,x32,x32);
+    }});
+    Parallel.loop(_nfft3,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      if (!isZero(z[i3]))
+        _fft2.complexToComplex2(-1,_nfft1/2+1,x[i3],x[i3]);
+    }});
+    transform3(-1,x);
+  }
+
+  /**
+   * Inverse transform of a 3D array. Only the first m3 slices and, in
+   * those slices, only the first m2 rows, are transformed in the 2nd and
+   * 1st dimensions.
+   */
+  private void inverse(final int m2, int m3, final float[][][] x) {
+    transform3(1,x);
+    Parallel.loop(m3,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      _fft2.complexToComplex2(1,_nfft1/2+1,x[i3],x[i3]);
+    }});
+    Parallel.loop(m3*m2,new Parallel.LoopInt() {
+    public void compute(int i) {
+      float[] x32 = x[i/m2][i%m2];
+      _fft1.complexToReal(1,x32,x32);
+    }});
+  }
+
+  /**
+   * Transforms the 2nd dimension of a 2D array. Blocks of samples with
+   * contiguous indices in the 1st dimension are copied to a work array,
+   * transformed, and copied back in parallel.
+   */
+  private void transform2(final int sign, final float[][] x) {
+    final int nk1 = _nfft1/2+1;
+    final int nb = (nk1+NB-1)/NB;
+    final Parallel.Unsafe<float[][]> tu = new Parallel.Unsafe<float[][]>();
+    Parallel.loop(nb,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      float[][] t = tu.get();
+      if (t==null) tu.set(t=new float[_nfft2][2*NB]);
+      int j1 = ib*NB;
+      int m1 = min(NB,nk1-j1);
+      for (int i2=0; i2<_nfft2; ++i2)
+        System.arraycopy(x[i2],2*j1,t[i2],0,2*m1);
+      _fft2.complexToComplex2(sign,m1,t,t);
+      for (int i2=0; i2<_nfft2; ++i2)
+        System.arraycopy(t[i2],0,x[i2],2*j1,2*m1);
+    }});
+  }
+
+  /**
+   * Transforms the 3rd dimension of a 3D array. For each index in the
+   * 2nd dimension, the rows for all indices in the 3rd dimension are
+   * transformed in place, in parallel.
+   */
+  private void transform3(final int sign, final float[][][] x) {
+    Parallel.loop(_nfft2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      float[][] x2 = new float[_nfft3][];
+      for (int i3=0; i3<_nfft3; ++i3)
+        x2[i3] = x[i3][i2];
+      _fft3.complexToComplex2(sign,_nfft1/2+1,x2,x2);
+    }});
   }
 
   private void extrapolate(float[] xfft) {
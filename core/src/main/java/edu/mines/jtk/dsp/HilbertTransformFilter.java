@@ -15,6 +15,7 @@ limitations under the License.
 package edu.mines.jtk.dsp;
 
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -28,7 +29,14 @@ import static edu.mines.jtk.util.ArrayMath.*;
  * The ideal Hilbert transform filter is infinitely long. The
  * length of the filter used here is chosen to yield less than a
  * specified maximum error for frequencies between specified lower
- * and upper bounds.
+ * and upper bounds. Alternatively, this filter may be applied with FFTs,
+ * for which the Hilbert transform is ideal for all frequencies, except
+ * for errors caused by zero-padding the ends of the input sequences.
+ * <p>
+ * This filter also computes instantaneous attributes of complex traces
+ * x(t)+iy(t), where y(t) is the Hilbert transform of x(t). For arrays
+ * of 2-D and 3-D traces, these attributes are computed in parallel, one
+ * trace at a time, so that no full-size intermediate arrays are needed.
  * 
  * @author Dave Hale, Colorado School of Mines
  * @version 2010.06.01
@@ -74,9 +82,90 @@ public class HilbertTransformFilter {
    * @param y array[n] of output samples.
    */
   public void apply(int n, float[] x, float[] y) {
-    Conv.conv(_filter.length,-(_filter.length-1)/2,_filter,n,0,x,n,0,y);
+    if (_fft) {
+      applyFft(n,x,y,new Work(n));
+    } else {
+      Conv.conv(_filter.length,-(_filter.length-1)/2,_filter,n,0,x,n,0,y);
+    }
   }
   
+  /**
+   * Applies this Hilbert transform filter along the 1st dimension.
+   * @param x array[n2][n1] of input samples.
+   * @param y array[n2][n1] of output samples.
+   */
+  public void apply(float[][] x, float[][] y) {
+    attributes(x,y,null,null,null);
+  }
+
+  /**
+   * Applies this Hilbert transform filter along the 1st dimension.
+   * @param x array[n3][n2][n1] of input samples.
+   * @param y array[n3][n2][n1] of output samples.
+   */
+  public void apply(float[][][] x, float[][][] y) {
+    attributes(x,y,null,null,null);
+  }
+
+  /**
+   * Computes instantaneous attributes of the complex trace x(t)+iy(t),
+   * where y(t) is the Hilbert transform of x(t). Any of the output arrays
+   * may be null, in which case the corresponding attribute is not computed.
+   * <p>
+   * Envelope is the amplitude of the complex trace. Phase is in radians,
+   * and equals t times the frequency for x(t) = cos(t). Frequency is in
+   * cycles per sample; it is computed from differences of phase between
+   * adjacent samples.
+   * @param x array[n1] of input samples.
+   * @param e array[n1] of output envelope; null, if not computed.
+   * @param p array[n1] of output phase; null, if not computed.
+   * @param f array[n1] of output frequency; null, if not computed.
+   */
+  public void applyForAttributes(float[] x, float[] e, float[] p, float[] f) {
+    Work t = new Work(x.length);
+    attributes(x,t.y,e,p,f,t);
+  }
+
+  /**
+   * Computes instantaneous attributes for an array of 2-D traces.
+   * Traces are indexed by the 1st dimension.
+   * @param x array[n2][n1] of input samples.
+   * @param e array[n2][n1] of output envelope; null, if not computed.
+   * @param p array[n2][n1] of output phase; null, if not computed.
+   * @param f array[n2][n1] of output frequency; null, if not computed.
+   */
+  public void applyForAttributes(
+    float[][] x, float[][] e, float[][] p, float[][] f)
+  {
+    attributes(x,null,e,p,f);
+  }
+
+  /**
+   * Computes instantaneous attributes for an array of 3-D traces.
+   * Traces are indexed by the 1st dimension.
+   * @param x array[n3][n2][n1] of input samples.
+   * @param e array[n3][n2][n1] of output envelope; null, if not computed.
+   * @param p array[n3][n2][n1] of output phase; null, if not computed.
+   * @param f array[n3][n2][n1] of output frequency; null, if not computed.
+   */
+  public void applyForAttributes(
+    float[][][] x, float[][][] e, float[][][] p, float[][][] f)
+  {
+    attributes(x,null,e,p,f);
+  }
+
+  /**
+   * Sets the method used to apply this filter. If true, this filter
+   * is applied by multiplication in the frequency domain, after padding
+   * input sequences with zeros to at least twice their lengths.
+   * Otherwise, this filter is applied by convolution. The default is
+   * convolution.
+   * @param fft true, to apply this filter with FFTs; false, otherwise.
+   */
+  public void setFft(boolean fft) {
+    _fft = fft;
+  }
+
   /**
    * Gets the length of this Hilbert transform filter.
    * @return filter length.
@@ -93,6 +182,132 @@ public class HilbertTransformFilter {
   private static final float FMIN_DEFAULT = 0.025f; // default min frequency.
   private static final float FMAX_DEFAULT = 0.475f; // default max frequency.
   private float[] _filter;
+  private boolean _fft;
+
+  /**
+   * Work arrays for one trace with a specified number of samples: the
+   * Hilbert transform, and, if this filter is applied with FFTs, the FFT
+   * and its array. Parallel loops keep one instance for each thread.
+   */
+  private class Work {
+    Work(int n) {
+      y = new float[n];
+      if (_fft) {
+        int nfft = FftReal.nfftSmall(2*n);
+        fft = new FftReal(nfft);
+        w = new float[nfft+2];
+      }
+    }
+    float[] y; // Hilbert transform
+    FftReal fft; // FFT; null, if applied by convolution
+    float[] w; // array for FFT; null, if applied by convolution
+  }
+
+  private void applyFft(int n, float[] x, float[] y, Work t) {
+    float[] w = t.w;
+    FftReal fft = t.fft;
+    int nfft = w.length-2;
+    copy(n,x,w);
+    for (int i=n; i<nfft+2; ++i)
+      w[i] = 0.0f;
+    fft.realToComplex(-1,w,w);
+
+    // Multiply by i*sign(k), and scale for the inverse transform.
+    float s = 1.0f/nfft;
+    int nk = nfft/2+1;
+    w[0] = w[1] = 0.0f;
+    for (int k=1,kr=2,ki=3; k<nk-1; ++k,kr+=2,ki+=2) {
+      float wr = w[kr];
+      w[kr] = -s*w[ki];
+      w[ki] = s*wr;
+    }
+    w[2*nk-2] = w[2*nk-1] = 0.0f;
+    fft.complexToReal(1,w,w);
+    copy(n,w,y);
+  }
+
+  private void attributes(
+    float[] x, float[] y, float[] e, float[] p, float[] f, Work t)
+  {
+    int n = x.length;
+    if (t.fft!=null) {
+      applyFft(n,x,y,t);
+    } else {
+      Conv.conv(_filter.length,-(_filter.length-1)/2,_filter,n,0,x,n,0,y);
+    }
+
+    // The analytic signal is x-iy, because the sign of y is that
+    // of a derivative, so that the Hilbert transform of sin is cos.
+    for (int i=0; i<n; ++i) {
+      float xi = x[i];
+      float yi = y[i];
+      if (e!=null)
+        e[i] = sqrt(xi*xi+yi*yi);
+      if (p!=null)
+        p[i] = atan2(-yi,xi);
+    }
+    if (f!=null) {
+      if (n==1) {
+        f[0] = 0.0f;
+        return;
+      }
+      float s1 = 0.5f/FLT_PI;
+      float s2 = 0.25f/FLT_PI;
+      f[0] = s1*dphase(x[0],y[0],x[1],y[1]);
+      for (int i=1; i<n-1; ++i)
+        f[i] = s2*dphase(x[i-1],y[i-1],x[i+1],y[i+1]);
+      f[n-1] = s1*dphase(x[n-2],y[n-2],x[n-1],y[n-1]);
+    }
+  }
+
+  /**
+   * Returns the difference between phases of two analytic signal
+   * samples xa-iya and xb-iyb.
+   */
+  private static float dphase(float xa, float ya, float xb, float yb) {
+    return atan2(ya*xb-xa*yb,xa*xb+ya*yb);
+  }
+
+  private void attributes(
+    final float[][] x, final float[][] y,
+    final float[][] e, final float[][] p, final float[][] f)
+  {
+    final int n1 = x[0].length;
+    final int n2 = x.length;
+    final Parallel.Unsafe<Work> tu = new Parallel.Unsafe<Work>();
+    Parallel.loop(n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      Work t = tu.get();
+      if (t==null) tu.set(t=new Work(n1));
+      float[] yi = (y!=null)?y[i2]:t.y;
+      float[] ei = (e!=null)?e[i2]:null;
+      float[] pi = (p!=null)?p[i2]:null;
+      float[] fi = (f!=null)?f[i2]:null;
+      attributes(x[i2],yi,ei,pi,fi,t);
+    }});
+  }
+
+  private void attributes(
+    final float[][][] x, final float[][][] y,
+    final float[][][] e, final float[][][] p, final float[][][] f)
+  {
+    final int n1 = x[0][0].length;
+    final int n2 = x[0].length;
+    final int n3 = x.length;
+    final Parallel.Unsafe<Work> tu = new Parallel.Unsafe<Work>();
+    Parallel.loop(n2*n3,new Parallel.LoopInt() {
+    public void compute(int i) {
+      Work t = tu.get();
+      if (t==null) tu.set(t=new Work(n1));
+      int i2 = i%n2;
+      int i3 = i/n2;
+      float[] yi = (y!=null)?y[i3][i2]:t.y;
+      float[] ei = (e!=null)?e[i3][i2]:null;
+      float[] pi = (p!=null)?p[i3][i2]:null;
+      float[] fi = (f!=null)?f[i3][i2]:null;
+      attributes(x[i3][i2],yi,ei,pi,fi,t);
+    }});
+  }
 
   private static float idealFilter(float x) {
     if (x==0.0f) return 0.0f;
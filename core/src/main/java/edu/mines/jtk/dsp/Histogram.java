@@ -14,8 +14,12 @@ limitations under the License.
 ****************************************************************************/
 package edu.mines.jtk.dsp;
 
-import static edu.mines.jtk.util.ArrayMath.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Float3;
+import edu.mines.jtk.util.Parallel;
+import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
  * A histogram summarizes the distribution of values v in an array.
@@ -40,6 +44,15 @@ import edu.mines.jtk.util.Check;
  * computed automatically. If specified, then only values in the range 
  * [vmin,vmax] are binned, and values outside this range are ignored.
  * <p>
+ * Values may be specified in 1-D, 2-D, or 3-D arrays, or in an abstract
+ * 3-D array {@link edu.mines.jtk.util.Float3}. Multi-dimensional arrays
+ * are processed in parallel, slice by slice, without copying all values,
+ * and with binning identical to that for a 1-D array of the same values.
+ * Each thread accumulates counts in its own partial histogram, and these
+ * partial histograms are merged at the end. Histograms computed for parts
+ * of a large data set with the same specified range and number of bins
+ * may likewise be merged.
+ * <p>
  * Reference: Izenman, A. J., 1991, Recent developments in nonparametric 
  * density estimation: Journal of the American Statistical Association, 
  * v. 86, p. 205-224.
@@ -55,8 +68,7 @@ public class Histogram {
    * @param v the array of values.
    */
   public Histogram(float[] v) {
-    initMinMax(v);
-    init(v,0);
+    this(new Slices(v),0);
   }
 
   /**
@@ -66,8 +78,7 @@ public class Histogram {
    * @param nbin the number of bins.
    */
   public Histogram(float[] v, int nbin) {
-    initMinMax(v);
-    init(v,nbin);
+    this(new Slices(v),nbin);
   }
 
   /**
@@ -79,9 +90,7 @@ public class Histogram {
    * @param vmax the maximum value.
    */
   public Histogram(float[] v, float vmin, float vmax) {
-    Check.argument(vmin<=vmax,"vmin<=vmax");
-    initMinMax(vmin,vmax);
-    init(v,0);
+    this(new Slices(v),vmin,vmax,0);
   }
 
   /**
@@ -93,9 +102,171 @@ public class Histogram {
    * @param nbin the number of bins.
    */
   public Histogram(float[] v, float vmin, float vmax, int nbin) {
-    Check.argument(vmin<=vmax,"vmin<=vmax");
-    initMinMax(vmin,vmax);
-    init(v,nbin);
+    this(new Slices(v),vmin,vmax,nbin);
+  }
+
+  /**
+   * Constructs a histogram for the specified array of values.
+   * Computes the number of bins to obtain a robust estimate of the density 
+   * function. Counts and bins all values.
+   * @param v the array of values.
+   */
+  public Histogram(float[][] v) {
+    this(new Slices(v),0);
+  }
+
+  /**
+   * Constructs a histogram for the specified array of values.
+   * Counts and bins all values.
+   * @param v the array of values.
+   * @param nbin the number of bins.
+   */
+  public Histogram(float[][] v, int nbin) {
+    this(new Slices(v),nbin);
+  }
+
+  /**
+   * Constructs a histogram for the specified array of values.
+   * Computes the number of bins to obtain a robust estimate of the density 
+   * function. Counts and bins only those values in [vmin,vmax].
+   * @param v the array of values.
+   * @param vmin the minimum value.
+   * @param vmax the maximum value.
+   */
+  public Histogram(float[][] v, float vmin, float vmax) {
+    this(new Slices(v),vmin,vmax,0);
+  }
+
+  /**
+   * Constructs a histogram for the specified array of values.
+   * Counts and bins only those values in [vmin,vmax].
+   * @param v the array of values.
+   * @param vmin the minimum value.
+   * @param vmax the maximum value.
+   * @param nbin the number of bins.
+   */
+  public Histogram(float[][] v, float vmin, float vmax, int nbin) {
+    this(new Slices(v),vmin,vmax,nbin);
+  }
+
+  /**
+   * Constructs a histogram for the specified array of values.
+   * Computes the number of bins to obtain a robust estimate of the density 
+   * function. Counts and bins all values.
+   * @param v the array of values.
+   */
+  public Histogram(float[][][] v) {
+    this(new Slices(v),0);
+  }
+
+  /**
+   * Constructs a histogram for the specified array of values.
+   * Counts and bins all values.
+   * @param v the array of values.
+   * @param nbin the number of bins.
+   */
+  public Histogram(float[][][] v, int nbin) {
+    this(new Slices(v),nbin);
+  }
+
+  /**
+   * Constructs a histogram for the specified array of values.
+   * Computes the number of bins to obtain a robust estimate of the density 
+   * function. Counts and bins only those values in [vmin,vmax].
+   * @param v the array of values.
+   * @param vmin the minimum value.
+   * @param vmax the maximum value.
+   */
+  public Histogram(float[][][] v, float vmin, float vmax) {
+    this(new Slices(v),vmin,vmax,0);
+  }
+
+  /**
+   * Constructs a histogram for the specified array of values.
+   * Counts and bins only those values in [vmin,vmax].
+   * @param v the array of values.
+   * @param vmin the minimum value.
+   * @param vmax the maximum value.
+   * @param nbin the number of bins.
+   */
+  public Histogram(float[][][] v, float vmin, float vmax, int nbin) {
+    this(new Slices(v),vmin,vmax,nbin);
+  }
+
+  /**
+   * Constructs a histogram for the specified abstract 3-D array of values.
+   * Computes the number of bins to obtain a robust estimate of the density 
+   * function. Counts and bins all values.
+   * @param f3 the abstract 3-D array of values. Slices of this array
+   *  are got in parallel, so its get methods must be thread-safe.
+   */
+  public Histogram(Float3 f3) {
+    this(new Slices(f3),0);
+  }
+
+  /**
+   * Constructs a histogram for the specified abstract 3-D array of values.
+   * Counts and bins all values.
+   * @param f3 the abstract 3-D array of values. Slices of this array
+   *  are got in parallel, so its get methods must be thread-safe.
+   * @param nbin the number of bins.
+   */
+  public Histogram(Float3 f3, int nbin) {
+    this(new Slices(f3),nbin);
+  }
+
+  /**
+   * Constructs a histogram for the specified abstract 3-D array of values.
+   * Computes the number of bins to obtain a robust estimate of the density 
+   * function. Counts and bins only those values in [vmin,vmax].
+   * @param f3 the abstract 3-D array of values. Slices of this array
+   *  are got in parallel, so its get methods must be thread-safe.
+   * @param vmin the minimum value.
+   * @param vmax the maximum value.
+   */
+  public Histogram(Float3 f3, float vmin, float vmax) {
+    this(new Slices(f3),vmin,vmax,0);
+  }
+
+  /**
+   * Constructs a histogram for the specified abstract 3-D array of values.
+   * Counts and bins only those values in [vmin,vmax].
+   * @param f3 the abstract 3-D array of values. Slices of this array
+   *  are got in parallel, so its get methods must be thread-safe.
+   * @param vmin the minimum value.
+   * @param vmax the maximum value.
+   * @param nbin the number of bins.
+   */
+  public Histogram(Float3 f3, float vmin, float vmax, int nbin) {
+    this(new Slices(f3),vmin,vmax,nbin);
+  }
+
+  /**
+   * Returns a new histogram with counts for values in both this and the 
+   * specified histogram. Both histograms must have the same range 
+   * [vmin,vmax] and the same bin sampling, as for histograms constructed
+   * for parts of a data set with the same specified vmin, vmax, and
+   * number of bins.
+   * @param h the histogram to merge with this histogram.
+   * @return the merged histogram.
+   */
+  public Histogram merge(Histogram h) {
+    Check.argument(_vmin==h._vmin,"vmin of histograms are equal");
+    Check.argument(_vmax==h._vmax,"vmax of histograms are equal");
+    Check.argument(_sbin.isEquivalentTo(h._sbin),
+      "bin samplings of histograms are equivalent");
+    Histogram m = new Histogram();
+    m._vmin = _vmin;
+    m._vmax = _vmax;
+    m._sbin = _sbin;
+    int nbin = _h.length;
+    m._h = new long[nbin];
+    for (int ibin=0; ibin<nbin; ++ibin)
+      m._h[ibin] = _h[ibin]+h._h[ibin];
+    m._nin = _nin+h._nin;
+    m._nlo = _nlo+h._nlo;
+    m._nhi = _nhi+h._nhi;
+    return m;
   }
 
   /**
@@ -198,52 +369,262 @@ public class Histogram {
 
   private float _vmin; // minimum value to count
   private float _vmax; // maximum value to count
-  private boolean _computedMinMax; // true if vmin and vmax not specified
   private Sampling _sbin; // bin sampling
   private long[] _h; // bin counts
   private long _nin; // number of samples in [vmin,vmax]
   private long _nlo; // number of samples < vmin
   private long _nhi; // number of samples > vmax
 
-  private void initMinMax(float[] v) {
-    int n = v.length;
-    _vmin = _vmax = v[0];
-    for (int i=1; i<n; ++i) {
-      float vi = v[i];
-      if (vi<_vmin)
-        _vmin = vi;
-      if (vi>_vmax)
-        _vmax = vi;
+  // Number of sub-bins used to locate percentiles without sorting.
+  // If the number of values in one sub-bin does not exceed NSORT, those 
+  // values are copied into an array and partially sorted.
+  private static final int NSUB = 4096;
+  private static final int NSORT = 1<<20;
+
+  /**
+   * Constructs an empty histogram, for merging.
+   */
+  private Histogram() {
+  }
+
+  /**
+   * Constructs a histogram that counts and bins all values.
+   */
+  private Histogram(Slices s, int nbin) {
+    initMinMax(s);
+    init(s,nbin);
+  }
+
+  /**
+   * Constructs a histogram that counts and bins values in [vmin,vmax].
+   */
+  private Histogram(Slices s, float vmin, float vmax, int nbin) {
+    Check.argument(vmin<=vmax,"vmin<=vmax");
+    initMinMax(vmin,vmax);
+    init(s,nbin);
+  }
+
+  /**
+   * Slices of values, as for a 1-D, 2-D, or 3-D array of values. Slices
+   * are independent subsets of values that may be processed in parallel.
+   * Each slice is an array of arrays of values. For a 2-D array, a slice 
+   * is one 1-D array; for a 3-D array, a slice is one 2-D array.
+   */
+  private static class Slices {
+    Slices(float[] v) {
+      this(new float[][][]{{v}});
+    }
+    Slices(float[][] v) {
+      _n = v.length;
+      _v2 = v;
+    }
+    Slices(float[][][] v) {
+      _n = v.length;
+      _v3 = v;
+    }
+    Slices(Float3 f3) {
+      _n = f3.getN3();
+      _f3 = f3;
+      _buf = new Parallel.Unsafe<float[][]>();
+    }
+    int count() {
+      return _n;
+    }
+    float[][] get(int i) {
+      if (_v3!=null) {
+        return _v3[i];
+      } else if (_v2!=null) {
+        return new float[][]{_v2[i]};
+      } else {
+        int n1 = _f3.getN1();
+        int n2 = _f3.getN2();
+        float[][] b = _buf.get();
+        if (b==null) _buf.set(b=new float[n2][n1]);
+        _f3.get12(n1,n2,0,0,i,b);
+        return b;
+      }
+    }
+    private int _n;
+    private float[][] _v2;
+    private float[][][] _v3;
+    private Float3 _f3;
+    private Parallel.Unsafe<float[][]> _buf; // one slice buffer per thread
+  }
+
+  /**
+   * Partial counts for values in slices processed by one thread.
+   */
+  private static class Counts {
+    long[] h;
+    long nin,nlo,nhi;
+    Counts(int nbin) {
+      h = new long[nbin];
+    }
+    void add(Counts c) {
+      int nbin = h.length;
+      for (int ibin=0; ibin<nbin; ++ibin)
+        h[ibin] += c.h[ibin];
+      nin += c.nin;
+      nlo += c.nlo;
+      nhi += c.nhi;
+    }
+  }
+
+  /**
+   * Counts of values in sub-bins of a range [vlo,vhi], with minimum and 
+   * maximum values in each sub-bin. Because sub-bin indices increase 
+   * monotonically with values, the values in any one sub-bin are exactly
+   * those values in the range bounded by its minimum and maximum values.
+   */
+  private static class SubBins {
+    double vlo,vscl;
+    long[] c;
+    float[] cmin,cmax;
+    SubBins(float vlo, float vhi) {
+      this.vlo = vlo;
+      this.vscl = NSUB/((double)vhi-(double)vlo);
+      c = new long[NSUB];
+      cmin = fillfloat( Float.MAX_VALUE,NSUB);
+      cmax = fillfloat(-Float.MAX_VALUE,NSUB);
+    }
+    int index(float v) {
+      int i = (int)((v-vlo)*vscl);
+      return (i<NSUB)?i:NSUB-1;
     }
-    _computedMinMax = true;
+    void add(SubBins s) {
+      for (int i=0; i<NSUB; ++i) {
+        c[i] += s.c[i];
+        if (s.cmin[i]<cmin[i]) cmin[i] = s.cmin[i];
+        if (s.cmax[i]>cmax[i]) cmax[i] = s.cmax[i];
+      }
+    }
+    long total() {
+      long n = 0;
+      for (int i=0; i<NSUB; ++i)
+        n += c[i];
+      return n;
+    }
+  }
+
+  private void initMinMax(final Slices s) {
+    float[] mm = Parallel.reduce(s.count(),
+      new Parallel.ReduceInt<float[]>() {
+      public float[] compute(int i) {
+        float[][] v = s.get(i);
+        float vmin = v[0][0];
+        float vmax = v[0][0];
+        for (float[] vj:v) {
+          int n = vj.length;
+          for (int k=0; k<n; ++k) {
+            float vk = vj[k];
+            if (vk<vmin)
+              vmin = vk;
+            if (vk>vmax)
+              vmax = vk;
+          }
+        }
+        return new float[]{vmin,vmax};
+      }
+      public float[] combine(float[] mm1, float[] mm2) {
+        return new float[]{min(mm1[0],mm2[0]),max(mm1[1],mm2[1])};
+      }
+    });
+    _vmin = mm[0];
+    _vmax = mm[1];
   }
 
   private void initMinMax(float vmin, float vmax) {
     _vmin = vmin;
     _vmax = vmax;
-    _computedMinMax = false;
   }
 
   /**
-   * Returns a copy of the specified array v. 
-   * Discards values outside the range [vmin,vmax].
+   * Counts values in sub-bins of the range [vlo,vhi], where vlo&lt;vhi.
    */
-  private float[] trim(float[] v) {
-    float[] t;
-    if (_computedMinMax) {
-      t = copy(v);
-    } else {
-      int n = v.length;
-      t = new float[n];
-      int m = 0;
-      for (int i=0; i<n; ++i) {
-        float vi = v[i];
-        if (_vmin<=vi && vi<=_vmax)
-          t[m++] = vi;
+  private static SubBins countSubBins(
+    final Slices s, final float vlo, final float vhi) 
+  {
+    final Parallel.Unsafe<SubBins> sbu = new Parallel.Unsafe<SubBins>();
+    Parallel.loop(s.count(),new Parallel.LoopInt() {
+      public void compute(int i) {
+        SubBins sb = sbu.get();
+        if (sb==null) sbu.set(sb=new SubBins(vlo,vhi));
+        long[] c = sb.c;
+        float[] cmin = sb.cmin;
+        float[] cmax = sb.cmax;
+        for (float[] vj:s.get(i)) {
+          int n = vj.length;
+          for (int k=0; k<n; ++k) {
+            float vk = vj[k];
+            if (vlo<=vk && vk<=vhi) {
+              int ic = sb.index(vk);
+              ++c[ic];
+              if (vk<cmin[ic]) cmin[ic] = vk;
+              if (vk>cmax[ic]) cmax[ic] = vk;
+            }
+          }
+        }
       }
-      if (m<n)
-        t = copy(m,t);
+    });
+    SubBins sb = new SubBins(vlo,vhi);
+    for (SubBins sbi:sbu.getAll())
+      sb.add(sbi);
+    return sb;
+  }
+
+  /**
+   * Returns the k'th smallest value (k = 0 for the smallest value) among
+   * values counted in the specified sub-bins. Repeatedly refines the 
+   * sub-bin that contains the k'th value, until all values in that 
+   * sub-bin are equal or are few enough to be copied and sorted.
+   */
+  private static float select(Slices s, SubBins sb, long k) {
+    for (;;) {
+      int ic = 0;
+      while (k>=sb.c[ic])
+        k -= sb.c[ic++];
+      float vlo = sb.cmin[ic];
+      float vhi = sb.cmax[ic];
+      if (vlo==vhi) {
+        return vlo;
+      } else if (sb.c[ic]<=NSORT) {
+        float[] t = copyValues(s,vlo,vhi,(int)sb.c[ic]);
+        quickPartialSort((int)k,t);
+        return t[(int)k];
+      }
+      sb = countSubBins(s,vlo,vhi);
     }
+  }
+
+  /**
+   * Returns an array with copies of the n values in the range [vlo,vhi].
+   */
+  private static float[] copyValues(
+    final Slices s, final float vlo, final float vhi, int n)
+  {
+    final float[] t = new float[n];
+    final AtomicInteger nt = new AtomicInteger(0);
+    Parallel.loop(s.count(),new Parallel.LoopInt() {
+      public void compute(int i) {
+        float[][] v = s.get(i);
+        int m = 0;
+        for (float[] vj:v) {
+          for (float vk:vj) {
+            if (vlo<=vk && vk<=vhi)
+              ++m;
+          }
+        }
+        if (m>0) {
+          int j = nt.getAndAdd(m);
+          for (float[] vj:v) {
+            for (float vk:vj) {
+              if (vlo<=vk && vk<=vhi)
+                t[j++] = vk;
+            }
+          }
+        }
+      }
+    });
     return t;
   }
 
@@ -251,7 +632,7 @@ public class Histogram {
    * Initializes the histogram. If nbin is zero, then this method computes
    * the number of bins.
    */
-  private void init(float[] v, int nbin) {
+  private void init(final Slices s, int nbin) {
 
     // Bin width must be positive.
     double dbin = (_vmax-_vmin)/max(1,nbin);
@@ -268,19 +649,17 @@ public class Histogram {
       if (_vmin<_vmax) {
 
         // Count only those values in [vmin,vmax].
-        float[] t = trim(v);
-        int n = t.length;
+        SubBins sb = countSubBins(s,_vmin,_vmax);
+        long n = sb.total();
 
         // If there exists at least one such value, ...
         if (n>0) {
 
           // Compute 25th and 75th percentiles.
-          int k25 = (int)rint(0.25*(n-1));
-          quickPartialSort(k25,t);
-          double v25 = t[k25];
-          int k75 = (int)rint(0.75*(n-1));
-          quickPartialSort(k75,t);
-          double v75 = t[k75];
+          long k25 = (long)rint(0.25*(n-1));
+          double v25 = select(s,sb,k25);
+          long k75 = (long)rint(0.75*(n-1));
+          double v75 = select(s,sb,k75);
 
           // Compute number and width of bins.
           if (v25<v75) {
@@ -291,32 +670,50 @@ public class Histogram {
         }
       }
     }
-    double fbin = _vmin+0.5*dbin;
+    final double fbin = _vmin+0.5*dbin;
     _sbin = new Sampling(nbin,dbin,fbin);
 
-    // Count binned values.
-    double vscl = 1.0/dbin;
-    int n = v.length;
-    _nlo = 0;
-    _nhi = 0;
-    _h = new long[nbin];
-    _nin = 0;
-    for (int i=0; i<n; ++i) {
-      float vi = v[i];
-      if (vi<_vmin) {
-        ++_nlo;
-      } else if (vi>_vmax) {
-        ++_nhi;
-      } else {
-        int ibin = (int)rint((vi-fbin)*vscl);
-        if (ibin<0) {
-          ibin = 0;
-        } else if (ibin>=nbin) {
-          ibin = nbin-1;
+    // Count binned values, in partial counts for each thread.
+    final float vmin = _vmin;
+    final float vmax = _vmax;
+    final int mbin = nbin;
+    final double vscl = 1.0/dbin;
+    final Parallel.Unsafe<Counts> cu = new Parallel.Unsafe<Counts>();
+    Parallel.loop(s.count(),new Parallel.LoopInt() {
+      public void compute(int i) {
+        Counts c = cu.get();
+        if (c==null) cu.set(c=new Counts(mbin));
+        long[] h = c.h;
+        for (float[] vj:s.get(i)) {
+          int n = vj.length;
+          for (int k=0; k<n; ++k) {
+            float vk = vj[k];
+            if (vk<vmin) {
+              ++c.nlo;
+            } else if (vk>vmax) {
+              ++c.nhi;
+            } else {
+              int ibin = (int)rint((vk-fbin)*vscl);
+              if (ibin<0) {
+                ibin = 0;
+              } else if (ibin>=mbin) {
+                ibin = mbin-1;
+              }
+              ++h[ibin];
+              ++c.nin;
+            }
+          }
         }
-        ++_h[ibin];
-        ++_nin;
       }
-    }
+    });
+
+    // Merge partial counts.
+    Counts c = new Counts(nbin);
+    for (Counts ci:cu.getAll())
+      c.add(ci);
+    _h = c.h;
+    _nin = c.nin;
+    _nlo = c.nlo;
+    _nhi = c.nhi;
   }
 }
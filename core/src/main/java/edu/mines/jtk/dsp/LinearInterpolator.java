@@ -14,6 +14,8 @@ limitations under the License.
 ****************************************************************************/
 package edu.mines.jtk.dsp;
 
+import edu.mines.jtk.util.Parallel;
+
 /**
  * A linear interpolator for uniformly-sampled functions y(x). 
  * Interpolation of functions y(x1,x2) is bi-linear.
@@ -160,6 +162,53 @@ public class LinearInterpolator {
       y[ix] = interpolate(fx+ix*dx);
   }
 
+  /**
+   * Interpolates the current uniform samples as real numbers.
+   * @param sx the sampling of values x at which to interpolate y(x).
+   * @param y array[sx.getCount()] of interpolated output y(x).
+   */
+  public void interpolate(Sampling sx, float[] y) {
+    int nx = sx.getCount();
+    if (sx.isUniform()) {
+      interpolate(nx,sx.getDelta(),sx.getFirst(),y);
+    } else {
+      for (int ix=0; ix<nx; ++ix)
+        y[ix] = interpolate(sx.getValue(ix));
+    }
+  }
+
+  /**
+   * Interpolates multiple sequences of uniform samples as real numbers.
+   * All sequences share the current uniform sampling, so that indices
+   * and weights used to interpolate are computed only once, and then
+   * reused for all sequences. Sequences are interpolated in parallel.
+   * This method ignores any current uniform samples.
+   * @param nx the number of output samples.
+   * @param x array[nx] of values x at which to interpolate y(x).
+   * @param yu array[n2][nxu] of sequences of uniform samples.
+   * @param y array[n2][nx] of interpolated output y(x).
+   */
+  public void interpolate(int nx, float[] x, float[][] yu, float[][] y) {
+    double[] xd = new double[nx];
+    for (int ix=0; ix<nx; ++ix)
+      xd[ix] = x[ix];
+    interpolate(makeTable(xd),yu,y);
+  }
+
+  /**
+   * Interpolates multiple sequences of uniform samples as real numbers.
+   * All sequences share the current uniform sampling, so that indices
+   * and weights used to interpolate are computed only once, and then
+   * reused for all sequences. Sequences are interpolated in parallel.
+   * This method ignores any current uniform samples.
+   * @param sx the sampling of values x at which to interpolate y(x).
+   * @param yu array[n2][nxu] of sequences of uniform samples.
+   * @param y array[n2][sx.getCount()] of interpolated output y(x).
+   */
+  public void interpolate(Sampling sx, float[][] yu, float[][] y) {
+    interpolate(makeTable(sx.getValues()),yu,y);
+  }
+
   /**
    * Sets the current sampling for a uniformly-sampled function y(x1,x2).
    * In some applications, this sampling never changes, and this method 
@@ -519,4 +568,68 @@ public class LinearInterpolator {
   // Current 2-D or 3-D uniform samples.
   private float[][] _yyu;
   private float[][][] _yyyu;
+
+  /**
+   * Indices and weights for interpolation of uniform samples.
+   * Extrapolation is included, so that each interpolated value is
+   * simply y = w0*yu[k0]+w1*yu[k1].
+   */
+  private static class Table {
+    int nx;
+    int[] k0,k1;
+    float[] w0,w1;
+  }
+
+  private Table makeTable(double[] x) {
+    Table t = new Table();
+    int nx = t.nx = x.length;
+    int[] k0 = t.k0 = new int[nx];
+    int[] k1 = t.k1 = new int[nx];
+    float[] w0 = t.w0 = new float[nx];
+    float[] w1 = t.w1 = new float[nx];
+    for (int ix=0; ix<nx; ++ix) {
+      double xn = _xb+x[ix]*_xs;
+      int ixn = (int)xn;
+      float a1 = (float)(xn-ixn);
+      float a0 = 1.0f-a1;
+      int kyu = ixn-2;
+      if (0<=kyu && kyu<_nxum) {
+        k0[ix] = kyu;
+        k1[ix] = kyu+1;
+        w0[ix] = a0;
+        w1[ix] = a1;
+      } else if (_extrap==Extrapolation.ZERO) {
+        boolean in0 = 0<=kyu && kyu<_nxu;
+        boolean in1 = 0<=kyu+1 && kyu+1<_nxu;
+        k0[ix] = (in0)?kyu:0;
+        k1[ix] = (in1)?kyu+1:0;
+        w0[ix] = (in0)?a0:0.0f;
+        w1[ix] = (in1)?a1:0.0f;
+      } else { // Extrapolation.CONSTANT
+        k0[ix] = (kyu<0)?0:(_nxu<=kyu)?_nxum:kyu;
+        ++kyu;
+        k1[ix] = (kyu<0)?0:(_nxu<=kyu)?_nxum:kyu;
+        w0[ix] = a0;
+        w1[ix] = a1;
+      }
+    }
+    return t;
+  }
+
+  private static void interpolate(
+    final Table t, final float[][] yu, final float[][] y)
+  {
+    final int nx = t.nx;
+    final int[] k0 = t.k0;
+    final int[] k1 = t.k1;
+    final float[] w0 = t.w0;
+    final float[] w1 = t.w1;
+    Parallel.loop(yu.length,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      float[] yui = yu[i2];
+      float[] yi = y[i2];
+      for (int ix=0; ix<nx; ++ix)
+        yi[ix] = w0[ix]*yui[k0[ix]]+w1[ix]*yui[k1[ix]];
+    }});
+  }
 }
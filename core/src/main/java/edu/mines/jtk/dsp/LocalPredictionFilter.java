@@ -15,9 +15,11 @@ limitations under the License.
 package edu.mines.jtk.dsp;
 
 import java.util.ArrayList;
+import java.util.logging.Logger;
 
 import static edu.mines.jtk.util.ArrayMath.*;
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 
 /**
  * Local prediction filtering.
@@ -40,152 +42,179 @@ public class LocalPredictionFilter {
       sigma);
   }
 
+  /**
+   * Sets decimation factors for the grid of samples for which prediction
+   * coefficients are computed. Coefficients for other samples are then
+   * linearly interpolated. Memory required for correlations and time
+   * required to compute coefficients are reduced by the product of these
+   * factors. Default factors are one, for no decimation.
+   * @param d1 decimation factor for 1st dimension.
+   * @param d2 decimation factor for 2nd dimension.
+   * @param d3 decimation factor for 3rd dimension; ignored for 2D images.
+   */
+  public void setDecimation(int d1, int d2, int d3) {
+    Check.argument(d1>=1,"d1>=1");
+    Check.argument(d2>=1,"d2>=1");
+    Check.argument(d3>=1,"d3>=1");
+    _d1 = d1;
+    _d2 = d2;
+    _d3 = d3;
+  }
+
+  /**
+   * Applies local prediction filters to a 2D image. For each lag j, a
+   * prediction coefficient a[j][i2][i1] is computed for every sample, and
+   * g[i2][i1] is the sum over lags of a[j][i2][i1]*f[i2-lag2[j]][i1-lag1[j]].
+   * @param lag1 array of lags in 1st dimension.
+   * @param lag2 array of lags in 2nd dimension.
+   * @param f input image.
+   * @param g output predicted image; must be distinct from f.
+   * @return array[nlag][n2][n1] of prediction coefficients.
+   */
   public float[][][] apply(int[] lag1, int[] lag2, float[][] f, float[][] g) {
     Check.argument(lag1.length==lag2.length,"lag1.length==lag2.length");
     Check.argument(f!=g,"f!=g");
 
-    // Compute local auto-correlation for all necessary lags.
-    R2Cache rcache = new R2Cache(f);
-    int m = lag1.length;
-    float[][][][] rkj = new float[m][m][][];
-    float[][][] rk0 = new float[m][][];
-    for (int k=0; k<m; ++k) {
-      int k1 = lag1[k];
-      int k2 = lag2[k];
-      for (int j=0; j<m; ++j) {
-        int j1 = lag1[j];
-        int j2 = lag2[j];
-        rkj[k][j] = rcache.get(j1-k1,j2-k2);
-      }
-      rk0[k] = rcache.get(k1,k2);
-    }
-
     // Compute prediction filters.
     int n1 = f[0].length;
     int n2 = f.length;
-    double[][] rkjt = new double[m][m];
-    double[] rk0t = new double[m];
-    double[] at = new double[m];
-    float[][][] a = new float[m][n2][n1];
-    CgSolver cgs = new CgSolver(m,100);
-    //DirectSolver ds = new DirectSolver(m);
-    double niter = 0.0;
-    for (int i2=0; i2<n2; ++i2) {
-      int i1b = (i2%2==0)?0:n1-1;
-      int i1e = (i2%2==0)?n1:-1;
-      int i1s = (i2%2==0)?1:-1;
-      for (int i1=i1b; i1!=i1e; i1+=i1s) {
-        for (int k=0; k<m; ++k) {
-          for (int j=0; j<m; ++j)
-            rkjt[k][j] = rkj[k][j][i2][i1];
-          rk0t[k] = rk0[k][i2][i1];
-        }
-        niter += cgs.solve(rkjt,rk0t,at);
-        //boolean bad = ds.solve(rkjt,rk0t,at);
-        //if (bad)
-        //  System.out.println("bad for i1="+i1+" i2="+i2);
-        for (int i=0; i<m; ++i)
-          a[i][i2][i1] = (float)at[i];
-      }
+    int m = lag1.length;
+    float[][][] a = solve(lag1,lag2,f);
+    if (a[0][0].length!=n1 || a[0].length!=n2) {
+      float[][][] b = a;
+      a = new float[m][n2][n1];
+      for (int j=0; j<m; ++j)
+        interpolate(b[j],a[j]);
     }
-    niter /= n1;
-    niter /= n2;
-    System.out.println("Average number of CG iterations = "+niter);
 
     // Apply prediction filters.
     zero(g);
-    for (int j=0; j<m; ++j) {
-      int j1 = lag1[j];
-      int j2 = lag2[j];
-      float[][] aj = a[j];
-      int i1min = max(0,j1);
-      int i1max = min(n1,n1+j1);
-      int i2min = max(0,j2);
-      int i2max = min(n2,n2+j2);
-      for (int i2=i2min; i2<i2max; ++i2) {
-        for (int i1=i1min; i1<i1max; ++i1) {
-          g[i2][i1] += aj[i2][i1]*f[i2-j2][i1-j1];
-        }
-      }
-    }
+    for (int j=0; j<m; ++j)
+      accumulate(1.0f,lag1[j],lag2[j],a[j],f,g);
 
     return a;
-    //return rcache.get();
-    
-    //copy(div(rcache.get(1,1),rcache.get(0,0)),g);
-    //copy(a[0],g);
-    //copy(a[m-1],f);
   }
 
+  /**
+   * Applies local prediction error filters to a 2D image. The output
+   * g is the input f minus the image predicted as for the method apply.
+   * Prediction coefficients for one lag at a time are interpolated, if
+   * decimated, so that less memory is required than for that method.
+   * @param lag1 array of lags in 1st dimension.
+   * @param lag2 array of lags in 2nd dimension.
+   * @param f input image.
+   * @param g output prediction error; must be distinct from f.
+   */
   public void applyPef(int[] lag1, int[] lag2, float[][] f, float[][] g) {
     Check.argument(lag1.length==lag2.length,"lag1.length==lag2.length");
     Check.argument(f!=g,"f!=g");
 
-    // Compute local auto-correlation for all necessary lags.
-    R2Cache rcache = new R2Cache(f);
+    // Compute prediction filters.
+    int n1 = f[0].length;
+    int n2 = f.length;
     int m = lag1.length;
-    float[][][][] rkj = new float[m][m][][];
-    float[][][] rk0 = new float[m][][];
-    for (int k=0; k<m; ++k) {
-      int k1 = lag1[k];
-      int k2 = lag2[k];
-      for (int j=0; j<m; ++j) {
-        int j1 = lag1[j];
-        int j2 = lag2[j];
-        rkj[k][j] = rcache.get(j1-k1,j2-k2);
+    float[][][] b = solve(lag1,lag2,f);
+
+    // Apply prediction error filters, one lag at a time.
+    boolean decimated = b[0][0].length!=n1 || b[0].length!=n2;
+    float[][] aj = (decimated)?new float[n2][n1]:null;
+    copy(f,g);
+    for (int j=0; j<m; ++j) {
+      if (decimated) {
+        interpolate(b[j],aj);
+      } else {
+        aj = b[j];
       }
-      rk0[k] = rcache.get(k1,k2);
+      accumulate(-1.0f,lag1[j],lag2[j],aj,f,g);
     }
+  }
+
+  /**
+   * Applies local prediction filters to a 3D image. For each lag j, a
+   * prediction coefficient a[j][i3][i2][i1] is computed for every sample,
+   * and g[i3][i2][i1] is the sum over lags of a[j][i3][i2][i1] times
+   * f[i3-lag3[j]][i2-lag2[j]][i1-lag1[j]].
+   * @param lag1 array of lags in 1st dimension.
+   * @param lag2 array of lags in 2nd dimension.
+   * @param lag3 array of lags in 3rd dimension.
+   * @param f input image.
+   * @param g output predicted image; must be distinct from f.
+   * @return array[nlag][n3][n2][n1] of prediction coefficients.
+   */
+  public float[][][][] apply(
+    int[] lag1, int[] lag2, int[] lag3, float[][][] f, float[][][] g)
+  {
+    Check.argument(lag1.length==lag2.length,"lag1.length==lag2.length");
+    Check.argument(lag1.length==lag3.length,"lag1.length==lag3.length");
+    Check.argument(f!=g,"f!=g");
 
     // Compute prediction filters.
-    int n1 = f[0].length;
-    int n2 = f.length;
-    double[][] rkjt = new double[m][m];
-    double[] rk0t = new double[m];
-    double[] at = new double[m];
-    float[][][] a = new float[m][n2][n1];
-    CgSolver cgs = new CgSolver(m,100);
-    double niter = 0.0;
-    for (int i2=0; i2<n2; ++i2) {
-      int i1b = (i2%2==0)?0:n1-1;
-      int i1e = (i2%2==0)?n1:-1;
-      int i1s = (i2%2==0)?1:-1;
-      for (int i1=i1b; i1!=i1e; i1+=i1s) {
-        for (int k=0; k<m; ++k) {
-          for (int j=0; j<m; ++j)
-            rkjt[k][j] = rkj[k][j][i2][i1];
-          rk0t[k] = rk0[k][i2][i1];
-        }
-        niter += cgs.solve(rkjt,rk0t,at);
-        for (int i=0; i<m; ++i)
-          a[i][i2][i1] = (float)at[i];
-      }
+    int n1 = f[0][0].length;
+    int n2 = f[0].length;
+    int n3 = f.length;
+    int m = lag1.length;
+    float[][][][] a = solve(lag1,lag2,lag3,f);
+    if (a[0][0][0].length!=n1 || a[0][0].length!=n2 || a[0].length!=n3) {
+      float[][][][] b = a;
+      a = new float[m][n3][n2][n1];
+      for (int j=0; j<m; ++j)
+        interpolate(b[j],a[j]);
     }
-    niter /= n1;
-    niter /= n2;
-    System.out.println("Average number of CG iterations = "+niter);
 
-    // Apply prediction error filters.
+    // Apply prediction filters.
+    zero(g);
+    for (int j=0; j<m; ++j)
+      accumulate(1.0f,lag1[j],lag2[j],lag3[j],a[j],f,g);
+
+    return a;
+  }
+
+  /**
+   * Applies local prediction error filters to a 3D image. The output
+   * g is the input f minus the image predicted as for the method apply.
+   * Prediction coefficients for one lag at a time are interpolated, if
+   * decimated, so that less memory is required than for that method.
+   * @param lag1 array of lags in 1st dimension.
+   * @param lag2 array of lags in 2nd dimension.
+   * @param lag3 array of lags in 3rd dimension.
+   * @param f input image.
+   * @param g output prediction error; must be distinct from f.
+   */
+  public void applyPef(
+    int[] lag1, int[] lag2, int[] lag3, float[][][] f, float[][][] g)
+  {
+    Check.argument(lag1.length==lag2.length,"lag1.length==lag2.length");
+    Check.argument(lag1.length==lag3.length,"lag1.length==lag3.length");
+    Check.argument(f!=g,"f!=g");
+
+    // Compute prediction filters.
+    int n1 = f[0][0].length;
+    int n2 = f[0].length;
+    int n3 = f.length;
+    int m = lag1.length;
+    float[][][][] b = solve(lag1,lag2,lag3,f);
+
+    // Apply prediction error filters, one lag at a time.
+    boolean decimated =
+      b[0][0][0].length!=n1 || b[0][0].length!=n2 || b[0].length!=n3;
+    float[][][] aj = (decimated)?new float[n3][n2][n1]:null;
     copy(f,g);
     for (int j=0; j<m; ++j) {
-      int j1 = lag1[j];
-      int j2 = lag2[j];
-      float[][] aj = a[j];
-      int i1min = max(0,j1);
-      int i1max = min(n1,n1+j1);
-      int i2min = max(0,j2);
-      int i2max = min(n2,n2+j2);
-      for (int i2=i2min; i2<i2max; ++i2) {
-        for (int i1=i1min; i1<i1max; ++i1) {
-          g[i2][i1] -= aj[i2][i1]*f[i2-j2][i1-j1];
-        }
+      if (decimated) {
+        interpolate(b[j],aj);
+      } else {
+        aj = b[j];
       }
+      accumulate(-1.0f,lag1[j],lag2[j],lag3[j],aj,f,g);
     }
   }
 
   ///////////////////////////////////////////////////////////////////////////
   // private
 
+  private static Logger log =
+    Logger.getLogger(LocalPredictionFilter.class.getName());
+
   /*
   private static class DirectSolver {
     DirectSolver(int m) {
@@ -306,49 +335,380 @@ public class LocalPredictionFilter {
   private class R2 {
     int l1,l2;
     float[][] r;
-    R2(int l1, int l2, float[][] f) {
+    R2(int l1, int l2, float[][] f, int[] k1, int[] k2) {
       int n1 = f[0].length;
       int n2 = f.length;
       this.l1 = l1;
       this.l2 = l2;
-      this.r = new float[n2][n1];
+      float[][] r = new float[n2][n1];
       _lcf.setInputs(f,f);
       _lcf.correlate(l1,l2,r);
-      if (l1==0 && l2==0) {
-        for (int i2=0; i2<n2; ++i2) {
-          for (int i1=0; i1<n1; ++i1) {
-            r[i2][i1] *= 1.01f;
-          }
-        }
-      }
+      this.r = subsample(k1,k2,r);
+      if (l1==0 && l2==0)
+        mul(1.01f,this.r,this.r);
     }
   }
   private class R2Cache {
-    R2Cache(float[][] f) {
+    R2Cache(float[][] f, int[] k1, int[] k2) {
       _f = f;
-    }
-    float[][][] get() {
-      int n = _rlist.size();
-      float[][][] r = new float[n][][];
-      int i = 0;
-      for (R2 r2 : _rlist) {
-        r[i] = r2.r;
-        ++i;
-      }
-      return r;
+      _k1 = k1;
+      _k2 = k2;
     }
     float[][] get(int l1, int l2) {
       for (R2 r2 : _rlist) {
         if (l1==r2.l1 && l2==r2.l2 || -l1==r2.l1 && -l2==r2.l2)
           return r2.r;
       }
-      R2 r2 = new R2(l1,l2,_f);
+      R2 r2 = new R2(l1,l2,_f,_k1,_k2);
       _rlist.add(r2);
       return r2.r;
     }
     float[][] _f;
+    int[] _k1,_k2;
     ArrayList<R2> _rlist = new ArrayList<R2>();
   }
 
+  private class R3 {
+    int l1,l2,l3;
+    float[][][] r;
+    R3(int l1, int l2, int l3, float[][][] f, int[] k1, int[] k2, int[] k3) {
+      int n1 = f[0][0].length;
+      int n2 = f[0].length;
+      int n3 = f.length;
+      this.l1 = l1;
+      this.l2 = l2;
+      this.l3 = l3;
+      float[][][] r = new float[n3][n2][n1];
+      _lcf.setInputs(f,f);
+      _lcf.correlate(l1,l2,l3,r);
+      this.r = subsample(k1,k2,k3,r);
+      if (l1==0 && l2==0 && l3==0)
+        mul(1.01f,this.r,this.r);
+    }
+  }
+  private class R3Cache {
+    R3Cache(float[][][] f, int[] k1, int[] k2, int[] k3) {
+      _f = f;
+      _k1 = k1;
+      _k2 = k2;
+      _k3 = k3;
+    }
+    float[][][] get(int l1, int l2, int l3) {
+      for (R3 r3 : _rlist) {
+        if (l1==r3.l1 && l2==r3.l2 && l3==r3.l3 ||
+            -l1==r3.l1 && -l2==r3.l2 && -l3==r3.l3)
+          return r3.r;
+      }
+      R3 r3 = new R3(l1,l2,l3,_f,_k1,_k2,_k3);
+      _rlist.add(r3);
+      return r3.r;
+    }
+    float[][][] _f;
+    int[] _k1,_k2,_k3;
+    ArrayList<R3> _rlist = new ArrayList<R3>();
+  }
+
   private LocalCorrelationFilter _lcf;
+  private int _d1 = 1; // decimation factor for 1st dimension
+  private int _d2 = 1; // decimation factor for 2nd dimension
+  private int _d3 = 1; // decimation factor for 3rd dimension
+
+  /**
+   * Computes prediction coefficients for the decimated grid of samples.
+   * Normal equations for different rows of that grid are solved in
+   * parallel, and the solution for each sample is the initial guess for
+   * the next sample in its row.
+   */
+  private float[][][] solve(int[] lag1, int[] lag2, float[][] f) {
+    int n1 = f[0].length;
+    int n2 = f.length;
+    final int[] k1 = samples(n1,_d1);
+    final int[] k2 = samples(n2,_d2);
+
+    // Compute local auto-correlation for all necessary lags.
+    R2Cache rcache = new R2Cache(f,k1,k2);
+    final int m = lag1.length;
+    final float[][][][] rkj = new float[m][m][][];
+    final float[][][] rk0 = new float[m][][];
+    for (int k=0; k<m; ++k) {
+      int l1 = lag1[k];
+      int l2 = lag2[k];
+      for (int j=0; j<m; ++j) {
+        int j1 = lag1[j];
+        int j2 = lag2[j];
+        rkj[k][j] = rcache.get(j1-l1,j2-l2);
+      }
+      rk0[k] = rcache.get(l1,l2);
+    }
+
+    // Compute prediction filters.
+    final int m1 = k1.length;
+    final int m2 = k2.length;
+    final float[][][] a = new float[m][m2][m1];
+    final double[] niter = new double[m2];
+    Parallel.loop(m2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      double[][] rkjt = new double[m][m];
+      double[] rk0t = new double[m];
+      double[] at = new double[m];
+      CgSolver cgs = new CgSolver(m,100);
+      for (int i1=0; i1<m1; ++i1) {
+        for (int k=0; k<m; ++k) {
+          for (int j=0; j<m; ++j)
+            rkjt[k][j] = rkj[k][j][i2][i1];
+          rk0t[k] = rk0[k][i2][i1];
+        }
+        niter[i2] += cgs.solve(rkjt,rk0t,at);
+        for (int i=0; i<m; ++i)
+          a[i][i2][i1] = (float)at[i];
+      }
+    }});
+    log.fine("Average number of CG iterations = "+sum(niter)/m1/m2);
+    return a;
+  }
+
+  private float[][][][] solve(
+    int[] lag1, int[] lag2, int[] lag3, float[][][] f)
+  {
+    int n1 = f[0][0].length;
+    int n2 = f[0].length;
+    int n3 = f.length;
+    final int[] k1 = samples(n1,_d1);
+    final int[] k2 = samples(n2,_d2);
+    final int[] k3 = samples(n3,_d3);
+
+    // Compute local auto-correlation for all necessary lags.
+    R3Cache rcache = new R3Cache(f,k1,k2,k3);
+    final int m = lag1.length;
+    final float[][][][][] rkj = new float[m][m][][][];
+    final float[][][][] rk0 = new float[m][][][];
+    for (int k=0; k<m; ++k) {
+      int l1 = lag1[k];
+      int l2 = lag2[k];
+      int l3 = lag3[k];
+      for (int j=0; j<m; ++j) {
+        int j1 = lag1[j];
+        int j2 = lag2[j];
+        int j3 = lag3[j];
+        rkj[k][j] = rcache.get(j1-l1,j2-l2,j3-l3);
+      }
+      rk0[k] = rcache.get(l1,l2,l3);
+    }
+
+    // Compute prediction filters.
+    final int m1 = k1.length;
+    final int m2 = k2.length;
+    final int m3 = k3.length;
+    final float[][][][] a = new float[m][m3][m2][m1];
+    final double[] niter = new double[m3*m2];
+    Parallel.loop(m3*m2,new Parallel.LoopInt() {
+    public void compute(int i) {
+      int i3 = i/m2;
+      int i2 = i%m2;
+      double[][] rkjt = new double[m][m];
+      double[] rk0t = new double[m];
+      double[] at = new double[m];
+      CgSolver cgs = new CgSolver(m,100);
+      for (int i1=0; i1<m1; ++i1) {
+        for (int k=0; k<m; ++k) {
+          for (int j=0; j<m; ++j)
+            rkjt[k][j] = rkj[k][j][i3][i2][i1];
+          rk0t[k] = rk0[k][i3][i2][i1];
+        }
+        niter[i] += cgs.solve(rkjt,rk0t,at);
+        for (int j=0; j<m; ++j)
+          a[j][i3][i2][i1] = (float)at[j];
+      }
+    }});
+    log.fine("Average number of CG iterations = "+sum(niter)/m1/m2/m3);
+    return a;
+  }
+
+  /**
+   * Returns indices 0, d, 2*d, ... of decimated samples. The last index
+   * is always n-1, so that coefficients need not be extrapolated.
+   */
+  private static int[] samples(int n, int d) {
+    int m = (n-1+d-1)/d+1;
+    int[] k = new int[m];
+    for (int j=0; j<m; ++j)
+      k[j] = min(j*d,n-1);
+    return k;
+  }
+
+  /**
+   * Computes indices j and weights w for linear interpolation from
+   * decimated samples k to all n samples. Sample i is interpolated
+   * from decimated samples j[i] and j[i]+1 (or j[i] only, if there is
+   * only one decimated sample) with weights 1-w[i] and w[i].
+   */
+  private static void weights(int[] k, int n, int[] j, float[] w) {
+    int m = k.length;
+    for (int i=0,jl=0; i<n; ++i) {
+      if (m==1) {
+        j[i] = 0;
+        w[i] = 0.0f;
+      } else {
+        while (jl<m-2 && k[jl+1]<=i)
+          ++jl;
+        j[i] = jl;
+        w[i] = (float)(i-k[jl])/(float)(k[jl+1]-k[jl]);
+      }
+    }
+  }
+
+  private static float[][] subsample(int[] k1, int[] k2, float[][] r) {
+    int n1 = r[0].length;
+    int n2 = r.length;
+    int m1 = k1.length;
+    int m2 = k2.length;
+    if (m1==n1 && m2==n2)
+      return r;
+    float[][] s = new float[m2][m1];
+    for (int i2=0; i2<m2; ++i2)
+      for (int i1=0; i1<m1; ++i1)
+        s[i2][i1] = r[k2[i2]][k1[i1]];
+    return s;
+  }
+
+  private static float[][][] subsample(
+    int[] k1, int[] k2, int[] k3, float[][][] r)
+  {
+    int n1 = r[0][0].length;
+    int n2 = r[0].length;
+    int n3 = r.length;
+    int m1 = k1.length;
+    int m2 = k2.length;
+    int m3 = k3.length;
+    if (m1==n1 && m2==n2 && m3==n3)
+      return r;
+    float[][][] s = new float[m3][m2][m1];
+    for (int i3=0; i3<m3; ++i3)
+      for (int i2=0; i2<m2; ++i2)
+        for (int i1=0; i1<m1; ++i1)
+          s[i3][i2][i1] = r[k3[i3]][k2[i2]][k1[i1]];
+    return s;
+  }
+
+  /**
+   * Linearly interpolates coefficients b on the decimated grid to all
+   * samples of the array a.
+   */
+  private void interpolate(final float[][] b, final float[][] a) {
+    final int n1 = a[0].length;
+    final int n2 = a.length;
+    final int[] j1 = new int[n1];
+    final int[] j2 = new int[n2];
+    final float[] w1 = new float[n1];
+    final float[] w2 = new float[n2];
+    weights(samples(n1,_d1),n1,j1,w1);
+    weights(samples(n2,_d2),n2,j2,w2);
+    Parallel.loop(n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      interpolate(j1,w1,j2[i2],w2[i2],b,a[i2]);
+    }});
+  }
+
+  private void interpolate(final float[][][] b, final float[][][] a) {
+    final int n1 = a[0][0].length;
+    final int n2 = a[0].length;
+    final int n3 = a.length;
+    final int m3 = b.length;
+    final int[] j1 = new int[n1];
+    final int[] j2 = new int[n2];
+    final int[] j3 = new int[n3];
+    final float[] w1 = new float[n1];
+    final float[] w2 = new float[n2];
+    final float[] w3 = new float[n3];
+    weights(samples(n1,_d1),n1,j1,w1);
+    weights(samples(n2,_d2),n2,j2,w2);
+    weights(samples(n3,_d3),n3,j3,w3);
+    Parallel.loop(n3,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      int j3l = j3[i3];
+      int j3h = min(j3l+1,m3-1);
+      float w3h = w3[i3];
+      float w3l = 1.0f-w3h;
+      float[] t = new float[n1];
+      for (int i2=0; i2<n2; ++i2) {
+        float[] a32 = a[i3][i2];
+        if (w3h==0.0f) {
+          interpolate(j1,w1,j2[i2],w2[i2],b[j3l],a32);
+        } else {
+          interpolate(j1,w1,j2[i2],w2[i2],b[j3l],a32);
+          interpolate(j1,w1,j2[i2],w2[i2],b[j3h],t);
+          for (int i1=0; i1<n1; ++i1)
+            a32[i1] = w3l*a32[i1]+w3h*t[i1];
+        }
+      }
+    }});
+  }
+
+  private static void interpolate(
+    int[] j1, float[] w1, int j2l, float w2h, float[][] b, float[] a)
+  {
+    int n1 = a.length;
+    int m1 = b[0].length;
+    int m2 = b.length;
+    int j2h = min(j2l+1,m2-1);
+    float w2l = 1.0f-w2h;
+    float[] bl = b[j2l];
+    float[] bh = b[j2h];
+    for (int i1=0; i1<n1; ++i1) {
+      int j1l = j1[i1];
+      int j1h = min(j1l+1,m1-1);
+      float w1h = w1[i1];
+      float w1l = 1.0f-w1h;
+      a[i1] = w2l*(w1l*bl[j1l]+w1h*bl[j1h])+
+              w2h*(w1l*bh[j1l]+w1h*bh[j1h]);
+    }
+  }
+
+  /**
+   * Accumulates g += s*aj*fj, where fj is f shifted by the lag j.
+   */
+  private static void accumulate(
+    final float s, final int j1, final int j2,
+    final float[][] aj, final float[][] f, final float[][] g)
+  {
+    int n1 = f[0].length;
+    int n2 = f.length;
+    final int i1min = max(0,j1);
+    final int i1max = min(n1,n1+j1);
+    int i2min = max(0,j2);
+    int i2max = min(n2,n2+j2);
+    Parallel.loop(i2min,i2max,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      float[] a2 = aj[i2];
+      float[] f2 = f[i2-j2];
+      float[] g2 = g[i2];
+      for (int i1=i1min; i1<i1max; ++i1)
+        g2[i1] += s*a2[i1]*f2[i1-j1];
+    }});
+  }
+
+  private static void accumulate(
+    final float s, final int j1, final int j2, final int j3,
+    final float[][][] aj, final float[][][] f, final float[][][] g)
+  {
+    int n1 = f[0][0].length;
+    int n2 = f[0].length;
+    int n3 = f.length;
+    final int i1min = max(0,j1);
+    final int i1max = min(n1,n1+j1);
+    final int i2min = max(0,j2);
+    final int i2max = min(n2,n2+j2);
+    int i3min = max(0,j3);
+    int i3max = min(n3,n3+j3);
+    Parallel.loop(i3min,i3max,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      for (int i2=i2min; i2<i2max; ++i2) {
+        float[] a32 = aj[i3][i2];
+        float[] f32 = f[i3-j3][i2-j2];
+        float[] g32 = g[i3][i2];
+        for (int i1=i1min; i1<i1max; ++i1)
+          g32[i1] += s*a32[i1]*f32[i1-j1];
+      }
+    }});
+  }
 }
@@ -14,6 +14,8 @@ limitations under the License.
 ****************************************************************************/
 package edu.mines.jtk.dsp;
 
+import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -22,6 +24,20 @@ import static edu.mines.jtk.util.ArrayMath.*;
  * divided by a smoothed squared-image, where smoothing is performed by local
  * smoothing filters along the eigenvectors of a structure tensor field.
  * <p>
+ * Smoothing uses only the eigenvectors of specified tensors; eigenvalues
+ * are ignored. Tensors are not modified, so one tensor field may be used
+ * by multiple filters concurrently. Semblance for 2D and 3D arrays is 
+ * computed in parallel.
+ * <p>
+ * To reduce memory required for large 2D and 3D arrays, semblance may 
+ * be computed in tiles. Each tile is extended by a halo of samples on 
+ * all sides, and semblance computed for that extended tile is stored for
+ * samples in the tile only. Tiles are processed in parallel, and the 
+ * memory required is then that for input and output arrays, plus that
+ * for one extended tile per thread. Semblance computed in tiles differs
+ * slightly from that computed for entire arrays; differences are small 
+ * if the halo width is large relative to smoothing half-widths.
+ * <p>
  * Reference: 
  * <a
  * href="http://www.mines.edu/~dhale/papers/Hale09StructureOrientedSmoothingAndSemblance.pdf">
@@ -55,17 +71,34 @@ public class LocalSemblanceFilter {
    * @param halfWidth2 half-width of 2nd smoothing filter.
    */
   public LocalSemblanceFilter(int halfWidth1, int halfWidth2) {
+    _halfWidth1 = halfWidth1;
+    _halfWidth2 = halfWidth2;
     _smoother1 = new LaplacianSmoother(halfWidth1);
     _smoother2 = new LaplacianSmoother(halfWidth2);
   }
 
+  /**
+   * Sets the size of tiles used to compute semblance for 2D and 3D arrays.
+   * The default tile size is zero, for which semblance is computed for 
+   * entire arrays, without tiles.
+   * @param tileSize number of samples in each dimension of tiles; 
+   *  zero, for no tiles.
+   * @param haloWidth number of samples by which tiles are extended 
+   *  on all sides.
+   */
+  public void setTileSize(int tileSize, int haloWidth) {
+    Check.argument(tileSize>=0,"tileSize>=0");
+    Check.argument(haloWidth>=0,"haloWidth>=0");
+    _ntile = tileSize;
+    _nhalo = haloWidth;
+  }
+
   /**
    * Computes local semblance for a 1D array.
    * @param f the array of input values.
    * @param s the array of output semblance values.
    */
   public void semblance(float[] f, float[] s) {
-    int n1 = f.length;
     float[] sn,sd;
     sn = smooth1(f);
     sn = mul(sn,sn);
@@ -73,17 +106,7 @@ public class LocalSemblanceFilter {
     sd = mul(f,f);
     sd = smooth1(sd);
     sd = smooth2(sd);
-    for (int i1=0; i1<n1; ++i1) {
-      float sni = sn[i1];
-      float sdi = sd[i1];
-      if (sdi<=0.0f || sni<0.0f) {
-        s[i1] = 0.0f;
-      } else if (sdi<sni) {
-        s[i1] = 1.0f;
-      } else {
-        s[i1] = sni/sdi;
-      }
-    }
+    ratio(sn,sd,s);
   }
 
   /**
@@ -109,25 +132,12 @@ public class LocalSemblanceFilter {
   {
     int n1 = f[0].length;
     int n2 = f.length;
-    float[][] sn,sd;
-    sn = smooth1(d,t,f);
-    sn = mul(sn,sn);
-    sn = smooth2(d,t,sn);
-    sd = mul(f,f);
-    sd = smooth1(d,t,sd);
-    sd = smooth2(d,t,sd);
-    for (int i2=0; i2<n2; ++i2) {
-      for (int i1=0; i1<n1; ++i1) {
-        float sni = sn[i2][i1];
-        float sdi = sd[i2][i1];
-        if (sdi<=0.0f || sni<0.0f) {
-          s[i2][i1] = 0.0f;
-        } else if (sdi<sni) {
-          s[i2][i1] = 1.0f;
-        } else {
-          s[i2][i1] = sni/sdi;
-        }
-      }
+    if (_ntile>0 && (n1>_ntile || n2>_ntile)) {
+      semblanceTiled(d,t,f,s);
+    } else {
+      Tensors2 t1 = new DirectionTensors2(d,t,0,0);
+      Tensors2 t2 = new DirectionTensors2(orthogonal(d),t,0,0);
+      semblance(_smoother1,_smoother2,t1,t2,f,s);
     }
   }
 
@@ -157,27 +167,12 @@ public class LocalSemblanceFilter {
     int n1 = f[0][0].length;
     int n2 = f[0].length;
     int n3 = f.length;
-    float[][][] sn,sd;
-    sn = smooth1(d,t,f);
-    sn = mul(sn,sn);
-    sn = smooth2(d,t,sn);
-    sd = mul(f,f);
-    sd = smooth1(d,t,sd);
-    sd = smooth2(d,t,sd);
-    for (int i3=0; i3<n3; ++i3) {
-      for (int i2=0; i2<n2; ++i2) {
-        for (int i1=0; i1<n1; ++i1) {
-          float sni = sn[i3][i2][i1];
-          float sdi = sd[i3][i2][i1];
-          if (sdi<=0.0f || sni<0.0f) {
-            s[i3][i2][i1] = 0.0f;
-          } else if (sdi<sni) {
-            s[i3][i2][i1] = 1.0f;
-          } else {
-            s[i3][i2][i1] = sni/sdi;
-          }
-        }
-      }
+    if (_ntile>0 && (n1>_ntile || n2>_ntile || n3>_ntile)) {
+      semblanceTiled(d,t,f,s);
+    } else {
+      Tensors3 t1 = new DirectionTensors3(d,t,0,0,0);
+      Tensors3 t2 = new DirectionTensors3(orthogonal(d),t,0,0,0);
+      semblance(_smoother1,_smoother2,t1,t2,f,s);
     }
   }
 
@@ -224,7 +219,7 @@ public class LocalSemblanceFilter {
   public void smooth1(
     Direction2 d, EigenTensors2 t, float[][] f, float[][] g) 
   {
-    _smoother1.apply(d,t,f,g);
+    _smoother1.apply(new DirectionTensors2(d,t,0,0),f,g);
   }
 
   /**
@@ -250,7 +245,7 @@ public class LocalSemblanceFilter {
   public void smooth1(
     Direction3 d, EigenTensors3 t, float[][][] f, float[][][] g) 
   {
-    _smoother1.apply(d,t,f,g);
+    _smoother1.apply(new DirectionTensors3(d,t,0,0,0),f,g);
   }
 
   /**
@@ -296,7 +291,7 @@ public class LocalSemblanceFilter {
   public void smooth2(
     Direction2 d, EigenTensors2 t, float[][] f, float[][] g) 
   {
-    _smoother2.apply(d,t,f,g);
+    _smoother2.apply(new DirectionTensors2(d,t,0,0),f,g);
   }
 
   /**
@@ -322,7 +317,7 @@ public class LocalSemblanceFilter {
   public void smooth2(
     Direction3 d, EigenTensors3 t, float[][][] f, float[][][] g) 
   {
-    _smoother2.apply(d,t,f,g);
+    _smoother2.apply(new DirectionTensors3(d,t,0,0,0),f,g);
   }
 
   /**
@@ -352,44 +347,29 @@ public class LocalSemblanceFilter {
         _lsf.apply(_scale,f,g);
       }
     }
-    public void apply(
-      Direction2 d, EigenTensors2 t, float[][] f, float[][] g) 
-    {
+    public void apply(Tensors2 t, float[][] f, float[][] g) {
       if (_scale==0.0f) {
         copy(f,g);
       } else {
         int n1 = f[0].length;
         int n2 = f.length;
-        float[][] au = new float[n2][n1];
-        float[][] av = new float[n2][n1];
         float[][] sf = new float[n2][n1];
-        t.getEigenvalues(au,av);
-        setEigenvalues(d,t);
         _lsf.applySmoothL(_kmax,f,sf);
         //_lsf.applySmoothS(f,sf);
         _lsf.apply(t,_scale,sf,g);
-        t.setEigenvalues(au,av);
       }
     }
-    public void apply(
-      Direction3 d, EigenTensors3 t, float[][][] f, float[][][] g) 
-    {
+    public void apply(Tensors3 t, float[][][] f, float[][][] g) {
       if (_scale==0.0f) {
         copy(f,g);
       } else {
         int n1 = f[0][0].length;
         int n2 = f[0].length;
         int n3 = f.length;
-        float[][][] au = new float[n3][n2][n1];
-        float[][][] av = new float[n3][n2][n1];
-        float[][][] aw = new float[n3][n2][n1];
         float[][][] sf = new float[n3][n2][n1];
-        t.getEigenvalues(au,av,aw);
-        setEigenvalues(d,t);
         _lsf.applySmoothL(_kmax,f,sf);
         //_lsf.applySmoothS(f,sf);
         _lsf.apply(t,_scale,sf,g);
-        t.setEigenvalues(au,av,aw);
       }
     }
     private float _scale;
@@ -403,37 +383,220 @@ public class LocalSemblanceFilter {
     private static final double _kmax = 0.35;
   }
 
+  private int _halfWidth1,_halfWidth2; // half-widths of smoothing filters
   private LaplacianSmoother _smoother1,_smoother2;
+  private int _ntile; // number of samples in tiles; zero for no tiles
+  private int _nhalo; // number of samples in halos that extend tiles
+
+  /**
+   * Tensors with eigenvectors of an eigen-decomposition of a tensor field
+   * and constant eigenvalues, either zero or one, for specified directions.
+   * Indices of tensors are offset by specified amounts, so that these 
+   * tensors may be used for tiles of arrays.
+   */
+  private static class DirectionTensors2 implements Tensors2 {
+    DirectionTensors2(Direction2 d, EigenTensors2 t, int j1, int j2) {
+      _au = (d==Direction2.U || d==Direction2.UV)?1.0f:0.0f;
+      _av = (d==Direction2.V || d==Direction2.UV)?1.0f:0.0f;
+      _t = t;
+      _j1 = j1;
+      _j2 = j2;
+    }
+    public void getTensor(int i1, int i2, float[] a) {
+      _t.getTensor(i1+_j1,i2+_j2,_au,_av,a);
+    }
+    private float _au,_av;
+    private EigenTensors2 _t;
+    private int _j1,_j2;
+  }
+  private static class DirectionTensors3 implements Tensors3 {
+    DirectionTensors3(
+      Direction3 d, EigenTensors3 t, int j1, int j2, int j3) 
+    {
+      _au = (d==Direction3.U || 
+             d==Direction3.UV || 
+             d==Direction3.UW ||
+             d==Direction3.UVW)?1.0f:0.0f;
+      _av = (d==Direction3.V || 
+             d==Direction3.UV || 
+             d==Direction3.VW ||
+             d==Direction3.UVW)?1.0f:0.0f;
+      _aw = (d==Direction3.W || 
+             d==Direction3.UW || 
+             d==Direction3.VW ||
+             d==Direction3.UVW)?1.0f:0.0f;
+      _t = t;
+      _j1 = j1;
+      _j2 = j2;
+      _j3 = j3;
+    }
+    public void getTensor(int i1, int i2, int i3, float[] a) {
+      _t.getTensor(i1+_j1,i2+_j2,i3+_j3,_au,_av,_aw,a);
+    }
+    private float _au,_av,_aw;
+    private EigenTensors3 _t;
+    private int _j1,_j2,_j3;
+  }
 
-  private static void setEigenvalues(Direction2 d, EigenTensors2 t) {
-    float au = 0.0f;
-    float av = 0.0f;
-    if (d==Direction2.U || d==Direction2.UV)
-      au = 1.0f;
-    if (d==Direction2.V || d==Direction2.UV)
-      av = 1.0f;
-    t.setEigenvalues(au,av);
-  }
-  private static void setEigenvalues(Direction3 d, EigenTensors3 t) {
-    float au = 0.0f;
-    float av = 0.0f;
-    float aw = 0.0f;
-    if (d==Direction3.U || 
-        d==Direction3.UV || 
-        d==Direction3.UW ||
-        d==Direction3.UVW)
-      au = 1.0f;
-    if (d==Direction3.V || 
-        d==Direction3.UV || 
-        d==Direction3.VW ||
-        d==Direction3.UVW)
-      av = 1.0f;
-    if (d==Direction3.W || 
-        d==Direction3.UW || 
-        d==Direction3.VW ||
-        d==Direction3.UVW)
-      aw = 1.0f;
-    t.setEigenvalues(au,av,aw);
+  /**
+   * Computes semblance with specified smoothers and tensors. Uses the 
+   * output array s and two other arrays for intermediate results.
+   */
+  private static void semblance(
+    LaplacianSmoother s1, LaplacianSmoother s2, Tensors2 t1, Tensors2 t2, 
+    float[][] f, float[][] s) 
+  {
+    float[][] a = like(f);
+    float[][] b = like(f);
+    s1.apply(t1,f,a);
+    square(a,a);
+    s2.apply(t2,a,b); // b = numerator
+    square(f,a);
+    s1.apply(t1,a,s);
+    s2.apply(t2,s,a); // a = denominator
+    ratio(b,a,s);
+  }
+  private static void semblance(
+    LaplacianSmoother s1, LaplacianSmoother s2, Tensors3 t1, Tensors3 t2, 
+    float[][][] f, float[][][] s) 
+  {
+    float[][][] a = like(f);
+    float[][][] b = like(f);
+    s1.apply(t1,f,a);
+    square(a,a);
+    s2.apply(t2,a,b); // b = numerator
+    square(f,a);
+    s1.apply(t1,a,s);
+    s2.apply(t2,s,a); // a = denominator
+    ratio(b,a,s);
+  }
+
+  /**
+   * Computes semblance in tiles extended by halos. Tiles are processed in
+   * parallel, each with its own smoothers.
+   */
+  private void semblanceTiled(
+    final Direction2 d, final EigenTensors2 t, 
+    final float[][] f, final float[][] s) 
+  {
+    final int n1 = f[0].length;
+    final int n2 = f.length;
+    final int m = _ntile;
+    final int h = _nhalo;
+    final int m1 = 1+(n1-1)/m;
+    final int m2 = 1+(n2-1)/m;
+    Parallel.loop(m1*m2,new Parallel.LoopInt() {
+      public void compute(int k) {
+        int k1 = k%m1, k2 = k/m1;
+        int i1b = k1*m, i1e = min(i1b+m,n1);
+        int i2b = k2*m, i2e = min(i2b+m,n2);
+        int j1b = max(i1b-h,0), j1e = min(i1e+h,n1);
+        int j2b = max(i2b-h,0), j2e = min(i2e+h,n2);
+        int l1 = j1e-j1b, l2 = j2e-j2b;
+        float[][] ft = copy(l1,l2,j1b,j2b,f);
+        float[][] st = new float[l2][l1];
+        Tensors2 t1 = new DirectionTensors2(d,t,j1b,j2b);
+        Tensors2 t2 = new DirectionTensors2(orthogonal(d),t,j1b,j2b);
+        semblance(new LaplacianSmoother(_halfWidth1),
+                  new LaplacianSmoother(_halfWidth2),t1,t2,ft,st);
+        for (int i2=i2b; i2<i2e; ++i2)
+          for (int i1=i1b; i1<i1e; ++i1)
+            s[i2][i1] = st[i2-j2b][i1-j1b];
+      }
+    });
+  }
+  private void semblanceTiled(
+    final Direction3 d, final EigenTensors3 t, 
+    final float[][][] f, final float[][][] s) 
+  {
+    final int n1 = f[0][0].length;
+    final int n2 = f[0].length;
+    final int n3 = f.length;
+    final int m = _ntile;
+    final int h = _nhalo;
+    final int m1 = 1+(n1-1)/m;
+    final int m2 = 1+(n2-1)/m;
+    final int m3 = 1+(n3-1)/m;
+    Parallel.loop(m1*m2*m3,new Parallel.LoopInt() {
+      public void compute(int k) {
+        int k1 = k%m1, k2 = (k/m1)%m2, k3 = k/(m1*m2);
+        int i1b = k1*m, i1e = min(i1b+m,n1);
+        int i2b = k2*m, i2e = min(i2b+m,n2);
+        int i3b = k3*m, i3e = min(i3b+m,n3);
+        int j1b = max(i1b-h,0), j1e = min(i1e+h,n1);
+        int j2b = max(i2b-h,0), j2e = min(i2e+h,n2);
+        int j3b = max(i3b-h,0), j3e = min(i3e+h,n3);
+        int l1 = j1e-j1b, l2 = j2e-j2b, l3 = j3e-j3b;
+        float[][][] ft = copy(l1,l2,l3,j1b,j2b,j3b,f);
+        float[][][] st = new float[l3][l2][l1];
+        Tensors3 t1 = new DirectionTensors3(d,t,j1b,j2b,j3b);
+        Tensors3 t2 = new DirectionTensors3(orthogonal(d),t,j1b,j2b,j3b);
+        semblance(new LaplacianSmoother(_halfWidth1),
+                  new LaplacianSmoother(_halfWidth2),t1,t2,ft,st);
+        for (int i3=i3b; i3<i3e; ++i3)
+          for (int i2=i2b; i2<i2e; ++i2)
+            for (int i1=i1b; i1<i1e; ++i1)
+              s[i3][i2][i1] = st[i3-j3b][i2-j2b][i1-j1b];
+      }
+    });
+  }
+
+  // Computes y = x*x, in parallel. Arrays x and y may be the same.
+  private static void square(final float[][] x, final float[][] y) {
+    int n2 = x.length;
+    Parallel.loop(n2,new Parallel.LoopInt() {
+      public void compute(int i2) {
+        mul(x[i2],x[i2],y[i2]);
+      }
+    });
+  }
+  private static void square(final float[][][] x, final float[][][] y) {
+    int n3 = x.length;
+    Parallel.loop(n3,new Parallel.LoopInt() {
+      public void compute(int i3) {
+        mul(x[i3],x[i3],y[i3]);
+      }
+    });
+  }
+
+  // Computes semblance s = sn/sd, clipped to [0,1]. In 1D, this loop is
+  // serial, because it is also the kernel applied to each row of 2D and
+  // 3D arrays, for which rows are computed in parallel.
+  private static void ratio(float[] sn, float[] sd, float[] s) {
+    int n1 = sn.length;
+    for (int i1=0; i1<n1; ++i1) {
+      float sni = sn[i1];
+      float sdi = sd[i1];
+      if (sdi<=0.0f || sni<0.0f) {
+        s[i1] = 0.0f;
+      } else if (sdi<sni) {
+        s[i1] = 1.0f;
+      } else {
+        s[i1] = sni/sdi;
+      }
+    }
+  }
+  private static void ratio(
+    final float[][] sn, final float[][] sd, final float[][] s) 
+  {
+    int n2 = sn.length;
+    Parallel.loop(n2,new Parallel.LoopInt() {
+      public void compute(int i2) {
+        ratio(sn[i2],sd[i2],s[i2]);
+      }
+    });
+  }
+  private static void ratio(
+    final float[][][] sn, final float[][][] sd, final float[][][] s) 
+  {
+    int n3 = sn.length;
+    Parallel.loop(n3,new Parallel.LoopInt() {
+      public void compute(int i3) {
+        int n2 = sn[i3].length;
+        for (int i2=0; i2<n2; ++i2)
+          ratio(sn[i3][i2],sd[i3][i2],s[i3][i2]);
+      }
+    });
   }
 
   private static float[] like(float[] f) {
@@ -0,0 +1,400 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.dsp;
+
+import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.MedianFinder;
+import edu.mines.jtk.util.Parallel;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Sliding-window median filter. Each output sample is the median (or
+ * weighted median) of input samples in a rectangular window centered
+ * on that output sample. Windows have lengths 2*h1+1, 2*h2+1, and
+ * 2*h3+1 samples for the 1st, 2nd, and 3rd dimensions of arrays, where
+ * h1, h2, and h3 are specified half-widths. Medians are as computed by
+ * {@link edu.mines.jtk.util.MedianFinder}; in particular, the median of
+ * an even number of values is the average of the two middle values.
+ * <p>
+ * Input samples beyond the edges of arrays are extrapolated with values
+ * at the edges, so that every window contains the same number of values.
+ * <p>
+ * Unweighted medians are updated incrementally as windows slide along
+ * the 1st dimension. Values in a window are kept in two heaps, one for
+ * values not greater than the median and the other for values not less
+ * than the median. For a window with m values in each slice with constant
+ * index i1, each step along the 1st dimension replaces m values, so the
+ * cost per output sample is proportional to m*log(m*(2*h1+1)), rather
+ * than to m*(2*h1+1) for the median of all values in the window.
+ * Multi-dimensional arrays are filtered in parallel.
+ * <p>
+ * Weighted medians are computed for positive weights specified for each
+ * input sample. Such medians are not updated incrementally, and instead
+ * are computed with a median finder for each window.
+ * <p>
+ * Input and output arrays must be distinct arrays.
+ * @version 2026.10.19
+ */
+public class MedianFilter {
+
+  /**
+   * Constructs a median filter with specified half-width.
+   * The same half-width is used for all dimensions of arrays.
+   * @param h window half-width, in samples.
+   */
+  public MedianFilter(int h) {
+    this(h,h,h);
+  }
+
+  /**
+   * Constructs a median filter with specified half-widths.
+   * @param h1 window half-width for the 1st dimension.
+   * @param h23 window half-width for 2nd and 3rd dimensions.
+   */
+  public MedianFilter(int h1, int h23) {
+    this(h1,h23,h23);
+  }
+
+  /**
+   * Constructs a median filter with specified half-widths.
+   * @param h1 window half-width for the 1st dimension.
+   * @param h2 window half-width for the 2nd dimension.
+   * @param h3 window half-width for the 3rd dimension.
+   */
+  public MedianFilter(int h1, int h2, int h3) {
+    Check.argument(h1>=0,"h1 is non-negative");
+    Check.argument(h2>=0,"h2 is non-negative");
+    Check.argument(h3>=0,"h3 is non-negative");
+    _h1 = h1;
+    _h2 = h2;
+    _h3 = h3;
+  }
+
+  /**
+   * Applies this filter.
+   * @param x input array.
+   * @param y output array.
+   */
+  public void apply(float[] x, float[] y) {
+    Check.argument(x!=y,"x and y are distinct arrays");
+    filter(_h1,new float[][]{x},y);
+  }
+
+  /**
+   * Applies this filter.
+   * @param x input array.
+   * @param y output array.
+   */
+  public void apply(final float[][] x, final float[][] y) {
+    Check.argument(x!=y,"x and y are distinct arrays");
+    final int n2 = x.length;
+    Parallel.loop(n2,new Parallel.LoopInt() {
+      public void compute(int i2) {
+        filter(_h1,rows(_h2,i2,x),y[i2]);
+      }
+    });
+  }
+
+  /**
+   * Applies this filter.
+   * @param x input array.
+   * @param y output array.
+   */
+  public void apply(final float[][][] x, final float[][][] y) {
+    Check.argument(x!=y,"x and y are distinct arrays");
+    final int n2 = x[0].length;
+    final int n3 = x.length;
+    Parallel.loop(n3,new Parallel.LoopInt() {
+      public void compute(int i3) {
+        for (int i2=0; i2<n2; ++i2)
+          filter(_h1,rows(_h2,_h3,i2,i3,x),y[i3][i2]);
+      }
+    });
+  }
+
+  /**
+   * Applies this filter for weighted medians.
+   * @param w input array of positive weights.
+   * @param x input array.
+   * @param y output array.
+   */
+  public void apply(float[] w, float[] x, float[] y) {
+    Check.argument(x!=y,"x and y are distinct arrays");
+    filter(_h1,new float[][]{w},new float[][]{x},y);
+  }
+
+  /**
+   * Applies this filter for weighted medians.
+   * @param w input array of positive weights.
+   * @param x input array.
+   * @param y output array.
+   */
+  public void apply(
+    final float[][] w, final float[][] x, final float[][] y)
+  {
+    Check.argument(x!=y,"x and y are distinct arrays");
+    final int n2 = x.length;
+    Parallel.loop(n2,new Parallel.LoopInt() {
+      public void compute(int i2) {
+        filter(_h1,rows(_h2,i2,w),rows(_h2,i2,x),y[i2]);
+      }
+    });
+  }
+
+  /**
+   * Applies this filter for weighted medians.
+   * @param w input array of positive weights.
+   * @param x input array.
+   * @param y output array.
+   */
+  public void apply(
+    final float[][][] w, final float[][][] x, final float[][][] y)
+  {
+    Check.argument(x!=y,"x and y are distinct arrays");
+    final int n2 = x[0].length;
+    final int n3 = x.length;
+    Parallel.loop(n3,new Parallel.LoopInt() {
+      public void compute(int i3) {
+        for (int i2=0; i2<n2; ++i2) {
+          filter(_h1,rows(_h2,_h3,i2,i3,w),rows(_h2,_h3,i2,i3,x),
+                 y[i3][i2]);
+        }
+      }
+    });
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private int _h1,_h2,_h3; // window half-widths
+
+  /**
+   * Returns the input rows in a window centered on row i2.
+   */
+  private static float[][] rows(int h2, int i2, float[][] x) {
+    int n2 = x.length;
+    int m2 = 1+2*h2;
+    float[][] r = new float[m2][];
+    for (int k2=0; k2<m2; ++k2)
+      r[k2] = x[clamp(i2-h2+k2,n2)];
+    return r;
+  }
+
+  /**
+   * Returns the input rows in a window centered on row (i2,i3).
+   */
+  private static float[][] rows(int h2, int h3, int i2, int i3, float[][][] x) {
+    int n2 = x[0].length;
+    int n3 = x.length;
+    int m2 = 1+2*h2;
+    int m3 = 1+2*h3;
+    float[][] r = new float[m2*m3][];
+    for (int k3=0,k=0; k3<m3; ++k3) {
+      float[][] x3 = x[clamp(i3-h3+k3,n3)];
+      for (int k2=0; k2<m2; ++k2,++k)
+        r[k] = x3[clamp(i2-h2+k2,n2)];
+    }
+    return r;
+  }
+
+  private static int clamp(int i, int n) {
+    return (i<0)?0:(i<n)?i:n-1;
+  }
+
+  /**
+   * Computes medians for one output row y from m input rows x. Windows
+   * of values are kept in heaps with w1 = 1+2*h1 columns of m slots. As
+   * the window slides, the column that entered first is replaced.
+   */
+  private static void filter(int h1, float[][] x, float[] y) {
+    int n1 = y.length;
+    int m = x.length;
+    int w1 = 1+2*h1;
+    float[] v = new float[w1*m];
+    for (int j=0,k=0; j<w1; ++j) {
+      int j1 = clamp(j-h1,n1);
+      for (int i=0; i<m; ++i,++k)
+        v[k] = x[i][j1];
+    }
+    Window window = new Window(v);
+    y[0] = window.median();
+    for (int i1=1,jr=0; i1<n1; ++i1) {
+      int j1 = clamp(i1+h1,n1);
+      for (int i=0,k=jr*m; i<m; ++i,++k)
+        window.replace(k,x[i][j1]);
+      y[i1] = window.median();
+      if (++jr==w1) jr = 0;
+    }
+  }
+
+  /**
+   * Computes weighted medians for one output row y from m input rows of
+   * weights w and values x.
+   */
+  private static void filter(int h1, float[][] w, float[][] x, float[] y) {
+    int n1 = y.length;
+    int m = x.length;
+    int w1 = 1+2*h1;
+    MedianFinder mf = new MedianFinder(w1*m);
+    float[] ww = new float[w1*m];
+    float[] xw = new float[w1*m];
+    for (int i1=0; i1<n1; ++i1) {
+      for (int j=0,k=0; j<w1; ++j) {
+        int j1 = clamp(i1-h1+j,n1);
+        for (int i=0; i<m; ++i,++k) {
+          ww[k] = w[i][j1];
+          xw[k] = x[i][j1];
+        }
+      }
+      y[i1] = mf.findMedian(ww,xw);
+    }
+  }
+
+  /**
+   * A window of values, with one value for each slot. Slots are kept in
+   * a max-heap of lower values and a min-heap of upper values, such that
+   * no lower value exceeds any upper value. The lower heap has either
+   * the same number of values as the upper heap or one more value.
+   */
+  private static class Window {
+
+    Window(float[] v) {
+      int n = v.length;
+      _v = v;
+      _loc = new int[n];
+      _nlo = (n+1)/2;
+      _nhi = n/2;
+      _lo = new int[_nlo];
+      _hi = new int[_nhi];
+      int[] k = rampint(0,1,n);
+      quickIndexSort(v,k);
+      for (int i=0; i<_nlo; ++i) {
+        int s = k[_nlo-1-i]; // descending order is a max-heap
+        _lo[i] = s;
+        _loc[s] = i;
+      }
+      for (int i=0; i<_nhi; ++i) {
+        int s = k[_nlo+i]; // ascending order is a min-heap
+        _hi[i] = s;
+        _loc[s] = -1-i;
+      }
+    }
+
+    float median() {
+      float vlo = _v[_lo[0]];
+      return (_nlo>_nhi)?vlo:0.5f*(vlo+_v[_hi[0]]);
+    }
+
+    void replace(int s, float v) {
+      float vold = _v[s];
+      _v[s] = v;
+      int i = _loc[s];
+      if (i>=0) {
+        if (v>vold) {
+          upLo(i);
+          if (_nhi>0 && _v[_lo[0]]>_v[_hi[0]])
+            swapTops();
+        } else {
+          downLo(i);
+        }
+      } else {
+        i = -1-i;
+        if (v<vold) {
+          upHi(i);
+          if (_v[_hi[0]]<_v[_lo[0]])
+            swapTops();
+        } else {
+          downHi(i);
+        }
+      }
+    }
+
+    private float[] _v; // values, indexed by slot
+    private int[] _loc; // location i in lower heap, or -1-i in upper heap
+    private int[] _lo,_hi; // lower and upper heaps of slots
+    private int _nlo,_nhi; // numbers of slots in lower and upper heaps
+
+    private void swapTops() {
+      int slo = _lo[0];
+      int shi = _hi[0];
+      _lo[0] = shi;
+      _loc[shi] = 0;
+      _hi[0] = slo;
+      _loc[slo] = -1;
+      downLo(0);
+      downHi(0);
+    }
+
+    private void upLo(int i) {
+      int s = _lo[i];
+      float v = _v[s];
+      while (i>0) {
+        int p = (i-1)/2;
+        int sp = _lo[p];
+        if (_v[sp]>=v) break;
+        _lo[i] = sp;
+        _loc[sp] = i;
+        i = p;
+      }
+      _lo[i] = s;
+      _loc[s] = i;
+    }
+
+    private void downLo(int i) {
+      int s = _lo[i];
+      float v = _v[s];
+      for (int c=2*i+1; c<_nlo; c=2*i+1) {
+        if (c+1<_nlo && _v[_lo[c+1]]>_v[_lo[c]]) ++c;
+        int sc = _lo[c];
+        if (_v[sc]<=v) break;
+        _lo[i] = sc;
+        _loc[sc] = i;
+        i = c;
+      }
+      _lo[i] = s;
+      _loc[s] = i;
+    }
+
+    private void upHi(int i) {
+      int s = _hi[i];
+      float v = _v[s];
+      while (i>0) {
+        int p = (i-1)/2;
+        int sp = _hi[p];
+        if (_v[sp]<=v) break;
+        _hi[i] = sp;
+        _loc[sp] = -1-i;
+        i = p;
+      }
+      _hi[i] = s;
+      _loc[s] = -1-i;
+    }
+
+    private void downHi(int i) {
+      int s = _hi[i];
+      float v = _v[s];
+      for (int c=2*i+1; c<_nhi; c=2*i+1) {
+        if (c+1<_nhi && _v[_hi[c+1]]<_v[_hi[c]]) ++c;
+        int sc = _hi[c];
+        if (_v[sc]>=v) break;
+        _hi[i] = sc;
+        _loc[sc] = -1-i;
+        i = c;
+      }
+      _hi[i] = s;
+      _loc[s] = -1-i;
+    }
+  }
+}
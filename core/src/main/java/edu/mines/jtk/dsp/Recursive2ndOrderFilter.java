@@ -16,7 +16,9 @@ package edu.mines.jtk.dsp;
 
 import edu.mines.jtk.util.Cdouble;
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.isRegular;
+import static edu.mines.jtk.util.ArrayMath.min;
 
 /**
  * Recursive 2nd-order filter. This filter solves a linear, 2nd-order, 
@@ -108,81 +110,7 @@ public class Recursive2ndOrderFilter {
    * @param y the output array.
    */
   public void applyForward(float[] x, float[] y) {
-    checkArrays(x,y);
-    int n = y.length;
-
-    // Special case b1 = b2 = a2 = 0.
-    if (_b1==0.0f && _b2==0.0f && _a2==0.0f) {
-      float yim1 = 0.0f;
-      for (int i=0; i<n; ++i) {
-        float xi = x[i];
-        float yi = _b0*xi-_a1*yim1;
-        y[i] = yi;
-        yim1 = yi;
-      }
-    }
-
-    // Special case b2 = a2 = 0.
-    else if (_b2==0.0f && _a2==0.0f) {
-      float yim1 = 0.0f;
-      float xim1 = 0.0f;
-      for (int i=0; i<n; ++i) {
-        float xi = x[i];
-        float yi = _b0*xi+_b1*xim1-_a1*yim1;
-        y[i] = yi;
-        yim1 = yi;
-        xim1 = xi;
-      }
-    }
-
-    // Special case b2 = 0.
-    else if (_b2==0.0f) {
-      float yim2 = 0.0f;
-      float yim1 = 0.0f;
-      float xim1 = 0.0f;
-      for (int i=0; i<n; ++i) {
-        float xi = x[i];
-        float yi = _b0*xi+_b1*xim1-_a1*yim1-_a2*yim2;
-        y[i] = yi;
-        yim2 = yim1;
-        yim1 = yi;
-        xim1 = xi;
-      }
-    }
-
-    // Special case b0 = 0.
-    else if (_b0==0.0f) {
-      float yim2 = 0.0f;
-      float yim1 = 0.0f;
-      float xim2 = 0.0f;
-      float xim1 = 0.0f;
-      for (int i=0; i<n; ++i) {
-        float xi = x[i];
-        float yi = _b1*xim1+_b2*xim2-_a1*yim1-_a2*yim2;
-        y[i] = yi;
-        yim2 = yim1;
-        yim1 = yi;
-        xim2 = xim1;
-        xim1 = xi;
-      }
-    }
-
-    // General case.
-    else { 
-      float yim2 = 0.0f;
-      float yim1 = 0.0f;
-      float xim2 = 0.0f;
-      float xim1 = 0.0f;
-      for (int i=0; i<n; ++i) {
-        float xi = x[i];
-        float yi = _b0*xi+_b1*xim1+_b2*xim2-_a1*yim1-_a2*yim2;
-        y[i] = yi;
-        yim2 = yim1;
-        yim1 = yi;
-        xim2 = xim1;
-        xim1 = xi;
-      }
-    }
+    applyForward(x,y,null);
   }
 
   /**
@@ -459,11 +387,7 @@ public class Recursive2ndOrderFilter {
    * @param y the output array.
    */
   public void apply1Forward(float[][] x, float[][] y) {
-    checkArrays(x,y);
-    int n2 = y.length;
-    for (int i2=0; i2<n2; ++i2) {
-      applyForward(x[i2],y[i2]);
-    }
+    apply1(new Recursive2ndOrderFilter[]{this},true,false,false,x,y);
   }
 
   /**
@@ -475,11 +399,7 @@ public class Recursive2ndOrderFilter {
    * @param y the output array.
    */
   public void apply1Reverse(float[][] x, float[][] y) {
-    checkArrays(x,y);
-    int n2 = y.length;
-    for (int i2=0; i2<n2; ++i2) {
-      applyReverse(x[i2],y[i2]);
-    }
+    apply1(new Recursive2ndOrderFilter[]{this},false,true,false,x,y);
   }
 
   /**
@@ -729,11 +649,7 @@ public class Recursive2ndOrderFilter {
    * @param y the output array.
    */
   public void accumulate1Forward(float[][] x, float[][] y) {
-    checkArrays(x,y);
-    int n2 = y.length;
-    for (int i2=0; i2<n2; ++i2) {
-      accumulateForward(x[i2],y[i2]);
-    }
+    apply1(new Recursive2ndOrderFilter[]{this},true,false,true,x,y);
   }
 
   /**
@@ -747,11 +663,7 @@ public class Recursive2ndOrderFilter {
    * @param y the output array.
    */
   public void accumulate1Reverse(float[][] x, float[][] y) {
-    checkArrays(x,y);
-    int n2 = y.length;
-    for (int i2=0; i2<n2; ++i2) {
-      accumulateReverse(x[i2],y[i2]);
-    }
+    apply1(new Recursive2ndOrderFilter[]{this},false,true,true,x,y);
   }
 
   /**
@@ -1263,11 +1175,220 @@ public class Recursive2ndOrderFilter {
     }
   }
 
+  /**
+   * A stream for applying this filter in the forward direction to
+   * successive blocks of samples. A stream retains the state of the
+   * filter at the end of each block, so that output for a sequence of
+   * blocks equals that computed by applying this filter once to all
+   * samples in those blocks. Streams allocate no memory when applied.
+   * <p>
+   * A stream should be used by only one thread at a time. To filter
+   * multiple channels, use one stream for each channel.
+   */
+  public class Stream {
+
+    /**
+     * Applies this filter in the forward direction to the next block.
+     * <p>
+     * Input and output arrays may be the same array, but must have equal
+     * lengths. Lengths of successive blocks may differ.
+     * @param x the input array.
+     * @param y the output array.
+     */
+    public void applyForward(float[] x, float[] y) {
+      Recursive2ndOrderFilter.this.applyForward(x,y,_s);
+    }
+
+    /**
+     * Resets this stream, so that samples before the next block are zero.
+     */
+    public void reset() {
+      _s[0] = _s[1] = _s[2] = _s[3] = 0.0f;
+    }
+
+    private float[] _s = new float[4]; // {x[-2],x[-1],y[-2],y[-1]}
+  }
+
+  /**
+   * Returns a new stream for this filter, with zero initial state.
+   * @return the stream.
+   */
+  public Stream newStream() {
+    return new Stream();
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   // private
 
   private float _b0,_b1,_b2,_a1,_a2; // filter coefficients
 
+  // Number of traces filtered in lockstep along the 1st dimension.
+  private static final int NB = 64;
+
+  /**
+   * Applies a cascade of filters along the 1st dimension of a 2-D array.
+   * Blocks of traces are transposed into a work array, so that the
+   * recursions for all traces in a block are computed in lockstep, with
+   * inner loops over traces. Blocks are filtered in parallel. All filters
+   * are applied in the forward direction, if any, before all filters are
+   * applied in the reverse direction. Output for each trace is the same
+   * as that computed by filtering the trace alone.
+   * @param f array of filters in the cascade.
+   * @param forward true, to apply filters in the forward direction.
+   * @param reverse true, to apply filters in the reverse direction.
+   * @param accumulate true, to add filter output to y; false, to set y.
+   * @param x the input array.
+   * @param y the output array.
+   */
+  static void apply1(
+    final Recursive2ndOrderFilter[] f,
+    final boolean forward, final boolean reverse, final boolean accumulate,
+    final float[][] x, final float[][] y)
+  {
+    checkArrays(x,y);
+    final int n2 = y.length;
+    final int n1 = y[0].length;
+    final int nf = f.length;
+
+    // For few traces, simply filter trace by trace.
+    if (n2<4) {
+      for (int i2=0; i2<n2; ++i2) {
+        float[] xi = x[i2];
+        float[] yi = y[i2];
+        float[] ti = (accumulate)?new float[n1]:yi;
+        for (int jf=0; jf<nf && forward; ++jf) {
+          f[jf].applyForward(xi,ti);
+          xi = ti;
+        }
+        for (int jf=0; jf<nf && reverse; ++jf) {
+          f[jf].applyReverse(xi,ti);
+          xi = ti;
+        }
+        if (accumulate) {
+          for (int i1=0; i1<n1; ++i1)
+            yi[i1] += ti[i1];
+        }
+      }
+      return;
+    }
+
+    final int mb = min(NB,n2);
+    final int nb = (n2+mb-1)/mb;
+    final Parallel.Unsafe<float[][]> tu = new Parallel.Unsafe<float[][]>();
+    Parallel.loop(nb,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      float[][] t = tu.get();
+      if (t==null) tu.set(t=new float[n1][mb]);
+      int j2 = ib*mb;
+      int m2 = min(mb,n2-j2);
+      for (int j1=0; j1<n1; j1+=NB) {
+        int e1 = min(n1,j1+NB);
+        for (int k2=0; k2<m2; ++k2) {
+          float[] xk = x[j2+k2];
+          for (int i1=j1; i1<e1; ++i1)
+            t[i1][k2] = xk[i1];
+        }
+      }
+      for (int jf=0; jf<nf && forward; ++jf)
+        f[jf].apply2Forward(t,t);
+      for (int jf=0; jf<nf && reverse; ++jf)
+        f[jf].apply2Reverse(t,t);
+      for (int j1=0; j1<n1; j1+=NB) {
+        int e1 = min(n1,j1+NB);
+        for (int k2=0; k2<m2; ++k2) {
+          float[] yk = y[j2+k2];
+          if (accumulate) {
+            for (int i1=j1; i1<e1; ++i1)
+              yk[i1] += t[i1][k2];
+          } else {
+            for (int i1=j1; i1<e1; ++i1)
+              yk[i1] = t[i1][k2];
+          }
+        }
+      }
+    }});
+  }
+
+  /**
+   * Applies this filter in the forward direction, beginning with the
+   * specified state {x[-2],x[-1],y[-2],y[-1]}. If not null, that state
+   * is updated to be the state after the last sample. Otherwise, the
+   * state is zero.
+   */
+  private void applyForward(float[] x, float[] y, float[] s) {
+    checkArrays(x,y);
+    int n = y.length;
+    float xim2 = (s!=null)?s[0]:0.0f;
+    float xim1 = (s!=null)?s[1]:0.0f;
+    float yim2 = (s!=null)?s[2]:0.0f;
+    float yim1 = (s!=null)?s[3]:0.0f;
+
+    // Special case b1 = b2 = a2 = 0.
+    if (_b1==0.0f && _b2==0.0f && _a2==0.0f) {
+      for (int i=0; i<n; ++i) {
+        float xi = x[i];
+        float yi = _b0*xi-_a1*yim1;
+        y[i] = yi;
+        yim1 = yi;
+      }
+    }
+
+    // Special case b2 = a2 = 0.
+    else if (_b2==0.0f && _a2==0.0f) {
+      for (int i=0; i<n; ++i) {
+        float xi = x[i];
+        float yi = _b0*xi+_b1*xim1-_a1*yim1;
+        y[i] = yi;
+        yim1 = yi;
+        xim1 = xi;
+      }
+    }
+
+    // Special case b2 = 0.
+    else if (_b2==0.0f) {
+      for (int i=0; i<n; ++i) {
+        float xi = x[i];
+        float yi = _b0*xi+_b1*xim1-_a1*yim1-_a2*yim2;
+        y[i] = yi;
+        yim2 = yim1;
+        yim1 = yi;
+        xim1 = xi;
+      }
+    }
+
+    // Special case b0 = 0.
+    else if (_b0==0.0f) {
+      for (int i=0; i<n; ++i) {
+        float xi = x[i];
+        float yi = _b1*xim1+_b2*xim2-_a1*yim1-_a2*yim2;
+        y[i] = yi;
+        yim2 = yim1;
+        yim1 = yi;
+        xim2 = xim1;
+        xim1 = xi;
+      }
+    }
+
+    // General case.
+    else { 
+      for (int i=0; i<n; ++i) {
+        float xi = x[i];
+        float yi = _b0*xi+_b1*xim1+_b2*xim2-_a1*yim1-_a2*yim2;
+        y[i] = yi;
+        yim2 = yim1;
+        yim1 = yi;
+        xim2 = xim1;
+        xim1 = xi;
+      }
+    }
+    if (s!=null) {
+      s[0] = xim2;
+      s[1] = xim1;
+      s[2] = yim2;
+      s[3] = yim1;
+    }
+  }
+
   private static void checkArrays(float[] x, float[] y) {
     Check.argument(x.length==y.length,"x.length==y.length");
   }
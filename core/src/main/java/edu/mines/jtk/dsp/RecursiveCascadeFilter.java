@@ -104,9 +104,7 @@ public class RecursiveCascadeFilter {
    * @param y the output array.
    */
   public void apply1Forward(float[][] x, float[][] y) {
-    _f1[0].apply1Forward(x,y);
-    for (int i1=1; i1<_n1; ++i1)
-      _f1[i1].apply1Forward(y,y);
+    Recursive2ndOrderFilter.apply1(_f1,true,false,false,x,y);
   }
 
   /**
@@ -117,9 +115,7 @@ public class RecursiveCascadeFilter {
    * @param y the output array.
    */
   public void apply1Reverse(float[][] x, float[][] y) {
-    _f1[0].apply1Reverse(x,y);
-    for (int i1=1; i1<_n1; ++i1)
-      _f1[i1].apply1Reverse(y,y);
+    Recursive2ndOrderFilter.apply1(_f1,false,true,false,x,y);
   }
 
   /**
@@ -131,8 +127,7 @@ public class RecursiveCascadeFilter {
    * @param y the output array.
    */
   public void apply1ForwardReverse(float[][] x, float[][] y) {
-    apply1Forward(x,y);
-    apply1Reverse(y,y);
+    Recursive2ndOrderFilter.apply1(_f1,true,true,false,x,y);
     /*
     _f1[0].apply1Forward(x,y);
     _f1[0].apply1Reverse(y,y);
@@ -198,9 +193,9 @@ public class RecursiveCascadeFilter {
    * @param y the output array.
    */
   public void apply1Forward(float[][][] x, float[][][] y) {
-    _f1[0].apply1Forward(x,y);
-    for (int i1=1; i1<_n1; ++i1)
-      _f1[i1].apply1Forward(y,y);
+    int n3 = y.length;
+    for (int i3=0; i3<n3; ++i3)
+      apply1Forward(x[i3],y[i3]);
   }
 
   /**
@@ -211,9 +206,9 @@ public class RecursiveCascadeFilter {
    * @param y the output array.
    */
   public void apply1Reverse(float[][][] x, float[][][] y) {
-    _f1[0].apply1Reverse(x,y);
-    for (int i1=1; i1<_n1; ++i1)
-      _f1[i1].apply1Reverse(y,y);
+    int n3 = y.length;
+    for (int i3=0; i3<n3; ++i3)
+      apply1Reverse(x[i3],y[i3]);
   }
 
   /**
@@ -225,8 +220,9 @@ public class RecursiveCascadeFilter {
    * @param y the output array.
    */
   public void apply1ForwardReverse(float[][][] x, float[][][] y) {
-    apply1Forward(x,y);
-    apply1Reverse(y,y);
+    int n3 = y.length;
+    for (int i3=0; i3<n3; ++i3)
+      apply1ForwardReverse(x[i3],y[i3]);
     /*
     _f1[0].apply1Forward(x,y);
     _f1[0].apply1Reverse(y,y);
@@ -331,6 +327,58 @@ public class RecursiveCascadeFilter {
     */
   }
 
+  /**
+   * A stream for applying this filter in the forward direction to
+   * successive blocks of samples. A stream retains the states of all
+   * 2nd-order filters in the cascade at the end of each block, so that
+   * output for a sequence of blocks equals that computed by applying
+   * this filter once to all samples in those blocks. Streams allocate
+   * no memory when applied.
+   * <p>
+   * A stream should be used by only one thread at a time. To filter
+   * multiple channels, use one stream for each channel.
+   */
+  public class Stream {
+
+    /**
+     * Applies this filter in the forward direction to the next block.
+     * Input and output arrays may be the same array.
+     * Lengths of the input and output arrays must be equal.
+     * Lengths of successive blocks may differ.
+     * @param x the input array.
+     * @param y the output array.
+     */
+    public void applyForward(float[] x, float[] y) {
+      _s1[0].applyForward(x,y);
+      for (int i1=1; i1<_n1; ++i1)
+        _s1[i1].applyForward(y,y);
+    }
+
+    /**
+     * Resets this stream, so that samples before the next block are zero.
+     */
+    public void reset() {
+      for (int i1=0; i1<_n1; ++i1)
+        _s1[i1].reset();
+    }
+
+    private Recursive2ndOrderFilter.Stream[] _s1; // streams for filters
+
+    private Stream() {
+      _s1 = new Recursive2ndOrderFilter.Stream[_n1];
+      for (int i1=0; i1<_n1; ++i1)
+        _s1[i1] = _f1[i1].newStream();
+    }
+  }
+
+  /**
+   * Returns a new stream for this filter, with zero initial state.
+   * @return the stream.
+   */
+  public Stream newStream() {
+    return new Stream();
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   // protected
 
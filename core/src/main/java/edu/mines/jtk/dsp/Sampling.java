@@ -343,7 +343,7 @@ public class Sampling {
       if (0<=j && j<_n && almostEqual(x,_f+j*_d,_td))
         i = j;
     } else {
-      int j = binarySearch(_v,x);
+      int j = binarySearch(_v,x,hint(x));
       if (0<=j) {
         i = j;
       } else {
@@ -372,19 +372,82 @@ public class Sampling {
       if (i>=_n)
         i = _n-1;
     } else {
-      i = binarySearch(_v,x);
-      if (i<0) {
-        i = -(i+1);
-        if (i==_n) {
-          i = _n-1;
-        } else if (i>0 && Math.abs(x-_v[i-1])<Math.abs(x-_v[i])) {
-          --i;
-        }
-      }
+      i = nearest(x,binarySearch(_v,x,hint(x)));
     }
     return i;
   }
 
+  /**
+   * Computes indices of samples nearest to the specified values.
+   * Equivalent to calling {@link #indexOfNearest(double)} for each value,
+   * but faster for non-uniform samplings when the values are sorted.
+   * Each search then begins where the previous search ended, so that
+   * the cost of locating all values is proportional to the number of
+   * values plus the number of samples.
+   * @param x array of values, preferably sorted.
+   * @param i output array of indices of nearest samples.
+   */
+  public void indexOfNearest(double[] x, int[] i) {
+    int nx = x.length;
+    if (isUniform()) {
+      for (int ix=0; ix<nx; ++ix)
+        i[ix] = indexOfNearest(x[ix]);
+    } else {
+      for (int ix=0,j=hint(x,0); ix<nx; ++ix) {
+        j = binarySearch(_v,x[ix],j);
+        i[ix] = nearest(x[ix],j);
+      }
+    }
+  }
+
+  /**
+   * Locates the specified values within intervals between samples.
+   * For each value x, computes the index i of the sampling interval
+   * [v(i),v(i+1)] that contains x and the fraction (x-v(i))/(v(i+1)-v(i))
+   * of that interval, where v(i) denotes the sample value with index i.
+   * Indices are clamped to the range [0,count-2], so that fractions are
+   * less than zero or greater than one for values out of bounds. If this
+   * sampling has only one sample, then all indices and fractions are zero.
+   * <p>
+   * For non-uniform samplings, this method is fastest when the values are
+   * sorted. Each search then begins where the previous search ended, so
+   * that the cost of locating all values is proportional to the number of
+   * values plus the number of samples.
+   * @param x array of values, preferably sorted.
+   * @param i output array of indices of intervals.
+   * @param f output array of fractions of intervals.
+   */
+  public void locate(double[] x, int[] i, double[] f) {
+    int nx = x.length;
+    int nm2 = _n-2;
+    if (_n==1) {
+      for (int ix=0; ix<nx; ++ix) {
+        i[ix] = 0;
+        f[ix] = 0.0;
+      }
+    } else if (isUniform()) {
+      for (int ix=0; ix<nx; ++ix) {
+        double xn = (x[ix]-_f)/_d;
+        int k = (int)xn;
+        if (xn<k) --k;
+        if (k<0) k = 0;
+        if (k>nm2) k = nm2;
+        i[ix] = k;
+        f[ix] = xn-k;
+      }
+    } else {
+      for (int ix=0,j=hint(x,0); ix<nx; ++ix) {
+        double xi = x[ix];
+        j = binarySearch(_v,xi,j);
+        int k = (0<=j)?j:-(j+1)-1;
+        if (k<0) k = 0;
+        if (k>nm2) k = nm2;
+        i[ix] = k;
+        f[ix] = (xi-_v[k])/(_v[k+1]-_v[k]);
+      }
+    }
+  }
+
   /**
    * Returns the value of the sample nearest to the specified value.
    * @param x the value.
@@ -751,6 +814,54 @@ public class Sampling {
   private double[] _v; // array[n] of sample values; null, if uniform
   private double _t; // sampling tolerance, as a fraction of _d
   private double _td; // sampling tolerance _t multiplied by _d
+  private volatile int[] _table; // array[n] of indices to begin searches
+
+  /**
+   * Returns the index at which to begin a search for the specified value
+   * in the array of sample values. The returned index is that of the
+   * largest sample value not greater than the start of the interval in
+   * [first,last] that contains the value, where the range [first,last]
+   * is split into intervals of length delta. Non-uniform samplings are
+   * often uniform with gaps, and for those the returned index is at or
+   * next to the index sought.
+   */
+  private int hint(double x) {
+    int[] t = _table;
+    if (t==null)
+      _table = t = makeTable();
+    double xn = (x-_f)/_d;
+    int k = (xn<=0.0)?0:(xn>=_n-1)?_n-1:(int)xn;
+    return t[k];
+  }
+  private int hint(double[] x, int ix) {
+    return (ix<x.length)?hint(x[ix]):0;
+  }
+  private int[] makeTable() {
+    int[] t = new int[_n];
+    for (int k=0,j=0; k<_n; ++k) {
+      double vk = _f+k*_d;
+      while (j<_n-1 && _v[j+1]<=vk)
+        ++j;
+      t[k] = j;
+    }
+    return t;
+  }
+
+  /**
+   * Returns the index of the sample nearest the specified value, given
+   * the index returned by a binary search for that value.
+   */
+  private int nearest(double x, int i) {
+    if (i<0) {
+      i = -(i+1);
+      if (i==_n) {
+        i = _n-1;
+      } else if (i>0 && Math.abs(x-_v[i-1])<Math.abs(x-_v[i])) {
+        --i;
+      }
+    }
+    return i;
+  }
 
   private double value(int i) {
     return (_v!=null)?_v[i]:_f+i*_d;
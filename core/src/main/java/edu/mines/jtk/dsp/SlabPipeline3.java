@@ -0,0 +1,385 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.dsp;
+
+import java.util.ArrayList;
+
+import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * A pipeline of local filters applied to 3-D arrays, slab by slab.
+ * <p>
+ * Chains of filters often require several full-size arrays of
+ * intermediate values, one for each filter in the chain. For example,
+ * computing structure tensors requires gradients, then products of
+ * gradients, and then smoothed products. A pipeline instead computes
+ * each intermediate array one 2-D slice (with constant index i3) at a
+ * time, and keeps only those slices required by subsequent stages.
+ * <p>
+ * Each stage of a pipeline computes one or more output channels from one
+ * or more input channels. A channel is a 3-D array of values, but only
+ * a rolling window of its slices exists while the pipeline is applied.
+ * Channels are numbered sequentially, beginning with the input arrays
+ * of the pipeline. Each stage appends its outputs to that sequence.
+ * <p>
+ * A stage computes its output slices for index i3 from input slices with
+ * indices i3-h, ..., i3+h, where the non-negative integer h is the halo
+ * of that stage. Stages that filter only within slices or compute only
+ * pointwise functions have zero halo. Input slices beyond the ends of
+ * the arrays are those at the nearest ends, for constant extrapolation.
+ * <p>
+ * Output arrays are computed in parallel for contiguous blocks of slices.
+ * Slices in the halos of each block are computed redundantly, so that
+ * blocks are independent. Stages must therefore be thread-safe.
+ * Output arrays must not be input arrays.
+ * @version 2026.10.19
+ */
+public class SlabPipeline3 {
+
+  /**
+   * A stage of a pipeline.
+   */
+  public interface Stage {
+
+    /**
+     * Returns the halo of this stage. Output slices with index i3
+     * depend on input slices with indices in [i3-halo,i3+halo].
+     * @return the halo; zero, for filters within slices.
+     */
+    public int getHalo();
+
+    /**
+     * Computes output slices for one index i3.
+     * @param i3 the index of output slices.
+     * @param x array[ni][2*halo+1] of input slices with indices in
+     *  [i3-halo,i3+halo], for ni input channels.
+     * @param y array[no] of output slices, for no output channels.
+     */
+    public void apply(int i3, float[][][][] x, float[][][] y);
+  }
+
+  /**
+   * Returns a stage that applies a recursive Gaussian filter to slices.
+   * The stage has one output channel for each input channel.
+   * @param rgf the recursive Gaussian filter.
+   * @param d1 order of derivative in 1st dimension; 0, 1 or 2.
+   * @param d2 order of derivative in 2nd dimension; 0, 1 or 2.
+   * @return the stage.
+   */
+  public static Stage gaussian(
+    final RecursiveGaussianFilter rgf, final int d1, final int d2)
+  {
+    Check.argument(0<=d1 && 0<=d2 && d1+d2<=2,"d1+d2 does not exceed 2");
+    return new Stage() {
+      public int getHalo() {
+        return 0;
+      }
+      public void apply(int i3, float[][][][] x, float[][][] y) {
+        for (int ic=0; ic<y.length; ++ic) {
+          float[][] xc = x[ic][0];
+          float[][] yc = y[ic];
+          if (d1==0 && d2==0) {
+            rgf.apply00(xc,yc);
+          } else if (d1==1 && d2==0) {
+            rgf.apply10(xc,yc);
+          } else if (d1==0 && d2==1) {
+            rgf.apply01(xc,yc);
+          } else if (d1==1 && d2==1) {
+            rgf.apply11(xc,yc);
+          } else if (d1==2) {
+            rgf.apply20(xc,yc);
+          } else {
+            rgf.apply02(xc,yc);
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * Returns a stage that applies a finite-length filter in the 3rd
+   * dimension. The stage has one output channel for each input channel.
+   * Output values are y[i3] = c[0]*x[i3-h]+...+c[2*h]*x[i3+h].
+   * @param c array[2*h+1] of filter coefficients.
+   * @return the stage.
+   */
+  public static Stage stencil3(float[] c) {
+    Check.argument(c.length%2==1,"c.length is odd");
+    final float[] cc = copy(c);
+    final int h = (c.length-1)/2;
+    return new Stage() {
+      public int getHalo() {
+        return h;
+      }
+      public void apply(int i3, float[][][][] x, float[][][] y) {
+        for (int ic=0; ic<y.length; ++ic) {
+          float[][] yc = y[ic];
+          int n2 = yc.length;
+          int n1 = yc[0].length;
+          for (int i2=0; i2<n2; ++i2) {
+            float[] yi = yc[i2];
+            zero(yi);
+            for (int k=0; k<=2*h; ++k) {
+              float ck = cc[k];
+              if (ck==0.0f) continue;
+              float[] xi = x[ic][k][i2];
+              for (int i1=0; i1<n1; ++i1)
+                yi[i1] += ck*xi[i1];
+            }
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * Constructs a pipeline for the specified number of input arrays.
+   * @param ni number of input arrays; channels 0 through ni-1.
+   */
+  public SlabPipeline3(int ni) {
+    Check.argument(ni>0,"ni>0");
+    _ni = ni;
+    _nc = ni;
+  }
+
+  /**
+   * Appends a stage to this pipeline.
+   * @param stage the stage.
+   * @param inputs array of channels input to the stage.
+   * @param no number of channels output by the stage.
+   * @return array[no] of channels output by the stage.
+   */
+  public int[] add(Stage stage, int[] inputs, int no) {
+    Check.argument(stage.getHalo()>=0,"halo is non-negative");
+    for (int input:inputs)
+      Check.argument(0<=input && input<_nc,"input channel is defined");
+    Check.argument(no>0,"no>0");
+    StageInfo si = new StageInfo();
+    si.stage = stage;
+    si.halo = stage.getHalo();
+    si.inputs = copy(inputs);
+    si.outputs = rampint(_nc,1,no);
+    _nc += no;
+    _stages.add(si);
+    return copy(si.outputs);
+  }
+
+  /**
+   * Applies this pipeline.
+   * @param x array[ni][n3][n2][n1] of input arrays.
+   * @param outputs array[ny] of channels to output.
+   * @param y array[ny][n3][n2][n1] of output arrays.
+   */
+  public void apply(float[][][][] x, int[] outputs, float[][][][] y) {
+    Check.argument(x.length==_ni,"x.length equals number of inputs");
+    Check.argument(outputs.length==y.length,"outputs.length==y.length");
+    for (int output:outputs)
+      Check.argument(_ni<=output && output<_nc,"output channel is computed");
+    Plan plan = new Plan(x,outputs,y);
+    plan.apply();
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private int _ni; // number of input channels
+  private int _nc; // number of channels, including inputs
+  private ArrayList<StageInfo> _stages = new ArrayList<StageInfo>();
+
+  private static class StageInfo {
+    Stage stage;
+    int halo;
+    int[] inputs;
+    int[] outputs;
+  }
+
+  /**
+   * A plan for applying this pipeline to specified arrays. Channels
+   * computed by stages are computed with a lead, so that the slice with
+   * index i3+lead[ic] of channel ic is computed just before output slices
+   * with index i3. Within each block of output slices [j3,k3], the first
+   * slice computed has index j3+first[ic]. Channels with consumers are
+   * stored in rings of slices with length ring[ic].
+   */
+  private class Plan {
+    Plan(float[][][][] x, int[] outputs, float[][][][] y) {
+      _x = x;
+      _n3 = x[0].length;
+      _n2 = x[0][0].length;
+      _n1 = x[0][0][0].length;
+      int nc = _nc;
+      int ns = _stages.size();
+
+      // Outputs, if any, for each channel.
+      _output = new float[nc][][][];
+      for (int iy=0; iy<outputs.length; ++iy)
+        _output[outputs[iy]] = y[iy];
+
+      // Leads and first slices, by propagating halos from outputs back
+      // through the stages that compute them.
+      _lead = new int[nc];
+      _first = new int[nc];
+      boolean[] used = new boolean[nc];
+      for (int ic=0; ic<nc; ++ic) {
+        used[ic] = _output[ic]!=null;
+        _first[ic] = (used[ic])?0:Integer.MAX_VALUE;
+      }
+      _used = new boolean[ns];
+      for (int is=ns-1; is>=0; --is) {
+        StageInfo si = _stages.get(is);
+        int lead = 0;
+        int first = Integer.MAX_VALUE;
+        for (int ic:si.outputs) {
+          if (used[ic]) {
+            _used[is] = true;
+            lead = max(lead,_lead[ic]);
+            first = min(first,_first[ic]);
+          }
+        }
+        if (!_used[is]) continue;
+        for (int ic:si.outputs) {
+          _lead[ic] = lead;
+          _first[ic] = first;
+        }
+        for (int ic:si.inputs) {
+          used[ic] = true;
+          _lead[ic] = max(_lead[ic],lead+si.halo);
+          _first[ic] = min(_first[ic],first-si.halo);
+        }
+      }
+
+      // Ring lengths, for channels consumed by stages.
+      _ring = new int[nc];
+      for (int is=0; is<ns; ++is) {
+        StageInfo si = _stages.get(is);
+        if (!_used[is]) continue;
+        int lead = _lead[si.outputs[0]];
+        for (int ic:si.inputs)
+          _ring[ic] = max(_ring[ic],1+_lead[ic]-(lead-si.halo));
+      }
+      for (int ic=0; ic<_ni; ++ic)
+        _ring[ic] = 0;
+
+      // Blocks of output slices, with halos that are small compared to
+      // the number of slices in each block.
+      int mlead = 0;
+      for (int ic=0; ic<nc; ++ic) {
+        if (_ring[ic]>0 || _output[ic]!=null)
+          mlead = max(mlead,_lead[ic]-_first[ic]);
+      }
+      int nthread = Runtime.getRuntime().availableProcessors();
+      int nb = max(1,min(4*nthread,_n3/max(1,4*mlead)));
+      _m3 = (_n3+nb-1)/nb;
+      _nb = (_n3+_m3-1)/_m3;
+    }
+
+    void apply() {
+      final Parallel.Unsafe<float[][][][]> ru =
+        new Parallel.Unsafe<float[][][][]>();
+      Parallel.loop(_nb,new Parallel.LoopInt() {
+      public void compute(int ib) {
+        float[][][][] r = ru.get();
+        if (r==null) ru.set(r=makeRings());
+        applyBlock(ib*_m3,min(_n3,ib*_m3+_m3),r);
+      }});
+    }
+
+    private float[][][][] makeRings() {
+      int nc = _nc;
+      float[][][][] r = new float[nc][][][];
+      for (int ic=0; ic<nc; ++ic) {
+        if (_ring[ic]>0)
+          r[ic] = new float[_ring[ic]][_n2][_n1];
+      }
+      return r;
+    }
+
+    /**
+     * Computes output slices with indices in [j3,k3).
+     */
+    private void applyBlock(int j3, int k3, float[][][][] r) {
+      int ns = _stages.size();
+      float[][][][][] xs = new float[ns][][][][];
+      float[][][][] ys = new float[ns][][][];
+      float[][][][] ts = new float[ns][][][];
+      int t3 = j3;
+      for (int is=0; is<ns; ++is) {
+        StageInfo si = _stages.get(is);
+        if (!_used[is]) continue;
+        int ic = si.outputs[0];
+        t3 = min(t3,j3+_first[ic]-_lead[ic]);
+        xs[is] = new float[si.inputs.length][2*si.halo+1][][];
+        ys[is] = new float[si.outputs.length][][];
+        ts[is] = new float[si.outputs.length][][];
+      }
+      for (; t3<k3; ++t3) {
+        for (int is=0; is<ns; ++is) {
+          if (!_used[is]) continue;
+          StageInfo si = _stages.get(is);
+          int h = si.halo;
+          int i3 = t3+_lead[si.outputs[0]];
+          if (i3<0 || i3>=_n3 || i3<j3+_first[si.outputs[0]])
+            continue;
+          boolean needed = false;
+          for (int jo=0; jo<si.outputs.length; ++jo) {
+            int ic = si.outputs[jo];
+            if (_ring[ic]>0) {
+              ys[is][jo] = r[ic][i3%_ring[ic]];
+              needed = true;
+            } else if (_output[ic]!=null && j3<=i3 && i3<k3) {
+              ys[is][jo] = _output[ic][i3];
+              needed = true;
+            } else {
+              ys[is][jo] = null;
+            }
+          }
+          if (!needed)
+            continue;
+          for (int jo=0; jo<si.outputs.length; ++jo) {
+            if (ys[is][jo]==null) {
+              if (ts[is][jo]==null)
+                ts[is][jo] = new float[_n2][_n1];
+              ys[is][jo] = ts[is][jo];
+            }
+          }
+          for (int ji=0; ji<si.inputs.length; ++ji) {
+            int ic = si.inputs[ji];
+            for (int k=-h; k<=h; ++k) {
+              int m3 = max(0,min(_n3-1,i3+k));
+              xs[is][ji][h+k] = (ic<_ni)?_x[ic][m3]:r[ic][m3%_ring[ic]];
+            }
+          }
+          si.stage.apply(i3,xs[is],ys[is]);
+          for (int jo=0; jo<si.outputs.length; ++jo) {
+            int ic = si.outputs[jo];
+            if (_ring[ic]>0 && _output[ic]!=null && j3<=i3 && i3<k3)
+              copy(ys[is][jo],_output[ic][i3]);
+          }
+        }
+      }
+    }
+
+    private float[][][][] _x; // input arrays
+    private int _n1,_n2,_n3; // array dimensions
+    private int _m3,_nb; // number of slices per block, number of blocks
+    private float[][][][] _output; // output arrays for channels; or null
+    private int[] _lead; // leads of channels
+    private int[] _first; // first slices of channels, relative to blocks
+    private int[] _ring; // lengths of rings of slices for channels
+    private boolean[] _used; // true, if stage is used
+  }
+}
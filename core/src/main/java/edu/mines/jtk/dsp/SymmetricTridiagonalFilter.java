@@ -119,38 +119,19 @@ public class SymmetricTridiagonalFilter {
 
   /**
    * Applies this filter along the 2nd dimension of a 2D array.
+   * Blocks of columns are filtered in parallel, with all columns in
+   * each block filtered in lockstep.
    * @param x input array x; may be the same as the output array y.
    * @param y output array y; may be the same as the input array x.
    */
   public void apply2(final float[][] x, final float[][] y) {
-    int n1 = x[0].length;
-    int n2 = x.length;
-    int n2m1 = n2-1;
-    float af = (float)_af;
-    float ai = (float)_ai;
-    float al = (float)_al;
-    float b = (float)_b;
-    float[] xi2m1 = new float[n1];
-    float[] xi2 = copy(x[0]);
-    float[] xi2p1 = copy(x[1]);
-    float[] yi2 = y[0];
-    for (int i1=0; i1<n1; ++i1)
-      yi2[i1] = af*xi2[i1]+b*xi2p1[i1];
-    for (int i2=1; i2<n2m1; ++i2) {
-      float[] xtemp = xi2m1;
-      xi2m1 = xi2;
-      xi2 = xi2p1;
-      xi2p1 = xtemp;
-      copy(x[i2+1],xi2p1);
-      yi2 = y[i2];
-      for (int i1=0; i1<n1; ++i1)
-        yi2[i1] = ai*xi2[i1]+b*(xi2m1[i1]+xi2p1[i1]);
-    }
-    xi2m1 = xi2;
-    xi2 = xi2p1;
-    yi2 = y[n2-1];
-    for (int i1=0; i1<n1; ++i1)
-      yi2[i1] = al*xi2[i1]+b*xi2m1[i1];
+    final int n1 = x[0].length;
+    int nb = (n1+NB2-1)/NB2;
+    Parallel.loop(nb,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      int j1 = ib*NB2;
+      apply2(j1,min(NB2,n1-j1),x,y);
+    }});
   }
 
   /**
@@ -172,30 +153,34 @@ public class SymmetricTridiagonalFilter {
    * @param y output array y; may be the same as the input array x.
    */
   public void apply2(final float[][][] x, final float[][][] y) {
-    int n = x.length;
-    Parallel.loop(n,new Parallel.LoopInt() {
+    final int n1 = x[0][0].length;
+    int n3 = x.length;
+    final int nb = (n1+NB2-1)/NB2;
+    Parallel.loop(n3*nb,new Parallel.LoopInt() {
     public void compute(int i) {
-      apply2(x[i],y[i]);
+      int i3 = i/nb;
+      int j1 = (i%nb)*NB2;
+      apply2(j1,min(NB2,n1-j1),x[i3],y[i3]);
     }});
   }
 
   /**
    * Applies this filter along the 3rd dimension of a 3D array.
+   * Arrays are not transposed. Instead, for each index i2, blocks of
+   * samples with constant i1 are filtered in lockstep.
    * @param x input array x; may be the same as the output array y.
    * @param y output array y; may be the same as the input array x.
    */
-  public void apply3(float[][][] x, float[][][] y) {
+  public void apply3(final float[][][] x, final float[][][] y) {
+    final int n1 = x[0][0].length;
     int n2 = x[0].length;
-    int n3 = x.length;
-    float[][][] xt = new float[n2][n3][];
-    float[][][] yt = new float[n2][n3][];
-    for (int i2=0; i2<n2; ++i2) {
-      for (int i3=0; i3<n3; ++i3) {
-        xt[i2][i3] = x[i3][i2];
-        yt[i2][i3] = y[i3][i2];
-      }
-    }
-    apply2(xt,yt);
+    final int nb = (n1+NB2-1)/NB2;
+    Parallel.loop(n2*nb,new Parallel.LoopInt() {
+    public void compute(int i) {
+      int i2 = i/nb;
+      int j1 = (i%nb)*NB2;
+      apply2(j1,min(NB2,n1-j1),slice(i2,x),slice(i2,y));
+    }});
   }
 
   /**
@@ -336,39 +321,194 @@ public class SymmetricTridiagonalFilter {
 
   /**
    * Applies the inverse of this filter along the 1st dimension of a 2D array.
+   * Blocks of arrays are solved in parallel. Within each block, arrays are
+   * copied into a work array, so that the recursions in all arrays in the
+   * block are computed in lockstep.
    * @param x input array x; may be the same as the output array y.
    * @param y output array y; may be the same as the input array x.
    */
   public void applyInverse1(final float[][] x, final float[][] y) {
+    checkInvertible();
+    final int n1 = x[0].length;
+    final int n2 = x.length;
+    int nb = (n2+NB1-1)/NB1;
+    final Parallel.Unsafe<float[][]> tu = new Parallel.Unsafe<float[][]>();
+    Parallel.loop(nb,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      float[][] t = tu.get();
+      if (t==null) tu.set(t=new float[n1][NB1]);
+      int j2 = ib*NB1;
+      int m2 = min(NB1,n2-j2);
+      for (int k2=0; k2<m2; ++k2) {
+        float[] xk = x[j2+k2];
+        for (int i1=0; i1<n1; ++i1)
+          t[i1][k2] = xk[i1];
+      }
+      applyInverse2(0,m2,t,t);
+      for (int k2=0; k2<m2; ++k2) {
+        float[] yk = y[j2+k2];
+        for (int i1=0; i1<n1; ++i1)
+          yk[i1] = t[i1][k2];
+      }
+    }});
+  }
+
+  /**
+   * Applies the inverse of this filter along the 2nd dimension of a 2D array.
+   * Blocks of columns are solved in parallel, with all columns in each
+   * block solved in lockstep.
+   * @param x input array x; may be the same as the output array y.
+   * @param y output array y; may be the same as the input array x.
+   */
+  public void applyInverse2(final float[][] x, final float[][] y) {
+    checkInvertible();
+    final int n1 = x[0].length;
+    int nb = (n1+NB2-1)/NB2;
+    Parallel.loop(nb,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      int j1 = ib*NB2;
+      applyInverse2(j1,min(NB2,n1-j1),x,y);
+    }});
+  }
+
+  /**
+   * Applies the inverse of this filter along the 1st dimension of a 3D array.
+   * @param x input array x; may be the same as the output array y.
+   * @param y output array y; may be the same as the input array x.
+   */
+  public void applyInverse1(final float[][][] x, final float[][][] y) {
     int n = x.length;
     Parallel.loop(n,new Parallel.LoopInt() {
     public void compute(int i) {
-      applyInverse(x[i],y[i]);
+      applyInverse1(x[i],y[i]);
     }});
   }
 
   /**
-   * Applies the inverse of this filter along the 2nd dimension of a 2D array.
+   * Applies the inverse of this filter along the 2nd dimension of a 3D array.
    * @param x input array x; may be the same as the output array y.
    * @param y output array y; may be the same as the input array x.
    */
-  public void applyInverse2(float[][] x, float[][] y) {
+  public void applyInverse2(final float[][][] x, final float[][][] y) {
     checkInvertible();
-    int n1 = x[0].length;
+    final int n1 = x[0][0].length;
+    int n3 = x.length;
+    final int nb = (n1+NB2-1)/NB2;
+    Parallel.loop(n3*nb,new Parallel.LoopInt() {
+    public void compute(int i) {
+      int i3 = i/nb;
+      int j1 = (i%nb)*NB2;
+      applyInverse2(j1,min(NB2,n1-j1),x[i3],y[i3]);
+    }});
+  }
+
+  /**
+   * Applies the inverse of this filter along the 3rd dimension of a 3D array.
+   * Arrays are not transposed. Instead, for each index i2, blocks of
+   * samples with constant i1 are solved in lockstep.
+   * @param x input array x; may be the same as the output array y.
+   * @param y output array y; may be the same as the input array x.
+   */
+  public void applyInverse3(final float[][][] x, final float[][][] y) {
+    checkInvertible();
+    final int n1 = x[0][0].length;
+    int n2 = x[0].length;
+    final int nb = (n1+NB2-1)/NB2;
+    Parallel.loop(n2*nb,new Parallel.LoopInt() {
+    public void compute(int i) {
+      int i2 = i/nb;
+      int j1 = (i%nb)*NB2;
+      applyInverse2(j1,min(NB2,n1-j1),slice(i2,x),slice(i2,y));
+    }});
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  // Arrays solved along the 1st dimension are solved in blocks of NB1
+  // arrays. Arrays filtered along other dimensions are filtered in blocks
+  // of NB2 samples with contiguous indices i1. The recursions for all
+  // samples in a block are computed in lockstep, in inner loops over i1
+  // that are easily vectorized. Blocks of samples with indices i1 are
+  // wide enough for efficient streaming through memory, and multiple
+  // blocks enable parallel filtering of a single 2D array.
+  private static final int NB1 = 32;
+  private static final int NB2 = 1024;
+
+  private double _af,_ai,_al,_b; // coefficients
+
+  private void checkInvertible() {
+    Check.state(abs(_ai)>=2.0*abs(_b),"filter is invertible");
+  }
+
+  /**
+   * Returns references to the arrays x[i3][i2] with specified index i2.
+   */
+  private static float[][] slice(int i2, float[][][] x) {
+    int n3 = x.length;
+    float[][] x2 = new float[n3][];
+    for (int i3=0; i3<n3; ++i3)
+      x2[i3] = x[i3][i2];
+    return x2;
+  }
+
+  /**
+   * Applies this filter along the 2nd dimension for samples with
+   * indices j1 &lt;= i1 &lt; j1+m1.
+   */
+  private void apply2(int j1, int m1, float[][] x, float[][] y) {
+    int n2 = x.length;
+    int n2m1 = n2-1;
+    float af = (float)_af;
+    float ai = (float)_ai;
+    float al = (float)_al;
+    float b = (float)_b;
+    // Buffers are indexed by k1 = i1-j1.
+    float[] xi2m1 = new float[m1];
+    float[] xi2 = new float[m1];
+    float[] xi2p1 = new float[m1];
+    System.arraycopy(x[0],j1,xi2,0,m1);
+    System.arraycopy(x[1],j1,xi2p1,0,m1);
+    float[] yi2 = y[0];
+    for (int k1=0; k1<m1; ++k1)
+      yi2[j1+k1] = af*xi2[k1]+b*xi2p1[k1];
+    for (int i2=1; i2<n2m1; ++i2) {
+      float[] xtemp = xi2m1;
+      xi2m1 = xi2;
+      xi2 = xi2p1;
+      xi2p1 = xtemp;
+      System.arraycopy(x[i2+1],j1,xi2p1,0,m1);
+      yi2 = y[i2];
+      for (int k1=0; k1<m1; ++k1)
+        yi2[j1+k1] = ai*xi2[k1]+b*(xi2m1[k1]+xi2p1[k1]);
+    }
+    xi2m1 = xi2;
+    xi2 = xi2p1;
+    yi2 = y[n2-1];
+    for (int k1=0; k1<m1; ++k1)
+      yi2[j1+k1] = al*xi2[k1]+b*xi2m1[k1];
+  }
+
+  /**
+   * Applies the inverse of this filter along the 2nd dimension for
+   * samples with indices j1 &lt;= i1 &lt; j1+m1.
+   */
+  private void applyInverse2(int j1, int m1, float[][] x, float[][] y) {
     int n2 = x.length;
     int n2m1 = n2-1;
+    int e1 = j1+m1;
 
     // The trivial special case where b is zero.
     if (_b==0.0f) {
       float oa = 1.0f/(float)_af;
-      for (int i1=0; i1<n1; ++i1)
+      for (int i1=j1; i1<e1; ++i1)
         y[0][i1] = x[0][i1]*oa;
       oa = 1.0f/(float)_ai;
       for (int i2=1; i2<n2m1; ++i2)
-        for (int i1=0; i1<n1; ++i1)
+        for (int i1=j1; i1<e1; ++i1)
           y[i2][i1] = x[i2][i1]*oa;
       oa = 1.0f/(float)_al;
-      for (int i1=0; i1<n1; ++i1)
+      for (int i1=j1; i1<e1; ++i1)
         y[n2m1][i1] = x[n2m1][i1]*oa;
       return;
     }
@@ -388,52 +528,52 @@ public class SymmetricTridiagonalFilter {
     // Rescale, while copying input array to output array.
     float scale = (1.0f+bb)/(float)_ai;
     for (int i2=0; i2<n2; ++i2)
-      for (int i1=0; i1<n1; ++i1)
+      for (int i1=j1; i1<e1; ++i1)
         y[i2][i1] = scale*x[i2][i1];
 
     // If -1 < beta < 1, ...
     if (bb<1.0f) {
 
       // Factorization.
-      float[] yn2m1 = new float[n1];
+      float[] yn2m1 = new float[m1];
       float c = (1.0f-bb-ss)/ss;
       float d = 1.0f-bb+gg*(1.0f+c*pow(bb,n2-1));
       float e = pow(1.0f-abs(b),2.0f)*FLT_EPSILON/4.0f;
       int k2 = min((int)ceil(log(e)/log(abs(b))),2*(n2-1));
       int m2 = k2-n2+1; // 2-n2<= m2 <= n2-1
       for (int i2=m2; i2>0; --i2)
-        for (int i1=0; i1<n1; ++i1)
-          yn2m1[i1] = b*yn2m1[i1]+y[i2][i1];
-      for (int i1=0; i1<n1; ++i1)
-        yn2m1[i1] *= c;
+        for (int k1=0; k1<m1; ++k1)
+          yn2m1[k1] = b*yn2m1[k1]+y[i2][j1+k1];
+      for (int k1=0; k1<m1; ++k1)
+        yn2m1[k1] *= c;
       if (n2-k2<1) {
-        for (int i1=0; i1<n1; ++i1)
-          yn2m1[i1] = b*yn2m1[i1]+(1.0f+c)*y[0][i1];
+        for (int k1=0; k1<m1; ++k1)
+          yn2m1[k1] = b*yn2m1[k1]+(1.0f+c)*y[0][j1+k1];
       }
       m2 = max(n2-k2,1); // 1 <= m2 <= n2-1
       for (int i2=m2; i2<n2; ++i2)
-        for (int i1=0; i1<n1; ++i1)
-          yn2m1[i1] = b*yn2m1[i1]+y[i2][i1];
-      for (int i1=0; i1<n1; ++i1)
-        yn2m1[i1] /= d;
+        for (int k1=0; k1<m1; ++k1)
+          yn2m1[k1] = b*yn2m1[k1]+y[i2][j1+k1];
+      for (int k1=0; k1<m1; ++k1)
+        yn2m1[k1] /= d;
 
       // Backward substitution.
-      for (int i1=0; i1<n1; ++i1)
-        y[n2-1][i1] -= gg*yn2m1[i1];
+      for (int k1=0; k1<m1; ++k1)
+        y[n2-1][j1+k1] -= gg*yn2m1[k1];
       for (int i2=n2-2; i2>=0; --i2)
-        for (int i1=0; i1<n1; ++i1)
+        for (int i1=j1; i1<e1; ++i1)
           y[i2][i1] += b*y[i2+1][i1];
 
       // First y.
-      for (int i1=0; i1<n1; ++i1)
+      for (int i1=j1; i1<e1; ++i1)
         y[0][i1] /= ss;
 
       // Forward substitution.
       for (int i2=1; i2<n2m1; ++i2)
-        for (int i1=0; i1<n1; ++i1)
+        for (int i1=j1; i1<e1; ++i1)
           y[i2][i1] += b*y[i2-1][i1];
-      for (int i1=0; i1<n1; ++i1)
-        y[n2m1][i1] = yn2m1[i1];
+      for (int k1=0; k1<m1; ++k1)
+        y[n2m1][j1+k1] = yn2m1[k1];
     }
      
     // Else, if a special case beta = 1 or beta = -1, ...
@@ -444,51 +584,50 @@ public class SymmetricTridiagonalFilter {
       if (ss>0.0f && gg>0.0f) {
 
         // Compute y[n2-1] using special case of Boisvert's equation 9.
-        float[] yn2m1 = new float[n1];
+        float[] yn2m1 = new float[m1];
         float oss = 1.0f/ss;
-        float sum = 0.0f;
         for (int i2=0; i2<n2m1; ++i2)
-          for (int i1=0; i1<n1; ++i1)
-            yn2m1[i1] = (yn2m1[i1]+(i2+oss)*y[i2][i1])*b;
-        for (int i1=0; i1<n1; ++i1) {
-          yn2m1[i1] += (n2m1+oss)*y[n2m1][i1];
-          yn2m1[i1] /= 1.0f+gg*(n2m1)+gg/ss;
+          for (int k1=0; k1<m1; ++k1)
+            yn2m1[k1] = (yn2m1[k1]+(i2+oss)*y[i2][j1+k1])*b;
+        for (int k1=0; k1<m1; ++k1) {
+          yn2m1[k1] += (n2m1+oss)*y[n2m1][j1+k1];
+          yn2m1[k1] /= 1.0f+gg*(n2m1)+gg/ss;
         }
 
         // Back substitution.
-        for (int i1=0; i1<n1; ++i1)
-          y[n2m1][i1] -= gg*yn2m1[i1];
+        for (int k1=0; k1<m1; ++k1)
+          y[n2m1][j1+k1] -= gg*yn2m1[k1];
         for (int i2=n2-2; i2>=0; --i2)
-          for (int i1=0; i1<n1; ++i1)
+          for (int i1=j1; i1<e1; ++i1)
             y[i2][i1] += b*y[i2+1][i1];
-        for (int i1=0; i1<n1; ++i1)
+        for (int i1=j1; i1<e1; ++i1)
           y[0][i1] /= ss;
 
         // Forward substitution.
         for (int i2=1; i2<n2m1; ++i2)
-          for (int i1=0; i1<n1; ++i1)
+          for (int i1=j1; i1<e1; ++i1)
             y[i2][i1] += b*y[i2-1][i1];
-        for (int i1=0; i1<n1; ++i1)
-          y[n2-1][i1] = yn2m1[i1];
+        for (int k1=0; k1<m1; ++k1)
+          y[n2-1][j1+k1] = yn2m1[k1];
       }
 
       // Else, if first column of Q is zero (so Q is a square matrix), ...
       else if (ss==0.0f) {
 
         // Forward substitution.
-        for (int i1=0; i1<n1; ++i1)
+        for (int i1=j1; i1<e1; ++i1)
           y[0][i1] *= -b;
         for (int i2=1; i2<n2m1; ++i2)
-          for (int i1=0; i1<n1; ++i1)
+          for (int i1=j1; i1<e1; ++i1)
             y[i2][i1] = b*(y[i2-1][i1]-y[i2][i1]);
 
         // Last y.
-        for (int i1=0; i1<n1; ++i1)
+        for (int i1=j1; i1<e1; ++i1)
           y[n2m1][i1] = (y[n2-1][i1]-y[n2-2][i1])/gg;
 
         // Backward substitution.
         for (int i2=n2-2; i2>=0; --i2)
-          for (int i1=0; i1<n1; ++i1)
+          for (int i1=j1; i1<e1; ++i1)
             y[i2][i1] = b*(y[i2+1][i1]-y[i2][i1]);
       } 
 
@@ -497,16 +636,16 @@ public class SymmetricTridiagonalFilter {
 
         // Backward substitution.
         for (int i2=n2-2; i2>0; --i2)
-          for (int i1=0; i1<n1; ++i1)
+          for (int i1=j1; i1<e1; ++i1)
             y[i2][i1] += b*y[i2+1][i1];
 
         // First y.
-        for (int i1=0; i1<n1; ++i1)
+        for (int i1=j1; i1<e1; ++i1)
           y[0][i1] = (y[0][i1]+b*y[1][i1])/ss;
 
         // Forward substitution.
         for (int i2=1; i2<n2; ++i2)
-          for (int i1=0; i1<n1; ++i1)
+          for (int i1=j1; i1<e1; ++i1)
             y[i2][i1] += b*y[i2-1][i1];
       } 
       
@@ -517,60 +656,6 @@ public class SymmetricTridiagonalFilter {
     }
   }
 
-  /**
-   * Applies the inverse of this filter along the 1st dimension of a 3D array.
-   * @param x input array x; may be the same as the output array y.
-   * @param y output array y; may be the same as the input array x.
-   */
-  public void applyInverse1(final float[][][] x, final float[][][] y) {
-    int n = x.length;
-    Parallel.loop(n,new Parallel.LoopInt() {
-    public void compute(int i) {
-      applyInverse1(x[i],y[i]);
-    }});
-  }
-
-  /**
-   * Applies the inverse of this filter along the 2nd dimension of a 3D array.
-   * @param x input array x; may be the same as the output array y.
-   * @param y output array y; may be the same as the input array x.
-   */
-  public void applyInverse2(final float[][][] x, final float[][][] y) {
-    int n = x.length;
-    Parallel.loop(n,new Parallel.LoopInt() {
-    public void compute(int i) {
-      applyInverse2(x[i],y[i]);
-    }});
-  }
-
-  /**
-   * Applies the inverse of this filter along the 3rd dimension of a 3D array.
-   * @param x input array x; may be the same as the output array y.
-   * @param y output array y; may be the same as the input array x.
-   */
-  public void applyInverse3(float[][][] x, float[][][] y) {
-    int n2 = x[0].length;
-    int n3 = x.length;
-    float[][][] xt = new float[n2][n3][];
-    float[][][] yt = new float[n2][n3][];
-    for (int i2=0; i2<n2; ++i2) {
-      for (int i3=0; i3<n3; ++i3) {
-        xt[i2][i3] = x[i3][i2];
-        yt[i2][i3] = y[i3][i2];
-      }
-    }
-    applyInverse2(xt,yt);
-  }
-
-  ///////////////////////////////////////////////////////////////////////////
-  // private
-
-  private double _af,_ai,_al,_b; // coefficients
-
-  private void checkInvertible() {
-    Check.state(abs(_ai)>=2.0*abs(_b),"filter is invertible");
-  }
-
   ///////////////////////////////////////////////////////////////////////////
   // testing
 
@@ -0,0 +1,269 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.dsp;
+
+import static edu.mines.jtk.util.ArrayMath.*;
+import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
+
+/**
+ * Wilson-Burg factorization of auto-correlations, computed with FFTs.
+ * Used by causal and minimum-phase filters with lags in 1, 2 or 3
+ * dimensions.
+ * <p>
+ * Each Wilson-Burg iteration replaces a filter A(z) with U(z)*A(z), where
+ * U(z)+U(1/z) = 1+S(z)/(A(z)*A(1/z)) and S(z) is the auto-correlation.
+ * Here, the ratio S(z)/(A(z)*A(1/z)) is computed by division in the
+ * frequency domain, for a periodic grid of samples. That grid is padded
+ * as for iterations in the space domain, so that errors caused by the
+ * wrap-around of this ratio are comparable to errors caused by truncation
+ * of the recursive filters 1/A(z) and 1/A(1/z). The product U(z)*A(z) is
+ * needed only for the filter lags, and only values of U(z) for differences
+ * of those lags contribute, so that product is computed from the lag table.
+ * <p>
+ * Transforms of 2-D and 3-D grids are computed in parallel.
+ * @version 2026.10.19
+ */
+class WilsonBurg {
+
+  /**
+   * Wilson-Burg factorization for the specified 3-D auto-correlation.
+   * Lower-dimensional auto-correlations are 3-D arrays with lengths one
+   * in the unused dimensions.
+   * @param maxiter maximum number of Wilson-Burg iterations.
+   * @param epsilon tolerance for convergence.
+   * @param lag1 array of lags in 1st dimension.
+   * @param lag2 array of lags in 2nd dimension.
+   * @param lag3 array of lags in 3rd dimension.
+   * @param r the auto-correlation, with odd lengths.
+   * @param a input/output array of filter coefficients.
+   * @exception IllegalStateException if Wilson-Burg iterations do not
+   *  converge within the specified maximum number of iterations.
+   */
+  static void factor(
+    int maxiter, float epsilon,
+    int[] lag1, int[] lag2, int[] lag3, float[][][] r, float[] a)
+  {
+    Check.argument(r[0][0].length%2==1,"r[0][0].length is odd");
+    Check.argument(r[0].length%2==1,"r[0].length is odd");
+    Check.argument(r.length%2==1,"r.length is odd");
+    WilsonBurg wb = new WilsonBurg(lag1,lag2,lag3,r);
+    wb.factor(maxiter,epsilon,a);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  // Number of complex samples with contiguous indices i1 in blocks that
+  // are transformed along the 2nd and 3rd dimensions.
+  private static final int NB = 16;
+
+  private int _m; // number of lags and filter coefficients
+  private int[] _lag1,_lag2,_lag3; // lags
+  private int _n1,_n2,_n3; // dimensions of periodic grid
+  private int _nk1; // number of complex samples in 1st dimension
+  private FftReal _fft1; // FFT for 1st dimension
+  private FftComplex _fft2,_fft3; // FFTs for 2nd and 3rd dimensions
+  private float _s0; // zero lag of auto-correlation
+  private float[][][] _s; // auto-correlation spectrum, scaled
+  private float[][][] _g; // grid used for all transforms
+
+  private WilsonBurg(int[] lag1, int[] lag2, int[] lag3, float[][][] r) {
+    _m = lag1.length;
+    _lag1 = lag1;
+    _lag2 = lag2;
+    _lag3 = lag3;
+
+    // Grid dimensions are those for the zero-padded auto-correlation used
+    // by space-domain iterations, which assume that the length of 1/A' is
+    // no more than ten times that of A.
+    int l1 = r[0][0].length;
+    int l2 = r[0].length;
+    int l3 = r.length;
+    int m1 = max(lag1)-min(lag1);
+    int m2 = max(lag2)-min(lag2);
+    int m3 = max(lag3)-min(lag3);
+    _n1 = FftReal.nfftSmall(max(2,l1+10*m1));
+    _n2 = (l2+m2>1)?FftComplex.nfftSmall(l2+10*m2):1;
+    _n3 = (l3+m3>1)?FftComplex.nfftSmall(l3+10*m3):1;
+    _nk1 = _n1/2+1;
+    _fft1 = new FftReal(_n1);
+    _fft2 = (_n2>1)?new FftComplex(_n2):null;
+    _fft3 = (_n3>1)?new FftComplex(_n3):null;
+    _g = new float[_n3][_n2][_n1+2];
+
+    // Auto-correlation with zero lag at grid index zero.
+    int k1 = (l1-1)/2;
+    int k2 = (l2-1)/2;
+    int k3 = (l3-1)/2;
+    _s0 = r[k3][k2][k1];
+    for (int i3=0; i3<l3; ++i3)
+      for (int i2=0; i2<l2; ++i2)
+        for (int i1=0; i1<l1; ++i1)
+          _g[index(i3-k3,_n3)][index(i2-k2,_n2)][index(i1-k1,_n1)] =
+            r[i3][i2][i1];
+
+    // Real part of its spectrum, scaled for inverse transforms.
+    forward();
+    final float scale = 1.0f/((float)_n1*(float)_n2*(float)_n3);
+    _s = new float[_n3][_n2][_nk1];
+    Parallel.loop(_n3,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      for (int i2=0; i2<_n2; ++i2) {
+        float[] g = _g[i3][i2];
+        float[] s = _s[i3][i2];
+        for (int k1=0; k1<_nk1; ++k1)
+          s[k1] = scale*g[2*k1];
+      }
+    }});
+  }
+
+  private void factor(int maxiter, float epsilon, float[] a) {
+
+    // Initial factor is minimum-phase and matches lag zero of R.
+    zero(a);
+    a[0] = sqrt(_s0);
+
+    // Loop for maximum iterations or until converged.
+    float[] t = new float[_m];
+    boolean converged = false;
+    float eemax = _s0*epsilon;
+    for (int niter=0; niter<maxiter && !converged; ++niter) {
+
+      // U(z) + U(1/z) = 1 + S(z)/(A(z)*A(1/z))
+      ratio(a);
+      float u0 = 0.5f*(1.0f+_g[0][0][0]);
+
+      // The new A(z) is T(z) = U(z)*A(z), where U(z) is causal. Only
+      // differences of lags contribute to coefficients of T(z).
+      for (int j=0; j<_m; ++j) {
+        float tj = 0.0f;
+        for (int k=0; k<_m; ++k) {
+          int l1 = _lag1[j]-_lag1[k];
+          int l2 = _lag2[j]-_lag2[k];
+          int l3 = _lag3[j]-_lag3[k];
+          if (l3>0 || l3==0 && (l2>0 || l2==0 && l1>0)) {
+            tj += a[k]*_g[index(l3,_n3)][index(l2,_n2)][index(l1,_n1)];
+          } else if (l3==0 && l2==0 && l1==0) {
+            tj += a[k]*u0;
+          }
+        }
+        t[j] = tj;
+      }
+      converged = true;
+      for (int j=0; j<_m && converged; ++j) {
+        float e = a[j]-t[j];
+        converged = e*e<=eemax;
+      }
+      copy(t,a);
+    }
+    Check.state(converged,"Wilson-Burg iterations converged");
+  }
+
+  private static int index(int lag, int n) {
+    return (lag<0)?lag+n:lag;
+  }
+
+  /**
+   * Computes S(z)/(A(z)*A(1/z)) in the grid.
+   */
+  private void ratio(float[] a) {
+    for (int i3=0; i3<_n3; ++i3)
+      for (int i2=0; i2<_n2; ++i2)
+        zero(_g[i3][i2]);
+    for (int j=0; j<_m; ++j)
+      _g[index(_lag3[j],_n3)][index(_lag2[j],_n2)][index(_lag1[j],_n1)] =
+        a[j];
+    forward();
+    Parallel.loop(_n3,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      for (int i2=0; i2<_n2; ++i2) {
+        float[] g = _g[i3][i2];
+        float[] s = _s[i3][i2];
+        for (int k1=0,kr=0,ki=1; k1<_nk1; ++k1,kr+=2,ki+=2) {
+          float gr = g[kr];
+          float gi = g[ki];
+          g[kr] = s[k1]/(gr*gr+gi*gi);
+          g[ki] = 0.0f;
+        }
+      }
+    }});
+    inverse();
+  }
+
+  private void forward() {
+    Parallel.loop(_n3*_n2,new Parallel.LoopInt() {
+    public void compute(int i) {
+      float[] g = _g[i/_n2][i%_n2];
+      _fft1.realToComplex(-1,g,g);
+    }});
+    if (_fft2!=null) transform2(-1);
+    if (_fft3!=null) transform3(-1);
+  }
+
+  private void inverse() {
+    if (_fft3!=null) transform3(1);
+    if (_fft2!=null) transform2(1);
+    Parallel.loop(_n3*_n2,new Parallel.LoopInt() {
+    public void compute(int i) {
+      float[] g = _g[i/_n2][i%_n2];
+      _fft1.complexToReal(1,g,g);
+    }});
+  }
+
+  /**
+   * Transforms the 2nd dimension of the grid. Blocks of samples with
+   * contiguous indices i1 are copied to a work array, transformed and
+   * copied back in parallel.
+   */
+  private void transform2(final int sign) {
+    final int nb = (_nk1+NB-1)/NB;
+    final Parallel.Unsafe<float[][]> tu = new Parallel.Unsafe<float[][]>();
+    Parallel.loop(_n3*nb,new Parallel.LoopInt() {
+    public void compute(int i) {
+      float[][] t = tu.get();
+      if (t==null) tu.set(t=new float[_n2][2*NB]);
+      float[][] g = _g[i/nb];
+      int j1 = (i%nb)*NB;
+      int m1 = min(NB,_nk1-j1);
+      for (int i2=0; i2<_n2; ++i2)
+        System.arraycopy(g[i2],2*j1,t[i2],0,2*m1);
+      _fft2.complexToComplex2(sign,m1,t,t);
+      for (int i2=0; i2<_n2; ++i2)
+        System.arraycopy(t[i2],0,g[i2],2*j1,2*m1);
+    }});
+  }
+
+  /**
+   * Transforms the 3rd dimension of the grid, as for the 2nd dimension.
+   */
+  private void transform3(final int sign) {
+    final int nb = (_nk1+NB-1)/NB;
+    final Parallel.Unsafe<float[][]> tu = new Parallel.Unsafe<float[][]>();
+    Parallel.loop(_n2*nb,new Parallel.LoopInt() {
+    public void compute(int i) {
+      float[][] t = tu.get();
+      if (t==null) tu.set(t=new float[_n3][2*NB]);
+      int i2 = i/nb;
+      int j1 = (i%nb)*NB;
+      int m1 = min(NB,_nk1-j1);
+      for (int i3=0; i3<_n3; ++i3)
+        System.arraycopy(_g[i3][i2],2*j1,t[i3],0,2*m1);
+      _fft3.complexToComplex2(sign,m1,t,t);
+      for (int i3=0; i3<_n3; ++i3)
+        System.arraycopy(t[i3],0,_g[i3][i2],2*j1,2*m1);
+    }});
+  }
+}
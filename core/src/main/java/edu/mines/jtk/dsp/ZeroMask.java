@@ -15,6 +15,7 @@ limitations under the License.
 package edu.mines.jtk.dsp;
 
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -32,6 +33,9 @@ import static edu.mines.jtk.util.ArrayMath.*;
  * Note that the global mean can be altered significantly by just a
  * few samples with unusually large negative or positive values. Such
  * outliers should be replaced before constructing a zero mask.
+ * <p>
+ * The mask is stored with one bit per sample, and is constructed and
+ * applied in parallel.
  *
  * @author Dave Hale, Colorado School of Mines
  * @version 2009.09.09
@@ -52,25 +56,30 @@ public class ZeroMask {
     double small, double sigma1, double sigma2,
     float[][] x) 
   {
-    _n1 = x[0].length;
-    _n2 = x.length;
-    float[][] t = abs(x);
+    init(x[0].length,x.length,0);
+    final float[][] t = abs(x);
     float a = ((sum(t)/_n1)/_n2); // global mean absolute amplitude
     RecursiveGaussianFilter rgf1 = new RecursiveGaussianFilter(sigma1);
     RecursiveGaussianFilter rgf2 = new RecursiveGaussianFilter(sigma2);
     float[][] b = zerofloat(_n1,_n2);
     rgf1.apply0X(t,b);
     rgf2.applyX0(b,t);
-    _mask2 = new boolean[_n2][_n1];
-    for (int i2=0; i2<_n2; ++i2) {
+    final double ta = small*a;
+    Parallel.loop(_n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      float[] t2 = t[i2];
       for (int i1=0; i1<_n1; ++i1) {
-        _mask2[i2][i1] = t[i2][i1]>=small*a;
+        if (t2[i1]>=ta)
+          set(i1,i2,_mask2);
       }
-    }
+    }});
   }
 
   /**
    * Constructs a zero mask for a 3D image.
+   * <p>
+   * Apart from the mask, construction requires memory for only one
+   * temporary 3D array of floats.
    * @param small small value; zeros in mask where labs &lt; small*gabs.
    * @param sigma1 Gaussian window half-width for 1st dimension.
    * @param sigma2 Gaussian window half-width for 2nd dimension.
@@ -79,28 +88,58 @@ public class ZeroMask {
    */
   public ZeroMask(
     double small, double sigma1, double sigma2, double sigma3,
-    float[][][] x) 
+    final float[][][] x)
   {
-    _n1 = x[0][0].length;
-    _n2 = x[0].length;
-    _n3 = x.length;
-    float[][][] t = abs(x);
-    float a = ((sum(t)/_n1)/_n2)/_n3; // global mean absolute amplitude
-    RecursiveGaussianFilter rgf1 = new RecursiveGaussianFilter(sigma1);
-    RecursiveGaussianFilter rgf2 = new RecursiveGaussianFilter(sigma2);
-    RecursiveGaussianFilter rgf3 = new RecursiveGaussianFilter(sigma3);
-    float[][][] b = zerofloat(_n1,_n2,_n3);
-    rgf1.apply0XX(t,b);
-    rgf2.applyX0X(b,t);
-    rgf3.applyXX0(t,b); // local mean absolute amplitude
-    _mask3 = new boolean[_n3][_n2][_n1];
-    for (int i3=0; i3<_n3; ++i3) {
+    init(x[0][0].length,x[0].length,x.length);
+
+    // Absolute values, smoothed in 1st and 2nd dimensions, for each slice.
+    final float[][][] t = new float[_n3][_n2][_n1];
+    final double[] s = new double[_n3];
+    final RecursiveGaussianFilter rgf1 = new RecursiveGaussianFilter(sigma1);
+    final RecursiveGaussianFilter rgf2 = new RecursiveGaussianFilter(sigma2);
+    final RecursiveGaussianFilter rgf3 = new RecursiveGaussianFilter(sigma3);
+    final Parallel.Unsafe<float[][]> bu = new Parallel.Unsafe<float[][]>();
+    Parallel.loop(_n3,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      float[][] b = bu.get();
+      if (b==null) bu.set(b=new float[_n2][_n1]);
+      float[][] t3 = t[i3];
+      double s3 = 0.0;
       for (int i2=0; i2<_n2; ++i2) {
+        float[] x32 = x[i3][i2];
+        float[] t32 = t3[i2];
         for (int i1=0; i1<_n1; ++i1) {
-          _mask3[i3][i2][i1] = b[i3][i2][i1]>=small*a;
+          t32[i1] = abs(x32[i1]);
+          s3 += t32[i1];
         }
       }
-    }
+      s[i3] = s3;
+      rgf1.apply0X(t3,b);
+      rgf2.applyX0(b,t3);
+    }});
+    double a = sum(s)/_n1/_n2/_n3; // global mean absolute amplitude
+    final double ta = small*a;
+
+    // Smoothing in 3rd dimension, for each constant-i2 slab. This
+    // smoothing yields local mean absolute amplitudes for the mask.
+    final Parallel.Unsafe<float[][]> uu = new Parallel.Unsafe<float[][]>();
+    Parallel.loop(_n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      float[][] u = uu.get();
+      if (u==null) uu.set(u=new float[_n3][_n1]);
+      float[][] t2 = new float[_n3][];
+      for (int i3=0; i3<_n3; ++i3)
+        t2[i3] = t[i3][i2];
+      rgf3.applyX0(t2,u);
+      for (int i3=0; i3<_n3; ++i3) {
+        float[] u3 = u[i3];
+        long[] m3 = _mask3[i3];
+        for (int i1=0; i1<_n1; ++i1) {
+          if (u3[i1]>=ta)
+            set(i1,i2,m3);
+        }
+      }
+    }});
   }
 
   /**
@@ -108,16 +147,16 @@ public class ZeroMask {
    * Mask is true for all non-zero samples in the array; false, otherwise.
    * @param x array of values from which mask is derived.
    */
-  public ZeroMask(float[][] x) {
-    _n1 = x[0].length;
-    _n2 = x.length;
-    _mask2 = new boolean[_n2][_n1];
-    for (int i2=0; i2<_n2; ++i2) {
+  public ZeroMask(final float[][] x) {
+    init(x[0].length,x.length,0);
+    Parallel.loop(_n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      float[] x2 = x[i2];
       for (int i1=0; i1<_n1; ++i1) {
-        if (x[i2][i1]!=0.0f)
-          _mask2[i2][i1] = true;
+        if (x2[i1]!=0.0f)
+          set(i1,i2,_mask2);
       }
-    }
+    }});
   }
 
   /**
@@ -125,19 +164,19 @@ public class ZeroMask {
    * Mask is true for all non-zero samples in the array; false, otherwise.
    * @param x array of values from which mask is derived.
    */
-  public ZeroMask(float[][][] x) {
-    _n1 = x[0][0].length;
-    _n2 = x[0].length;
-    _n3 = x.length;
-    _mask3 = new boolean[_n3][_n2][_n1];
-    for (int i3=0; i3<_n3; ++i3) {
+  public ZeroMask(final float[][][] x) {
+    init(x[0][0].length,x[0].length,x.length);
+    Parallel.loop(_n3,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      long[] m3 = _mask3[i3];
       for (int i2=0; i2<_n2; ++i2) {
+        float[] x32 = x[i3][i2];
         for (int i1=0; i1<_n1; ++i1) {
-          if (x[i3][i2][i1]!=0.0f)
-            _mask3[i3][i2][i1] = true;
+          if (x32[i1]!=0.0f)
+            set(i1,i2,m3);
         }
       }
-    }
+    }});
   }
 
   /**
@@ -157,11 +196,13 @@ public class ZeroMask {
    * The returned array has values 0.0f (false) and 1.0f (true).
    * @param mask array of floats representing this mask.
    */
-  public void getAsFloats(float[][] mask) {
+  public void getAsFloats(final float[][] mask) {
     Check.state(_mask2!=null,"mask constructed for a 2D image");
-    for (int i2=0; i2<_n2; ++i2)
+    Parallel.loop(_n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
       for (int i1=0; i1<_n1; ++i1)
-        mask[i2][i1] = (_mask2[i2][i1])?1.0f:0.0f;
+        mask[i2][i1] = get(i1,i2,_mask2)?1.0f:0.0f;
+    }});
   }
 
   /**
@@ -181,12 +222,15 @@ public class ZeroMask {
    * The returned array has values 0.0f (false) and 1.0f (true).
    * @param mask array of floats representing this mask.
    */
-  public void getAsFloats(float[][][] mask) {
+  public void getAsFloats(final float[][][] mask) {
     Check.state(_mask3!=null,"mask constructed for a 3D image");
-    for (int i3=0; i3<_n3; ++i3)
+    Parallel.loop(_n3,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      long[] m3 = _mask3[i3];
       for (int i2=0; i2<_n2; ++i2)
         for (int i1=0; i1<_n1; ++i1)
-          mask[i3][i2][i1] = (_mask3[i3][i2][i1])?1.0f:0.0f;
+          mask[i3][i2][i1] = get(i1,i2,m3)?1.0f:0.0f;
+    }});
   }
 
   /**
@@ -194,14 +238,16 @@ public class ZeroMask {
    * @param vfalse value to use where mask is false.
    * @param v array of values to be masked.
    */
-  public void apply(float vfalse, float[][] v) {
+  public void apply(final float vfalse, final float[][] v) {
     Check.state(_mask2!=null,"mask constructed for a 2D image");
-    for (int i2=0; i2<_n2; ++i2) {
-      for (int i1=0; i1<_n1; ++i1) {
-        if (!_mask2[i2][i1])
-          v[i2][i1] = vfalse;
+    Parallel.loop(_n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      float[] v2 = v[i2];
+      for (int i1=0; i1<_n1; i1=next(i1,i2,_mask2)) {
+        if (!get(i1,i2,_mask2))
+          v2[i1] = vfalse;
       }
-    }
+    }});
   }
 
   /**
@@ -209,16 +255,19 @@ public class ZeroMask {
    * @param vfalse value to use where mask is false.
    * @param v array of values to be masked.
    */
-  public void apply(float vfalse, float[][][] v) {
+  public void apply(final float vfalse, final float[][][] v) {
     Check.state(_mask3!=null,"mask constructed for a 3D image");
-    for (int i3=0; i3<_n3; ++i3) {
+    Parallel.loop(_n3,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      long[] m3 = _mask3[i3];
       for (int i2=0; i2<_n2; ++i2) {
-        for (int i1=0; i1<_n1; ++i1) {
-          if (!_mask3[i3][i2][i1])
-            v[i3][i2][i1] = vfalse;
+        float[] v32 = v[i3][i2];
+        for (int i1=0; i1<_n1; i1=next(i1,i2,m3)) {
+          if (!get(i1,i2,m3))
+            v32[i1] = vfalse;
         }
       }
-    }
+    }});
   }
 
   /**
@@ -227,14 +276,15 @@ public class ZeroMask {
    *  where the mask is false.
    * @param e eigentensors to be masked.
    */
-  public void apply(float[] efalse, EigenTensors2 e) {
+  public void apply(final float[] efalse, final EigenTensors2 e) {
     Check.state(_mask2!=null,"mask constructed for a 2D image");
-    for (int i2=0; i2<_n2; ++i2) {
-      for (int i1=0; i1<_n1; ++i1) {
-        if (!_mask2[i2][i1])
+    Parallel.loop(_n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      for (int i1=0; i1<_n1; i1=next(i1,i2,_mask2)) {
+        if (!get(i1,i2,_mask2))
           e.setTensor(i1,i2,efalse);
       }
-    }
+    }});
   }
 
   /**
@@ -243,19 +293,57 @@ public class ZeroMask {
    *  for samples where the mask is false.
    * @param e eigentensors to be masked.
    */
-  public void apply(float[] efalse, EigenTensors3 e) {
+  public void apply(final float[] efalse, final EigenTensors3 e) {
     Check.state(_mask3!=null,"mask constructed for a 3D image");
-    for (int i3=0; i3<_n3; ++i3) {
+    Parallel.loop(_n3,new Parallel.LoopInt() {
+    public void compute(int i3) {
+      long[] m3 = _mask3[i3];
       for (int i2=0; i2<_n2; ++i2) {
-        for (int i1=0; i1<_n1; ++i1) {
-          if (!_mask3[i3][i2][i1])
+        for (int i1=0; i1<_n1; i1=next(i1,i2,m3)) {
+          if (!get(i1,i2,m3))
             e.setTensor(i1,i2,i3,efalse);
         }
       }
-    }
+    }});
   }
 
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  // Bits for samples in each 2D array (or each slice of a 3D array) are
+  // packed into longs, with each row beginning with a new long, so that
+  // different rows never share a long and may be set in parallel.
+
   private int _n1,_n2,_n3;
-  private boolean[][] _mask2;
-  private boolean[][][] _mask3;
+  private int _m1; // number of longs per row
+  private long[] _mask2;
+  private long[][] _mask3;
+
+  private void init(int n1, int n2, int n3) {
+    _n1 = n1;
+    _n2 = n2;
+    _n3 = n3;
+    _m1 = (n1+63)/64;
+    if (n3==0) {
+      _mask2 = new long[n2*_m1];
+    } else {
+      _mask3 = new long[n3][n2*_m1];
+    }
+  }
+
+  private boolean get(int i1, int i2, long[] m) {
+    return (m[i2*_m1+(i1>>6)]&(1L<<i1))!=0L;
+  }
+
+  private void set(int i1, int i2, long[] m) {
+    m[i2*_m1+(i1>>6)] |= 1L<<i1;
+  }
+
+  /**
+   * Returns the index of the next sample in a row to be tested. Skips
+   * remaining samples covered by the same long if all are true.
+   */
+  private int next(int i1, int i2, long[] m) {
+    return ((i1&63)==0 && m[i2*_m1+(i1>>6)]==-1L)?i1+64:i1+1;
+  }
 }
@@ -0,0 +1,106 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+/**
+ * Squared distances between bins of uniformly sampled grids, used by
+ * discrete Sibson gridders. Squared distances are sums of squared lengths
+ * of sample intervals, precomputed for each dimension, so that they are
+ * computed in world units for any sampling intervals. Sums are associated
+ * in the same order wherever they are computed, so that the radius of any
+ * circle or sphere is consistent with bins found inside it.
+ * @version 2026.10.19
+ */
+class BinDistances {
+
+  /**
+   * Returns squared lengths of k = 0, 1, ..., n-1 sample intervals.
+   * @param n the number of lengths.
+   * @param d the sample interval.
+   * @return array of squared lengths.
+   */
+  static double[] squares(int n, float d) {
+    double[] q = new double[n];
+    for (int k=0; k<n; ++k) {
+      double x = k*d;
+      q[k] = x*x;
+    }
+    return q;
+  }
+
+  /**
+   * Returns the squared distance for specified 2D sample offsets.
+   * @param k1 offset in 1st dimension.
+   * @param k2 offset in 2nd dimension.
+   * @param q1 squared lengths of sample intervals in 1st dimension.
+   * @param q2 squared lengths of sample intervals in 2nd dimension.
+   * @return the squared distance.
+   */
+  static float ds(int k1, int k2, double[] q1, double[] q2) {
+    return (float)(q1[Math.abs(k1)]+q2[Math.abs(k2)]);
+  }
+
+  /**
+   * Returns the squared distance for specified 3D sample offsets.
+   * @param k1 offset in 1st dimension.
+   * @param k2 offset in 2nd dimension.
+   * @param k3 offset in 3rd dimension.
+   * @param q1 squared lengths of sample intervals in 1st dimension.
+   * @param q2 squared lengths of sample intervals in 2nd dimension.
+   * @param q3 squared lengths of sample intervals in 3rd dimension.
+   * @return the squared distance.
+   */
+  static float ds(
+    int k1, int k2, int k3, double[] q1, double[] q2, double[] q3)
+  {
+    return (float)(q1[Math.abs(k1)]+(q2[Math.abs(k2)]+q3[Math.abs(k3)]));
+  }
+
+  /**
+   * Returns the largest offset k for which the squared distance q[k]+e
+   * does not exceed a specified squared distance.
+   * @param dsn the squared distance.
+   * @param e squared distance in other dimensions.
+   * @param q squared lengths of sample intervals.
+   * @param d the sample interval.
+   * @return the largest offset; -1, if none.
+   */
+  static int reach(float dsn, double e, double[] q, float d) {
+    int kmax = q.length-1;
+    return reach(dsn,e,q,(int)Math.min(kmax,Math.sqrt(Math.max(0.0,dsn-e))/d));
+  }
+
+  /**
+   * As above, but searches from a specified offset, such as that found
+   * for a neighboring row, instead of computing a square root.
+   * @param dsn the squared distance.
+   * @param e squared distance in other dimensions.
+   * @param q squared lengths of sample intervals.
+   * @param k the offset from which to search.
+   * @return the largest offset; -1, if none.
+   */
+  static int reach(float dsn, double e, double[] q, int k) {
+    int kmax = q.length-1;
+    while (k>=0 && (float)(q[k]+e)>dsn) --k;
+    while (k<kmax && (float)(q[k+1]+e)<=dsn) ++k;
+    return k;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private BinDistances() {
+  }
+}
@@ -0,0 +1,40 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+/**
+ * Statistics of the values of scattered samples that lie within grid cells.
+ * For a grid cell that contains no samples, the count and sum are zero,
+ * and all other statistics are null.
+ * @see SimpleGridder2#gridStatistics(edu.mines.jtk.dsp.Sampling,
+ *  edu.mines.jtk.dsp.Sampling,BinStatistic[])
+ * @see SimpleGridder3#gridStatistics(edu.mines.jtk.dsp.Sampling,
+ *  edu.mines.jtk.dsp.Sampling,edu.mines.jtk.dsp.Sampling,BinStatistic[])
+ * @version 2026.10.19
+ */
+public enum BinStatistic {
+  /** The number of samples. */
+  COUNT,
+  /** The sum of sample values. */
+  SUM,
+  /** The mean (average) of sample values. */
+  MEAN,
+  /** The minimum sample value. */
+  MIN,
+  /** The maximum sample value. */
+  MAX,
+  /** The variance of sample values, their mean squared deviation. */
+  VARIANCE
+}
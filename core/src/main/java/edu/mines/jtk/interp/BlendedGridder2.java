@@ -155,6 +155,18 @@ public class BlendedGridder2 implements Gridder2 {
     _tmax = (float)tmax;
   }
 
+  /**
+   * Enables or disables parallel time sweeping. If true, times and marks
+   * for nearest known samples are computed with a {@link TimeSweeper2},
+   * which scales better with the number of threads. If false (the default),
+   * times and marks are computed with a {@link TimeMarker2}. Times and
+   * marks computed with these two methods are similar, but not identical.
+   * @param sweeping true, for time sweeping; false, otherwise.
+   */
+  public void setTimeSweeping(boolean sweeping) {
+    _sweeping = sweeping;
+  }
+
   /**
    * Experimental use only.
    * @param tmx time marker x.
@@ -162,6 +174,19 @@ public class BlendedGridder2 implements Gridder2 {
   public void setTimeMarkerX(boolean tmx) {
     _tmx = tmx;
   }
+
+  /**
+   * Sets the time quantum for the heap used by the experimental time
+   * marker enabled with {@link #setTimeMarkerX(boolean)}. For a non-zero
+   * quantum, known samples are processed in an order that is exact only
+   * to within one quantum, which is faster but may slightly alter times
+   * and marks. The default quantum is zero, for which the order is exact.
+   * @param quantum the time quantum; zero, for exact order.
+   */
+  public void setTimeQuantum(double quantum) {
+    Check.argument(quantum>=0.0,"quantum>=0.0");
+    _quantum = (float)quantum;
+  }
   /**
    * Experimental use only.
    * @return time marker s.
@@ -326,6 +351,8 @@ public class BlendedGridder2 implements Gridder2 {
   // private
 
   private boolean _tmx; // true if using experimental time marker
+  private float _quantum; // time quantum for experimental time marker
+  private boolean _sweeping; // true if using time sweeper
   private double _tms; // time marker CPU time in seconds
 
   private Tensors2 _tensors;
@@ -357,8 +384,14 @@ public class BlendedGridder2 implements Gridder2 {
 
     // Use the time marker to compute both times and marks.
     edu.mines.jtk.util.Stopwatch sw = new edu.mines.jtk.util.Stopwatch();
-    if (_tmx) {
+    if (_sweeping) {
+      TimeSweeper2 ts = new TimeSweeper2(n1,n2,_tensors);
+      sw.start();
+      ts.apply(t,m);
+      sw.stop();
+    } else if (_tmx) {
       TimeMarker2X tm = new TimeMarker2X(n1,n2,_tensors);
+      tm.setTimeQuantum(_quantum);
       //tm.setConcurrency(TimeMarker2X.Concurrency.SERIAL);
       sw.start();
       tm.apply(t,m);
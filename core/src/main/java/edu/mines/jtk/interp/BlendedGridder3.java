@@ -16,6 +16,8 @@ package edu.mines.jtk.interp;
 
 import edu.mines.jtk.dsp.*;
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Float3;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -159,6 +161,35 @@ public class BlendedGridder3 implements Gridder3 {
     _tmax = (float)tmax;
   }
 
+  /**
+   * Enables or disables parallel time sweeping. If true, times and marks
+   * for nearest known samples are computed with a {@link TimeSweeper3},
+   * which scales better with the number of threads. If false (the default),
+   * times and marks are computed with a {@link TimeMarker3}. Times and
+   * marks computed with these two methods are similar, but not identical.
+   * @param sweeping true, for time sweeping; false, otherwise.
+   */
+  public void setTimeSweeping(boolean sweeping) {
+    _sweeping = sweeping;
+  }
+
+  /**
+   * Sets the size of bricks used to grid values into a {@link Float3}.
+   * The default size is 128 samples in each dimension.
+   * @param m1 number of samples per brick in 1st dimension.
+   * @param m2 number of samples per brick in 2nd dimension.
+   * @param m3 number of samples per brick in 3rd dimension.
+   * @see #grid(Sampling,Sampling,Sampling,Float3)
+   */
+  public void setBrickSize(int m1, int m2, int m3) {
+    Check.argument(m1>0,"m1>0");
+    Check.argument(m2>0,"m2>0");
+    Check.argument(m3>0,"m3>0");
+    _mb1 = m1;
+    _mb2 = m2;
+    _mb3 = m3;
+  }
+
   /**
    * Experimental use only.
    * @param tmx time marker x.
@@ -166,6 +197,19 @@ public class BlendedGridder3 implements Gridder3 {
   public void setTimeMarkerX(boolean tmx) {
     _tmx = tmx;
   }
+
+  /**
+   * Sets the time quantum for the heap used by the experimental time
+   * marker enabled with {@link #setTimeMarkerX(boolean)}. For a non-zero
+   * quantum, known samples are processed in an order that is exact only
+   * to within one quantum, which is faster but may slightly alter times
+   * and marks. The default quantum is zero, for which the order is exact.
+   * @param quantum the time quantum; zero, for exact order.
+   */
+  public void setTimeQuantum(double quantum) {
+    Check.argument(quantum>=0.0,"quantum>=0.0");
+    _quantum = (float)quantum;
+  }
   /**
    * Experimental use only.
    * @return time marker s.
@@ -347,10 +391,131 @@ public class BlendedGridder3 implements Gridder3 {
     return q;
   }
 
+  /**
+   * Computes gridded values brick by brick, and sets them in an array.
+   * Unlike the method {@link #grid(Sampling,Sampling,Sampling)}, this
+   * method requires no arrays as large as the entire grid, so that the
+   * specified array of gridded values may be stored out of core. Bricks
+   * are gridded in parallel, each together with a halo of surrounding
+   * samples, and values for samples within bricks are set in that array.
+   * <p>
+   * The width of halos is twice the maximum time plus two samples, so the
+   * maximum time must be set before calling this method. For tensors with
+   * eigenvalues not greater than one, such as the default tensors, each
+   * halo then contains the known samples nearest to samples in its brick
+   * with times less than the maximum time, as well as the known samples
+   * nearest to other samples within that time of the brick. Values
+   * gridded for those samples in the brick are nearly equal to those
+   * gridded for the entire grid. Values in a brick for which no known
+   * samples lie within its halo equal the value of the known sample
+   * nearest to the center of that brick.
+   * <p>
+   * Tensors for different bricks are gotten concurrently. Subarrays for
+   * different bricks are set while synchronized on the specified array.
+   * @param s1 the sampling of the 1st dimension.
+   * @param s2 the sampling of the 2nd dimension.
+   * @param s3 the sampling of the 3rd dimension.
+   * @param q the array of gridded values.
+   */
+  public void grid(Sampling s1, Sampling s2, Sampling s3, final Float3 q) {
+    Check.argument(s1.isUniform(),"s1 is uniform");
+    Check.argument(s2.isUniform(),"s2 is uniform");
+    Check.argument(s3.isUniform(),"s3 is uniform");
+    Check.state(_f!=null,"scattered samples have been set");
+    Check.state(_x1!=null,"scattered samples have been set");
+    Check.state(_x2!=null,"scattered samples have been set");
+    Check.state(_x3!=null,"scattered samples have been set");
+    Check.state(_tmax<FLT_MAX,"maximum time has been set");
+    final int n1 = s1.getCount();
+    final int n2 = s2.getCount();
+    final int n3 = s3.getCount();
+    Check.argument(q.getN1()==n1,"q.getN1() equals s1.getCount()");
+    Check.argument(q.getN2()==n2,"q.getN2() equals s2.getCount()");
+    Check.argument(q.getN3()==n3,"q.getN3() equals s3.getCount()");
+    final int m1 = min(_mb1,n1);
+    final int m2 = min(_mb2,n2);
+    final int m3 = min(_mb3,n3);
+    final int nb1 = (n1+m1-1)/m1;
+    final int nb2 = (n2+m2-1)/m2;
+    final int nb3 = (n3+m3-1)/m3;
+    final int h = (int)ceil(2.0f*_tmax)+2;
+
+    // Sort the known samples that lie within the grid by brick. For each
+    // brick b, the indices of those samples are kb[b] <= k < kb[b+1].
+    double d1 = s1.getDelta(), f1 = s1.getFirst(), l1 = s1.getLast();
+    double d2 = s2.getDelta(), f2 = s2.getFirst(), l2 = s2.getLast();
+    double d3 = s3.getDelta(), f3 = s3.getFirst(), l3 = s3.getLast();
+    f1 -= 0.5*d1; l1 += 0.5*d1;
+    f2 -= 0.5*d2; l2 += 0.5*d2;
+    f3 -= 0.5*d3; l3 += 0.5*d3;
+    int n = _f.length;
+    int[] b = new int[n];
+    final int[] kb = new int[nb1*nb2*nb3+1];
+    for (int i=0; i<n; ++i) {
+      double x1 = _x1[i];
+      double x2 = _x2[i];
+      double x3 = _x3[i];
+      if (f1<=x1 && x1<=l1 && f2<=x2 && x2<=l2 && f3<=x3 && x3<=l3) {
+        int i1 = s1.indexOfNearest(x1);
+        int i2 = s2.indexOfNearest(x2);
+        int i3 = s3.indexOfNearest(x3);
+        b[i] = i1/m1+nb1*(i2/m2+nb2*(i3/m3));
+        ++kb[b[i]+1];
+      } else {
+        b[i] = -1;
+      }
+    }
+    for (int ib=0; ib<nb1*nb2*nb3; ++ib)
+      kb[ib+1] += kb[ib];
+    final int ns = kb[nb1*nb2*nb3];
+    Check.argument(ns>0,"at least one known sample lies within the grid");
+    final float[] fs = new float[ns];
+    final float[] x1s = new float[ns];
+    final float[] x2s = new float[ns];
+    final float[] x3s = new float[ns];
+    int[] k = new int[nb1*nb2*nb3];
+    for (int i=0; i<n; ++i) {
+      if (b[i]>=0) {
+        int j = kb[b[i]]+k[b[i]]++;
+        fs[j] = _f[i];
+        x1s[j] = _x1[i];
+        x2s[j] = _x2[i];
+        x3s[j] = _x3[i];
+      }
+    }
+    final NearestFinder3 nf = new NearestFinder3(x1s,x2s,x3s);
+
+    // Grid each brick with its halo, and set values for the brick.
+    final Sampling t1 = s1, t2 = s2, t3 = s3;
+    Parallel.loop(nb1*nb2*nb3,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      int ib1 = ib%nb1, ib2 = (ib/nb1)%nb2, ib3 = ib/nb1/nb2;
+      int j1 = ib1*m1, j2 = ib2*m2, j3 = ib3*m3;
+      int l1 = min(m1,n1-j1), l2 = min(m2,n2-j2), l3 = min(m3,n3-j3);
+      int e1 = max(0,j1-h), e2 = max(0,j2-h), e3 = max(0,j3-h);
+      int k1 = min(n1,j1+l1+h), k2 = min(n2,j2+l2+h), k3 = min(n3,j3+l3+h);
+      float[][][] qb = gridBrick(t1,t2,t3,e1,e2,e3,k1,k2,k3,
+                                 m1,m2,m3,nb1,nb2,kb,fs,x1s,x2s,x3s);
+      if (qb!=null) {
+        qb = copy(l1,l2,l3,j1-e1,j2-e2,j3-e3,qb);
+      } else {
+        float y1 = (float)t1.getValue(j1+l1/2);
+        float y2 = (float)t2.getValue(j2+l2/2);
+        float y3 = (float)t3.getValue(j3+l3/2);
+        qb = fillfloat(fs[nf.find(y1,y2,y3,-1)],l1,l2,l3);
+      }
+      synchronized (q) {
+        q.set123(l1,l2,l3,j1,j2,j3,qb);
+      }
+    }});
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   // private
 
   private boolean _tmx; // true if using experimental time marker
+  private float _quantum; // time quantum for experimental time marker
+  private boolean _sweeping; // true if using time sweeper
   private double _tms; // time marker CPU time in seconds
 
   private Tensors3 _tensors;
@@ -360,6 +525,80 @@ public class BlendedGridder3 implements Gridder3 {
   private float _c = 0.5f;
   private LocalDiffusionKernel _ldk =
     new LocalDiffusionKernel(LocalDiffusionKernel.Stencil.D22);
+  private int _mb1 = 128, _mb2 = 128, _mb3 = 128; // brick size
+
+  // Returns values gridded for samples e <= i < k of the specified
+  // samplings, for known samples within that range, which are found in
+  // the bricks that intersect it. Returns null if there are none.
+  private float[][][] gridBrick(
+    Sampling s1, Sampling s2, Sampling s3,
+    int e1, int e2, int e3, int k1, int k2, int k3,
+    int m1, int m2, int m3, int nb1, int nb2, int[] kb,
+    float[] fs, float[] x1s, float[] x2s, float[] x3s)
+  {
+    Sampling t1 = new Sampling(k1-e1,s1.getDelta(),s1.getValue(e1));
+    Sampling t2 = new Sampling(k2-e2,s2.getDelta(),s2.getValue(e2));
+    Sampling t3 = new Sampling(k3-e3,s3.getDelta(),s3.getValue(e3));
+    double f1 = t1.getFirst()-0.5*t1.getDelta();
+    double f2 = t2.getFirst()-0.5*t2.getDelta();
+    double f3 = t3.getFirst()-0.5*t3.getDelta();
+    double l1 = t1.getLast()+0.5*t1.getDelta();
+    double l2 = t2.getLast()+0.5*t2.getDelta();
+    double l3 = t3.getLast()+0.5*t3.getDelta();
+    int n = 0;
+    for (int ib3=e3/m3; ib3<=(k3-1)/m3; ++ib3) {
+      for (int ib2=e2/m2; ib2<=(k2-1)/m2; ++ib2) {
+        int ib = e1/m1+nb1*(ib2+nb2*ib3);
+        int jb = (k1-1)/m1+nb1*(ib2+nb2*ib3);
+        n += kb[jb+1]-kb[ib];
+      }
+    }
+    float[] f = new float[n];
+    float[] x1 = new float[n];
+    float[] x2 = new float[n];
+    float[] x3 = new float[n];
+    n = 0;
+    for (int ib3=e3/m3; ib3<=(k3-1)/m3; ++ib3) {
+      for (int ib2=e2/m2; ib2<=(k2-1)/m2; ++ib2) {
+        int ib = e1/m1+nb1*(ib2+nb2*ib3);
+        int jb = (k1-1)/m1+nb1*(ib2+nb2*ib3);
+        for (int k=kb[ib]; k<kb[jb+1]; ++k) {
+          double y1 = x1s[k], y2 = x2s[k], y3 = x3s[k];
+          if (f1<=y1 && y1<=l1 && f2<=y2 && y2<=l2 && f3<=y3 && y3<=l3) {
+            f[n] = fs[k];
+            x1[n] = x1s[k];
+            x2[n] = x2s[k];
+            x3[n] = x3s[k];
+            ++n;
+          }
+        }
+      }
+    }
+    if (n==0)
+      return null;
+    BlendedGridder3 bg = new BlendedGridder3(
+      shiftTensors(_tensors,e1,e2,e3),
+      copy(n,f),copy(n,x1),copy(n,x2),copy(n,x3));
+    bg._tmx = _tmx;
+    bg._quantum = _quantum;
+    bg._sweeping = _sweeping;
+    bg._blending = _blending;
+    bg._tmax = _tmax;
+    bg._c = _c;
+    bg._ldk = _ldk;
+    return bg.grid(t1,t2,t3);
+  }
+
+  // Returns tensors for a subgrid with first sample (j1,j2,j3).
+  private static Tensors3 shiftTensors(
+    final Tensors3 tensors, final int j1, final int j2, final int j3)
+  {
+    return new Tensors3() {
+      public void getTensor(int i1, int i2, int i3, float[] d) {
+        tensors.getTensor(i1+j1,i2+j2,i3+j3,d);
+      }
+    };
+  }
 
   private void gridNearest(int nmark, float[][][] t, float[][][] p) {
     int n1 = t[0][0].length;
@@ -385,8 +624,14 @@ public class BlendedGridder3 implements Gridder3 {
 
     // Use the time marker to compute both times and marks.
     edu.mines.jtk.util.Stopwatch sw = new edu.mines.jtk.util.Stopwatch();
-    if (_tmx) {
+    if (_sweeping) {
+      TimeSweeper3 ts = new TimeSweeper3(n1,n2,n3,_tensors);
+      sw.start();
+      ts.apply(t,m);
+      sw.stop();
+    } else if (_tmx) {
       TimeMarker3X tm = new TimeMarker3X(n1,n2,n3,_tensors);
+      tm.setTimeQuantum(_quantum);
       sw.start();
       tm.apply(t,m);
       sw.stop();
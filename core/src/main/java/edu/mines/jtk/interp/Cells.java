@@ -0,0 +1,103 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+/**
+ * Utilities for uniform grids of square or cubic cells into which
+ * scattered samples are sorted. Cells in each dimension are indexed
+ * j = 0, 1, ..., m-1; the first and last cells extend to infinity, so
+ * that every coordinate lies in exactly one cell.
+ * @version 2026.10.19
+ */
+class Cells {
+
+  /**
+   * Factor for squared distances that bound searches. Slightly greater
+   * than one, so that rounding errors in squared distances computed for
+   * samples cannot cause a nearer sample to be missed.
+   */
+  static final double SLACK = 1.0+1.0e-6;
+
+  /**
+   * Returns the size of square or cubic cells for specified extents and
+   * number of cells. Extents smaller than that size are excluded from
+   * the area or volume divided into cells.
+   * @param e array of extents, one for each dimension.
+   * @param m the number of cells.
+   * @return the cell size.
+   */
+  static double size(double[] e, double m) {
+    double d = 0.0;
+    for (int iter=0; iter<e.length; ++iter) {
+      int na = 0;
+      double v = 1.0;
+      for (double ei:e) {
+        if (ei>d) {
+          ++na;
+          v *= ei;
+        }
+      }
+      if (na==0)
+        return 1.0;
+      double dnew = Math.pow(v/m,1.0/na);
+      if (dnew==d)
+        break;
+      d = dnew;
+    }
+    return d;
+  }
+
+  /**
+   * Returns the number of cells for a specified extent and cell size.
+   * @param e the extent.
+   * @param d the cell size.
+   * @return the number of cells; at least one.
+   */
+  static int count(double e, double d) {
+    return (int)Math.max(1.0,Math.min(e/d,1.0e6));
+  }
+
+  /**
+   * Returns the index of a cell clamped to the range [0,m-1].
+   * @param j the index.
+   * @param m the number of cells.
+   * @return the clamped index.
+   */
+  static int clamp(int j, int m) {
+    return (j<0)?0:(j>=m)?m-1:j;
+  }
+
+  /**
+   * Returns the distance from a coordinate to a cell.
+   * @param y the coordinate.
+   * @param f the first cell boundary.
+   * @param d the cell size.
+   * @param j the index of the cell.
+   * @param m the number of cells.
+   * @return the distance; zero, if y is within the cell.
+   */
+  static double distance(double y, double f, double d, int j, int m) {
+    double lo = f+j*d;
+    if (j>0 && y<lo) return lo-y;
+    if (j<m-1 && y>lo+d) return y-lo-d;
+    return 0.0;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private Cells() {
+  }
+}
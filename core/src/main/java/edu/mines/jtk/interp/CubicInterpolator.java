@@ -14,7 +14,9 @@ limitations under the License.
 ****************************************************************************/
 package edu.mines.jtk.interp;
 
+import edu.mines.jtk.dsp.Sampling;
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -357,6 +359,81 @@ public class CubicInterpolator {
     }
   }
 
+  /**
+   * Interpolates function values y(x) for a sampling of x.
+   * Same as {@link #interpolate0(Sampling,float[])}.
+   * @param s sampling of values at which to interpolate.
+   * @param y array of interpolated function values.
+   */
+  public void interpolate(Sampling s, float[] y) {
+    interpolate0(s,y);
+  }
+
+  /**
+   * Interpolates function values y(x) for a sampling of x.
+   * @param s sampling of values at which to interpolate.
+   * @param y array of interpolated function values.
+   */
+  public void interpolate0(Sampling s, float[] y) {
+    interpolate0(s.getCount(),values(s),y);
+  }
+
+  /**
+   * Interpolates multiple functions y(x) specified for the same x.
+   * Indices of the cubic polynomials used to interpolate are computed
+   * only once and then reused for all functions. Functions are
+   * interpolated in parallel.
+   * @param method interpolation method: LINEAR, MONOTONIC, or SPLINE.
+   * @param x array[n] of values at which y(x) are specified.
+   *  These values must be monotonically increasing or decreasing,
+   *  with no equal values.
+   * @param y array[m][n] of function values y(x) for m functions.
+   * @param xi array[ni] of values at which to interpolate.
+   * @param yi array[m][ni] of interpolated function values.
+   */
+  public static void interpolate(
+    final Method method, final float[] x, final float[][] y,
+    final float[] xi, final float[][] yi)
+  {
+    Check.argument(isMonotonic(x), "array x is monotonic");
+    final int n = x.length;
+    final int ni = xi.length;
+    final int[] js = new int[ni];
+    final float[] dx = new float[ni];
+    int[] jt = {0};
+    for (int i=0; i<ni; ++i) {
+      int j = js[i] = index(xi[i],x,jt);
+      dx[i] = xi[i]-x[j];
+    }
+    Parallel.loop(y.length,new Parallel.LoopInt() {
+    public void compute(int k) {
+      CubicInterpolator ci = new CubicInterpolator(method,n,x,y[k]);
+      float[][] yd = ci._yd;
+      float[] yik = yi[k];
+      for (int i=0; i<ni; ++i)
+        yik[i] = interpolate0(dx[i],yd[js[i]]);
+    }});
+  }
+
+  /**
+   * Interpolates multiple functions y(x) specified for the same x.
+   * Indices of the cubic polynomials used to interpolate are computed
+   * only once and then reused for all functions. Functions are
+   * interpolated in parallel.
+   * @param method interpolation method: LINEAR, MONOTONIC, or SPLINE.
+   * @param x array[n] of values at which y(x) are specified.
+   *  These values must be monotonically increasing or decreasing,
+   *  with no equal values.
+   * @param y array[m][n] of function values y(x) for m functions.
+   * @param s sampling of values at which to interpolate.
+   * @param yi array[m][s.getCount()] of interpolated function values.
+   */
+  public static void interpolate(
+    Method method, float[] x, float[][] y, Sampling s, float[][] yi)
+  {
+    interpolate(method,x,y,values(s),yi);
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   // Private.
 
@@ -380,6 +457,14 @@ public class CubicInterpolator {
     return index;
   }
 
+  private static float[] values(Sampling s) {
+    int n = s.getCount();
+    float[] x = new float[n];
+    for (int i=0; i<n; ++i)
+      x[i] = (float)s.getValue(i);
+    return x;
+  }
+
   private static final float FLT_O2 = 1.0f/2.0f;
   private static final float FLT_O6 = 1.0f/6.0f;
   private static float interpolate0(float dx, float[] yd) {
@@ -15,6 +15,8 @@ limitations under the License.
 package edu.mines.jtk.interp;
 
 import edu.mines.jtk.dsp.Sampling;
+import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -33,10 +35,15 @@ import static edu.mines.jtk.util.ArrayMath.*;
  * The primary goal of this implementation is simplicity. Like the method 
  * of Park et al. (2006), it requires no Delaunay triangulation or Voronoi 
  * tesselation, and its cost decreases as the number of known samples 
- * increases. Moreover, unlike the method of Park et al., this method uses 
- * no auxilary data structure such as a k-d tree to find nearest known 
- * samples. Computational complexity of this method is within a constant 
- * factor of that of Park et al.
+ * increases. Nearest known samples are found with a uniform grid of cells
+ * instead of a k-d tree. Computational complexity of this method is within
+ * a constant factor of that of Park et al.
+ * <p>
+ * Values are computed in parallel, for bricks of rows of bins that
+ * accumulate the values scattered into them by all circles that intersect
+ * them. Other than the gridded values, the only full-size array is one
+ * of indices of nearest known samples; counts of scattered values are
+ * stored only for the bricks being computed.
  * <p>
  * Discrete implementations of Sibson's interpolation can produce artifacts
  * (small axis-aligned ridges or valleys) caused by sampling circles on a 
@@ -94,48 +101,21 @@ public class DiscreteSibsonGridder2 implements Gridder2 {
   }
 
   public float[][] grid(Sampling s1, Sampling s2) {
-    int n1 = s1.getCount();
-    int n2 = s2.getCount();
+    final int n1 = s1.getCount();
+    final int n2 = s2.getCount();
     float fx1 = (float)s1.getFirst();
     float fx2 = (float)s2.getFirst();
     float lx1 = (float)s1.getLast();
     float lx2 = (float)s2.getLast();
-    float dx1 = (float)s1.getDelta();
-    float dx2 = (float)s2.getDelta();
+    final float dx1 = (float)s1.getDelta();
+    final float dx2 = (float)s2.getDelta();
     float od1 = 1.0f/dx1;
     float od2 = 1.0f/dx2;
 
-    // Sample offsets, sorted by increasing distance. These offsets are
-    // used in expanding-circle searches for nearest known samples.
-    // We tabulate offsets for only one quadrant of a circle, because 
-    // offsets for the other three quadrants can be found by symmetry.
-    int nk = n1*n2;
-    int[] kk = new int[nk];
-    float[] ds = new float[nk];
-    for (int i2=0,k=0; i2<n2; ++i2) {
-      double x2 = i2*dx2;
-      for (int i1=0; i1<n1; ++i1,++k) {
-        double x1 = i1*dx1;
-        ds[k] = (float)(x1*x1+x2*x2);
-        kk[k] = k;
-      }
-    }
-    quickIndexSort(ds,kk);
-    ds = null;
-    int[] k1 = new int[nk];
-    int[] k2 = new int[nk];
-    for (int k=0; k<nk; ++k) {
-      int ik = kk[k];
-      int i1 = ik%n1;
-      int i2 = ik/n1;
-      k1[k] = i1;
-      k2[k] = i2;
-    }
-    kk = null;
-
-    // Accumulate known samples into bins, counting the number in each bin.
-    float[][] g = new float[n2][n1];
-    float[][] c = new float[n2][n1];
+    // Bin indices of known samples that fall within bounds.
+    int ns = 0;
+    int[] js = new int[_n];
+    int[] is = new int[_n];
     for (int i=0; i<_n; ++i) {
       float x1i = _x1[i];
       float x2i = _x2[i];
@@ -143,77 +123,123 @@ public class DiscreteSibsonGridder2 implements Gridder2 {
       if (x2i<fx2 || x2i>lx2) continue; // that fall out of bounds
       int i1 = (int)(0.5f+(x1i-fx1)*od1);
       int i2 = (int)(0.5f+(x2i-fx2)*od2);
-      c[i2][i1] += 1.0f; // count known values accumulated
-      g[i2][i1] += _f[i]; // accumulate known values
+      js[ns] = i1+n1*i2;
+      is[ns] = i;
+      ++ns;
     }
+    Check.argument(ns>0,"at least one known sample lies within the grid");
+    js = copy(ns,js);
+    int[] ks = rampint(0,1,ns);
+    quickIndexSort(js,ks);
 
-    // Average where more than one known sample per bin.
-    for (int i2=0; i2<n2; ++i2) {
-      for (int i1=0; i1<n1; ++i1) {
-        if (c[i2][i1]>0.0f) {
-          g[i2][i1] /= c[i2][i1]; // normalize sum of known sample values
-          c[i2][i1] = -c[i2][i1]; // negative counts denote known samples
-        }
-      }
+    // Known bins, sorted by bin index, with the average of known values
+    // in each bin. Known bins in the i2'th row are kp[i2] <= k < kp[i2+1].
+    int nk = 0;
+    final int[] k1 = new int[ns];
+    final int[] k2 = new int[ns];
+    final float[] fk = new float[ns];
+    final int[] kp = new int[n2+1];
+    for (int j=0; j<ns; ++nk) {
+      int jk = js[ks[j]];
+      double fsum = 0.0;
+      int count = 0;
+      for (; j<ns && js[ks[j]]==jk; ++j,++count)
+        fsum += _f[is[ks[j]]];
+      k1[nk] = jk%n1;
+      k2[nk] = jk/n1;
+      fk[nk] = (float)(fsum/count);
+      ++kp[k2[nk]+1];
+    }
+    for (int i2=0; i2<n2; ++i2)
+      kp[i2+1] += kp[i2];
+    final float[][] g = new float[n2][n1];
+    float[] y1 = new float[nk];
+    float[] y2 = new float[nk];
+    for (int k=0; k<nk; ++k) {
+      g[k2[k]][k1[k]] = fk[k];
+      y1[k] = k1[k]*dx1;
+      y2[k] = k2[k]*dx2;
     }
 
-    // For all uniform sample bins (centers of scattering circles), ...
-    for (int i2=0; i2<n2; ++i2) {
-      for (int i1=0; i1<n1; ++i1) {
-
-        // Which bins are inside circle extending to nearest known sample?
-        // Determine the function value for that nearest known sample.
-        int kn = -1;
-        float fn = 0.0f;
-        for (int k=0; k<nk && kn<0; ++k) {
-          int k1k = k1[k];
-          int k2k = k2[k];
-          for (int m2=0,j2=i2-k2k; m2<2; ++m2,j2=i2+k2k) {
-            if (j2<0 || j2>=n2) continue;
-            for (int m1=0,j1=i1-k1k; m1<2; ++m1,j1=i1+k1k) {
-              if (j1<0 || j1>=n1) continue;
-              if (c[j2][j1]<0.0f) { // if sample is known, ...
-                kn = k;
-                fn = g[j2][j1];
-              }
-            }
-          }
-        }
+    // For all uniform sample bins (centers of scattering circles), find
+    // the nearest known bin. Circles extending to those nearest bins have
+    // squared radii that are bounded by maxima for each row.
+    final double[] q1 = BinDistances.squares(n1,dx1);
+    final double[] q2 = BinDistances.squares(n2,dx2);
+    final NearestFinder2 nf = new NearestFinder2(y1,y2);
+    final int[][] kn = new int[n2][n1];
+    final float[] dr = new float[n2];
+    Parallel.loop(n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      int[] knr = kn[i2];
+      float dmax = 0.0f;
+      for (int i1=0,k=-1; i1<n1; ++i1) {
+        knr[i1] = k = nf.find(i1*dx1,i2*dx2,k);
+        float dk = BinDistances.ds(i1-k1[k],i2-k2[k],q1,q2);
+        if (dmax<dk) dmax = dk;
+      }
+      dr[i2] = dmax;
+    }});
+
+    // Each brick of rows of bins accumulates the nearest known values
+    // scattered into it by all circles that intersect it. Counts of values
+    // scattered are stored only for the bins in one brick, with negative
+    // counts for known bins. Only circles centered in rows for which the
+    // maximum radius reaches the brick are considered.
+    final int nb2 = 1+(n2-1)/BRICK;
+    final Parallel.Unsafe<int[][]> cu = new Parallel.Unsafe<int[][]>();
+    Parallel.loop(nb2,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      int j2 = ib*BRICK, l2 = min(j2+BRICK,n2);
+      int[][] c = cu.get();
+      if (c==null) cu.set(c=new int[BRICK][n1]);
+      for (int i2=j2; i2<l2; ++i2)
+        zero(c[i2-j2]);
+      for (int k=kp[j2]; k<kp[l2]; ++k)
+        c[k2[k]-j2][k1[k]] = -1;
+      for (int i2=0; i2<n2; ++i2) {
+        double e2 = q2[(i2<j2)?j2-i2:(i2<l2)?0:i2-l2+1];
+        if ((float)e2>dr[i2]) continue;
+        for (int i1=0; i1<n1; ++i1) {
 
-        // By symmetry, each pair of offset indices (k1,k2) actually 
-        // represents four uniformly sampled points. In a rectangular 
-        // sampling grid, either four or eight such points lie equidistant 
-        // from the origin. If eight offsets, then four of them may 
-        // immediately follow the four that we found in the search 
-        // above. Here we include these next four, if necessary.
-        if (kn<nk-1 && k1[kn]==k2[kn+1] && k2[kn]==k1[kn+1])
-          ++kn;
-
-        // Scatter the nearest function value into all bins inside the circle.
-        for (int k=0; k<=kn; ++k) {
-          int k1k = k1[k];
-          int k2k = k2[k];
-          for (int m2=0,j2=i2-k2k; m2<2; ++m2,j2=i2+k2k) {
-            if (j2<0 || j2>=n2) continue;
-            for (int m1=0,j1=i1-k1k; m1<2; ++m1,j1=i1+k1k) {
-              if (j1<0 || j1>=n1) continue;
-              if (c[j2][j1]>=0.0f) { // if sample is unknown, ...
-                g[j2][j1] += fn;
-                c[j2][j1] += 1.0f;
+          // Radius of the circle extending to the nearest known bin,
+          // and the value of that nearest known bin.
+          int k = kn[i2][i1];
+          float dsn = BinDistances.ds(i1-k1[k],i2-k2[k],q1,q2);
+          if (dsn==0.0f) continue; // if bin is known, nothing to scatter
+          if ((float)e2>dsn) continue; // if no bins in this brick
+          float fn = fk[k];
+
+          // Scatter the nearest value into all unknown bins inside the
+          // circle, including those at the same distance as the nearest
+          // known bin, and within this brick.
+          int r2 = BinDistances.reach(dsn,0.0,q2,dx2);
+          int r1 = 0;
+          for (int m2=max(j2,i2-r2); m2<=min(l2-1,i2+r2); ++m2) {
+            double f2 = q2[abs(m2-i2)];
+            r1 = BinDistances.reach(dsn,f2,q1,r1);
+            int[] cm = c[m2-j2];
+            float[] gm = g[m2];
+            for (int m1=max(0,i1-r1); m1<=min(n1-1,i1+r1); ++m1) {
+              if (cm[m1]>=0) { // if bin is unknown, ...
+                gm[m1] += fn;
+                ++cm[m1];
               }
             }
           }
         }
       }
-    }
 
-    // Normalize accumulated values by the number scattered into each bin.
-    for (int i2=0; i2<n2; ++i2) {
-      for (int i1=0; i1<n1; ++i1) {
-        if (c[i2][i1]>0.0f)
-          g[i2][i1] /= c[i2][i1];
+      // Normalize accumulated values by the number scattered into each bin.
+      for (int i2=j2; i2<l2; ++i2) {
+        int[] ci = c[i2-j2];
+        float[] gi = g[i2];
+        for (int i1=0; i1<n1; ++i1) {
+          if (ci[i1]>0)
+            gi[i1] /= ci[i1];
+        }
       }
-    }
+    }});
 
     // Optional Gauss-Seidel iterations of bi-Laplacian smoothing to
     // attenuate artifacts in discrete Sibson interpolation.
@@ -233,7 +259,8 @@ public class DiscreteSibsonGridder2 implements Gridder2 {
           int i1p = (i1==n1m)?i1:i1+1;
           int i1mm = (i1m==0  )?i1m:i1m-1;
           int i1pp = (i1p==n1m)?i1p:i1p+1;
-          if (c[i2][i1]>0.0f) {
+          int k = kn[i2][i1];
+          if (k1[k]!=i1 || k2[k]!=i2) { // if bin is unknown, ...
             float g1 = a1*(g[i2 ][i1m]+g[i2 ][i1p]+g[i2m][i1 ]+g[i2p][i1 ]);
             float g2 = a2*(g[i2m][i1m]+g[i2m][i1p]+g[i2p][i1m]+g[i2p][i1p]);
             float g3 = a3*(g[i2][i1mm]+g[i2][i1pp]+g[i2mm][i1]+g[i2pp][i1]);
@@ -249,6 +276,8 @@ public class DiscreteSibsonGridder2 implements Gridder2 {
   ///////////////////////////////////////////////////////////////////////////
   // private
 
+  private static final int BRICK = 16; // number of rows per brick
+
   private int _n;
   private float[] _f,_x1,_x2;
   private int _nsmooth;
@@ -15,6 +15,8 @@ limitations under the License.
 package edu.mines.jtk.interp;
 
 import edu.mines.jtk.dsp.Sampling;
+import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -34,10 +36,15 @@ import static edu.mines.jtk.util.ArrayMath.*;
  * The primary goal of this implementation is simplicity. Like the method 
  * of Park et al. (2006), it requires no Delaunay triangulation or Voronoi 
  * tesselation, and its cost decreases as the number of known samples 
- * increases. Moreover, unlike the method of Park et al., this method uses 
- * no auxilary data structure such as a k-D tree to find nearest known 
- * samples. Computational complexity of this method is within a constant 
- * factor of that of Park et al.
+ * increases. Nearest known samples are found with a uniform grid of cells
+ * instead of a k-D tree. Computational complexity of this method is within
+ * a constant factor of that of Park et al.
+ * <p>
+ * Values are computed in parallel, for bricks of rows of bins that
+ * accumulate the values scattered into them by all spheres that intersect
+ * them. Other than the gridded values, the only full-size array is one
+ * of indices of nearest known samples; counts of scattered values are
+ * stored only for the bricks being computed.
  * <p>
  * Discrete implementations of Sibson's interpolation can produce artifacts
  * (small axis-aligned ridges or valleys) caused by sampling circles on a 
@@ -99,25 +106,26 @@ public class DiscreteSibsonGridder3 implements Gridder3 {
   }
 
   public float[][][] grid(Sampling s1, Sampling s2, Sampling s3) {
-    int n1 = s1.getCount();
-    int n2 = s2.getCount();
-    int n3 = s3.getCount();
+    final int n1 = s1.getCount();
+    final int n2 = s2.getCount();
+    final int n3 = s3.getCount();
     float fx1 = (float)s1.getFirst();
     float fx2 = (float)s2.getFirst();
     float fx3 = (float)s3.getFirst();
     float lx1 = (float)s1.getLast();
     float lx2 = (float)s2.getLast();
     float lx3 = (float)s3.getLast();
-    float dx1 = (float)s1.getDelta();
-    float dx2 = (float)s2.getDelta();
-    float dx3 = (float)s3.getDelta();
+    final float dx1 = (float)s1.getDelta();
+    final float dx2 = (float)s2.getDelta();
+    final float dx3 = (float)s3.getDelta();
     float od1 = 1.0f/dx1;
     float od2 = 1.0f/dx2;
     float od3 = 1.0f/dx3;
 
-    // Accumulate known samples into bins, counting the number in each bin.
-    float[][][] g = new float[n3][n2][n1];
-    float[][][] c = new float[n3][n2][n1];
+    // Bin indices of known samples that fall within bounds.
+    int ns = 0;
+    int[] js = new int[_n];
+    int[] is = new int[_n];
     for (int i=0; i<_n; ++i) {
       float x1i = _x1[i];
       float x2i = _x2[i];
@@ -128,97 +136,128 @@ public class DiscreteSibsonGridder3 implements Gridder3 {
       int i1 = (int)(0.5f+(x1i-fx1)*od1);
       int i2 = (int)(0.5f+(x2i-fx2)*od2);
       int i3 = (int)(0.5f+(x3i-fx3)*od3);
-      c[i3][i2][i1] += 1.0f; // count known values accumulated
-      g[i3][i2][i1] += _f[i]; // accumulate known values
+      js[ns] = i1+n1*(i2+n2*i3);
+      is[ns] = i;
+      ++ns;
     }
+    Check.argument(ns>0,"at least one known sample lies within the grid");
+    js = copy(ns,js);
+    int[] ks = rampint(0,1,ns);
+    quickIndexSort(js,ks);
 
-    // Average where more than one known sample per bin.
-    for (int i3=0; i3<n3; ++i3) {
-      for (int i2=0; i2<n2; ++i2) {
-        for (int i1=0; i1<n1; ++i1) {
-          if (c[i3][i2][i1]>0.0f) {
-            g[i3][i2][i1] /= c[i3][i2][i1]; // average of known values
-            c[i3][i2][i1] = -c[i3][i2][i1]; // negate counts for known 
-          }
-        }
-      }
+    // Known bins, sorted by bin index, with the average of known values
+    // in each bin. Known bins in the i3'th plane are kp[i3] <= k < kp[i3+1].
+    int nk = 0;
+    final int[] k1 = new int[ns];
+    final int[] k2 = new int[ns];
+    final int[] k3 = new int[ns];
+    final float[] fk = new float[ns];
+    final int[] kp = new int[n3+1];
+    for (int j=0; j<ns; ++nk) {
+      int jk = js[ks[j]];
+      double fsum = 0.0;
+      int count = 0;
+      for (; j<ns && js[ks[j]]==jk; ++j,++count)
+        fsum += _f[is[ks[j]]];
+      k1[nk] = jk%n1;
+      k2[nk] = (jk/n1)%n2;
+      k3[nk] = jk/n1/n2;
+      fk[nk] = (float)(fsum/count);
+      ++kp[k3[nk]+1];
     }
-
-    // Sample offsets, sorted by increasing distance. These offsets are
-    // used in expanding-circle searches for nearest known samples.
-    // We tabulate offsets for only one quadrant of a circle, because 
-    // offsets for the other three quadrants can be found by symmetry.
-    int nk = n1*n2*n3;
-    int[] kk = new int[nk];
-    float[] ds = new float[nk];
-    for (int i3=0,k=0; i3<n3; ++i3) {
-      double x3 = i3*dx3;
-      for (int i2=0; i2<n2; ++i2) {
-        double x2 = i2*dx2;
-        for (int i1=0; i1<n1; ++i1,++k) {
-          double x1 = i1*dx1;
-          ds[k] = (float)(x1*x1+x2*x2+x3*x3);
-          kk[k] = k;
-        }
-      }
+    for (int i3=0; i3<n3; ++i3)
+      kp[i3+1] += kp[i3];
+    final float[][][] g = new float[n3][n2][n1];
+    float[] y1 = new float[nk];
+    float[] y2 = new float[nk];
+    float[] y3 = new float[nk];
+    for (int k=0; k<nk; ++k) {
+      g[k3[k]][k2[k]][k1[k]] = fk[k];
+      y1[k] = k1[k]*dx1;
+      y2[k] = k2[k]*dx2;
+      y3[k] = k3[k]*dx3;
     }
-    quickIndexSort(ds,kk);
-
-    // For all uniform sample bins (centers of scattering circles), ...
-    for (int i3=0; i3<n3; ++i3) {
-      for (int i2=0; i2<n2; ++i2) {
-        for (int i1=0; i1<n1; ++i1) {
 
-          // Which bins are inside circle extending to nearest known sample?
-          // Determine the function value for that nearest known sample.
-          int kn = -1;
-          float fn = 0.0f;
-          for (int k=0; k<nk && kn<0; ++k) {
-            int ik = kk[k];
-            int k1 = ik%n1; ik /= n1;
-            int k2 = ik%n2; ik /= n2;
-            int k3 = ik;
-            for (int m3=0,j3=i3-k3; m3<3; ++m3,j3=i3+k3) {
-              if (j3==i3 && m3>0) continue;
-              if (j3<0 || j3>=n3) continue;
-              for (int m2=0,j2=i2-k2; m2<2; ++m2,j2=i2+k2) {
-                if (j2==i2 && m2>0) continue;
-                if (j2<0 || j2>=n2) continue;
-                for (int m1=0,j1=i1-k1; m1<2; ++m1,j1=i1+k1) {
-                  if (j1==i1 && m1>0) continue;
-                  if (j1<0 || j1>=n1) continue;
-                  if (c[j3][j2][j1]<0.0f) { // if sample is known, ...
-                    kn = k;
-                    fn = g[j3][j2][j1];
-                  }
-                }
-              }
-            }
-          }
+    // For all uniform sample bins (centers of scattering spheres), find
+    // the nearest known bin. Spheres extending to those nearest bins have
+    // squared radii that are bounded by maxima for each row and plane.
+    final double[] q1 = BinDistances.squares(n1,dx1);
+    final double[] q2 = BinDistances.squares(n2,dx2);
+    final double[] q3 = BinDistances.squares(n3,dx3);
+    final NearestFinder3 nf = new NearestFinder3(y1,y2,y3);
+    final int[][][] kn = new int[n3][n2][n1];
+    final float[][] dr = new float[n3][n2];
+    Parallel.loop(n2*n3,new Parallel.LoopInt() {
+    public void compute(int i) {
+      int i2 = i%n2, i3 = i/n2;
+      int[] knr = kn[i3][i2];
+      float dmax = 0.0f;
+      for (int i1=0,k=-1; i1<n1; ++i1) {
+        knr[i1] = k = nf.find(i1*dx1,i2*dx2,i3*dx3,k);
+        float dk = BinDistances.ds(i1-k1[k],i2-k2[k],i3-k3[k],q1,q2,q3);
+        if (dmax<dk) dmax = dk;
+      }
+      dr[i3][i2] = dmax;
+    }});
+    final float[] dp = new float[n3];
+    for (int i3=0; i3<n3; ++i3)
+      dp[i3] = max(dr[i3]);
 
+    // Each brick of bins with full extent in the 1st dimension accumulates
+    // the nearest known values scattered into it by all spheres that
+    // intersect it. Counts of values scattered are stored only for the
+    // bins in one brick, with negative counts for known bins. Only spheres
+    // centered within a halo of the brick, bounded by the maximum radii
+    // for rows and planes, are considered.
+    final int nb2 = 1+(n2-1)/BRICK;
+    final int nb3 = 1+(n3-1)/BRICK;
+    final Parallel.Unsafe<int[][][]> cu = new Parallel.Unsafe<int[][][]>();
+    Parallel.loop(nb2*nb3,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      int j2 = (ib%nb2)*BRICK, l2 = min(j2+BRICK,n2);
+      int j3 = (ib/nb2)*BRICK, l3 = min(j3+BRICK,n3);
+      int[][][] c = cu.get();
+      if (c==null) cu.set(c=new int[BRICK][BRICK][n1]);
+      for (int i3=j3; i3<l3; ++i3)
+        for (int i2=j2; i2<l2; ++i2)
+          zero(c[i3-j3][i2-j2]);
+      for (int k=kp[j3]; k<kp[l3]; ++k) {
+        if (j2<=k2[k] && k2[k]<l2)
+          c[k3[k]-j3][k2[k]-j2][k1[k]] = -1;
+      }
+      for (int i3=0; i3<n3; ++i3) {
+        double e3 = q3[(i3<j3)?j3-i3:(i3<l3)?0:i3-l3+1];
+        int h2 = BinDistances.reach(dp[i3],e3,q2,dx2);
+        if (h2<0) continue;
+        for (int i2=max(0,j2-h2); i2<min(n2,l2+h2); ++i2) {
+          double e2 = q2[(i2<j2)?j2-i2:(i2<l2)?0:i2-l2+1];
+          if ((float)(e2+e3)>dr[i3][i2]) continue;
+          for (int i1=0; i1<n1; ++i1) {
 
-          // Look for more bins that are at the same distance.
-          for (float dsk=ds[kk[kn]]; kn+1<nk && dsk==ds[kk[kn+1]]; ++kn)
-            ;
+            // Radius of the sphere extending to the nearest known bin,
+            // and the value of that nearest known bin.
+            int k = kn[i3][i2][i1];
+            float dsn = BinDistances.ds(i1-k1[k],i2-k2[k],i3-k3[k],q1,q2,q3);
+            if (dsn==0.0f) continue; // if bin is known, nothing to scatter
+            if ((float)(e2+e3)>dsn) continue; // if no bins in this brick
+            float fn = fk[k];
 
-          // Scatter the nearest value into all bins inside the circle.
-          for (int k=0; k<=kn; ++k) {
-            int ik = kk[k];
-            int k1 = ik%n1; ik /= n1;
-            int k2 = ik%n2; ik /= n2;
-            int k3 = ik;
-            for (int m3=0,j3=i3-k3; m3<2; ++m3,j3=i3+k3) {
-              if (j3==i3 && m3>0) continue;
-              if (j3<0 || j3>=n3) continue;
-              for (int m2=0,j2=i2-k2; m2<2; ++m2,j2=i2+k2) {
-                if (j2==i2 && m2>0) continue;
-                if (j2<0 || j2>=n2) continue;
-                for (int m1=0,j1=i1-k1; m1<2; ++m1,j1=i1+k1) {
-                  if (j1==i1 && m1>0) continue;
-                  if (j1<0 || j1>=n1) continue;
-                  if (c[j3][j2][j1]>=0.0f) { // if sample is unknown, ...
-                    g[j3][j2][j1] += fn;
-                    c[j3][j2][j1] += 1.0f;
+            // Scatter the nearest value into all unknown bins inside the
+            // sphere, including those at the same distance as the nearest
+            // known bin, and within this brick.
+            int r3 = BinDistances.reach(dsn,0.0,q3,dx3);
+            for (int m3=max(j3,i3-r3); m3<=min(l3-1,i3+r3); ++m3) {
+              double f3 = q3[abs(m3-i3)];
+              int r2 = BinDistances.reach(dsn,f3,q2,dx2);
+              int r1 = 0;
+              for (int m2=max(j2,i2-r2); m2<=min(l2-1,i2+r2); ++m2) {
+                r1 = BinDistances.reach(dsn,q2[abs(m2-i2)]+f3,q1,r1);
+                int[] cm = c[m3-j3][m2-j2];
+                float[] gm = g[m3][m2];
+                for (int m1=max(0,i1-r1); m1<=min(n1-1,i1+r1); ++m1) {
+                  if (cm[m1]>=0) { // if bin is unknown, ...
+                    gm[m1] += fn;
+                    ++cm[m1];
                   }
                 }
               }
@@ -226,17 +265,19 @@ public class DiscreteSibsonGridder3 implements Gridder3 {
           }
         }
       }
-    }
 
-    // Normalize accumulated values by the number scattered into each bin.
-    for (int i3=0; i3<n3; ++i3) {
-      for (int i2=0; i2<n2; ++i2) {
-        for (int i1=0; i1<n1; ++i1) {
-          if (c[i3][i2][i1]>0.0f)
-            g[i3][i2][i1] /= c[i3][i2][i1];
+      // Normalize accumulated values by the number scattered into each bin.
+      for (int i3=j3; i3<l3; ++i3) {
+        for (int i2=j2; i2<l2; ++i2) {
+          int[] ci = c[i3-j3][i2-j2];
+          float[] gi = g[i3][i2];
+          for (int i1=0; i1<n1; ++i1) {
+            if (ci[i1]>0)
+              gi[i1] /= ci[i1];
+          }
         }
       }
-    }
+    }});
 
     // Optional Gauss-Seidel iterations of bi-Laplacian smoothing to
     // attenuate artifacts in discrete Sibson interpolation.
@@ -274,6 +315,8 @@ public class DiscreteSibsonGridder3 implements Gridder3 {
   ///////////////////////////////////////////////////////////////////////////
   // private
 
+  private static final int BRICK = 16; // brick size in 2nd and 3rd dims
+
   private int _n;
   private float[] _f,_x1,_x2,_x3;
   private int _nsmooth;
@@ -0,0 +1,192 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+/**
+ * Finds scattered samples nearest to points (x1,x2).
+ * Samples are sorted into a uniform grid of cells, with about two samples
+ * per cell, and stored in arrays ordered by cell. A search begins in the
+ * cell containing the point, and then proceeds outward through rings of
+ * cells until no unsearched cell can contain a sample nearer than the
+ * nearest sample found. Searches are exact; they do not depend on whether
+ * samples lie on or near points of any grid.
+ * <p>
+ * A search may begin with a hint, the index of a sample that is likely to
+ * be near the point, such as the sample found nearest to a previous point.
+ * The distance to this sample bounds the search. Searches do not modify
+ * this finder, and may be performed by multiple threads concurrently.
+ * @version 2026.10.19
+ */
+class NearestFinder2 {
+
+  /**
+   * Constructs a finder for specified sample coordinates.
+   * The specified arrays are copied; not referenced.
+   * @param x1 array of sample x1 coordinates.
+   * @param x2 array of sample x2 coordinates.
+   */
+  NearestFinder2(float[] x1, float[] x2) {
+    int n = x1.length;
+    float x1min = x1[0], x1max = x1[0];
+    float x2min = x2[0], x2max = x2[0];
+    for (int i=1; i<n; ++i) {
+      if (x1[i]<x1min) x1min = x1[i];
+      if (x1[i]>x1max) x1max = x1[i];
+      if (x2[i]<x2min) x2min = x2[i];
+      if (x2[i]>x2max) x2max = x2[i];
+    }
+
+    // Square cells with about two samples per cell. A dimension with
+    // extent smaller than the cell size has only one cell.
+    double e1 = x1max-x1min, e2 = x2max-x2min;
+    double d = Cells.size(new double[]{e1,e2},0.5*n+1.0);
+    _m1 = Cells.count(e1,d);
+    _m2 = Cells.count(e2,d);
+    _f1 = x1min; _f2 = x2min;
+    _d1 = (_m1>1)?e1/_m1:1.0;
+    _d2 = (_m2>1)?e2/_m2:1.0;
+
+    // Sample indices, sorted by cell.
+    int m = _m1*_m2;
+    int[] c = new int[n];
+    _k = new int[m+1];
+    for (int i=0; i<n; ++i) {
+      c[i] = cell(cell1(x1[i]),cell2(x2[i]));
+      ++_k[c[i]+1];
+    }
+    for (int j=0; j<m; ++j)
+      _k[j+1] += _k[j];
+    int[] k = new int[m];
+    _i = new int[n];
+    _j = new int[n];
+    _x1 = new float[n];
+    _x2 = new float[n];
+    for (int i=0; i<n; ++i) {
+      int j = _k[c[i]]+k[c[i]]++;
+      _i[j] = i;
+      _j[i] = j;
+      _x1[j] = x1[i];
+      _x2[j] = x2[i];
+    }
+  }
+
+  /**
+   * Determines whether all samples have unique coordinates.
+   * @return true, if unique; false, otherwise.
+   */
+  boolean unique() {
+    int m = _m1*_m2;
+    for (int j=0; j<m; ++j) {
+      for (int ja=_k[j]; ja<_k[j+1]; ++ja) {
+        for (int jb=ja+1; jb<_k[j+1]; ++jb) {
+          if (_x1[ja]==_x1[jb] && _x2[ja]==_x2[jb])
+            return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the index of the sample nearest to the specified point.
+   * If more than one sample is nearest, returns the least of their indices.
+   * @param y1 the x1 coordinate of the point.
+   * @param y2 the x2 coordinate of the point.
+   * @param hint index of a sample near the point; -1, if none.
+   * @return the index of the nearest sample.
+   */
+  int find(float y1, float y2, int hint) {
+    int ibest = -1;
+    float dbest = Float.MAX_VALUE;
+    if (hint>=0) {
+      ibest = hint;
+      dbest = distanceSquaredAt(_j[hint],y1,y2);
+    }
+    double dmax = dbest*Cells.SLACK;
+    int c1 = cell1(y1), c2 = cell2(y2);
+    for (int r=0; ; ++r) {
+      int j1lo = c1-r, j1hi = c1+r;
+      int j2lo = c2-r, j2hi = c2+r;
+      for (int j2=Math.max(0,j2lo); j2<=Math.min(_m2-1,j2hi); ++j2) {
+        double e2 = Cells.distance(y2,_f2,_d2,j2,_m2);
+        if (e2*e2>dmax) continue;
+        boolean s2 = j2==j2lo || j2==j2hi;
+        int j1step = (s2)?1:2*r;
+        for (int j1=j1lo; j1<=j1hi; j1+=j1step) {
+          if (j1<0 || j1>=_m1) continue;
+          double e1 = Cells.distance(y1,_f1,_d1,j1,_m1);
+          if (e1*e1+e2*e2>dmax) continue;
+          int j = cell(j1,j2);
+          for (int k=_k[j],kend=_k[j+1]; k<kend; ++k) {
+            float dk = distanceSquaredAt(k,y1,y2);
+            if (dk<dbest || dk==dbest && _i[k]<ibest) {
+              dbest = dk;
+              dmax = dbest*Cells.SLACK;
+              ibest = _i[k];
+            }
+          }
+        }
+      }
+
+      // Least distance to any cell not yet searched.
+      double e = Double.MAX_VALUE;
+      if (j1lo>0) e = Math.min(e,y1-(_f1+j1lo*_d1));
+      if (j1hi<_m1-1) e = Math.min(e,_f1+(j1hi+1)*_d1-y1);
+      if (j2lo>0) e = Math.min(e,y2-(_f2+j2lo*_d2));
+      if (j2hi<_m2-1) e = Math.min(e,_f2+(j2hi+1)*_d2-y2);
+      if (e==Double.MAX_VALUE || e*e>dmax)
+        return ibest;
+    }
+  }
+
+  /**
+   * Returns the squared distance from a point to the specified sample.
+   * @param i the sample index.
+   * @param y1 the x1 coordinate of the point.
+   * @param y2 the x2 coordinate of the point.
+   * @return the squared distance.
+   */
+  float distanceSquared(int i, float y1, float y2) {
+    return distanceSquaredAt(_j[i],y1,y2);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private int _m1,_m2; // numbers of cells
+  private double _f1,_f2; // coordinates of first cell boundaries
+  private double _d1,_d2; // cell sizes
+  private int[] _k; // offsets of samples for each cell
+  private int[] _i; // sample indices, sorted by cell
+  private int[] _j; // positions of samples, inverse of indices
+  private float[] _x1,_x2; // sample coordinates, sorted by cell
+
+  private int cell1(float x) {
+    return Cells.clamp((int)((x-_f1)/_d1),_m1);
+  }
+  private int cell2(float x) {
+    return Cells.clamp((int)((x-_f2)/_d2),_m2);
+  }
+  private int cell(int j1, int j2) {
+    return j1+_m1*j2;
+  }
+
+  // Squared distance to the sample at position j in sorted arrays.
+  private float distanceSquaredAt(int j, float y1, float y2) {
+    float d1 = y1-_x1[j];
+    float d2 = y2-_x2[j];
+    return d1*d1+d2*d2;
+  }
+}
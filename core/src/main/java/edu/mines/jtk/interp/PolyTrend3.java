@@ -0,0 +1,284 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import edu.mines.jtk.la.DMatrix;
+import edu.mines.jtk.la.DMatrixQrd;
+import edu.mines.jtk.dsp.Sampling;
+import edu.mines.jtk.util.Check;
+
+/**
+ * A low-order polynomial trend in scattered data f(x1,x2,x3).
+ * The trend is computed by least-squares fitting of the scattered
+ * data values. This class enables the computed trend to be easily
+ * removed from scattered data and restored to interpolated data.
+ * @version 2026.10.19
+ */
+public class PolyTrend3 {
+
+  /**
+   * Constructs a trend with specified scattered samples.
+   * The specified arrays are referenced; not copied.
+   * <p>
+   * If insufficient samples are available for the specified order,
+   * then a fit is performed with a polynomial of lower order than
+   * that specified. Note that an order zero (constant) polynomial
+   * fit is always possible when at least one sample is specified.
+   * @param order order of polynomial; must be 0, 1, or 2.
+   * @param f array of sample values f(x1,x2,x3).
+   * @param x1 array of sample x1 coordinates.
+   * @param x2 array of sample x2 coordinates.
+   * @param x3 array of sample x3 coordinates.
+   */
+  public PolyTrend3(
+    int order, float[] f, float[] x1, float[] x2, float[] x3)
+  {
+    Check.argument(0<=order,"0<=order");
+    Check.argument(order<=2,"order<=2");
+    _order = order;
+    setSamples(f,x1,x2,x3);
+  }
+
+  /**
+   * Sets the known (scattered) samples to be fit.
+   * The specified arrays are referenced, not copied.
+   * @param f array of sample values f(x1,x2,x3).
+   * @param x1 array of sample x1 coordinates.
+   * @param x2 array of sample x2 coordinates.
+   * @param x3 array of sample x3 coordinates.
+   */
+  public void setSamples(float[] f, float[] x1, float[] x2, float[] x3) {
+    _n = f.length;
+    _f = f;
+    _x1 = x1;
+    _x2 = x2;
+    _x3 = x3;
+    if (_order>0)
+      initCenter();
+    if (_order==2 && _n>=10) {
+      initOrder2();
+    } else if (_order==1 && _n>=4) {
+      initOrder1();
+    } else {
+      initOrder0();
+    }
+  }
+
+  /**
+   * Removes this trend from its referenced scattered sample values.
+   * Modifies values in the array f referenced by this trend.
+   * @throws IllegalStateException if the trend has already been removed.
+   */
+  public void detrend() {
+    Check.state(!_detrend,"trend not yet removed");
+    detrend(_f,_x1,_x2,_x3);
+    _detrend = true;
+  }
+
+  /**
+   * Restores this trend to its referenced scattered sample values.
+   * Modifies values in the array f referenced by this trend.
+   * @throws IllegalStateException if the trend has not yet been removed.
+   */
+  public void restore() {
+    Check.state(_detrend,"trend has been removed");
+    restore(_f,_x1,_x2,_x3);
+    _detrend = false;
+  }
+
+  /**
+   * Removes this trend from the specified sample.
+   * @param f the sample value.
+   * @param x1 the sample x1 coordinate.
+   * @param x2 the sample x2 coordinate.
+   * @param x3 the sample x3 coordinate.
+   * @return the sample value with trend removed.
+   */
+  public float detrend(float f, float x1, float x2, float x3) {
+    return (float)(f-trend(x1,x2,x3));
+  }
+
+  /**
+   * Restores this trend to the specified sample.
+   * @param f the sample value.
+   * @param x1 the sample x1 coordinate.
+   * @param x2 the sample x2 coordinate.
+   * @param x3 the sample x3 coordinate.
+   * @return the sample value with trend restored.
+   */
+  public float restore(float f, float x1, float x2, float x3) {
+    return (float)(f+trend(x1,x2,x3));
+  }
+
+  /**
+   * Removes this trend from the specified samples.
+   * @param f array of sample values to be detrended.
+   * @param x1 array of sample x1 coordinates.
+   * @param x2 array of sample x2 coordinates.
+   * @param x3 array of sample x3 coordinates.
+   */
+  public void detrend(float[] f, float[] x1, float[] x2, float[] x3) {
+    int n = f.length;
+    for (int i=0; i<n; ++i)
+      f[i] = detrend(f[i],x1[i],x2[i],x3[i]);
+  }
+
+  /**
+   * Restores this trend to the specified samples.
+   * @param f array of sample values to be restored.
+   * @param x1 array of sample x1 coordinates.
+   * @param x2 array of sample x2 coordinates.
+   * @param x3 array of sample x3 coordinates.
+   */
+  public void restore(float[] f, float[] x1, float[] x2, float[] x3) {
+    int n = f.length;
+    for (int i=0; i<n; ++i)
+      f[i] = restore(f[i],x1[i],x2[i],x3[i]);
+  }
+
+  /**
+   * Removes this trend from the specified samples.
+   * @param f array of sample values to be detrended.
+   * @param s1 sampling of x1 coordinates.
+   * @param s2 sampling of x2 coordinates.
+   * @param s3 sampling of x3 coordinates.
+   */
+  public void detrend(float[][][] f, Sampling s1, Sampling s2, Sampling s3) {
+    int n3 = f.length;
+    int n2 = f[0].length;
+    int n1 = f[0][0].length;
+    for (int i3=0; i3<n3; ++i3) {
+      float x3 = (float)s3.getValue(i3);
+      for (int i2=0; i2<n2; ++i2) {
+        float x2 = (float)s2.getValue(i2);
+        for (int i1=0; i1<n1; ++i1) {
+          float x1 = (float)s1.getValue(i1);
+          f[i3][i2][i1] = detrend(f[i3][i2][i1],x1,x2,x3);
+        }
+      }
+    }
+  }
+
+  /**
+   * Restores this trend to the specified samples.
+   * @param f array of sample values to be restored.
+   * @param s1 sampling of x1 coordinates.
+   * @param s2 sampling of x2 coordinates.
+   * @param s3 sampling of x3 coordinates.
+   */
+  public void restore(float[][][] f, Sampling s1, Sampling s2, Sampling s3) {
+    int n3 = f.length;
+    int n2 = f[0].length;
+    int n1 = f[0][0].length;
+    for (int i3=0; i3<n3; ++i3) {
+      float x3 = (float)s3.getValue(i3);
+      for (int i2=0; i2<n2; ++i2) {
+        float x2 = (float)s2.getValue(i2);
+        for (int i1=0; i1<n1; ++i1) {
+          float x1 = (float)s1.getValue(i1);
+          f[i3][i2][i1] = restore(f[i3][i2][i1],x1,x2,x3);
+        }
+      }
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private int _order; // order of polynomial
+  private int _n; // number of scattered samples
+  private float[] _f,_x1,_x2,_x3; // scattered samples f(x1,x2,x3)
+  private double _x1c,_x2c,_x3c; // center of (x1,x2,x3) coordinates
+  private double[] _c = new double[10]; // poly coefficients
+  private boolean _detrend; // true, if _f is currently detrended
+
+  // The trend at the specified coordinates.
+  private double trend(float x1, float x2, float x3) {
+    double t = _c[0];
+    if (_order>0) {
+      double y1 = x1-_x1c;
+      double y2 = x2-_x2c;
+      double y3 = x3-_x3c;
+      t += _c[1]*y1+_c[2]*y2+_c[3]*y3;
+      if (_order>1) {
+        t += _c[4]*y1*y1+_c[5]*y1*y2+_c[6]*y1*y3 +
+             _c[7]*y2*y2+_c[8]*y2*y3+_c[9]*y3*y3;
+      }
+    }
+    return t;
+  }
+
+  private void initCenter() {
+    _x1c = 0.0;
+    _x2c = 0.0;
+    _x3c = 0.0;
+    for (int i=0; i<_n; ++i) {
+      _x1c += _x1[i];
+      _x2c += _x2[i];
+      _x3c += _x3[i];
+    }
+    _x1c /= _n;
+    _x2c /= _n;
+    _x3c /= _n;
+  }
+  private void initOrder0() {
+    _c = new double[10];
+    for (int i=0; i<_n; ++i)
+      _c[0] += _f[i];
+    _c[0] /= _n;
+  }
+  private void initOrder1() {
+    if (!initOrder(4))
+      initOrder0();
+  }
+  private void initOrder2() {
+    if (!initOrder(10))
+      initOrder1();
+  }
+
+  // Fits a polynomial with the specified number of coefficients,
+  // 4 for order 1 or 10 for order 2. Returns false if the least-squares
+  // system is not full rank.
+  private boolean initOrder(int m) {
+    DMatrix a = new DMatrix(_n,m);
+    DMatrix b = new DMatrix(_n,1);
+    for (int i=0; i<_n; ++i) {
+      double y1 = _x1[i]-_x1c;
+      double y2 = _x2[i]-_x2c;
+      double y3 = _x3[i]-_x3c;
+      a.set(i,0,1.0);
+      a.set(i,1,y1);
+      a.set(i,2,y2);
+      a.set(i,3,y3);
+      if (m>4) {
+        a.set(i,4,y1*y1);
+        a.set(i,5,y1*y2);
+        a.set(i,6,y1*y3);
+        a.set(i,7,y2*y2);
+        a.set(i,8,y2*y3);
+        a.set(i,9,y3*y3);
+      }
+      b.set(i,0,_f[i]);
+    }
+    DMatrixQrd qrd = new DMatrixQrd(a);
+    if (!qrd.isFullRank())
+      return false;
+    DMatrix c = qrd.solve(b);
+    _c = new double[10];
+    for (int j=0; j<m; ++j)
+      _c[j] = c.get(j,0);
+    return true;
+  }
+}
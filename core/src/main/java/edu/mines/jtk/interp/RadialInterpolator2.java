@@ -14,14 +14,42 @@ limitations under the License.
 ****************************************************************************/
 package edu.mines.jtk.interp;
 
+import java.util.Arrays;
+
 import edu.mines.jtk.la.DMatrix;
 import edu.mines.jtk.la.DMatrixLud;
 import edu.mines.jtk.dsp.Sampling;
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
  * Interpolation of scattered data f(x1,x2) with radial basis functions.
+ * <p>
+ * By default, weights for the radial basis functions are computed by
+ * solving one dense system of equations for all known samples. The cost
+ * of that solution grows with the cube of the number of samples, and
+ * the cost of each interpolated value grows with the number of samples.
+ * For more than a few thousand samples, a partition of unity may be
+ * used instead. The bounding box of samples is then partitioned into
+ * uniform square cells, and each cell is covered by a circular patch
+ * centered on that cell. Each patch contains a specified number (on
+ * average) of the nearest samples, and weights for the radial basis
+ * functions in each patch are computed by solving a small independent
+ * system of equations. Interpolated values are weighted sums of values
+ * interpolated for nearby patches, with compactly supported weights
+ * (Wendland's C2 function of distance from patch centers) normalized
+ * to sum to one. Interpolated values still equal known sample values
+ * at the locations of those samples.
+ * <p>
+ * For a partition of unity, the costs of computing weights and of each
+ * interpolated value are proportional to the number of samples and to
+ * the number of samples per patch, respectively. Patches are computed
+ * and values are interpolated for sampled grids in parallel.
+ * <p>
+ * See Wendland, H., 2002, Fast evaluation of radial basis functions:
+ * methods based on partition of unity, in Approximation Theory X:
+ * Wavelets, Splines, and Applications, 473--483.
  * @author Dave Hale, Colorado School of Mines
  * @version 2010.01.15
  */
@@ -200,10 +228,31 @@ public class RadialInterpolator2 {
     _x1 = copy(x1);
     _x2 = copy(x2);
     _w = null;
+    _pw = null;
     if (_trend!=null)
       _trend.detrend(_f,_x1,_x2);
   }
 
+  /**
+   * Sets the number of samples per patch in a partition of unity.
+   * The number of samples in each patch may differ from this number,
+   * which is the number of samples per patch on average. If zero, no
+   * partition of unity is used, and weights are computed for all known
+   * samples by solving one system of equations. The default is zero.
+   * <p>
+   * Patches are defined by Euclidean distances, regardless of any
+   * metric tensor specified for the radial basis functions.
+   * @param npatch the number of samples per patch; zero, for none.
+   */
+  public void setPatchSize(int npatch) {
+    Check.argument(npatch==0 || npatch>=4,"npatch is zero or at least 4");
+    if (_npatch!=npatch) {
+      _npatch = npatch;
+      _w = null;
+      _pw = null;
+    }
+  }
+
   /**
    * Sets the metric tensor used to compute distances.
    * A metric tensor can make the radial basis function anisotropic, 
@@ -226,6 +275,7 @@ public class RadialInterpolator2 {
       _m22 = m22;
       _mt = _m11!=1.0 || _m12!=0.0 || _m22!=1.0;
       _w = null;
+      _pw = null;
     }
   }
 
@@ -251,6 +301,7 @@ public class RadialInterpolator2 {
       }
       _order = order;
       _w = null;
+      _pw = null;
     }
   }
 
@@ -262,18 +313,7 @@ public class RadialInterpolator2 {
    */
   public float interpolate(float x1, float x2) {
     ensureWeights();
-    double f = 0.0;
-    double x1i = x1;
-    double x2i = x2;
-    for (int k=0; k<_n; ++k) {
-      double x1k = _x1[k];
-      double x2k = _x2[k];
-      f += _w[k]*g(x1k,x2k,x1i,x2i);
-    }
-    float ff = (float)f;
-    if (_trend!=null)
-      ff = _trend.restore(ff,x1,x2);
-    return ff;
+    return value(x1,x2);
   }
 
   /**
@@ -282,25 +322,30 @@ public class RadialInterpolator2 {
    * @param s2 the sampling of n2 x2 coordinates.
    * @return array[n2][n1] of interpolated values.
    */
-  public float[][] interpolate(Sampling s1, Sampling s2) {
-    int n1 = s1.getCount();
-    int n2 = s2.getCount();
-    float[][] f = new float[n2][n1];
-    for (int i2=0; i2<n2; ++i2) {
+  public float[][] interpolate(final Sampling s1, final Sampling s2) {
+    ensureWeights();
+    final int n1 = s1.getCount();
+    final int n2 = s2.getCount();
+    final float[][] f = new float[n2][n1];
+    Parallel.loop(n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
       float x2 = (float)s2.getValue(i2);
       for (int i1=0; i1<n1; ++i1) {
         float x1 = (float)s1.getValue(i1);
-        f[i2][i1] = interpolate(x1,x2);
+        f[i2][i1] = value(x1,x2);
       }
-    }
+    }});
     return f;
   }
 
   /**
    * Gets the weights that scale the basis for each known sample.
+   * Weights are available only if no partition of unity is used.
    * @return array of weights; by copy, not by reference.
+   * @throws IllegalStateException if a partition of unity is used.
    */
   public float[] getWeights() {
+    Check.state(_npatch==0,"no partition of unity is used");
     ensureWeights();
     return copy(_w);
   }
@@ -316,6 +361,68 @@ public class RadialInterpolator2 {
   private boolean _mt; // true iff using a metric tensor
   private PolyTrend2 _trend; // polynomial trend; null, if none
   private int _order = -1; // order of poly trend; -1, if none
+  private int _npatch; // number of samples per patch; 0, if no patches
+  private int _m1,_m2; // numbers of cells, one patch per cell
+  private double _f1,_f2,_d; // first cell coordinates and cell size
+  private int[] _ck; // offsets of patches for each cell
+  private int[] _cp; // indices of patches that overlap each cell
+  private double[] _pr; // patch radii
+  private int[][] _pk; // indices of samples in each patch
+  private float[][] _pw; // weights for samples in each patch; null, if none
+
+  // Returns the interpolated value for weights that have been computed.
+  private float value(float x1, float x2) {
+    double f = (_npatch==0) ?
+      value(x1,x2,_pk[0],_w) :
+      valueOfPatches(x1,x2);
+    float ff = (float)f;
+    if (_trend!=null)
+      ff = _trend.restore(ff,x1,x2);
+    return ff;
+  }
+
+  // Returns the weighted sum of basis functions for specified samples.
+  private double value(float x1, float x2, int[] k, float[] w) {
+    double f = 0.0;
+    double x1i = x1;
+    double x2i = x2;
+    for (int j=0; j<k.length; ++j) {
+      double x1k = _x1[k[j]];
+      double x2k = _x2[k[j]];
+      f += w[j]*g(x1k,x2k,x1i,x2i);
+    }
+    return f;
+  }
+
+  // Returns the sum of values for patches that contain the specified point,
+  // weighted by the partition of unity. Only patches that overlap the cell
+  // containing the point are considered. If no patch contains the point,
+  // which must then lie outside the bounding box of samples, returns the
+  // value for the patch centered on the cell nearest to the point.
+  private double valueOfPatches(float x1, float x2) {
+    int c1 = Cells.clamp((int)((x1-_f1)/_d),_m1);
+    int c2 = Cells.clamp((int)((x2-_f2)/_d),_m2);
+    int c = c1+_m1*c2;
+    double fs = 0.0;
+    double ws = 0.0;
+    for (int jp=_ck[c]; jp<_ck[c+1]; ++jp) {
+      int j = _cp[jp];
+      double e1 = x1-(_f1+(j%_m1+0.5)*_d);
+      double e2 = x2-(_f2+(j/_m1+0.5)*_d);
+      double r = sqrt(e1*e1+e2*e2)/_pr[j];
+      if (r<1.0) {
+        double s = 1.0-r;
+        s *= s;
+        double wj = s*s*(4.0*r+1.0);
+        fs += wj*value(x1,x2,_pk[j],_pw[j]);
+        ws += wj;
+      }
+    }
+    if (ws>0.0)
+      return fs/ws;
+    int j = c;
+    return value(x1,x2,_pk[j],_pw[j]);
+  }
 
   private double g(double x1a, double x2a, double x1b, double x2b) {
     return _basis.evaluate(r(x1a,x2a,x1b,x2b));
@@ -332,24 +439,162 @@ public class RadialInterpolator2 {
   }
 
   private void ensureWeights() {
-    if (_w!=null)
-      return;
-    DMatrix a = new DMatrix(_n,_n);
-    DMatrix b = new DMatrix(_n,1);
-    for (int i=0; i<_n; ++i) {
-      double x1i = _x1[i];
-      double x2i = _x2[i];
-      for (int j=0; j<_n; ++j) {
-        double x1j = _x1[j];
-        double x2j = _x2[j];
+    if (_npatch==0) {
+      if (_w!=null)
+        return;
+      _pk = new int[][]{rampint(0,1,_n)};
+      _w = solve(_pk[0]);
+    } else {
+      if (_pw==null)
+        computePatches();
+    }
+  }
+
+  // Returns weights for the basis functions of the specified samples,
+  // so that the weighted sum of those functions equals sample values
+  // at the locations of those samples.
+  private float[] solve(int[] k) {
+    int n = k.length;
+    DMatrix a = new DMatrix(n,n);
+    DMatrix b = new DMatrix(n,1);
+    for (int i=0; i<n; ++i) {
+      double x1i = _x1[k[i]];
+      double x2i = _x2[k[i]];
+      for (int j=0; j<n; ++j) {
+        double x1j = _x1[k[j]];
+        double x2j = _x2[k[j]];
         a.set(i,j,g(x1i,x2i,x1j,x2j));
       }
-      b.set(i,0,_f[i]);
+      b.set(i,0,_f[k[i]]);
     }
     DMatrixLud lud = new DMatrixLud(a);
     DMatrix w = lud.solve(b);
-    _w = new float[_n];
+    float[] ws = new float[n];
+    for (int i=0; i<n; ++i)
+      ws[i] = (float)w.get(i,0);
+    return ws;
+  }
+
+  // Computes patches and their weights. Square cells are sized so that
+  // a circular patch with radius equal to the cell size contains on
+  // average the specified number of samples. Such a patch, centered on
+  // a cell, covers that cell. A patch with fewer than half that number
+  // of samples is enlarged until it contains at least that many.
+  private void computePatches() {
+    float x1min = min(_x1), x1max = max(_x1);
+    float x2min = min(_x2), x2max = max(_x2);
+    double e1 = x1max-x1min, e2 = x2max-x2min;
+    _d = Cells.size(new double[]{e1,e2},_n*PI/_npatch);
+    _m1 = Cells.count(e1,_d);
+    _m2 = Cells.count(e2,_d);
+    _d = max(e1/_m1,e2/_m2,_d);
+    _f1 = x1min+0.5*(e1-_m1*_d);
+    _f2 = x2min+0.5*(e2-_m2*_d);
+
+    // Sample indices, sorted by cell.
+    final int m = _m1*_m2;
+    int[] c = new int[_n];
+    final int[] kc = new int[m+1];
+    for (int i=0; i<_n; ++i) {
+      int c1 = Cells.clamp((int)((_x1[i]-_f1)/_d),_m1);
+      int c2 = Cells.clamp((int)((_x2[i]-_f2)/_d),_m2);
+      c[i] = c1+_m1*c2;
+      ++kc[c[i]+1];
+    }
+    for (int j=0; j<m; ++j)
+      kc[j+1] += kc[j];
+    final int[] ks = new int[_n];
+    int[] jc = copy(kc);
     for (int i=0; i<_n; ++i)
-      _w[i] = (float)w.get(i,0);
+      ks[jc[c[i]]++] = i;
+
+    // Patches, computed in parallel.
+    final int nmin = min(_n,(_npatch+1)/2);
+    _pr = new double[m];
+    _pk = new int[m][];
+    _pw = null;
+    final float[][] pw = new float[m][];
+    Parallel.loop(m,new Parallel.LoopInt() {
+    public void compute(int j) {
+      int j1 = j%_m1, j2 = j/_m1;
+      double r = _d;
+      int[] k = samplesInPatch(j1,j2,r,kc,ks);
+      while (k.length<nmin) {
+        r *= 1.25;
+        k = samplesInPatch(j1,j2,r,kc,ks);
+      }
+      _pr[j] = r;
+      _pk[j] = k;
+      pw[j] = solve(k);
+    }});
+    computeCellPatches();
+    _pw = pw;
+  }
+
+  // Computes for each cell the indices of patches that overlap it, in
+  // increasing order. First and last cells extend to infinity, so that
+  // any point lies in a cell that is overlapped by all patches that
+  // contain the point.
+  private void computeCellPatches() {
+    int m = _m1*_m2;
+    _ck = new int[m+1];
+    int[] jc = null;
+    for (int pass=0; pass<2; ++pass) {
+      for (int j=0; j<m; ++j) {
+        int j1 = j%_m1, j2 = j/_m1;
+        double c1 = _f1+(j1+0.5)*_d;
+        double c2 = _f2+(j2+0.5)*_d;
+        double rr = _pr[j]*_pr[j]*Cells.SLACK;
+        int l = (int)ceil(_pr[j]/_d);
+        for (int i2=max(0,j2-l); i2<=min(_m2-1,j2+l); ++i2) {
+          double e2 = Cells.distance(c2,_f2,_d,i2,_m2);
+          for (int i1=max(0,j1-l); i1<=min(_m1-1,j1+l); ++i1) {
+            double e1 = Cells.distance(c1,_f1,_d,i1,_m1);
+            if (e1*e1+e2*e2<rr) {
+              int i = i1+_m1*i2;
+              if (jc==null) {
+                ++_ck[i+1];
+              } else {
+                _cp[jc[i]++] = j;
+              }
+            }
+          }
+        }
+      }
+      if (jc==null) {
+        for (int i=0; i<m; ++i)
+          _ck[i+1] += _ck[i];
+        _cp = new int[_ck[m]];
+        jc = copy(_ck);
+      }
+    }
+  }
+
+  // Returns indices of samples within distance r of a cell center.
+  private int[] samplesInPatch(
+    int j1, int j2, double r, int[] kc, int[] ks)
+  {
+    double c1 = _f1+(j1+0.5)*_d;
+    double c2 = _f2+(j2+0.5)*_d;
+    double rr = r*r;
+    int m = (int)ceil(r/_d);
+    int[] k = new int[16];
+    int n = 0;
+    for (int i2=max(0,j2-m); i2<=min(_m2-1,j2+m); ++i2) {
+      for (int i1=max(0,j1-m); i1<=min(_m1-1,j1+m); ++i1) {
+        int i = i1+_m1*i2;
+        for (int jk=kc[i]; jk<kc[i+1]; ++jk) {
+          int ik = ks[jk];
+          double d1 = _x1[ik]-c1;
+          double d2 = _x2[ik]-c2;
+          if (d1*d1+d2*d2<rr) {
+            if (n==k.length)
+              k = Arrays.copyOf(k,2*n);
+            k[n++] = ik;
+          }
+        }
+      }
+    }
+    return copy(n,k);
   }
 }
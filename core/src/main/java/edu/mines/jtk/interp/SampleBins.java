@@ -0,0 +1,298 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Arrays;
+
+import edu.mines.jtk.dsp.Sampling;
+import edu.mines.jtk.util.Parallel;
+
+/**
+ * Accumulates statistics of scattered sample values in grid cells.
+ * In one pass over samples, bins accumulate counts, and only those other
+ * quantities required for requested statistics. Sums and sums of squared
+ * deviations from means (for variances) are accumulated in double
+ * precision, the latter with Welford's method. Means are stored in
+ * single precision, in the array of gridded means, so that gridding only
+ * means requires no more memory than gridded means and counts. Means are
+ * updated once for each chunk of samples (see below), from sums of
+ * sample values in that chunk accumulated in double precision.
+ * <p>
+ * One set of bins is shared by all threads. Grid cells, ordered as in
+ * arrays of gridded statistics, are divided into slabs of consecutive
+ * cells. Samples are processed in chunks of fixed size, and samples in
+ * each chunk are sorted by slab. Slabs are then binned in parallel, each
+ * by only one thread and with samples in their specified order, so that
+ * statistics do not depend on the number of threads. Each thread has
+ * sums for only one slab at a time, and slabs are small, so that sums
+ * require much less memory than the gridded statistics.
+ * @version 2026.10.19
+ */
+class SampleBins {
+
+  /**
+   * Returns statistics for samples binned in parallel.
+   * Coordinates x3 may be null, for 2D sampling with n3 = 1.
+   * @param f array of sample values.
+   * @param x1 array of sample x1 coordinates.
+   * @param x2 array of sample x2 coordinates.
+   * @param x3 array of sample x3 coordinates; null, if 2D.
+   * @param s1 sampling of x1.
+   * @param s2 sampling of x2.
+   * @param s3 sampling of x3; null, if 2D.
+   * @param stats array of statistics.
+   * @param fnull the null value.
+   * @return array[nstat][n3][n2][n1] of gridded statistics.
+   */
+  static float[][][][] grid(
+    float[] f, float[] x1, float[] x2, float[] x3,
+    Sampling s1, Sampling s2, Sampling s3,
+    BinStatistic[] stats, float fnull)
+  {
+    SampleBins b = new SampleBins(x1,x2,x3,s1,s2,s3,stats);
+    b.add(f);
+    return b.get(stats,fnull);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private static final int NB = 65536; // number of samples per block
+  private static final int NK = 4*NB; // number of samples per chunk
+  private static final int NS = 16; // number of slabs per thread
+  private static final int NC = 65536; // maximum number of cells per slab
+
+  private float[] _x1,_x2,_x3; // sample coordinates; _x3 is null, if 2D
+  private Sampling _s1,_s2,_s3; // samplings; _s3 is null, if 2D
+  private int _n1,_n2,_n3; // grid dimensions
+  private double _f1,_f2,_f3; // first cell boundaries
+  private double _l1,_l2,_l3; // last cell boundaries
+  private float[][][][] _g; // gridded statistics
+  private int[][][] _c; // counts
+  private double[][][] _s; // sums; null, if not needed
+  private double[][][] _v; // sums of squared deviations; null, if not needed
+  private float[][][] _m; // means, in _g; null, if not needed
+  private float[][][] _lo,_hi; // minimum and maximum values, in _g
+
+  private SampleBins(
+    float[] x1, float[] x2, float[] x3,
+    Sampling s1, Sampling s2, Sampling s3,
+    BinStatistic[] stats)
+  {
+    _x1 = x1;
+    _x2 = x2;
+    _x3 = x3;
+    _s1 = s1;
+    _s2 = s2;
+    _s3 = s3;
+    _n1 = s1.getCount();
+    _n2 = s2.getCount();
+    _n3 = (s3!=null)?s3.getCount():1;
+    _f1 = s1.getFirst()-0.5*s1.getDelta();
+    _f2 = s2.getFirst()-0.5*s2.getDelta();
+    _f3 = (s3!=null)?s3.getFirst()-0.5*s3.getDelta():0.0;
+    _l1 = s1.getLast()+0.5*s1.getDelta();
+    _l2 = s2.getLast()+0.5*s2.getDelta();
+    _l3 = (s3!=null)?s3.getLast()+0.5*s3.getDelta():0.0;
+    _g = new float[stats.length][_n3][_n2][_n1];
+    _c = new int[_n3][_n2][_n1];
+    for (int is=0; is<stats.length; ++is) {
+      BinStatistic stat = stats[is];
+      if (_s==null && (stat==BinStatistic.SUM ||
+                       stat==BinStatistic.VARIANCE))
+        _s = new double[_n3][_n2][_n1];
+      if (_v==null && stat==BinStatistic.VARIANCE)
+        _v = new double[_n3][_n2][_n1];
+      if (_m==null && stat==BinStatistic.MEAN)
+        _m = _g[is];
+      if (_lo==null && stat==BinStatistic.MIN)
+        _lo = _g[is];
+      if (_hi==null && stat==BinStatistic.MAX)
+        _hi = _g[is];
+    }
+  }
+
+  // Returns the index i1+n1*(i2+n2*i3) of the cell containing the i'th
+  // sample, or -1, if that sample lies outside the grid.
+  private long cell(int i) {
+    double x1 = _x1[i];
+    double x2 = _x2[i];
+    double x3 = (_x3!=null)?_x3[i]:0.0;
+    if (_f1<=x1 && x1<=_l1 && _f2<=x2 && x2<=_l2 &&
+        (_s3==null || _f3<=x3 && x3<=_l3)) {
+      long i1 = _s1.indexOfNearest(x1);
+      long i2 = _s2.indexOfNearest(x2);
+      long i3 = (_s3!=null)?_s3.indexOfNearest(x3):0;
+      return i1+_n1*(i2+_n2*i3);
+    }
+    return -1;
+  }
+
+  // Adds all samples with specified values, one chunk at a time.
+  private void add(final float[] f) {
+    final int n = f.length;
+    final long n12 = (long)_n1*_n2;
+    long nc = n12*_n3;
+    int nthread = Runtime.getRuntime().availableProcessors();
+    final int ns = (int)Math.min(nc,Math.max((long)NS*nthread,(nc-1)/NC+1));
+    final long mc = (nc+ns-1)/ns; // number of cells per slab
+    int nk = Math.min(n,NK);
+    final long[] ck = new long[nk]; // cell indices for samples in chunk
+    final int[] ik = new int[nk]; // chunk indices, sorted by slab
+    final int[] ks = new int[ns+1]; // offsets in ik for each slab
+    int[] js = new int[ns]; // next offsets, while sorting by slab
+    final Parallel.Unsafe<Sums> sums = new Parallel.Unsafe<Sums>();
+    for (int jk=0; jk<n; jk+=NK) {
+      final int j = jk;
+      final int m = Math.min(NK,n-jk);
+
+      // Cell indices for samples in this chunk.
+      Parallel.loop((m+NB-1)/NB,new Parallel.LoopInt() {
+      public void compute(int ib) {
+        for (int k=ib*NB,kend=Math.min(k+NB,m); k<kend; ++k)
+          ck[k] = cell(j+k);
+      }});
+
+      // Samples sorted by slab, in order within each slab.
+      Arrays.fill(ks,0);
+      for (int k=0; k<m; ++k)
+        if (ck[k]>=0)
+          ++ks[(int)(ck[k]/mc)+1];
+      for (int is=0; is<ns; ++is)
+        js[is] = ks[is+1] += ks[is];
+      for (int k=m-1; k>=0; --k)
+        if (ck[k]>=0)
+          ik[--js[(int)(ck[k]/mc)]] = k;
+
+      // Slabs binned in parallel.
+      Parallel.loop(ns,new Parallel.LoopInt() {
+      public void compute(int is) {
+        if (ks[is]==ks[is+1])
+          return;
+        Sums t = null;
+        if (_m!=null) {
+          t = sums.get();
+          if (t==null) sums.set(t=new Sums((int)mc));
+        }
+        long c0 = is*mc;
+        for (int p=ks[is]; p<ks[is+1]; ++p) {
+          int k = ik[p];
+          long c = ck[k];
+          int i3 = (int)(c/n12);
+          int i = (int)(c-i3*n12);
+          add(i%_n1,i/_n1,i3,f[j+k]);
+          if (t!=null)
+            t.add((int)(c-c0),f[j+k]);
+        }
+        if (t!=null) {
+          for (int p=ks[is]; p<ks[is+1]; ++p) {
+            long c = ck[ik[p]];
+            int i3 = (int)(c/n12);
+            int i = (int)(c-i3*n12);
+            t.update((int)(c-c0),i%_n1,i/_n1,i3);
+          }
+        }
+      }});
+    }
+  }
+
+  // Adds a sample value to the bin with indices i1, i2 and i3, except
+  // for the mean, which is updated from sums.
+  private void add(int i1, int i2, int i3, float f) {
+    int c = ++_c[i3][i2][i1];
+    if (_s!=null) {
+      double s = _s[i3][i2][i1];
+      if (_v!=null && c>1) {
+        double d = f-s/(c-1);
+        _v[i3][i2][i1] += d*d*(c-1)/c;
+      }
+      _s[i3][i2][i1] = s+f;
+    }
+    if (_lo!=null && (c==1 || f<_lo[i3][i2][i1]))
+      _lo[i3][i2][i1] = f;
+    if (_hi!=null && (c==1 || f>_hi[i3][i2][i1]))
+      _hi[i3][i2][i1] = f;
+  }
+
+  // Counts and sums of values for one slab of cells and one chunk of
+  // samples, used to update means.
+  private class Sums {
+    Sums(int m) {
+      _cs = new int[m];
+      _ss = new double[m];
+    }
+
+    // Adds a sample value to the j'th cell in the slab.
+    void add(int j, float f) {
+      ++_cs[j];
+      _ss[j] += f;
+    }
+
+    // Updates the mean for the j'th cell in the slab, which has indices
+    // i1, i2 and i3 in the grid, and then empties that cell. Does nothing
+    // if the cell is already empty.
+    void update(int j, int i1, int i2, int i3) {
+      int cj = _cs[j];
+      if (cj==0)
+        return;
+      int c = _c[i3][i2][i1];
+      double m = _m[i3][i2][i1];
+      _m[i3][i2][i1] = (float)((m*(c-cj)+_ss[j])/c);
+      _cs[j] = 0;
+      _ss[j] = 0.0;
+    }
+
+    private int[] _cs; // counts
+    private double[] _ss; // sums
+  }
+
+  // Returns the specified statistics. Quantities accumulated in arrays
+  // of gridded statistics are read for each cell before any statistic
+  // for that cell is stored.
+  private float[][][][] get(BinStatistic[] stats, float fnull) {
+    int ns = stats.length;
+    for (int i3=0; i3<_n3; ++i3) {
+      for (int i2=0; i2<_n2; ++i2) {
+        for (int i1=0; i1<_n1; ++i1) {
+          int c = _c[i3][i2][i1];
+          float m = (_m!=null)?_m[i3][i2][i1]:0.0f;
+          float lo = (_lo!=null)?_lo[i3][i2][i1]:0.0f;
+          float hi = (_hi!=null)?_hi[i3][i2][i1]:0.0f;
+          for (int is=0; is<ns; ++is) {
+            BinStatistic stat = stats[is];
+            float g;
+            if (stat==BinStatistic.COUNT) {
+              g = c;
+            } else if (stat==BinStatistic.SUM) {
+              g = (float)_s[i3][i2][i1];
+            } else if (c==0) {
+              g = fnull;
+            } else if (stat==BinStatistic.MEAN) {
+              g = m;
+            } else if (stat==BinStatistic.MIN) {
+              g = lo;
+            } else if (stat==BinStatistic.MAX) {
+              g = hi;
+            } else {
+              g = (float)(_v[i3][i2][i1]/c);
+            }
+            _g[is][i3][i2][i1] = g;
+          }
+        }
+      }
+    }
+    return _g;
+  }
+}
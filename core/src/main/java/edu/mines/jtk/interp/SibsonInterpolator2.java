@@ -22,6 +22,7 @@ import edu.mines.jtk.la.DMatrixQrd;
 import edu.mines.jtk.mesh.Geometry;
 import edu.mines.jtk.mesh.TriMesh;
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 
 /**
  * Sibson interpolation of scattered samples of 2D functions f(x1,x2).
@@ -189,16 +190,8 @@ public class SibsonInterpolator2 {
   public SibsonInterpolator2(
     Method method, float[] f, float[] x1, float[] x2) 
   {
+    _method = method;
     makeMesh(f,x1,x2);
-    _nodeList = new TriMesh.NodeList();
-    _triList = new TriMesh.TriList();
-    if (method==Method.WATSON_SAMBRIDGE) {
-      _va = new WatsonSambridge();
-    } else if (method==Method.BRAUN_SAMBRIDGE) {
-      _va = new BraunSambridge();
-    } else if (method==Method.HALE_LIANG) {
-      _va = new HaleLiang();
-    }
   }
 
   /**
@@ -338,38 +331,102 @@ public class SibsonInterpolator2 {
    * @return the interpolated value.
    */
   public float interpolate(float x1, float x2) {
-    if (!inBounds(x1,x2))
-      return _fnull;
-    double asum = computeAreas(x1,x2);
-    if (asum<=0.0)
-      return _fnull;
-    if (usingGradients()) {
-      return interpolate1(asum,x1,x2);
-    } else {
-      return interpolate0(asum);
-    }
+    return interpolate(_nabors,x1,x2);
   }
 
   /**
    * Returns an array of interpolated values sampled on a grid.
+   * <p>
+   * Rows of the grid are interpolated in parallel. Each thread has its
+   * own lists of natural neighbors, and locates each point by walking
+   * through the mesh from the tri that contains the previous point.
+   * Interpolated values equal those computed for individual points.
    * @param s1 the sampling of n1 x1 coordinates.
    * @param s2 the sampling of n2 x2 coordinates.
    * @return array[n2][n1] of interpolated values.
    */
-  public float[][] interpolate(Sampling s1, Sampling s2) {
-    int n1 = s1.getCount();
-    int n2 = s2.getCount();
-    float[][] f = new float[n2][n1];
-    for (int i2=0; i2<n2; ++i2) {
+  public float[][] interpolate(Sampling s1, final Sampling s2) {
+    final int n1 = s1.getCount();
+    final int n2 = s2.getCount();
+    final float[] x1 = new float[n1];
+    for (int i1=0; i1<n1; ++i1)
+      x1[i1] = (float)s1.getValue(i1);
+    final float[][] f = new float[n2][n1];
+    final int[] counts = indexNodesAndTris();
+    final Parallel.Unsafe<Nabors> nu = new Parallel.Unsafe<Nabors>();
+    Parallel.loop(n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      Nabors nabors = nu.get();
+      if (nabors==null)
+        nu.set(nabors=new Nabors(_mesh,_method,counts[0],counts[1]));
       float x2 = (float)s2.getValue(i2);
-      for (int i1=0; i1<n1; ++i1) {
-        float x1 = (float)s1.getValue(i1);
-        f[i2][i1] = interpolate(x1,x2);
-      }
-    }
+      float[] f2 = f[i2];
+      for (int i1=0; i1<n1; ++i1)
+        f2[i1] = interpolate(nabors,x1[i1],x2);
+    }});
     return f;
   }
 
+  /**
+   * Returns a table of Sibson weights for points sampled on a grid.
+   * Points in the table are ordered with x1 coordinates varying fastest,
+   * so that the point (x1,x2) with sample indices (i1,i2) has index
+   * i1+i2*n1. Weights for rows of the grid are computed in parallel.
+   * <p>
+   * Weights are computed for the samples and bounds currently specified
+   * for this interpolator. They do not depend on sample values, which
+   * may be specified when applying the weights.
+   * @param s1 the sampling of n1 x1 coordinates.
+   * @param s2 the sampling of n2 x2 coordinates.
+   * @return the table of weights for n1*n2 points.
+   */
+  public SibsonWeights getWeights(Sampling s1, final Sampling s2) {
+    final int n1 = s1.getCount();
+    final int n2 = s2.getCount();
+    final float[] x1 = new float[n1];
+    for (int i1=0; i1<n1; ++i1)
+      x1[i1] = (float)s1.getValue(i1);
+    final SibsonWeights.Block[] blocks = new SibsonWeights.Block[n2];
+    final int[] counts = indexNodesAndTris();
+    final Parallel.Unsafe<Nabors> nu = new Parallel.Unsafe<Nabors>();
+    Parallel.loop(n2,new Parallel.LoopInt() {
+    public void compute(int i2) {
+      Nabors nabors = nu.get();
+      if (nabors==null)
+        nu.set(nabors=new Nabors(_mesh,_method,counts[0],counts[1]));
+      float x2 = (float)s2.getValue(i2);
+      SibsonWeights.Block block = blocks[i2] = new SibsonWeights.Block();
+      for (int i1=0; i1<n1; ++i1)
+        addWeights(nabors,x1[i1],x2,block);
+    }});
+    return SibsonWeights.join(_nodes.length,blocks,_fnull);
+  }
+
+  /**
+   * Returns a table of Sibson weights for the specified points.
+   * Weights for blocks of points are computed in parallel.
+   * @param x1 array of x1 coordinates of points.
+   * @param x2 array of x2 coordinates of points.
+   * @return the table of weights for the points.
+   */
+  public SibsonWeights getWeights(final float[] x1, final float[] x2) {
+    final int np = x1.length;
+    final int nb = (np+NB-1)/NB;
+    final SibsonWeights.Block[] blocks = new SibsonWeights.Block[nb];
+    final int[] counts = indexNodesAndTris();
+    final Parallel.Unsafe<Nabors> nu = new Parallel.Unsafe<Nabors>();
+    Parallel.loop(nb,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      Nabors nabors = nu.get();
+      if (nabors==null)
+        nu.set(nabors=new Nabors(_mesh,_method,counts[0],counts[1]));
+      SibsonWeights.Block block = blocks[ib] = new SibsonWeights.Block();
+      for (int ip=ib*NB,jp=Math.min(ip+NB,np); ip<jp; ++ip)
+        addWeights(nabors,x1[ip],x2[ip],block);
+    }});
+    return SibsonWeights.join(_nodes.length,blocks,_fnull);
+  }
+
   /**
    * Gets sample indices and interpolation weights for the specified point.
    * Given a point (x1,x2), the sample indices represent the natural
@@ -387,17 +444,17 @@ public class SibsonInterpolator2 {
   public IndexWeight[] getIndexWeights(float x1, float x2) {
     if (!inBounds(x1,x2))
       return null;
-    float wsum = (float)computeAreas(x1,x2);
+    float wsum = (float)_nabors.computeAreas(x1,x2);
     if (wsum==0.0f)
       return null;
     float wscl = 1.0f/wsum;
-    int nnode = _nodeList.nnode();
-    TriMesh.Node[] nodes = _nodeList.nodes();
+    int nnode = _nabors.nodeList.nnode();
+    TriMesh.Node[] nodes = _nabors.nodeList.nodes();
     IndexWeight[] iw = new IndexWeight[nnode];
     for (int inode=0; inode<nnode; ++inode) {
       TriMesh.Node node = nodes[inode];
       int i = node.index;
-      float w = (float)area(node)*wscl;
+      float w = (float)_nabors.area(node)*wscl;
       iw[inode] = new IndexWeight(i,w);
     }
     return iw;
@@ -460,6 +517,7 @@ public class SibsonInterpolator2 {
   private static class NodeData {
     float f,gx,gy; // function values and gradient
     double area; // area for Sibson weight
+    int slot; // index of node in arrays used by threads
   }
   private static NodeData data(TriMesh.Node node) {
     return (NodeData)node.data;
@@ -473,18 +531,16 @@ public class SibsonInterpolator2 {
   private static float gy(TriMesh.Node node) {
     return data(node).gy;
   }
-  private static double area(TriMesh.Node node) {
-    return data(node).area;
-  }
   private static boolean ghost(TriMesh.Node node) {
     return node.index<0;
   }
 
+  private static final int NB = 1024; // points per block of weights
+
   private TriMesh _mesh; // the mesh
   private TriMesh.Node[] _nodes; // array of real (not ghost) nodes
-  private TriMesh.NodeList _nodeList; // list of natural neighbor nodes
-  private TriMesh.TriList _triList; // list of natural neighbor tris
-  private AreaAccumulator _va; // accumulates Sibson's areas
+  private Method _method; // method used to compute Sibson's areas
+  private Nabors _nabors; // natural neighbors for individual points
   private boolean _haveGradients; // true if mesh nodes have gradients
   private double _gradientPower; // power of gradients
   private float _fnull; // returned when interpolation point out of bounds
@@ -535,6 +591,7 @@ public class SibsonInterpolator2 {
         data.f = f[i];
       _nodes[i] = node;
     }
+    _nabors = new Nabors(_mesh,_method);
   }
 
   // Returns true if gradients are being used in interpolation.
@@ -638,12 +695,39 @@ public class SibsonInterpolator2 {
       _mesh.removeNode(gnode);
   }
 
-  // Computes Sibson areas for the specified point (x,y).
-  // Returns true, if successful; false, otherwise.
-  private double computeAreas(float x, float y) {
-    if (!getNaturalNabors(x,y))
-      return 0.0;
-    return _va.accumulateAreas(x,y,_mesh,_nodeList,_triList);
+  // Returns a value interpolated at the point (x1,x2), using the
+  // specified natural neighbors to compute Sibson areas.
+  private float interpolate(Nabors nabors, float x1, float x2) {
+    if (!inBounds(x1,x2))
+      return _fnull;
+    double asum = nabors.computeAreas(x1,x2);
+    if (asum<=0.0)
+      return _fnull;
+    if (usingGradients()) {
+      return interpolate1(nabors,asum,x1,x2);
+    } else {
+      return interpolate0(nabors,asum);
+    }
+  }
+
+  // Adds indices and weights of real nodes for the point (x1,x2) to
+  // the specified block of points.
+  private void addWeights(
+    Nabors nabors, float x1, float x2, SibsonWeights.Block block)
+  {
+    if (inBounds(x1,x2)) {
+      double asum = nabors.computeAreas(x1,x2);
+      if (asum>0.0) {
+        int nnode = nabors.nodeList.nnode();
+        TriMesh.Node[] nodes = nabors.nodeList.nodes();
+        for (int inode=0; inode<nnode; ++inode) {
+          TriMesh.Node node = nodes[inode];
+          if (!ghost(node))
+            block.add(node.index,(float)(nabors.area(node)/asum));
+        }
+      }
+    }
+    block.endPoint();
   }
 
   // Returns true if not using bounding box or if point is inside the box.
@@ -653,73 +737,236 @@ public class SibsonInterpolator2 {
            _x2bmn<=x2 && x2<=_x2bmx;
   }
 
-  // Gets lists of natural neighbor nodes and tris of point (x,y).
-  // Before building the lists, node and tri marks are cleared. Then,
-  // as nodes and tris are added to the lists, they are marked, and 
-  // node areas are initialized to zero.
-  // Returns true, if the lists are not empty; false, otherwise.
-  private boolean getNaturalNabors(float x, float y) {
-    _mesh.clearNodeMarks();
-    _mesh.clearTriMarks();
-    _nodeList.clear();
-    _triList.clear();
-    TriMesh.PointLocation pl = _mesh.locatePoint(x,y);
-    if (pl.isOutside())
-      return false;
-    addTri(x,y,pl.tri());
-    return true;
-  }
-  private void addTri(double xp, double yp, TriMesh.Tri tri) {
-    _mesh.mark(tri);
-    _triList.add(tri);
-    addNode(tri.nodeA());
-    addNode(tri.nodeB());
-    addNode(tri.nodeC());
-    TriMesh.Tri ta = tri.triA();
-    TriMesh.Tri tb = tri.triB();
-    TriMesh.Tri tc = tri.triC();
-    if (needTri(xp,yp,ta)) addTri(xp,yp,ta);
-    if (needTri(xp,yp,tb)) addTri(xp,yp,tb);
-    if (needTri(xp,yp,tc)) addTri(xp,yp,tc);
-  }
-  private void addNode(TriMesh.Node node) {
-    if (_mesh.isMarked(node))
-      return;
-    _mesh.mark(node);
-    _nodeList.add(node);
-    NodeData data = data(node);
-    data.area = 0.0;
+  // Indexes all nodes and tris in the mesh, so that threads can mark
+  // them and accumulate node areas without modifying the mesh. Also
+  // computes circumcenters, which tris otherwise compute when first
+  // needed. Returns the numbers of nodes and tris indexed.
+  private int[] indexNodesAndTris() {
+    int nnode = 0;
+    TriMesh.NodeIterator ni = _mesh.getNodes();
+    while (ni.hasNext())
+      data(ni.next()).slot = nnode++;
+    int ntri = 0;
+    double[] c = new double[2];
+    TriMesh.TriIterator ti = _mesh.getTris();
+    while (ti.hasNext()) {
+      TriMesh.Tri tri = ti.next();
+      tri.centerCircle(c);
+      tri.index = ntri++;
+    }
+    return new int[]{nnode,ntri};
   }
-  private boolean needTri(double xp, double yp, TriMesh.Tri tri) {
-    if (tri==null || _mesh.isMarked(tri))
-      return false;
-    TriMesh.Node na = tri.nodeA();
-    TriMesh.Node nb = tri.nodeB();
-    TriMesh.Node nc = tri.nodeC();
-    double xa = na.xp(), ya = na.yp();
-    double xb = nb.xp(), yb = nb.yp();
-    double xc = nc.xp(), yc = nc.yp();
-    return Geometry.inCircle(xa,ya,xb,yb,xc,yc,xp,yp)>0.0;
+
+  ///////////////////////////////////////////////////////////////////////////
+  ///////////////////////////////////////////////////////////////////////////
+  // Natural neighbor nodes and tris of a point (x,y), and the Sibson
+  // areas for those nodes. For individual points, nodes and tris are
+  // marked in the mesh, and areas are stored with node data. To permit
+  // multiple threads to interpolate concurrently, each thread has its own
+  // marks and areas, stored in arrays indexed by node slots and tri
+  // indices. In that case, the mesh must not change, and each point is
+  // located by a walk that begins with the tri of the previous point.
+  private static class Nabors {
+    TriMesh mesh; // the mesh
+    TriMesh.NodeList nodeList; // list of natural neighbor nodes
+    TriMesh.TriList triList; // list of natural neighbor tris
+    AreaAccumulator va; // accumulates Sibson's areas
+
+    // Natural neighbors with marks and areas stored in the mesh.
+    Nabors(TriMesh mesh, Method method) {
+      this.mesh = mesh;
+      nodeList = new TriMesh.NodeList();
+      triList = new TriMesh.TriList();
+      if (method==Method.WATSON_SAMBRIDGE) {
+        va = new WatsonSambridge();
+      } else if (method==Method.BRAUN_SAMBRIDGE) {
+        va = new BraunSambridge();
+      } else if (method==Method.HALE_LIANG) {
+        va = new HaleLiang();
+      }
+    }
+
+    // Natural neighbors with marks and areas stored in arrays.
+    Nabors(TriMesh mesh, Method method, int nnode, int ntri) {
+      this(mesh,method);
+      _nodeMarks = new int[nnode];
+      _triMarks = new int[ntri];
+      _areas = new double[nnode];
+    }
+
+    // Computes Sibson areas for the specified point (x,y).
+    // Returns the sum of areas; zero, if not successful.
+    double computeAreas(float x, float y) {
+      if (!getNaturalNabors(x,y))
+        return 0.0;
+      return va.accumulateAreas(x,y,this);
+    }
+
+    boolean isMarked(TriMesh.Node node) {
+      return (_nodeMarks==null) ?
+        mesh.isMarked(node) :
+        _nodeMarks[data(node).slot]==_mark;
+    }
+    boolean isMarked(TriMesh.Tri tri) {
+      return (_triMarks==null) ?
+        mesh.isMarked(tri) :
+        _triMarks[tri.index]==_mark;
+    }
+    double area(TriMesh.Node node) {
+      return (_areas==null) ?
+        data(node).area :
+        _areas[data(node).slot];
+    }
+    void addArea(TriMesh.Node node, double area) {
+      if (_areas==null) {
+        data(node).area += area;
+      } else {
+        _areas[data(node).slot] += area;
+      }
+    }
+
+    // Marks all nodes that share an edge with the specified node, for
+    // subsequent calls to isEdgeNabor. For individual points, nothing is
+    // marked, and isEdgeNabor instead finds a tri in the mesh.
+    void markEdgeNabors(TriMesh.Node node) {
+      _node = node;
+      if (_nodeMarks==null)
+        return;
+      if (_edgeNodeMarks==null) {
+        _edgeNodeMarks = new int[_nodeMarks.length];
+        _edgeTriMarks = new int[_triMarks.length];
+      }
+      ++_edgeMark;
+      markEdgeNabors(node,mesh.findTri(node));
+    }
+    boolean isEdgeNabor(TriMesh.Node node) {
+      return (_edgeNodeMarks==null) ?
+        mesh.findTri(_node,node)!=null :
+        _edgeNodeMarks[data(node).slot]==_edgeMark;
+    }
+
+    private int[] _nodeMarks; // node marks, if not stored in mesh
+    private int[] _triMarks; // tri marks, if not stored in mesh
+    private double[] _areas; // node areas, if not stored in mesh
+    private int _mark; // current mark, if not stored in mesh
+    private TriMesh.Tri _tri; // tri in which the last point was located
+    private TriMesh.Node _node; // node for which edge nabors are marked
+    private int[] _edgeNodeMarks; // marks for nodes that share an edge
+    private int[] _edgeTriMarks; // marks for tris walked to mark them
+    private int _edgeMark; // current mark for nodes that share an edge
+
+    // Gets lists of natural neighbor nodes and tris of point (x,y).
+    // Before building the lists, node and tri marks are cleared. Then,
+    // as nodes and tris are added to the lists, they are marked, and
+    // node areas are initialized to zero.
+    // Returns true, if the lists are not empty; false, otherwise.
+    private boolean getNaturalNabors(float x, float y) {
+      nodeList.clear();
+      triList.clear();
+      TriMesh.PointLocation pl;
+      if (_nodeMarks==null) {
+        mesh.clearNodeMarks();
+        mesh.clearTriMarks();
+        pl = mesh.locatePoint(x,y);
+      } else {
+        ++_mark;
+        pl = mesh.locatePoint(x,y,_tri);
+        if (pl.tri()!=null)
+          _tri = pl.tri();
+      }
+      if (pl.isOutside())
+        return false;
+      addTri(x,y,pl.tri());
+      return true;
+    }
+    private void addTri(double xp, double yp, TriMesh.Tri tri) {
+      mark(tri);
+      triList.add(tri);
+      addNode(tri.nodeA());
+      addNode(tri.nodeB());
+      addNode(tri.nodeC());
+      TriMesh.Tri ta = tri.triA();
+      TriMesh.Tri tb = tri.triB();
+      TriMesh.Tri tc = tri.triC();
+      if (needTri(xp,yp,ta)) addTri(xp,yp,ta);
+      if (needTri(xp,yp,tb)) addTri(xp,yp,tb);
+      if (needTri(xp,yp,tc)) addTri(xp,yp,tc);
+    }
+    private void addNode(TriMesh.Node node) {
+      if (isMarked(node))
+        return;
+      mark(node);
+      nodeList.add(node);
+      if (_areas==null) {
+        data(node).area = 0.0;
+      } else {
+        _areas[data(node).slot] = 0.0;
+      }
+    }
+    private boolean needTri(double xp, double yp, TriMesh.Tri tri) {
+      if (tri==null || isMarked(tri))
+        return false;
+      TriMesh.Node na = tri.nodeA();
+      TriMesh.Node nb = tri.nodeB();
+      TriMesh.Node nc = tri.nodeC();
+      double xa = na.xp(), ya = na.yp();
+      double xb = nb.xp(), yb = nb.yp();
+      double xc = nc.xp(), yc = nc.yp();
+      return Geometry.inCircle(xa,ya,xb,yb,xc,yc,xp,yp)>0.0;
+    }
+    private void mark(TriMesh.Node node) {
+      if (_nodeMarks==null) {
+        mesh.mark(node);
+      } else {
+        _nodeMarks[data(node).slot] = _mark;
+      }
+    }
+    private void mark(TriMesh.Tri tri) {
+      if (_triMarks==null) {
+        mesh.mark(tri);
+      } else {
+        _triMarks[tri.index] = _mark;
+      }
+    }
+
+    // Marks the nodes of the specified tri, if not already marked, and
+    // then walks to adjacent tris across edges that reference the node.
+    private void markEdgeNabors(TriMesh.Node node, TriMesh.Tri tri) {
+      if (tri==null || _edgeTriMarks[tri.index]==_edgeMark)
+        return;
+      _edgeTriMarks[tri.index] = _edgeMark;
+      TriMesh.Node na = tri.nodeA();
+      TriMesh.Node nb = tri.nodeB();
+      TriMesh.Node nc = tri.nodeC();
+      _edgeNodeMarks[data(na).slot] = _edgeMark;
+      _edgeNodeMarks[data(nb).slot] = _edgeMark;
+      _edgeNodeMarks[data(nc).slot] = _edgeMark;
+      if (na!=node) markEdgeNabors(node,tri.triA());
+      if (nb!=node) markEdgeNabors(node,tri.triB());
+      if (nc!=node) markEdgeNabors(node,tri.triC());
+    }
   }
 
   // C0 interpolation; does not use gradients.
-  private float interpolate0(double asum) {
+  private float interpolate0(Nabors nabors, double asum) {
     double afsum = 0.0;
-    int nnode = _nodeList.nnode();
-    TriMesh.Node[] nodes = _nodeList.nodes();
+    int nnode = nabors.nodeList.nnode();
+    TriMesh.Node[] nodes = nabors.nodeList.nodes();
     for (int inode=0; inode<nnode; ++inode) {
       TriMesh.Node node = nodes[inode];
       float f = f(node);
-      double a = area(node);
+      double a = nabors.area(node);
       afsum += a*f;
     }
     return (float)(afsum/asum);
   }
 
   // C1 interpolation; uses gradients.
-  private float interpolate1(double asum, double x, double y) {
-    int nnode = _nodeList.nnode();
-    TriMesh.Node[] nodes = _nodeList.nodes();
+  private float interpolate1(
+    Nabors nabors, double asum, double x, double y)
+  {
+    int nnode = nabors.nodeList.nnode();
+    TriMesh.Node[] nodes = nabors.nodeList.nodes();
     double fs = 0.0;
     double es = 0.0;
     double wds = 0.0;
@@ -730,7 +977,7 @@ public class SibsonInterpolator2 {
       double f = f(n);
       double gx = gx(n);
       double gy = gy(n);
-      double a = area(n);
+      double a = nabors.area(n);
       double w = a/asum;
       double xn = n.xp();
       double yn = n.yp();
@@ -777,11 +1024,11 @@ public class SibsonInterpolator2 {
     double xn = n.xp();
     double yn = n.yp();
     _mesh.removeNode(n);
-    double asum = computeAreas((float)xn,(float)yn);
+    double asum = _nabors.computeAreas((float)xn,(float)yn);
     _mesh.addNode(n);
     if (asum>0.0) {
-      int nm = _nodeList.nnode();
-      TriMesh.Node[] ms = _nodeList.nodes();
+      int nm = _nabors.nodeList.nnode();
+      TriMesh.Node[] ms = _nabors.nodeList.nodes();
       double hxx = 0.0, hxy = 0.0, hyy = 0.0;
       double px = 0.0, py = 0.0;
       double nr = 0; // number of real (not ghost) natural neighbor nodes
@@ -789,7 +1036,7 @@ public class SibsonInterpolator2 {
         TriMesh.Node m = ms[im];
         if (!ghost(m)) {
           double fm = f(m);
-          double wm = area(m);
+          double wm = _nabors.area(m);
           double xm = m.xp();
           double ym = m.yp();
           double df = fn-fm;
@@ -827,9 +1074,9 @@ public class SibsonInterpolator2 {
   // class maintains the total area accumulated for all nodes.
   private static abstract class AreaAccumulator {
     public abstract double accumulateAreas(
-      double xp, double yp,
-      TriMesh mesh, TriMesh.NodeList nodeList, TriMesh.TriList triList);
-    protected void clear() {
+      double xp, double yp, Nabors nabors);
+    protected void clear(Nabors nabors) {
+      _nabors = nabors;
       _sum = 0.0;
     }
     protected double sum() {
@@ -837,10 +1084,10 @@ public class SibsonInterpolator2 {
     }
     protected void accumulate(TriMesh.Node node, double area) {
       if (ghost(node)) return; // ignore ghost nodes!
-      NodeData data = data(node);
-      data.area += area;
+      _nabors.addArea(node,area);
       _sum += area;
     }
+    private Nabors _nabors;
     private double _sum;
   }
  
@@ -849,12 +1096,11 @@ public class SibsonInterpolator2 {
   private static class WatsonSambridge extends AreaAccumulator {
 
     public double accumulateAreas(
-      double xp, double yp,
-      TriMesh mesh, TriMesh.NodeList nodeList, TriMesh.TriList triList)
+      double xp, double yp, Nabors nabors)
     {
-      clear();
-      int ntri = triList.ntri();
-      TriMesh.Tri[] tris = triList.tris();
+      clear(nabors);
+      int ntri = nabors.triList.ntri();
+      TriMesh.Tri[] tris = nabors.triList.tris();
       for (int itri=0; itri<ntri; ++itri) {
         TriMesh.Tri tri = tris[itri];
         TriMesh.Node na = tri.nodeA();
@@ -893,14 +1139,13 @@ public class SibsonInterpolator2 {
   private static class BraunSambridge extends AreaAccumulator {
 
     public double accumulateAreas(
-      double x1i, double x2i,
-      TriMesh mesh, TriMesh.NodeList nodeList, TriMesh.TriList triList)
+      double x1i, double x2i, Nabors nabors)
     {
-      clear();
+      clear(nabors);
 
       // For all natural neighbors, ...
-      int nnode = nodeList.nnode();
-      TriMesh.Node[] nodes = nodeList.nodes();
+      int nnode = nabors.nodeList.nnode();
+      TriMesh.Node[] nodes = nabors.nodeList.nodes();
       for (int j=0; j<nnode; ++j) {
         TriMesh.Node jnode = nodes[j];
         double x1j = jnode.xp();
@@ -920,12 +1165,13 @@ public class SibsonInterpolator2 {
         _lv.addHalfSpace(x1d,x2d,0.0); // note b = 0 here
 
         // For all other natural neighbors, ...
+        nabors.markEdgeNabors(jnode);
         for (int k=0; k<nnode; ++k) {
           if (j==k) continue;
           TriMesh.Node knode = nodes[k];
 
           // Skip pair if they are not node neighbors in the mesh.
-          if (mesh.findTri(jnode,knode)==null)
+          if (!nabors.isEdgeNabor(knode))
             continue;
 
           // Add half-space of points closer to pj than pk. 
@@ -961,11 +1207,10 @@ public class SibsonInterpolator2 {
   private static class HaleLiang extends AreaAccumulator {
 
     public double accumulateAreas(
-      double xp, double yp,
-      TriMesh mesh, TriMesh.NodeList nodeList, TriMesh.TriList triList)
+      double xp, double yp, Nabors nabors)
     {
-      clear();
-      processTris(xp,yp,mesh,triList);
+      clear(nabors);
+      processTris(xp,yp,nabors);
       boolean ok = processEdges();
       return (ok)?sum():0.0;
     }
@@ -975,12 +1220,11 @@ public class SibsonInterpolator2 {
 
     // Processes all natural-neighbor tris.
     private void processTris(
-      double xp, double yp,
-      TriMesh mesh, TriMesh.TriList triList) 
+      double xp, double yp, Nabors nabors)
     {
       _edgeList.clear();
-      int ntri = triList.ntri();
-      TriMesh.Tri[] tris = triList.tris();
+      int ntri = nabors.triList.ntri();
+      TriMesh.Tri[] tris = nabors.triList.tris();
       for (int itri=0; itri<ntri; ++itri) {
         TriMesh.Tri tri = tris[itri];
         TriMesh.Tri ta = tri.triA();
@@ -991,19 +1235,19 @@ public class SibsonInterpolator2 {
         TriMesh.Node nc = tri.nodeC();
         tri.centerCircle(_xy);
         double xt = _xy[0]-xp, yt = _xy[1]-yp;
-        processTriNabor(xp,yp,xt,yt,mesh,ta,nb,nc);
-        processTriNabor(xp,yp,xt,yt,mesh,tb,nc,na);
-        processTriNabor(xp,yp,xt,yt,mesh,tc,na,nb);
+        processTriNabor(xp,yp,xt,yt,nabors,ta,nb,nc);
+        processTriNabor(xp,yp,xt,yt,nabors,tb,nc,na);
+        processTriNabor(xp,yp,xt,yt,nabors,tc,na,nb);
       }
     }
     private void processTriNabor(
       double xp, double yp,
       double xt, double yt,
-      TriMesh mesh, TriMesh.Tri ta,
+      Nabors nabors, TriMesh.Tri ta,
       TriMesh.Node nb, TriMesh.Node nc)
     {
       boolean saveEdge = true;
-      if (ta!=null && mesh.isMarked(ta)) {
+      if (ta!=null && nabors.isMarked(ta)) {
         ta.centerCircle(_xy);
         double xa = _xy[0]-xp;
         double ya = _xy[1]-yp;
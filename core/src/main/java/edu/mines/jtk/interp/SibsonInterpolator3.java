@@ -23,6 +23,7 @@ import edu.mines.jtk.la.DMatrixQrd;
 import edu.mines.jtk.mesh.Geometry;
 import edu.mines.jtk.mesh.TetMesh;
 import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
 
 /**
  * Sibson interpolation of scattered samples of 3D functions f(x1,x2,x3).
@@ -191,16 +192,8 @@ public class SibsonInterpolator3 {
   public SibsonInterpolator3(
     Method method, float[] f, float[] x1, float[] x2, float[] x3) 
   {
+    _method = method;
     makeMesh(f,x1,x2,x3);
-    _nodeList = new TetMesh.NodeList();
-    _tetList = new TetMesh.TetList();
-    if (method==Method.WATSON_SAMBRIDGE) {
-      _va = new WatsonSambridge();
-    } else if (method==Method.BRAUN_SAMBRIDGE) {
-      _va = new BraunSambridge();
-    } else if (method==Method.HALE_LIANG) {
-      _va = new HaleLiang();
-    }
   }
 
   /**
@@ -360,47 +353,120 @@ public class SibsonInterpolator3 {
    * @return the interpolated value.
    */
   public float interpolate(float x1, float x2, float x3) {
-    if (!inBounds(x1,x2,x3))
-      return _fnull;
-    double vsum = computeVolumes(x1,x2,x3);
-    if (vsum<=0.0)
-      return _fnull;
-    if (usingGradients()) {
-      return interpolate1(vsum,x1,x2,x3);
-    } else {
-      return interpolate0(vsum);
-    }
+    return interpolate(_nabors,x1,x2,x3);
   }
 
   /**
    * Returns an array of interpolated values sampled on a grid.
+   * <p>
+   * Rows of the grid are interpolated in parallel. Each thread has its
+   * own lists of natural neighbors, and locates each point by walking
+   * through the mesh from the tet that contains the previous point.
+   * Interpolated values equal those computed for individual points.
    * @param s1 the sampling of n1 x1 coordinates.
    * @param s2 the sampling of n2 x2 coordinates.
    * @param s3 the sampling of n3 x3 coordinates.
    * @return array[n3][n2][n1] of interpolated values.
    */
-  public float[][][] interpolate(Sampling s1, Sampling s2, Sampling s3) {
+  public float[][][] interpolate(
+    final Sampling s1, final Sampling s2, final Sampling s3)
+  {
     log.fine("interpolate: begin");
-    int n1 = s1.getCount();
-    int n2 = s2.getCount();
-    int n3 = s2.getCount();
-    float[][][] f = new float[n3][n2][n1];
-    for (int i3=0; i3<n3; ++i3) {
-      log.fine("interpolate: i3="+i3);
+    final int n1 = s1.getCount();
+    final int n2 = s2.getCount();
+    final int n3 = s3.getCount();
+    final float[] x1 = new float[n1];
+    for (int i1=0; i1<n1; ++i1)
+      x1[i1] = (float)s1.getValue(i1);
+    final float[][][] f = new float[n3][n2][n1];
+    final int[] counts = indexNodesAndTets();
+    final Parallel.Unsafe<Nabors> nu = new Parallel.Unsafe<Nabors>();
+    Parallel.loop(n3*n2,new Parallel.LoopInt() {
+    public void compute(int i) {
+      Nabors nabors = nu.get();
+      if (nabors==null)
+        nu.set(nabors=new Nabors(_mesh,_method,counts[0],counts[1]));
+      int i3 = i/n2;
+      int i2 = i%n2;
       float x3 = (float)s3.getValue(i3);
-      for (int i2=0; i2<n2; ++i2) {
-        log.finer("interpolate: i2="+i2);
-        float x2 = (float)s2.getValue(i2);
-        for (int i1=0; i1<n1; ++i1) {
-          float x1 = (float)s1.getValue(i1);
-          f[i3][i2][i1] = interpolate(x1,x2,x3);
-        }
-      }
-    }
+      float x2 = (float)s2.getValue(i2);
+      float[] f32 = f[i3][i2];
+      for (int i1=0; i1<n1; ++i1)
+        f32[i1] = interpolate(nabors,x1[i1],x2,x3);
+    }});
     log.fine("interpolate: end");
     return f;
   }
 
+  /**
+   * Returns a table of Sibson weights for points sampled on a grid.
+   * Points in the table are ordered with x1 coordinates varying fastest,
+   * so that the point (x1,x2,x3) with sample indices (i1,i2,i3) has index
+   * i1+i2*n1+i3*n1*n2. Weights for rows of the grid are computed in
+   * parallel.
+   * <p>
+   * Weights are computed for the samples and bounds currently specified
+   * for this interpolator. They do not depend on sample values, which
+   * may be specified when applying the weights.
+   * @param s1 the sampling of n1 x1 coordinates.
+   * @param s2 the sampling of n2 x2 coordinates.
+   * @param s3 the sampling of n3 x3 coordinates.
+   * @return the table of weights for n1*n2*n3 points.
+   */
+  public SibsonWeights getWeights(
+    Sampling s1, final Sampling s2, final Sampling s3)
+  {
+    final int n1 = s1.getCount();
+    final int n2 = s2.getCount();
+    final int n3 = s3.getCount();
+    final float[] x1 = new float[n1];
+    for (int i1=0; i1<n1; ++i1)
+      x1[i1] = (float)s1.getValue(i1);
+    final SibsonWeights.Block[] blocks = new SibsonWeights.Block[n3*n2];
+    final int[] counts = indexNodesAndTets();
+    final Parallel.Unsafe<Nabors> nu = new Parallel.Unsafe<Nabors>();
+    Parallel.loop(n3*n2,new Parallel.LoopInt() {
+    public void compute(int i) {
+      Nabors nabors = nu.get();
+      if (nabors==null)
+        nu.set(nabors=new Nabors(_mesh,_method,counts[0],counts[1]));
+      float x3 = (float)s3.getValue(i/n2);
+      float x2 = (float)s2.getValue(i%n2);
+      SibsonWeights.Block block = blocks[i] = new SibsonWeights.Block();
+      for (int i1=0; i1<n1; ++i1)
+        addWeights(nabors,x1[i1],x2,x3,block);
+    }});
+    return SibsonWeights.join(_nodes.length,blocks,_fnull);
+  }
+
+  /**
+   * Returns a table of Sibson weights for the specified points.
+   * Weights for blocks of points are computed in parallel.
+   * @param x1 array of x1 coordinates of points.
+   * @param x2 array of x2 coordinates of points.
+   * @param x3 array of x3 coordinates of points.
+   * @return the table of weights for the points.
+   */
+  public SibsonWeights getWeights(
+    final float[] x1, final float[] x2, final float[] x3)
+  {
+    final int np = x1.length;
+    final int nb = (np+NB-1)/NB;
+    final SibsonWeights.Block[] blocks = new SibsonWeights.Block[nb];
+    final int[] counts = indexNodesAndTets();
+    final Parallel.Unsafe<Nabors> nu = new Parallel.Unsafe<Nabors>();
+    Parallel.loop(nb,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      Nabors nabors = nu.get();
+      if (nabors==null)
+        nu.set(nabors=new Nabors(_mesh,_method,counts[0],counts[1]));
+      SibsonWeights.Block block = blocks[ib] = new SibsonWeights.Block();
+      for (int ip=ib*NB,jp=Math.min(ip+NB,np); ip<jp; ++ip)
+        addWeights(nabors,x1[ip],x2[ip],x3[ip],block);
+    }});
+    return SibsonWeights.join(_nodes.length,blocks,_fnull);
+  }
+
   /**
    * Gets sample indices and interpolation weights for the specified point.
    * Given a point (x1,x2,x3), the sample indices represent the natural
@@ -419,17 +485,17 @@ public class SibsonInterpolator3 {
   public IndexWeight[] getIndexWeights(float x1, float x2, float x3) {
     if (!inBounds(x1,x2,x3))
       return null;
-    float wsum = (float)computeVolumes(x1,x2,x3);
+    float wsum = (float)_nabors.computeVolumes(x1,x2,x3);
     if (wsum==0.0f)
       return null;
     float wscl = 1.0f/wsum;
-    int nnode = _nodeList.nnode();
-    TetMesh.Node[] nodes = _nodeList.nodes();
+    int nnode = _nabors.nodeList.nnode();
+    TetMesh.Node[] nodes = _nabors.nodeList.nodes();
     IndexWeight[] iw = new IndexWeight[nnode];
     for (int inode=0; inode<nnode; ++inode) {
       TetMesh.Node node = nodes[inode];
       int i = node.index;
-      float w = (float)volume(node)*wscl;
+      float w = (float)_nabors.volume(node)*wscl;
       iw[inode] = new IndexWeight(i,w);
     }
     return iw;
@@ -496,6 +562,7 @@ public class SibsonInterpolator3 {
   private static class NodeData {
     float f,gx,gy,gz; // function values and gradient
     double volume; // volume for Sibson weight
+    int slot; // index of node in arrays used by threads
   }
   private static NodeData data(TetMesh.Node node) {
     return (NodeData)node.data;
@@ -512,18 +579,16 @@ public class SibsonInterpolator3 {
   private static float gz(TetMesh.Node node) {
     return data(node).gz;
   }
-  private static double volume(TetMesh.Node node) {
-    return data(node).volume;
-  }
   private static boolean ghost(TetMesh.Node node) {
     return node.index<0;
   }
 
+  private static final int NB = 1024; // points per block of weights
+
   private TetMesh _mesh; // the mesh
   private TetMesh.Node[] _nodes; // array of real (not ghost) nodes
-  private TetMesh.NodeList _nodeList; // list of natural neighbor nodes
-  private TetMesh.TetList _tetList; // list of natural neighbor tets
-  private VolumeAccumulator _va; // accumulates Sibson's volumes
+  private Method _method; // method used to compute Sibson's volumes
+  private Nabors _nabors; // natural neighbors for individual points
   private boolean _haveGradients; // true if mesh nodes have gradients
   private double _gradientPower; // power of gradients
   private float _fnull; // returned when interpolation point out of bounds
@@ -580,6 +645,7 @@ public class SibsonInterpolator3 {
         data.f = f[i];
       _nodes[i] = node;
     }
+    _nabors = new Nabors(_mesh,_method);
   }
 
   // Returns true if gradients are being used in interpolation.
@@ -691,12 +757,39 @@ public class SibsonInterpolator3 {
       _mesh.removeNode(gnode);
   }
 
-  // Computes Sibson volumes for the specified point (x,y,z).
-  // Returns true, if successful; false, otherwise.
-  private double computeVolumes(float x, float y, float z) {
-    if (!getNaturalNabors(x,y,z))
-      return 0.0;
-    return _va.accumulateVolumes(x,y,z,_mesh,_nodeList,_tetList);
+  // Returns a value interpolated at the point (x1,x2,x3), using the
+  // specified natural neighbors to compute Sibson volumes.
+  private float interpolate(Nabors nabors, float x1, float x2, float x3) {
+    if (!inBounds(x1,x2,x3))
+      return _fnull;
+    double vsum = nabors.computeVolumes(x1,x2,x3);
+    if (vsum<=0.0)
+      return _fnull;
+    if (usingGradients()) {
+      return interpolate1(nabors,vsum,x1,x2,x3);
+    } else {
+      return interpolate0(nabors,vsum);
+    }
+  }
+
+  // Adds indices and weights of real nodes for the point (x1,x2,x3) to
+  // the specified block of points.
+  private void addWeights(
+    Nabors nabors, float x1, float x2, float x3, SibsonWeights.Block block)
+  {
+    if (inBounds(x1,x2,x3)) {
+      double vsum = nabors.computeVolumes(x1,x2,x3);
+      if (vsum>0.0) {
+        int nnode = nabors.nodeList.nnode();
+        TetMesh.Node[] nodes = nabors.nodeList.nodes();
+        for (int inode=0; inode<nnode; ++inode) {
+          TetMesh.Node node = nodes[inode];
+          if (!ghost(node))
+            block.add(node.index,(float)(nabors.volume(node)/vsum));
+        }
+      }
+    }
+    block.endPoint();
   }
 
   // Returns true if not using bounding box or if point is inside the box.
@@ -707,78 +800,247 @@ public class SibsonInterpolator3 {
            _x3bmn<=x3 && x3<=_x3bmx;
   }
 
-  // Gets lists of natural neighbor nodes and tets of point (x,y,z).
-  // Before building the lists, node and tet marks are cleared. Then,
-  // as nodes and tets are added to the lists, they are marked, and 
-  // node volumes are initialized to zero.
-  // Returns true, if the lists are not empty; false, otherwise.
-  private boolean getNaturalNabors(float x, float y, float z) {
-    _mesh.clearNodeMarks();
-    _mesh.clearTetMarks();
-    _nodeList.clear();
-    _tetList.clear();
-    TetMesh.PointLocation pl = _mesh.locatePoint(x,y,z);
-    if (pl.isOutside())
-      return false;
-    addTet(x,y,z,pl.tet());
-    return true;
-  }
-  private void addTet(double xp, double yp, double zp, TetMesh.Tet tet) {
-    _mesh.mark(tet);
-    _tetList.add(tet);
-    addNode(tet.nodeA());
-    addNode(tet.nodeB());
-    addNode(tet.nodeC());
-    addNode(tet.nodeD());
-    TetMesh.Tet ta = tet.tetA();
-    TetMesh.Tet tb = tet.tetB();
-    TetMesh.Tet tc = tet.tetC();
-    TetMesh.Tet td = tet.tetD();
-    if (needTet(xp,yp,zp,ta)) addTet(xp,yp,zp,ta);
-    if (needTet(xp,yp,zp,tb)) addTet(xp,yp,zp,tb);
-    if (needTet(xp,yp,zp,tc)) addTet(xp,yp,zp,tc);
-    if (needTet(xp,yp,zp,td)) addTet(xp,yp,zp,td);
-  }
-  private void addNode(TetMesh.Node node) {
-    if (_mesh.isMarked(node))
-      return;
-    _mesh.mark(node);
-    _nodeList.add(node);
-    NodeData data = data(node);
-    data.volume = 0.0;
+  // Indexes all nodes and tets in the mesh, so that threads can mark
+  // them and accumulate node volumes without modifying the mesh. Also
+  // computes circumcenters, which tets otherwise compute when first
+  // needed. Returns the numbers of nodes and tets indexed.
+  private int[] indexNodesAndTets() {
+    int nnode = 0;
+    TetMesh.NodeIterator ni = _mesh.getNodes();
+    while (ni.hasNext())
+      data(ni.next()).slot = nnode++;
+    int ntet = 0;
+    double[] c = new double[3];
+    TetMesh.TetIterator ti = _mesh.getTets();
+    while (ti.hasNext()) {
+      TetMesh.Tet tet = ti.next();
+      tet.centerSphere(c);
+      tet.index = ntet++;
+    }
+    return new int[]{nnode,ntet};
   }
-  private boolean needTet(double xp, double yp, double zp, TetMesh.Tet tet) {
-    if (tet==null || _mesh.isMarked(tet))
-      return false;
-    TetMesh.Node na = tet.nodeA();
-    TetMesh.Node nb = tet.nodeB();
-    TetMesh.Node nc = tet.nodeC();
-    TetMesh.Node nd = tet.nodeD();
-    double xa = na.xp(), ya = na.yp(), za = na.zp();
-    double xb = nb.xp(), yb = nb.yp(), zb = nb.zp();
-    double xc = nc.xp(), yc = nc.yp(), zc = nc.zp();
-    double xd = nd.xp(), yd = nd.yp(), zd = nd.zp();
-    return Geometry.inSphere(xa,ya,za,xb,yb,zb,xc,yc,zc,xd,yd,zd,xp,yp,zp)>0.0;
+
+  ///////////////////////////////////////////////////////////////////////////
+  ///////////////////////////////////////////////////////////////////////////
+  // Natural neighbor nodes and tets of a point (x,y,z), and the Sibson
+  // volumes for those nodes. For individual points, nodes and tets are
+  // marked in the mesh, and volumes are stored with node data. To permit
+  // multiple threads to interpolate concurrently, each thread has its own
+  // marks and volumes, stored in arrays indexed by node slots and tet
+  // indices. In that case, the mesh must not change, and each point is
+  // located by a walk that begins with the tet of the previous point.
+  private static class Nabors {
+    TetMesh mesh; // the mesh
+    TetMesh.NodeList nodeList; // list of natural neighbor nodes
+    TetMesh.TetList tetList; // list of natural neighbor tets
+    VolumeAccumulator va; // accumulates Sibson's volumes
+
+    // Natural neighbors with marks and volumes stored in the mesh.
+    Nabors(TetMesh mesh, Method method) {
+      this.mesh = mesh;
+      nodeList = new TetMesh.NodeList();
+      tetList = new TetMesh.TetList();
+      if (method==Method.WATSON_SAMBRIDGE) {
+        va = new WatsonSambridge();
+      } else if (method==Method.BRAUN_SAMBRIDGE) {
+        va = new BraunSambridge();
+      } else if (method==Method.HALE_LIANG) {
+        va = new HaleLiang();
+      }
+    }
+
+    // Natural neighbors with marks and volumes stored in arrays.
+    Nabors(TetMesh mesh, Method method, int nnode, int ntet) {
+      this(mesh,method);
+      _nodeMarks = new int[nnode];
+      _tetMarks = new int[ntet];
+      _volumes = new double[nnode];
+    }
+
+    // Computes Sibson volumes for the specified point (x,y,z).
+    // Returns the sum of volumes; zero, if not successful.
+    double computeVolumes(float x, float y, float z) {
+      if (!getNaturalNabors(x,y,z))
+        return 0.0;
+      return va.accumulateVolumes(x,y,z,this);
+    }
+
+    boolean isMarked(TetMesh.Node node) {
+      return (_nodeMarks==null) ?
+        mesh.isMarked(node) :
+        _nodeMarks[data(node).slot]==_mark;
+    }
+    boolean isMarked(TetMesh.Tet tet) {
+      return (_tetMarks==null) ?
+        mesh.isMarked(tet) :
+        _tetMarks[tet.index]==_mark;
+    }
+    double volume(TetMesh.Node node) {
+      return (_volumes==null) ?
+        data(node).volume :
+        _volumes[data(node).slot];
+    }
+    void addVolume(TetMesh.Node node, double volume) {
+      if (_volumes==null) {
+        data(node).volume += volume;
+      } else {
+        _volumes[data(node).slot] += volume;
+      }
+    }
+
+    // Marks all nodes that share an edge with the specified node, for
+    // subsequent calls to isEdgeNabor. For individual points, nothing is
+    // marked, and isEdgeNabor instead finds a tet in the mesh.
+    void markEdgeNabors(TetMesh.Node node) {
+      _node = node;
+      if (_nodeMarks==null)
+        return;
+      if (_edgeNodeMarks==null) {
+        _edgeNodeMarks = new int[_nodeMarks.length];
+        _edgeTetMarks = new int[_tetMarks.length];
+      }
+      ++_edgeMark;
+      markEdgeNabors(node,mesh.findTet(node));
+    }
+    boolean isEdgeNabor(TetMesh.Node node) {
+      return (_edgeNodeMarks==null) ?
+        mesh.findTet(_node,node)!=null :
+        _edgeNodeMarks[data(node).slot]==_edgeMark;
+    }
+
+    private int[] _nodeMarks; // node marks, if not stored in mesh
+    private int[] _tetMarks; // tet marks, if not stored in mesh
+    private double[] _volumes; // node volumes, if not stored in mesh
+    private int _mark; // current mark, if not stored in mesh
+    private TetMesh.Tet _tet; // tet in which the last point was located
+    private TetMesh.Node _node; // node for which edge nabors are marked
+    private int[] _edgeNodeMarks; // marks for nodes that share an edge
+    private int[] _edgeTetMarks; // marks for tets walked to mark them
+    private int _edgeMark; // current mark for nodes that share an edge
+
+    // Gets lists of natural neighbor nodes and tets of point (x,y,z).
+    // Before building the lists, node and tet marks are cleared. Then,
+    // as nodes and tets are added to the lists, they are marked, and
+    // node volumes are initialized to zero.
+    // Returns true, if the lists are not empty; false, otherwise.
+    private boolean getNaturalNabors(float x, float y, float z) {
+      nodeList.clear();
+      tetList.clear();
+      TetMesh.PointLocation pl;
+      if (_nodeMarks==null) {
+        mesh.clearNodeMarks();
+        mesh.clearTetMarks();
+        pl = mesh.locatePoint(x,y,z);
+      } else {
+        ++_mark;
+        pl = mesh.locatePoint(x,y,z,_tet);
+        if (pl.tet()!=null)
+          _tet = pl.tet();
+      }
+      if (pl.isOutside())
+        return false;
+      addTet(x,y,z,pl.tet());
+      return true;
+    }
+    private void addTet(double xp, double yp, double zp, TetMesh.Tet tet) {
+      mark(tet);
+      tetList.add(tet);
+      addNode(tet.nodeA());
+      addNode(tet.nodeB());
+      addNode(tet.nodeC());
+      addNode(tet.nodeD());
+      TetMesh.Tet ta = tet.tetA();
+      TetMesh.Tet tb = tet.tetB();
+      TetMesh.Tet tc = tet.tetC();
+      TetMesh.Tet td = tet.tetD();
+      if (needTet(xp,yp,zp,ta)) addTet(xp,yp,zp,ta);
+      if (needTet(xp,yp,zp,tb)) addTet(xp,yp,zp,tb);
+      if (needTet(xp,yp,zp,tc)) addTet(xp,yp,zp,tc);
+      if (needTet(xp,yp,zp,td)) addTet(xp,yp,zp,td);
+    }
+    private void addNode(TetMesh.Node node) {
+      if (isMarked(node))
+        return;
+      mark(node);
+      nodeList.add(node);
+      if (_volumes==null) {
+        data(node).volume = 0.0;
+      } else {
+        _volumes[data(node).slot] = 0.0;
+      }
+    }
+    private boolean needTet(
+      double xp, double yp, double zp, TetMesh.Tet tet)
+    {
+      if (tet==null || isMarked(tet))
+        return false;
+      TetMesh.Node na = tet.nodeA();
+      TetMesh.Node nb = tet.nodeB();
+      TetMesh.Node nc = tet.nodeC();
+      TetMesh.Node nd = tet.nodeD();
+      double xa = na.xp(), ya = na.yp(), za = na.zp();
+      double xb = nb.xp(), yb = nb.yp(), zb = nb.zp();
+      double xc = nc.xp(), yc = nc.yp(), zc = nc.zp();
+      double xd = nd.xp(), yd = nd.yp(), zd = nd.zp();
+      return Geometry.inSphere(
+        xa,ya,za,xb,yb,zb,xc,yc,zc,xd,yd,zd,xp,yp,zp)>0.0;
+    }
+    private void mark(TetMesh.Node node) {
+      if (_nodeMarks==null) {
+        mesh.mark(node);
+      } else {
+        _nodeMarks[data(node).slot] = _mark;
+      }
+    }
+    private void mark(TetMesh.Tet tet) {
+      if (_tetMarks==null) {
+        mesh.mark(tet);
+      } else {
+        _tetMarks[tet.index] = _mark;
+      }
+    }
+
+    // Marks the nodes of the specified tet, if not already marked, and
+    // then walks to adjacent tets across faces that reference the node.
+    private void markEdgeNabors(TetMesh.Node node, TetMesh.Tet tet) {
+      if (tet==null || _edgeTetMarks[tet.index]==_edgeMark)
+        return;
+      _edgeTetMarks[tet.index] = _edgeMark;
+      TetMesh.Node na = tet.nodeA();
+      TetMesh.Node nb = tet.nodeB();
+      TetMesh.Node nc = tet.nodeC();
+      TetMesh.Node nd = tet.nodeD();
+      _edgeNodeMarks[data(na).slot] = _edgeMark;
+      _edgeNodeMarks[data(nb).slot] = _edgeMark;
+      _edgeNodeMarks[data(nc).slot] = _edgeMark;
+      _edgeNodeMarks[data(nd).slot] = _edgeMark;
+      if (na!=node) markEdgeNabors(node,tet.tetA());
+      if (nb!=node) markEdgeNabors(node,tet.tetB());
+      if (nc!=node) markEdgeNabors(node,tet.tetC());
+      if (nd!=node) markEdgeNabors(node,tet.tetD());
+    }
   }
 
   // C0 interpolation; does not use gradients.
-  private float interpolate0(double vsum) {
+  private float interpolate0(Nabors nabors, double vsum) {
     double vfsum = 0.0;
-    int nnode = _nodeList.nnode();
-    TetMesh.Node[] nodes = _nodeList.nodes();
+    int nnode = nabors.nodeList.nnode();
+    TetMesh.Node[] nodes = nabors.nodeList.nodes();
     for (int inode=0; inode<nnode; ++inode) {
       TetMesh.Node node = nodes[inode];
       float f = f(node);
-      double v = volume(node);
+      double v = nabors.volume(node);
       vfsum += v*f;
     }
     return (float)(vfsum/vsum);
   }
 
   // C1 interpolation; uses gradients.
-  private float interpolate1(double vsum, double x, double y, double z) {
-    int nnode = _nodeList.nnode();
-    TetMesh.Node[] nodes = _nodeList.nodes();
+  private float interpolate1(
+    Nabors nabors, double vsum, double x, double y, double z)
+  {
+    int nnode = nabors.nodeList.nnode();
+    TetMesh.Node[] nodes = nabors.nodeList.nodes();
     double fs = 0.0;
     double es = 0.0;
     double wds = 0.0;
@@ -790,7 +1052,7 @@ public class SibsonInterpolator3 {
       double gx = gx(n);
       double gy = gy(n);
       double gz = gz(n);
-      double v = volume(n);
+      double v = nabors.volume(n);
       double w = v/vsum;
       double xn = n.xp();
       double yn = n.yp();
@@ -840,11 +1102,11 @@ public class SibsonInterpolator3 {
     double yn = n.yp();
     double zn = n.zp();
     _mesh.removeNode(n);
-    double vsum = computeVolumes((float)xn,(float)yn,(float)zn);
+    double vsum = _nabors.computeVolumes((float)xn,(float)yn,(float)zn);
     _mesh.addNode(n);
     if (vsum>0.0) {
-      int nm = _nodeList.nnode();
-      TetMesh.Node[] ms = _nodeList.nodes();
+      int nm = _nabors.nodeList.nnode();
+      TetMesh.Node[] ms = _nabors.nodeList.nodes();
       double hxx = 0.0, hxy = 0.0, hxz = 0.0,
                         hyy = 0.0, hyz = 0.0,
                                    hzz = 0.0;
@@ -854,7 +1116,7 @@ public class SibsonInterpolator3 {
         TetMesh.Node m = ms[im];
         if (!ghost(m)) {
           double fm = f(m);
-          double wm = volume(m);
+          double wm = _nabors.volume(m);
           double xm = m.xp();
           double ym = m.yp();
           double zm = m.zp();
@@ -905,9 +1167,9 @@ public class SibsonInterpolator3 {
   // class maintains the total volume accumulated for all nodes.
   private static abstract class VolumeAccumulator {
     public abstract double accumulateVolumes(
-      double xp, double yp, double zp,
-      TetMesh mesh, TetMesh.NodeList nodeList, TetMesh.TetList tetList);
-    protected void clear() {
+      double xp, double yp, double zp, Nabors nabors);
+    protected void clear(Nabors nabors) {
+      _nabors = nabors;
       _sum = 0.0;
     }
     protected double sum() {
@@ -915,10 +1177,10 @@ public class SibsonInterpolator3 {
     }
     protected void accumulate(TetMesh.Node node, double volume) {
       if (ghost(node)) return; // ignore ghost nodes!
-      NodeData data = data(node);
-      data.volume += volume;
+      _nabors.addVolume(node,volume);
       _sum += volume;
     }
+    private Nabors _nabors;
     private double _sum;
   }
   
@@ -927,12 +1189,11 @@ public class SibsonInterpolator3 {
   private static class WatsonSambridge extends VolumeAccumulator {
 
     public double accumulateVolumes(
-      double xp, double yp, double zp,
-      TetMesh mesh, TetMesh.NodeList nodeList, TetMesh.TetList tetList)
+      double xp, double yp, double zp, Nabors nabors)
     {
-      clear();
-      int ntet = tetList.ntet();
-      TetMesh.Tet[] tets = tetList.tets();
+      clear(nabors);
+      int ntet = nabors.tetList.ntet();
+      TetMesh.Tet[] tets = nabors.tetList.tets();
       for (int itet=0; itet<ntet; ++itet) {
         TetMesh.Tet tet = tets[itet];
         TetMesh.Node na = tet.nodeA();
@@ -978,14 +1239,13 @@ public class SibsonInterpolator3 {
   private static class BraunSambridge extends VolumeAccumulator {
 
     public double accumulateVolumes(
-      double x1i, double x2i, double x3i,
-      TetMesh mesh, TetMesh.NodeList nodeList, TetMesh.TetList tetList)
+      double x1i, double x2i, double x3i, Nabors nabors)
     {
-      clear();
+      clear(nabors);
 
       // For all natural neighbors, ...
-      int nnode = nodeList.nnode();
-      TetMesh.Node[] nodes = nodeList.nodes();
+      int nnode = nabors.nodeList.nnode();
+      TetMesh.Node[] nodes = nabors.nodeList.nodes();
       for (int j=0; j<nnode; ++j) {
         TetMesh.Node jnode = nodes[j];
         double x1j = jnode.xp();
@@ -1008,12 +1268,13 @@ public class SibsonInterpolator3 {
         _lv.addHalfSpace(x1d,x2d,x3d,0.0); // note b = 0 here
 
         // For all other natural neighbors, ...
+        nabors.markEdgeNabors(jnode);
         for (int k=0; k<nnode; ++k) {
           if (j==k) continue;
           TetMesh.Node knode = nodes[k];
 
           // Skip pair if they are not node neighbors in the mesh.
-          if (mesh.findTet(jnode,knode)==null)
+          if (!nabors.isEdgeNabor(knode))
             continue;
 
           // Add half-space of points closer to pj than pk. 
@@ -1052,11 +1313,10 @@ public class SibsonInterpolator3 {
   private static class HaleLiang extends VolumeAccumulator {
 
     public double accumulateVolumes(
-      double xp, double yp, double zp,
-      TetMesh mesh, TetMesh.NodeList nodeList, TetMesh.TetList tetList)
+      double xp, double yp, double zp, Nabors nabors)
     {
-      clear();
-      processTets(xp,yp,zp,mesh,tetList);
+      clear(nabors);
+      processTets(xp,yp,zp,nabors);
       boolean ok = processFaces(xp,yp,zp);
       return (ok)?sum():0.0;
     }
@@ -1066,12 +1326,11 @@ public class SibsonInterpolator3 {
 
     // Processes all natural-neighbor tets.
     private void processTets(
-      double xp, double yp, double zp, 
-      TetMesh mesh, TetMesh.TetList tetList) 
+      double xp, double yp, double zp, Nabors nabors)
     {
       _faceList.clear();
-      int ntet = tetList.ntet();
-      TetMesh.Tet[] tets = tetList.tets();
+      int ntet = nabors.tetList.ntet();
+      TetMesh.Tet[] tets = nabors.tetList.tets();
       for (int itet=0; itet<ntet; ++itet) {
         TetMesh.Tet tet = tets[itet];
         TetMesh.Tet ta = tet.tetA();
@@ -1084,20 +1343,20 @@ public class SibsonInterpolator3 {
         TetMesh.Node nd = tet.nodeD();
         tet.centerSphere(_xyz);
         double xt = _xyz[0]-xp, yt = _xyz[1]-yp, zt = _xyz[2]-zp;
-        processTetNabor(xp,yp,zp,xt,yt,zt,mesh,ta,nb,nc,nd);
-        processTetNabor(xp,yp,zp,xt,yt,zt,mesh,tb,nc,na,nd);
-        processTetNabor(xp,yp,zp,xt,yt,zt,mesh,tc,nd,na,nb);
-        processTetNabor(xp,yp,zp,xt,yt,zt,mesh,td,na,nc,nb);
+        processTetNabor(xp,yp,zp,xt,yt,zt,nabors,ta,nb,nc,nd);
+        processTetNabor(xp,yp,zp,xt,yt,zt,nabors,tb,nc,na,nd);
+        processTetNabor(xp,yp,zp,xt,yt,zt,nabors,tc,nd,na,nb);
+        processTetNabor(xp,yp,zp,xt,yt,zt,nabors,td,na,nc,nb);
       }
     }
     private void processTetNabor(
       double xp, double yp, double zp, 
       double xt, double yt, double zt, 
-      TetMesh mesh, TetMesh.Tet ta,
+      Nabors nabors, TetMesh.Tet ta,
       TetMesh.Node nb, TetMesh.Node nc, TetMesh.Node nd)
     {
       boolean saveFace = true;
-      if (ta!=null && mesh.isMarked(ta)) {
+      if (ta!=null && nabors.isMarked(ta)) {
         ta.centerSphere(_xyz);
         double xa = _xyz[0]-xp, ya = _xyz[1]-yp, za = _xyz[2]-zp;
         double xb = nb.xp()-xp, yb = nb.yp()-yp, zb = nb.zp()-zp;
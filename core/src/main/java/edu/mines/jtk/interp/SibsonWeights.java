@@ -0,0 +1,286 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import edu.mines.jtk.util.Check;
+import edu.mines.jtk.util.Parallel;
+
+/**
+ * A table of Sibson interpolation weights for a fixed set of points.
+ * For each point, the table contains the indices of samples that are
+ * natural neighbors of that point, and the Sibson coordinates of those
+ * samples. The table is stored in compressed sparse rows, with three
+ * arrays of primitive values: offsets, indices and weights. For the i'th
+ * point, samples and weights have indices j in the range
+ * offsets[i] &lt;= j &lt; offsets[i+1].
+ * <p>
+ * A weight table is computed once by a Sibson interpolator, for which
+ * the points are typically those of a sampled grid. Thereafter, values
+ * for any number of sampled functions can be interpolated without again
+ * computing natural neighbors and Sibson coordinates. Each interpolation
+ * is a sparse matrix-vector multiplication.
+ * <p>
+ * Weights are those of Sibson's C0 interpolant; sample gradients are not
+ * used. A table includes only real samples, so that weights of ghost
+ * samples added when bounds are set for the interpolator are excluded.
+ * Weights for a point with no natural neighbors, such as a point outside
+ * the convex hull of samples or outside specified bounds, are empty, and
+ * null values are interpolated at that point.
+ * <p>
+ * Because offsets are stored as ints, a table can hold no more than
+ * Integer.MAX_VALUE (about 2.1 billion) weights in total. With typically
+ * six to twenty natural neighbors per point, this limits a table to some
+ * hundreds of millions of points; larger grids must be interpolated with
+ * separate tables for subsets of points.
+ * <p>
+ * Weight tables are serializable, so that they may be written to and
+ * later read from files.
+ * @see SibsonInterpolator2#getWeights(edu.mines.jtk.dsp.Sampling,
+ *  edu.mines.jtk.dsp.Sampling)
+ * @see SibsonInterpolator3#getWeights(edu.mines.jtk.dsp.Sampling,
+ *  edu.mines.jtk.dsp.Sampling,edu.mines.jtk.dsp.Sampling)
+ * @version 2026.10.19
+ */
+public class SibsonWeights implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Returns the number of points in this table.
+   * @return the number of points.
+   */
+  public int getPointCount() {
+    return _np;
+  }
+
+  /**
+   * Returns the number of samples referenced by this table. This number
+   * is the length of arrays of sample values to be interpolated.
+   * @return the number of samples.
+   */
+  public int getSampleCount() {
+    return _ns;
+  }
+
+  /**
+   * Returns the number of weights in this table.
+   * @return the number of weights.
+   */
+  public int getWeightCount() {
+    return _offsets[_np];
+  }
+
+  /**
+   * Returns an array of offsets for the points in this table.
+   * @return array[np+1] of offsets; by reference, not by copy.
+   */
+  public int[] getOffsets() {
+    return _offsets;
+  }
+
+  /**
+   * Returns an array of sample indices for all points in this table.
+   * @return array of indices; by reference, not by copy.
+   */
+  public int[] getIndices() {
+    return _indices;
+  }
+
+  /**
+   * Returns an array of weights for all points in this table.
+   * @return array of weights; by reference, not by copy.
+   */
+  public float[] getWeights() {
+    return _weights;
+  }
+
+  /**
+   * Sets the null value, interpolated at points with no weights.
+   * The default null value is that of the interpolator that computed
+   * this table.
+   * @param fnull the null value.
+   */
+  public void setNullValue(float fnull) {
+    _fnull = fnull;
+  }
+
+  /**
+   * Returns values interpolated for one sampled function.
+   * @param f array[ns] of sample values.
+   * @return array[np] of interpolated values.
+   */
+  public float[] apply(float[] f) {
+    float[] g = new float[_np];
+    apply(f,g);
+    return g;
+  }
+
+  /**
+   * Interpolates values for one sampled function.
+   * @param f array[ns] of sample values.
+   * @param g array[np] of interpolated values.
+   */
+  public void apply(float[] f, float[] g) {
+    apply(new float[][]{f},new float[][]{g});
+  }
+
+  /**
+   * Returns values interpolated for multiple sampled functions.
+   * @param f array[nf][ns] of sample values.
+   * @return array[nf][np] of interpolated values.
+   */
+  public float[][] apply(float[][] f) {
+    float[][] g = new float[f.length][_np];
+    apply(f,g);
+    return g;
+  }
+
+  /**
+   * Interpolates values for multiple sampled functions. Points are
+   * processed in parallel blocks, and weights for each block are applied
+   * to all functions before proceeding to the next block.
+   * @param f array[nf][ns] of sample values.
+   * @param g array[nf][np] of interpolated values.
+   */
+  public void apply(final float[][] f, final float[][] g) {
+    final int nf = f.length;
+    Check.argument(g.length==nf,"g.length equals f.length");
+    for (int jf=0; jf<nf; ++jf) {
+      Check.argument(f[jf].length==_ns,"f[jf].length equals sample count");
+      Check.argument(g[jf].length==_np,"g[jf].length equals point count");
+    }
+    final int nb = (_np+NB-1)/NB;
+    Parallel.loop(nb,new Parallel.LoopInt() {
+    public void compute(int ib) {
+      int jp = ib*NB;
+      int kp = Math.min(jp+NB,_np);
+      for (int jf=0; jf<nf; ++jf)
+        apply(jp,kp,f[jf],g[jf]);
+    }});
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // package
+
+  /**
+   * Constructs a table with specified arrays, which are not copied.
+   * @param ns the number of samples.
+   * @param offsets array[np+1] of offsets.
+   * @param indices array of sample indices.
+   * @param weights array of weights.
+   * @param fnull the null value.
+   */
+  SibsonWeights(
+    int ns, int[] offsets, int[] indices, float[] weights, float fnull)
+  {
+    _np = offsets.length-1;
+    _ns = ns;
+    _offsets = offsets;
+    _indices = indices;
+    _weights = weights;
+    _fnull = fnull;
+  }
+
+  /**
+   * Indices and weights for a block of consecutive points.
+   * For each point, indices and weights are added, and then the point
+   * is ended, even if it has no weights.
+   */
+  static class Block {
+    void add(int index, float weight) {
+      if (_nw==_indices.length) {
+        _indices = Arrays.copyOf(_indices,2*_nw);
+        _weights = Arrays.copyOf(_weights,2*_nw);
+      }
+      _indices[_nw] = index;
+      _weights[_nw] = weight;
+      ++_nw;
+    }
+    void endPoint() {
+      if (_np+1==_offsets.length)
+        _offsets = Arrays.copyOf(_offsets,2*_np+2);
+      _offsets[++_np] = _nw;
+    }
+    private int _np,_nw;
+    private int[] _offsets = new int[16];
+    private int[] _indices = new int[64];
+    private float[] _weights = new float[64];
+  }
+
+  /**
+   * Returns a table for a sequence of blocks of points.
+   * @param ns the number of samples.
+   * @param blocks array of blocks of points.
+   * @param fnull the null value.
+   * @throws IllegalArgumentException if the total number of weights
+   *  exceeds Integer.MAX_VALUE.
+   */
+  static SibsonWeights join(int ns, Block[] blocks, float fnull) {
+    int nb = blocks.length;
+    long np = 0;
+    long nw = 0;
+    for (int ib=0; ib<nb; ++ib) {
+      np += blocks[ib]._np;
+      nw += blocks[ib]._nw;
+    }
+    Check.argument(np<Integer.MAX_VALUE,
+      "number of points "+np+" < Integer.MAX_VALUE");
+    Check.argument(nw<=Integer.MAX_VALUE,
+      "number of weights "+nw+" <= Integer.MAX_VALUE; "+
+      "use separate tables for fewer points");
+    int[] o = new int[(int)np+1];
+    int[] k = new int[(int)nw];
+    float[] w = new float[(int)nw];
+    for (int ib=0,ip=0,iw=0; ib<nb; ++ib) {
+      Block b = blocks[ib];
+      for (int jp=0; jp<b._np; ++jp)
+        o[ip++] = iw+b._offsets[jp];
+      System.arraycopy(b._indices,0,k,iw,b._nw);
+      System.arraycopy(b._weights,0,w,iw,b._nw);
+      iw += b._nw;
+      o[ip] = iw;
+    }
+    return new SibsonWeights(ns,o,k,w,fnull);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private static final int NB = 1024; // number of points per block
+
+  private int _np; // number of points
+  private int _ns; // number of samples
+  private int[] _offsets; // offsets of indices and weights for each point
+  private int[] _indices; // sample indices
+  private float[] _weights; // sample weights
+  private float _fnull; // null value for points with no weights
+
+  private void apply(int jp, int kp, float[] f, float[] g) {
+    for (int ip=jp; ip<kp; ++ip) {
+      int j = _offsets[ip];
+      int k = _offsets[ip+1];
+      if (j<k) {
+        float gi = 0.0f;
+        for (; j<k; ++j)
+          gi += _weights[j]*f[_indices[j]];
+        g[ip] = gi;
+      } else {
+        g[ip] = _fnull;
+      }
+    }
+  }
+}
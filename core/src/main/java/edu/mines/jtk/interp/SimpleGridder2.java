@@ -21,6 +21,8 @@ import edu.mines.jtk.dsp.Sampling;
  * Each gridded value is simply the average of the values of all known 
  * samples that lie within the corresponding grid cell. For a grid cell
  * that contains no such known samples, the gridded value is null.
+ * Other statistics, such as counts, minimum and maximum values, and
+ * variances, may also be computed for each grid cell.
  * <p>
  * Note that this simple method performs no interpolation for grid cells 
  * that do not contain at least one scattered sample. It may however be 
@@ -53,6 +55,27 @@ public class SimpleGridder2 implements Gridder2 {
     _fnull = fnull;
   }
 
+  /**
+   * Computes gridded statistics of the known sample values. All of the
+   * specified statistics are computed in one pass over the known samples,
+   * with samples binned into grid cells in parallel. For grid cells that
+   * contain no known samples, the count and sum are zero, and all other
+   * statistics are null.
+   * @param s1 sampling of x1.
+   * @param s2 sampling of x2.
+   * @param stats array of statistics to be computed.
+   * @return array[nstat][n2][n1] of gridded statistics.
+   */
+  public float[][][] gridStatistics(
+    Sampling s1, Sampling s2, BinStatistic[] stats)
+  {
+    float[][][][] g = SampleBins.grid(_f,_x1,_x2,null,s1,s2,null,stats,_fnull);
+    float[][][] h = new float[stats.length][][];
+    for (int is=0; is<stats.length; ++is)
+      h[is] = g[is][0];
+    return h;
+  }
+
   /**
    * Returns samples adjusted to lie on a specified grid.
    * @param s1 sampling of x1.
@@ -206,47 +229,18 @@ public class SimpleGridder2 implements Gridder2 {
   // interface Gridder2
 
   public void setScattered(float[] f, float[] x1, float[] x2) {
-    _n = f.length;
     _f = f;
     _x1 = x1;
     _x2 = x2;
   }
 
   public float[][] grid(Sampling s1, Sampling s2) {
-    int n1 = s1.getCount();
-    int n2 = s2.getCount();
-    double d1 = s1.getDelta();
-    double d2 = s2.getDelta();
-    double f1 = s1.getFirst();
-    double f2 = s2.getFirst();
-    double l1 = s1.getLast();
-    double l2 = s2.getLast();
-    f1 -= 0.5*d1; l1 += 0.5*d1;
-    f2 -= 0.5*d2; l2 += 0.5*d2;
-    float[][] g = new float[n2][n1];
-    float[][] c = new float[n2][n1];
-    for (int i=0; i<_n; ++i) {
-      double x1 = _x1[i];
-      double x2 = _x2[i];
-      if (f1<=x1 && x1<=l1 && f2<=x2 && x2<=l2) {
-        int i1 = s1.indexOfNearest(x1);
-        int i2 = s2.indexOfNearest(x2);
-        g[i2][i1] += _f[i];
-        c[i2][i1] += 1.0f;
-      }
-    }
-    for (int i2=0; i2<n2; ++i2) {
-      for (int i1=0; i1<n1; ++i1) {
-        g[i2][i1] = (c[i2][i1]>0.0f)?g[i2][i1]/c[i2][i1]:_fnull;
-      }
-    }
-    return g;
+    return gridStatistics(s1,s2,new BinStatistic[]{BinStatistic.MEAN})[0];
   }
 
   ///////////////////////////////////////////////////////////////////////////
   // private
 
-  private int _n;
   private float _fnull;
   private float[] _f,_x1,_x2;
 }
@@ -21,6 +21,8 @@ import edu.mines.jtk.dsp.Sampling;
  * Each gridded value is simply the average of the values of all known 
  * samples that lie within the corresponding grid cell. For a grid cell
  * that contains no such known samples, the gridded value is null.
+ * Other statistics, such as counts, minimum and maximum values, and
+ * variances, may also be computed for each grid cell.
  * <p>
  * Note that this simple method performs no interpolation for grid cells 
  * that do not contain at least one scattered sample. It may however be 
@@ -53,6 +55,24 @@ public class SimpleGridder3 implements Gridder3 {
     _fnull = fnull;
   }
 
+  /**
+   * Computes gridded statistics of the known sample values. All of the
+   * specified statistics are computed in one pass over the known samples,
+   * with samples binned into grid cells in parallel. For grid cells that
+   * contain no known samples, the count and sum are zero, and all other
+   * statistics are null.
+   * @param s1 sampling of x1.
+   * @param s2 sampling of x2.
+   * @param s3 sampling of x3.
+   * @param stats array of statistics to be computed.
+   * @return array[nstat][n3][n2][n1] of gridded statistics.
+   */
+  public float[][][][] gridStatistics(
+    Sampling s1, Sampling s2, Sampling s3, BinStatistic[] stats)
+  {
+    return SampleBins.grid(_f,_x1,_x2,_x3,s1,s2,s3,stats,_fnull);
+  }
+
   /**
    * Gets the non-null samples from the specified gridded sample values.
    * @param fnull the null value.
@@ -104,7 +124,6 @@ public class SimpleGridder3 implements Gridder3 {
   // interface Gridder3
 
   public void setScattered(float[] f, float[] x1, float[] x2, float[] x3) {
-    _n = f.length;
     _f = f;
     _x1 = x1;
     _x2 = x2;
@@ -112,51 +131,13 @@ public class SimpleGridder3 implements Gridder3 {
   }
 
   public float[][][] grid(Sampling s1, Sampling s2, Sampling s3) {
-    int n1 = s1.getCount();
-    int n2 = s2.getCount();
-    int n3 = s3.getCount();
-    double d1 = s1.getDelta();
-    double d2 = s2.getDelta();
-    double d3 = s3.getDelta();
-    double f1 = s1.getFirst();
-    double f2 = s2.getFirst();
-    double f3 = s3.getFirst();
-    double l1 = s1.getLast();
-    double l2 = s2.getLast();
-    double l3 = s3.getLast();
-    f1 -= 0.5*d1; l1 += 0.5*d1;
-    f2 -= 0.5*d2; l2 += 0.5*d2;
-    f3 -= 0.5*d3; l3 += 0.5*d3;
-    float[][][] g = new float[n3][n2][n1];
-    float[][][] c = new float[n3][n2][n1];
-    for (int i=0; i<_n; ++i) {
-      double x1 = _x1[i];
-      double x2 = _x2[i];
-      double x3 = _x3[i];
-      if (f1<=x1 && x1<=l1 && f2<=x2 && x2<=l2 && f3<=x3 && x3<=l3) {
-        int i1 = s1.indexOfNearest(x1);
-        int i2 = s2.indexOfNearest(x2);
-        int i3 = s3.indexOfNearest(x3);
-        g[i3][i2][i1] += _f[i];
-        c[i3][i2][i1] += 1.0f;
-      }
-    }
-    for (int i3=0; i3<n3; ++i3) {
-      for (int i2=0; i2<n2; ++i2) {
-        for (int i1=0; i1<n1; ++i1) {
-          g[i3][i2][i1] = (c[i3][i2][i1]>0.0f) ?
-            g[i3][i2][i1]/c[i3][i2][i1] :
-            _fnull;
-        }
-      }
-    }
-    return g;
+    BinStatistic[] stats = {BinStatistic.MEAN};
+    return gridStatistics(s1,s2,s3,stats)[0];
   }
 
   ///////////////////////////////////////////////////////////////////////////
   // private
 
-  private int _n;
   private float _fnull;
   private float[] _f,_x1,_x2,_x3;
 }
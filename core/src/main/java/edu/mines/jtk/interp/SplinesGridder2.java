@@ -45,6 +45,35 @@ import static edu.mines.jtk.util.ArrayMath.*;
  * D that are anisotropic and inhomogeneous. Instead, this implementation 
  * uses conjugate-gradient (CG) iterations.
  * <p>
+ * Nor are multigrid V-cycles used to precondition CG iterations. With the
+ * 2x2 stencil used in G, samples with even and odd i1+i2 are coupled in
+ * G'DG only by differences between the tensor elements d11 and d22, so
+ * that exact solutions to the equations above may oscillate like a
+ * checkerboard near known samples. Gridded values are smooth because CG
+ * iterations are preconditioned with a smoothing operator and end before
+ * such oscillations develop. A preconditioner that reduces all residuals
+ * more rapidly, such as a multigrid V-cycle, would converge instead to
+ * those rougher values.
+ * <p>
+ * Optionally, CG iterations may begin with gridded values computed on
+ * a sequence of coarser grids, each with half the number of samples in
+ * each dimension as the next finer grid. Gridded values on the coarsest
+ * grid are computed with CG iterations beginning with zero values, and
+ * values on each finer grid are computed with CG iterations beginning
+ * with values interpolated from the next coarser grid. These coarse-grid
+ * starts provide only initial values; the operators on coarser grids do
+ * not precondition CG iterations on finer grids. They therefore do not
+ * reduce the number of CG iterations to one that is independent of the
+ * grid size, but for large grids with sparse known samples they reduce
+ * significantly the number of CG iterations required on the finest grid,
+ * where those iterations are most costly.
+ * <p>
+ * The same tension is used on all grids. Because the scalar t is scaled
+ * by the inverse square of the number of samples in the grid, t grows
+ * by a factor of four on each coarser grid, in proportion to the square
+ * of the sample interval, as required for coarser grids to approximate
+ * the same spline in tension.
+ * <p>
  * The gridded values q must be obtained by solving iteratively the large 
  * sparse system of equations (G'DGG'DG+tG'DG)q = 0. To facilitate a CG
  * solver, these equations are rewritten as (K+MAM)q = (K-MAK)q, where 
@@ -149,8 +178,21 @@ public class SplinesGridder2 implements Gridder2 {
     _niter = niter;
   }
 
+  /**
+   * Sets whether to begin iterations with values computed on coarser grids.
+   * If true, gridded values are first computed on a sequence of coarser
+   * grids, and conjugate-gradient iterations on each finer grid begin with
+   * values interpolated from the next coarser grid. The default is false.
+   * @param coarseStart true, to use coarser grids; false, otherwise.
+   */
+  public void setCoarseStart(boolean coarseStart) {
+    _coarseStart = coarseStart;
+  }
+
   /**
    * Returns the number of conjugate-gradient iterations required.
+   * If coarser grids are used, this number excludes iterations required
+   * for those coarser grids.
    * The number returned corresponds to the last use of this gridder.
    * @return the number of iterations.
    */
@@ -166,7 +208,9 @@ public class SplinesGridder2 implements Gridder2 {
    * the left and right sides of the system of equations that are 
    * solved iteratively when computing gridded values. The returned 
    * residuals are normalized, so that the zeroth residual (before any 
-   * conjugate-gradient iterations are performed) is one.
+   * conjugate-gradient iterations are performed) is one, unless the
+   * iterations begin with values computed on coarser grids, in which
+   * case the zeroth residual is typically less than one.
    * @return array of residuals.
    */
   public float[] getResiduals() {
@@ -208,7 +252,8 @@ public class SplinesGridder2 implements Gridder2 {
     SmoothOperator2 sop = new SmoothOperator2();
     float[][] b = new float[n2][n1];
     lop.applyRhs(q,b);
-    solve(lop,sop,b,q);
+    float[][] p = (_coarseStart)?gridCoarse(m,q):null;
+    solve(lop,sop,b,p,q);
   }
 
   ///////////////////////////////////////////////////////////////////////////
@@ -246,6 +291,7 @@ public class SplinesGridder2 implements Gridder2 {
   private float[] _f,_x1,_x2;
   private float _small = 0.0001f;
   private int _niter = 10000;
+  private boolean _coarseStart = false;
   private ArrayList<Float> _residuals = new ArrayList<Float>();
   private LocalDiffusionKernel _ldk = 
     new LocalDiffusionKernel(LocalDiffusionKernel.Stencil.D22);
@@ -253,6 +299,65 @@ public class SplinesGridder2 implements Gridder2 {
   private static Logger log = 
     Logger.getLogger(SplinesGridder2.class.getName());
 
+  // Coarser grids must have at least this many samples in each dimension.
+  private static final int NCOARSE = 16;
+
+  // Returns gridded values computed on a coarser grid and interpolated
+  // to the specified finer grid, or null, if the grid is too small to
+  // be coarsened. Each known sample is moved to the nearest coarse grid
+  // sample, where known values are averaged. Interpolated values are
+  // replaced by known values where the latter are specified.
+  private float[][] gridCoarse(boolean[][] m, float[][] q) {
+    final int n1 = m[0].length;
+    final int n2 = m.length;
+    int m1 = (n1+1)/2;
+    int m2 = (n2+1)/2;
+    if (m1<NCOARSE || m2<NCOARSE)
+      return null;
+    float[][] qc = new float[m2][m1];
+    float[][] wc = new float[m2][m1];
+    for (int i2=0; i2<n2; ++i2) {
+      int j2 = min((i2+1)/2,m2-1);
+      for (int i1=0; i1<n1; ++i1) {
+        int j1 = min((i1+1)/2,m1-1);
+        if (!m[i2][i1]) {
+          qc[j2][j1] += q[i2][i1];
+          wc[j2][j1] += 1.0f;
+        }
+      }
+    }
+    boolean[][] mc = new boolean[m2][m1];
+    for (int j2=0; j2<m2; ++j2) {
+      for (int j1=0; j1<m1; ++j1) {
+        mc[j2][j1] = wc[j2][j1]==0.0f;
+        if (!mc[j2][j1])
+          qc[j2][j1] /= wc[j2][j1];
+      }
+    }
+    final Tensors2 tensors = _tensors;
+    SplinesGridder2 sg = new SplinesGridder2(new Tensors2() {
+      public void getTensor(int i1, int i2, float[] d) {
+        tensors.getTensor(min(2*i1,n1-1),min(2*i2,n2-1),d);
+      }
+    });
+    sg._tension = _tension;
+    sg._niter = _niter;
+    sg._coarseStart = true;
+    sg._ldk = _ldk;
+    sg.gridMissing(mc,qc);
+    float[][] p = new float[n2][n1];
+    for (int i2=0; i2<n2; ++i2) {
+      int j2 = min(i2/2,m2-1), k2 = min((i2+1)/2,m2-1);
+      for (int i1=0; i1<n1; ++i1) {
+        int j1 = min(i1/2,m1-1), k1 = min((i1+1)/2,m1-1);
+        p[i2][i1] = (m[i2][i1]) ?
+          0.25f*(qc[j2][j1]+qc[j2][k1]+qc[k2][j1]+qc[k2][k1]) :
+          q[i2][i1];
+      }
+    }
+    return p;
+  }
+
   private static interface Operator2 {
     public void apply(float[][] x, float[][] y);
   }
@@ -390,26 +495,39 @@ public class SplinesGridder2 implements Gridder2 {
   }
 
   // Conjugate-gradient solution of Ax = b, with preconditioner M.
-  private void solve(Operator2 a, Operator2 m, float[][] b, float[][] x) {
+  // Iterations begin with x = p, or with x = 0 if p is null.
+  private void solve(
+    Operator2 a, Operator2 m, float[][] b, float[][] p, float[][] x)
+  {
     _residuals.clear();
     int n1 = b[0].length;
     int n2 = b.length;
     //float small = _small;
     //float small = _small*sqrt(1.0e6f/n1/n2);
+    // Tolerance inversely proportional to n1*n2, the square of the number
+    // of samples per dimension; SplinesGridder3 uses the same square.
     float small = _small*1.0e5f/n1/n2;
     float[][] d = new float[n2][n1];
     float[][] q = new float[n2][n1];
     float[][] r = new float[n2][n1];
     float[][] s = new float[n2][n1];
-    szero(x); // begin with x = 0 to ensure x is always smooth
-    scopy(b,r); // r = b (because Ax = 0)
-    m.apply(r,s); // s = Mr
+    m.apply(b,s); // s = Mb
+    float rnormBegin = sqrt(sdot(b,s)); // residual norm for x = 0
+    float rnormSmall = rnormBegin*small;
+    if (p==null) {
+      szero(x); // begin with x = 0 to ensure x is always smooth
+      scopy(b,r); // r = b (because Ax = 0)
+    } else {
+      scopy(p,x); // begin with x = p, which must also be smooth
+      a.apply(x,q); // q = Ax
+      scopy(b,r); // r = b
+      saxpy(-1.0f,q,r); // r = b-Ax
+      m.apply(r,s); // s = Mr
+    }
     scopy(s,d); // d = s
     float delta = sdot(r,s); // r's = r'Mr
     float rnorm = sqrt(delta);
-    float rnormBegin = rnorm;
-    float rnormSmall = rnorm*small;
-    _residuals.add(1.0f);
+    _residuals.add((rnormBegin>0.0f)?rnorm/rnormBegin:1.0f);
     log.fine("solve: small="+small);
     int iter;
     for (iter=0; iter<_niter && rnorm>rnormSmall; ++iter) {
@@ -0,0 +1,566 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.ArrayList;
+import java.util.logging.Logger;
+
+import edu.mines.jtk.dsp.*;
+import edu.mines.jtk.util.Check;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tensor-guided 3D gridding with bi-harmonic and harmonic splines.
+ * At locations where gridded values are not constrained by specified
+ * (known) sample values, the gridded values q satisfy the equation
+ * (G'DGG'DG+tG'DG)q = 0, where G is a finite-difference approximation
+ * of the gradient operator, G' is its transpose, D is a tensor field,
+ * and t is a scalar constant that controls the tension, the weight of
+ * the harmonic G'DG operator relative to the bi-harmonic G'DGG'DG
+ * operator.
+ * <p>
+ * This gridder is the 3D counterpart of {@link SplinesGridder2}, and
+ * the gridded values are computed in the same way, with preconditioned
+ * conjugate-gradient (CG) iterations that solve the symmetric and
+ * positive-definite system of equations (K+MAM)q = (K-MAK)q. Here,
+ * A = G'DGG'DG+tG'DG, M is a diagonal matrix operator with ones where
+ * sample values are missing and zeros where values are known, and
+ * K = I-M. The tensors D must be symmetric and positive-semidefinite.
+ * <p>
+ * Optionally, CG iterations may begin with gridded values computed on
+ * a sequence of coarser grids, as described for the 2D gridder. These
+ * coarse-grid starts, which provide only initial values and use the same
+ * tension on all grids, reduce the number of CG iterations required on
+ * the finest grid, although by less than in 2D, where the gains are more
+ * significant.
+ * <p>
+ * As in 2D, multigrid V-cycles are not used to precondition CG
+ * iterations. With the 2x2x2 stencil used in G, a checkerboard is in the
+ * null space of G'DG, so that exact solutions to the equations above may
+ * oscillate near known samples. Gridded values are smooth because CG
+ * iterations are preconditioned with a smoothing operator and end before
+ * such oscillations develop.
+ * @see SplinesGridder2
+ * @version 2026.10.19
+ */
+public class SplinesGridder3 implements Gridder3 {
+
+  /**
+   * Constructs a gridder for default tensors.
+   */
+  public SplinesGridder3() {
+    this(null);
+  }
+
+  /**
+   * Constructs a gridder for default tensors and specified samples.
+   * The specified arrays are referenced; not copied.
+   * @param f array of sample values f(x1,x2,x3).
+   * @param x1 array of sample x1 coordinates.
+   * @param x2 array of sample x2 coordinates.
+   * @param x3 array of sample x3 coordinates.
+   */
+  public SplinesGridder3(float[] f, float[] x1, float[] x2, float[] x3) {
+    this(null);
+    setScattered(f,x1,x2,x3);
+  }
+
+  /**
+   * Constructs a gridder for the specified tensors.
+   * @param tensors the tensors.
+   */
+  public SplinesGridder3(Tensors3 tensors) {
+    setTensors(tensors);
+  }
+
+  /**
+   * Constructs a gridder for the specified tensors and samples.
+   * The specified arrays are referenced; not copied.
+   * @param tensors the tensors.
+   * @param f array of sample values f(x1,x2,x3).
+   * @param x1 array of sample x1 coordinates.
+   * @param x2 array of sample x2 coordinates.
+   * @param x3 array of sample x3 coordinates.
+   */
+  public SplinesGridder3(
+    Tensors3 tensors,
+    float[] f, float[] x1, float[] x2, float[] x3)
+  {
+    setTensors(tensors);
+    setScattered(f,x1,x2,x3);
+  }
+
+  /**
+   * Sets the tensor field used by this gridder.
+   * The default is a homogeneous and isotropic tensor field.
+   * @param tensors the tensors; null for default tensors.
+   */
+  public void setTensors(Tensors3 tensors) {
+    _tensors = tensors;
+    if (_tensors==null) {
+      _tensors = new Tensors3() {
+        public void getTensor(int i1, int i2, int i3, float[] d) {
+          d[0] = 1.0f;
+          d[1] = 0.0f;
+          d[2] = 0.0f;
+          d[3] = 1.0f;
+          d[4] = 0.0f;
+          d[5] = 1.0f;
+        }
+      };
+    }
+  }
+
+  /**
+   * Sets the tension, the weight for the harmonic spline.
+   * The default tension is 0.0, for a purely bi-harmonic spline.
+   * @param tension the tension; must be in the range [0:1).
+   * @see SplinesGridder2#setTension(double)
+   */
+  public void setTension(double tension) {
+    Check.argument(0<=tension,"0<=tension");
+    Check.argument(tension<1,"tension<1");
+    _tension = (float)tension;
+  }
+
+  /**
+   * Sets the maximum number of conjugate-gradient iterations.
+   * The default maximum number of iterations is 10,000.
+   * @param niter the maximum number of iterations.
+   */
+  public void setMaxIterations(int niter) {
+    _niter = niter;
+  }
+
+  /**
+   * Sets whether to begin iterations with values computed on coarser grids.
+   * If true, gridded values are first computed on a sequence of coarser
+   * grids, and conjugate-gradient iterations on each finer grid begin with
+   * values interpolated from the next coarser grid. The default is false.
+   * @param coarseStart true, to use coarser grids; false, otherwise.
+   */
+  public void setCoarseStart(boolean coarseStart) {
+    _coarseStart = coarseStart;
+  }
+
+  /**
+   * Returns the number of conjugate-gradient iterations required.
+   * If coarser grids are used, this number excludes iterations required
+   * for those coarser grids.
+   * The number returned corresponds to the last use of this gridder.
+   * @return the number of iterations.
+   */
+  public int getIterationCount() {
+    return _residuals.size()-1;
+  }
+
+  /**
+   * Gets the initial residual and one residual for each iteration.
+   * The residuals returned correspond to the last use of this gridder.
+   * Residuals are normalized as described for the 2D gridder.
+   * @return array of residuals.
+   * @see SplinesGridder2#getResiduals()
+   */
+  public float[] getResiduals() {
+    int n = _residuals.size();
+    float[] r = new float[n];
+    for (int i=0; i<n; ++i)
+      r[i] = _residuals.get(i);
+    return r;
+  }
+
+  /**
+   * Computes gridded values that are missing in the specified array.
+   * Missing values are those equal to the specified null value.
+   * @param qnull the null value representing missing samples.
+   * @param q array in which missing (null) values are to be replaced.
+   */
+  public void gridMissing(float qnull, float[][][] q) {
+    int n1 = q[0][0].length;
+    int n2 = q[0].length;
+    int n3 = q.length;
+    boolean[][][] m = new boolean[n3][n2][n1];
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        for (int i1=0; i1<n1; ++i1)
+          m[i3][i2][i1] = q[i3][i2][i1]==qnull;
+    gridMissing(m,q);
+  }
+
+  /**
+   * Computes gridded values that are missing in the specified array.
+   * Missing values are those with missing-value flags set to true.
+   * @param m array of missing-value flags; true where value is missing.
+   * @param q array in which flagged missing values are to be replaced.
+   */
+  public void gridMissing(boolean[][][] m, float[][][] q) {
+    int n1 = m[0][0].length;
+    int n2 = m[0].length;
+    int n3 = m.length;
+    float s = 0.02f*(n1-1+n2-1+n3-1);
+    float t = _tension/(1.0f-_tension)/(s*s);
+    LaplaceOperator3 lop = new LaplaceOperator3(_ldk,_tensors,t,m);
+    SmoothOperator3 sop = new SmoothOperator3();
+    float[][][] b = new float[n3][n2][n1];
+    lop.applyRhs(q,b);
+    float[][][] p = (_coarseStart)?gridCoarse(m,q):null;
+    solve(lop,sop,b,p,q);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // interface Gridder3
+
+  public void setScattered(float[] f, float[] x1, float[] x2, float[] x3) {
+    _f = f;
+    _x1 = x1;
+    _x2 = x2;
+    _x3 = x3;
+  }
+
+  public float[][][] grid(Sampling s1, Sampling s2, Sampling s3) {
+    Check.argument(s1.isUniform(),"s1 is uniform");
+    Check.argument(s2.isUniform(),"s2 is uniform");
+    Check.argument(s3.isUniform(),"s3 is uniform");
+    Check.state(_f!=null,"scattered samples have been set");
+    Check.state(_x1!=null,"scattered samples have been set");
+    Check.state(_x2!=null,"scattered samples have been set");
+    Check.state(_x3!=null,"scattered samples have been set");
+    PolyTrend3 pt = new PolyTrend3(1,_f,_x1,_x2,_x3);
+    pt.detrend();
+    SimpleGridder3 sg = new SimpleGridder3(_f,_x1,_x2,_x3);
+    sg.setNullValue(QNULL);
+    float[][][] q = sg.grid(s1,s2,s3);
+    gridMissing(QNULL,q);
+    pt.restore(q,s1,s2,s3);
+    pt.restore();
+    return q;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private static final float QNULL = FLT_MIN*1.314159f; // tiny null value
+  private Tensors3 _tensors;
+  private float _tension = 0.0f;
+  private float[] _f,_x1,_x2,_x3;
+  private float _small = 0.0001f;
+  private int _niter = 10000;
+  private boolean _coarseStart = false;
+  private ArrayList<Float> _residuals = new ArrayList<Float>();
+  private LocalDiffusionKernel _ldk =
+    new LocalDiffusionKernel(LocalDiffusionKernel.Stencil.D22);
+
+  private static Logger log =
+    Logger.getLogger(SplinesGridder3.class.getName());
+
+  // Coarser grids must have at least this many samples in each dimension.
+  private static final int NCOARSE = 16;
+
+  // Returns gridded values computed on a coarser grid and interpolated
+  // to the specified finer grid, or null, if the grid is too small to
+  // be coarsened. Each known sample is moved to the nearest coarse grid
+  // sample, where known values are averaged. Interpolated values are
+  // replaced by known values where the latter are specified.
+  private float[][][] gridCoarse(boolean[][][] m, float[][][] q) {
+    final int n1 = m[0][0].length;
+    final int n2 = m[0].length;
+    final int n3 = m.length;
+    int m1 = (n1+1)/2;
+    int m2 = (n2+1)/2;
+    int m3 = (n3+1)/2;
+    if (m1<NCOARSE || m2<NCOARSE || m3<NCOARSE)
+      return null;
+    float[][][] qc = new float[m3][m2][m1];
+    float[][][] wc = new float[m3][m2][m1];
+    for (int i3=0; i3<n3; ++i3) {
+      int j3 = min((i3+1)/2,m3-1);
+      for (int i2=0; i2<n2; ++i2) {
+        int j2 = min((i2+1)/2,m2-1);
+        for (int i1=0; i1<n1; ++i1) {
+          int j1 = min((i1+1)/2,m1-1);
+          if (!m[i3][i2][i1]) {
+            qc[j3][j2][j1] += q[i3][i2][i1];
+            wc[j3][j2][j1] += 1.0f;
+          }
+        }
+      }
+    }
+    boolean[][][] mc = new boolean[m3][m2][m1];
+    for (int j3=0; j3<m3; ++j3) {
+      for (int j2=0; j2<m2; ++j2) {
+        for (int j1=0; j1<m1; ++j1) {
+          mc[j3][j2][j1] = wc[j3][j2][j1]==0.0f;
+          if (!mc[j3][j2][j1])
+            qc[j3][j2][j1] /= wc[j3][j2][j1];
+        }
+      }
+    }
+    final Tensors3 tensors = _tensors;
+    SplinesGridder3 sg = new SplinesGridder3(new Tensors3() {
+      public void getTensor(int i1, int i2, int i3, float[] d) {
+        tensors.getTensor(min(2*i1,n1-1),min(2*i2,n2-1),min(2*i3,n3-1),d);
+      }
+    });
+    sg._tension = _tension;
+    sg._niter = _niter;
+    sg._coarseStart = true;
+    sg._ldk = _ldk;
+    sg.gridMissing(mc,qc);
+    float[][][] p = new float[n3][n2][n1];
+    for (int i3=0; i3<n3; ++i3) {
+      int j3 = min(i3/2,m3-1), k3 = min((i3+1)/2,m3-1);
+      for (int i2=0; i2<n2; ++i2) {
+        int j2 = min(i2/2,m2-1), k2 = min((i2+1)/2,m2-1);
+        for (int i1=0; i1<n1; ++i1) {
+          int j1 = min(i1/2,m1-1), k1 = min((i1+1)/2,m1-1);
+          p[i3][i2][i1] = (m[i3][i2][i1]) ?
+            0.125f*(qc[j3][j2][j1]+qc[j3][j2][k1] +
+                    qc[j3][k2][j1]+qc[j3][k2][k1] +
+                    qc[k3][j2][j1]+qc[k3][j2][k1] +
+                    qc[k3][k2][j1]+qc[k3][k2][k1]) :
+            q[i3][i2][i1];
+        }
+      }
+    }
+    return p;
+  }
+
+  private static interface Operator3 {
+    public void apply(float[][][] x, float[][][] y);
+  }
+
+  // Smoothing operator SS used for preconditioning. This operator
+  // attenuates frequencies near the Nyquist limit for which
+  // finite-difference approximations in G'DG are poor.
+  private static class SmoothOperator3 implements Operator3 {
+    public void apply(float[][][] x, float[][][] y) {
+      smoothS(x,y);
+      smoothS(y,y);
+    }
+  }
+
+  // The left-hand-side operator K + M(G'DGG'DG + tG'DG)M.
+  // Can also apply the right-hand-side operator K - M(...)K.
+  private static class LaplaceOperator3 implements Operator3 {
+    LaplaceOperator3(
+      LocalDiffusionKernel ldk, Tensors3 d, float t, boolean[][][] m)
+    {
+      _ldk = ldk;
+      _d = d;
+      _t = t;
+      _m = m;
+      _z = new float[m.length][m[0].length][m[0][0].length];
+    }
+    public void apply(float[][][] x, float[][][] y) {
+      int n1 = x[0][0].length;
+      int n2 = x[0].length;
+      int n3 = x.length;
+      // z = Mx
+      for (int i3=0; i3<n3; ++i3)
+        for (int i2=0; i2<n2; ++i2)
+          for (int i1=0; i1<n1; ++i1)
+            _z[i3][i2][i1] = _m[i3][i2][i1]?x[i3][i2][i1]:0.0f;
+      // y = G'DGz
+      szero(y);
+      _ldk.apply(_d,_z,y);
+      // z = (G'DG+tI)y
+      mul(_t,y,_z);
+      _ldk.apply(_d,y,_z);
+      // y = (I-M)x + Mz
+      for (int i3=0; i3<n3; ++i3)
+        for (int i2=0; i2<n2; ++i2)
+          for (int i1=0; i1<n1; ++i1)
+            y[i3][i2][i1] = _m[i3][i2][i1]?_z[i3][i2][i1]:x[i3][i2][i1];
+    }
+    public void applyRhs(float[][][] x, float[][][] y) {
+      int n1 = x[0][0].length;
+      int n2 = x[0].length;
+      int n3 = x.length;
+      // z = (I-M)x
+      for (int i3=0; i3<n3; ++i3)
+        for (int i2=0; i2<n2; ++i2)
+          for (int i1=0; i1<n1; ++i1)
+            _z[i3][i2][i1] = _m[i3][i2][i1]?0.0f:x[i3][i2][i1];
+      // y = G'DGz
+      szero(y);
+      _ldk.apply(_d,_z,y);
+      // z = (G'DG+tI)y
+      mul(_t,y,_z);
+      _ldk.apply(_d,y,_z);
+      // y = (I-M)x - Mz
+      for (int i3=0; i3<n3; ++i3)
+        for (int i2=0; i2<n2; ++i2)
+          for (int i1=0; i1<n1; ++i1)
+            y[i3][i2][i1] = _m[i3][i2][i1]?-_z[i3][i2][i1]:x[i3][i2][i1];
+    }
+    private LocalDiffusionKernel _ldk;
+    private Tensors3 _d;
+    private float _t;
+    private boolean[][][] _m;
+    private float[][][] _z;
+  }
+
+  // Conjugate-gradient solution of Ax = b, with preconditioner M.
+  // Iterations begin with x = p, or with x = 0 if p is null.
+  private void solve(
+    Operator3 a, Operator3 m, float[][][] b, float[][][] p, float[][][] x)
+  {
+    _residuals.clear();
+    int n1 = b[0][0].length;
+    int n2 = b[0].length;
+    int n3 = b.length;
+    // As in 2D, the tolerance is inversely proportional to the square of
+    // the number of samples per dimension. In 2D that square is n1*n2;
+    // here it is (n1*n2*n3)^(2/3), so that grids with the same number of
+    // samples per dimension have the same tolerance in 2D and 3D.
+    float small = _small*1.0e5f/pow((float)n1*n2*n3,2.0f/3.0f);
+    float[][][] d = new float[n3][n2][n1];
+    float[][][] q = new float[n3][n2][n1];
+    float[][][] r = new float[n3][n2][n1];
+    float[][][] s = new float[n3][n2][n1];
+    m.apply(b,s); // s = Mb
+    float rnormBegin = sqrt(sdot(b,s)); // residual norm for x = 0
+    float rnormSmall = rnormBegin*small;
+    if (p==null) {
+      szero(x); // begin with x = 0 to ensure x is always smooth
+      scopy(b,r); // r = b (because Ax = 0)
+    } else {
+      scopy(p,x); // begin with x = p, which must also be smooth
+      a.apply(x,q); // q = Ax
+      scopy(b,r); // r = b
+      saxpy(-1.0f,q,r); // r = b-Ax
+      m.apply(r,s); // s = Mr
+    }
+    scopy(s,d); // d = s
+    float delta = sdot(r,s); // r's = r'Mr
+    float rnorm = sqrt(delta);
+    _residuals.add((rnormBegin>0.0f)?rnorm/rnormBegin:1.0f);
+    log.fine("solve: small="+small);
+    int iter;
+    for (iter=0; iter<_niter && rnorm>rnormSmall; ++iter) {
+      log.finer("  iter="+iter+" rnorm="+(rnorm/rnormBegin));
+      a.apply(d,q); // q = Ad
+      float alpha = delta/sdot(d,q); // alpha = r'Mr/d'Ad
+      saxpy( alpha,d,x); // x = x+alpha*d
+      saxpy(-alpha,q,r); // r = r-alpha*q
+      m.apply(r,s); // s = Mr
+      float deltaOld = delta;
+      delta = sdot(r,s); // delta = r's = r'Mr
+      float beta = delta/deltaOld;
+      sxpay(beta,s,d); // d = s+beta*d
+      rnorm = sqrt(delta);
+      _residuals.add(rnorm/rnormBegin);
+    }
+    log.fine("        iter="+iter+" rnorm="+(rnorm/rnormBegin));
+  }
+  private static void szero(float[][][] x) {
+    zero(x);
+  }
+  private static void scopy(float[][][] x, float[][][] y) {
+    copy(x,y);
+  }
+  private static float sdot(float[][][] x, float[][][] y) {
+    int n1 = x[0][0].length;
+    int n2 = x[0].length;
+    int n3 = x.length;
+    double d = 0.0;
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        float[] x32 = x[i3][i2], y32 = y[i3][i2];
+        float d32 = 0.0f;
+        for (int i1=0; i1<n1; ++i1)
+          d32 += x32[i1]*y32[i1];
+        d += d32;
+      }
+    }
+    return (float)d;
+  }
+  private static void saxpy(float a, float[][][] x, float[][][] y) {
+    int n1 = x[0][0].length;
+    int n2 = x[0].length;
+    int n3 = x.length;
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        float[] x32 = x[i3][i2], y32 = y[i3][i2];
+        for (int i1=0; i1<n1; ++i1)
+          y32[i1] += a*x32[i1];
+      }
+    }
+  }
+  private static void sxpay(float a, float[][][] x, float[][][] y) {
+    int n1 = x[0][0].length;
+    int n2 = x[0].length;
+    int n3 = x.length;
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        float[] x32 = x[i3][i2], y32 = y[i3][i2];
+        for (int i1=0; i1<n1; ++i1)
+          y32[i1] = a*y32[i1]+x32[i1];
+      }
+    }
+  }
+
+  // The 3D smoothing filter S, with coefficients 1/4, 1/2 and 1/4
+  // applied in each dimension. Samples beyond the ends of arrays are
+  // copies of the end samples, as for the 2D filter.
+  private static void smoothS(float[][][] x, float[][][] y) {
+    int n1 = x[0][0].length;
+    int n2 = x[0].length;
+    int n3 = x.length;
+    int n1m = n1-1;
+    int n2m = n2-1;
+    int n3m = n3-1;
+    float[] t = new float[n1];
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        float[] x32 = x[i3][i2];
+        float[] y32 = y[i3][i2];
+        copy(x32,t);
+        for (int i1=0; i1<n1; ++i1) {
+          int i1m = (i1>0)?i1-1:0;
+          int i1p = (i1<n1m)?i1+1:n1m;
+          y32[i1] = 0.50f*t[i1]+0.25f*(t[i1m]+t[i1p]);
+        }
+      }
+    }
+    float[][] t2 = new float[n2][];
+    for (int i3=0; i3<n3; ++i3) {
+      float[][] y3 = y[i3];
+      for (int i2=0; i2<n2; ++i2)
+        t2[i2] = copy(y3[i2]);
+      for (int i2=0; i2<n2; ++i2) {
+        int i2m = (i2>0)?i2-1:0;
+        int i2p = (i2<n2m)?i2+1:n2m;
+        float[] t2m = t2[i2m], t20 = t2[i2], t2p = t2[i2p];
+        float[] y32 = y3[i2];
+        for (int i1=0; i1<n1; ++i1)
+          y32[i1] = 0.50f*t20[i1]+0.25f*(t2m[i1]+t2p[i1]);
+      }
+    }
+    float[][] t3 = new float[n3][n1];
+    for (int i2=0; i2<n2; ++i2) {
+      for (int i3=0; i3<n3; ++i3)
+        copy(y[i3][i2],t3[i3]);
+      for (int i3=0; i3<n3; ++i3) {
+        int i3m = (i3>0)?i3-1:0;
+        int i3p = (i3<n3m)?i3+1:n3m;
+        float[] t3m = t3[i3m], t30 = t3[i3], t3p = t3[i3p];
+        float[] y32 = y[i3][i2];
+        for (int i1=0; i1<n1; ++i1)
+          y32[i1] = 0.50f*t30[i1]+0.25f*(t3m[i1]+t3p[i1]);
+      }
+    }
+  }
+}
@@ -14,6 +14,8 @@ limitations under the License.
 ****************************************************************************/
 package edu.mines.jtk.interp;
 
+import java.util.Arrays;
+
 import static edu.mines.jtk.util.ArrayMath.*;
 import edu.mines.jtk.util.Check;
 
@@ -31,6 +33,20 @@ import edu.mines.jtk.util.Check;
  * O(log N), where N is the number of entries in the heap. Complexity for
  * inserting new entries or reducing the times for existing entries is
  * O(log N).
+ * <p>
+ * Alternatively, a heap may be constructed with a non-zero time quantum,
+ * for which it is an untidy priority queue. Entries are then kept in
+ * buckets of times, with bucket width equal to the quantum, and within
+ * each bucket are not ordered. Each entry removed from an untidy heap
+ * has a time within one quantum of the smallest or largest time in the
+ * heap. (Times not less than 65535 quanta share one bucket, and times
+ * less than zero are ordered as if zero.) Insertions, reductions and
+ * removals then have complexity O(1), apart from the cost of skipping
+ * empty buckets, which is bounded by the range of times divided by the
+ * quantum.
+ * <p>
+ * Entries are stored in arrays of primitive values, not in objects, and
+ * the index map is a single array of sample indices i1+n1*(i2+n2*i3).
  * 
  * @author Dave Hale, Colorado School of Mines
  * @version 2008.07.07
@@ -63,11 +79,37 @@ class TimeHeap3 {
    * @param n3 number of samples in 3rd dimension.
    */
   public TimeHeap3(Type type, int n1, int n2, int n3) {
+    this(type,n1,n2,n3,0.0f);
+  }
+
+  /**
+   * Constructs a heap with specified type, dimensions and time quantum.
+   * If the quantum is zero, entries are exactly ordered. Otherwise,
+   * this heap is an untidy priority queue, and entries removed have
+   * times within one quantum of the smallest or largest time.
+   * @param type the type of heap.
+   * @param n1 number of samples in 1st dimension.
+   * @param n2 number of samples in 2nd dimension.
+   * @param n3 number of samples in 3rd dimension.
+   * @param quantum the time quantum; zero, for an exact heap.
+   */
+  public TimeHeap3(Type type, int n1, int n2, int n3, float quantum) {
+    Check.argument((long)n1*n2*n3<=Integer.MAX_VALUE,
+      "number of samples n1*n2*n3 does not exceed Integer.MAX_VALUE");
+    Check.argument(quantum>=0.0f,"quantum is non-negative");
     _type = type;
     _n1 = n1;
     _n2 = n2;
     _n3 = n3;
-    _imap = new int[n3][n2][n1];
+    _imap = new int[n1*n2*n3];
+    _quantum = quantum;
+    if (quantum>0.0f) {
+      _b = new int[_k.length];
+      _next = new int[_k.length];
+      _prev = new int[_k.length];
+      _head = new int[64];
+      Arrays.fill(_head,-1);
+    }
   }
 
   /**
@@ -78,6 +120,14 @@ class TimeHeap3 {
     return _type;
   }
 
+  /**
+   * Gets the time quantum for this heap.
+   * @return the time quantum; zero, if entries are exactly ordered.
+   */
+  public float getQuantum() {
+    return _quantum;
+  }
+
   /**
    * Gets the number of samples in the 1st dimension.
    * @return the number of samples.
@@ -124,22 +174,22 @@ class TimeHeap3 {
    * @param mark a mark to associate with the new entry.
    */
   public void insert(int i1, int i2, int i3, float time, int mark) {
-    int i = indexOf(i1,i2,i3); // index of entry with time to reduce
+    int k = sampleIndex(i1,i2,i3);
+    int i = indexOf(k); // index of entry with time to reduce
     Check.argument(i<0,"entry with indices (i1,i2) is not in the heap");
     i = _n; // index at which to insert the entry
-    if (_n==_e.length) // if necessary, ...
+    if (_n==_k.length) // if necessary, ...
       grow(_n+1); // increase the capacity of this heap
-    Entry ei = _e[i];
-    if (ei==null) // if an unused entry does not already exist, ...
-      ei = new Entry(); // construct a new entry
-    ei.i1 = i1;
-    ei.i2 = i2;
-    ei.i3 = i3;
-    ei.time = time;
-    ei.mark = mark;
-    set(i,ei);
-    siftUp(i);
+    _k[i] = k;
+    _t[i] = time;
+    _m[i] = mark;
+    _imap[k] = i;
     ++_n;
+    if (_head!=null) {
+      link(i,bucket(time));
+    } else {
+      siftUp(i);
+    }
   }
 
   /**
@@ -152,11 +202,17 @@ class TimeHeap3 {
    * @param time the reduced time.
    */
   public void reduce(int i1, int i2, int i3, float time) {
-    int i = indexOf(i1,i2,i3); // index of entry with time to reduce
+    int i = indexOf(sampleIndex(i1,i2,i3)); // index of entry to reduce
     Check.argument(i>=0,"entry with indices (i1,i2) is in the heap");
-    Check.argument(time<_e[i].time,"specified time less than time in heap");
-    _e[i].time = time; // reduce the time
-    if (_type==Type.MIN) { // for a min-heap, ...
+    Check.argument(time<_t[i],"specified time less than time in heap");
+    _t[i] = time; // reduce the time
+    if (_head!=null) { // for an untidy heap, ...
+      int b = bucket(time);
+      if (b!=_b[i]) { // the entry may need to move to another bucket
+        unlink(i);
+        link(i,b);
+      }
+    } else if (_type==Type.MIN) { // for a min-heap, ...
       siftUp(i); // the entry may need to move up
     } else { // but for a max heap, ...
       siftDown(i); // the entry may need to move down
@@ -166,17 +222,38 @@ class TimeHeap3 {
   /**
    * Removes and returns the heap entry with smallest/largest time.
    * The heap must not be empty.
+   * @return a new entry.
    */
   public Entry remove() {
+    Entry e = new Entry();
+    remove(e);
+    return e;
+  }
+
+  /**
+   * Removes the heap entry with smallest/largest time.
+   * The heap must not be empty.
+   * @param e the entry in which to store the removed sample indices,
+   *  time and mark.
+   */
+  public void remove(Entry e) {
     Check.state(_n>0,"heap is not empty");
-    Entry e0 = _e[0];
+    int i = (_head!=null)?top():0;
+    int k = _k[i];
+    e.i1 = k%_n1;
+    e.i2 = (k/_n1)%_n2;
+    e.i3 = k/_n1/_n2;
+    e.time = _t[i];
+    e.mark = _m[i];
     --_n;
-    if (_n>0) {
-      set(0,_e[_n]);
-      set(_n,e0);
+    if (_head!=null) {
+      unlink(i);
+      if (i<_n)
+        relink(_n,i);
+    } else if (_n>0) {
+      move(_n,0);
       siftDown(0);
     }
-    return e0;
   }
 
   /**
@@ -187,13 +264,18 @@ class TimeHeap3 {
    * @return true, if in the heap; false, otherwise.
    */
   public boolean contains(int i1, int i2, int i3) {
-    return indexOf(i1,i2,i3)>=0;
+    return indexOf(sampleIndex(i1,i2,i3))>=0;
   }
 
   /**
    * Removes all entries from this heap.
    */
   public void clear() {
+    if (_head!=null) {
+      for (int i=0; i<_n; ++i)
+        _head[_b[i]] = -1;
+      _bt = 0;
+    }
     _n = 0;
   }
 
@@ -215,91 +297,194 @@ class TimeHeap3 {
    * Dumps this heap to standard output; leading spaces show level in tree.
    */
   public void dump() {
-    dump("",0);
+    if (_head!=null) {
+      for (int i=0; i<_n; ++i)
+        System.out.println(_b[i]+": "+_k[i]+" "+_t[i]);
+    } else {
+      dump("",0);
+    }
   }
 
   ///////////////////////////////////////////////////////////////////////////
   // private
 
+  // Maximum number of buckets in an untidy heap.
+  private static final int NBMAX = 65536;
+
   private Type _type; // heap type, either MIN or MAX
   private int _n1,_n2,_n3; // array dimensions
   private int _n; // number of entries in this heap
-  private int[][][] _imap; // maps array indices (i1,i2,i3) to heap index i
-  private Entry[] _e = new Entry[1024]; // array of entries in this heap
+  private int[] _imap; // maps sample indices k to heap index i
+  private int[] _k = new int[1024]; // sample indices of entries
+  private float[] _t = new float[1024]; // times of entries
+  private int[] _m = new int[1024]; // marks of entries
+
+  // For untidy heaps only, entries in each bucket are linked in lists.
+  private float _quantum; // time quantum; zero, if not untidy
+  private int[] _b; // bucket indices of entries
+  private int[] _next,_prev; // next and previous entries in buckets
+  private int[] _head; // first entries in buckets; -1, if empty
+  private int _bt; // bucket with smallest/largest times, if not empty
+
+  private int sampleIndex(int i1, int i2, int i3) {
+    Check.index(_n1,i1);
+    Check.index(_n2,i2);
+    Check.index(_n3,i3);
+    return i1+_n1*(i2+_n2*i3);
+  }
 
   /**
-   * Returns the heap index of the entry with array indices (i1,i2).
-   * If such an entry is not in the heap, this method returns -1, but
-   * throws an exception if the indices i1 or i2 are out of bounds.
+   * Returns the heap index of the entry with sample index k.
+   * If such an entry is not in the heap, this method returns -1.
    */
-  private int indexOf(int i1, int i2, int i3) {
-    int i = _imap[i3][i2][i1];
-    if (i<0 || i>=_n) 
-      return -1;
-    Entry ei = _e[i];
-    if (ei.i1!=i1 || ei.i2!=i2 || ei.i3!=i3)
+  private int indexOf(int k) {
+    int i = _imap[k];
+    if (i<0 || i>=_n || _k[i]!=k)
       return -1;
     return i;
   }
 
   /**
-   * Sets the i'th entry, and updates the index map accordingly.
+   * Moves the j'th entry to the i'th, and updates the index map.
    */
-  private void set(int i, Entry ei) {
-    _e[i] = ei;
-    _imap[ei.i3][ei.i2][ei.i1] = i;
+  private void move(int j, int i) {
+    int k = _k[j];
+    _k[i] = k;
+    _t[i] = _t[j];
+    _m[i] = _m[j];
+    _imap[k] = i;
   }
 
   /**
    * If necessary, moves entry e[i] down so not greater/less than children.
    */
   private void siftDown(int i) {
-    Entry ei = _e[i]; // entry ei that may move down
-    float eit = ei.time; // cached time for entry ei
+    int ki = _k[i]; // entry ei that may move down
+    float ti = _t[i]; // cached time for entry ei
+    int mi = _m[i];
     int m = _n>>>1; // number of entries with at least one child
+    boolean min = _type==Type.MIN;
     while (i<m) { // while not childless, ...
       int c = (i<<1)+1; // index of left child
       int r = c+1; // index of right child
-      Entry ec = _e[c]; // initially assume left child smallest/largest
-      if (_type==Type.MIN) { // if min-heap
-        if (r<_n && _e[r].time<ec.time) // if right child smallest, ...
-          ec = _e[c=r]; // the smaller of left and right children
-        if (eit<=ec.time) // break if ei not greater than smaller child
+      if (min) { // if min-heap
+        if (r<_n && _t[r]<_t[c]) // if right child smallest, ...
+          c = r; // the smaller of left and right children
+        if (ti<=_t[c]) // break if ei not greater than smaller child
           break;
       } else { // if max-heap
-        if (r<_n && _e[r].time>ec.time) // if right child largest, ...
-          ec = _e[c=r]; // the larger of left and right children
-        if (eit>=ec.time) // break if ei not less than larger child
+        if (r<_n && _t[r]>_t[c]) // if right child largest, ...
+          c = r; // the larger of left and right children
+        if (ti>=_t[c]) // break if ei not less than larger child
           break;
       }
-      set(i,ec); // move smaller/larger child up
+      move(c,i); // move smaller/larger child up
       i = c;
     }
-    if (ei!=_e[i]) // if necessary, ...
-      set(i,ei); // set ei where it belongs
+    _k[i] = ki; // put ei where it belongs
+    _t[i] = ti;
+    _m[i] = mi;
+    _imap[ki] = i;
   }
 
   /**
    * If necessary, moves entry e[i] up so not less/greater than parent.
    */
   private void siftUp(int i) {
-    Entry ei = _e[i]; // entry ei that may move up
-    float eit = ei.time; // cached time for entry ei
+    int ki = _k[i]; // entry ei that may move up
+    float ti = _t[i]; // cached time for entry ei
+    int mi = _m[i];
+    boolean min = _type==Type.MIN;
     while (i>0) { // while a parent (not the root entry), ...
       int p = (i-1)>>>1; // index of parent
-      Entry ep = _e[p]; // the parent
-      if (_type==Type.MIN) { // if min-heap
-        if (eit>=ep.time) // break if ei not less than parent
+      if (min) { // if min-heap
+        if (ti>=_t[p]) // break if ei not less than parent
           break;
       } else {
-        if (eit<=ep.time) // break if ei not greater than parent
+        if (ti<=_t[p]) // break if ei not greater than parent
           break;
       }
-      set(i,ep); // ei less/greater than parent, so move parent down
+      move(p,i); // ei less/greater than parent, so move parent down
       i = p;
     }
-    if (ei!=_e[i]) // if necessary, ...
-      set(i,ei); // set ei where it belongs
+    _k[i] = ki; // put ei where it belongs
+    _t[i] = ti;
+    _m[i] = mi;
+    _imap[ki] = i;
+  }
+
+  /**
+   * Returns the bucket index for the specified time.
+   */
+  private int bucket(float time) {
+    float b = time/_quantum;
+    return (b<=0.0f)?0:(b>=NBMAX-1)?NBMAX-1:(int)b;
+  }
+
+  /**
+   * Adds the i'th entry to the front of the list for bucket b.
+   */
+  private void link(int i, int b) {
+    if (b>=_head.length) {
+      int nb = _head.length;
+      _head = Arrays.copyOf(_head,max(b+1,min(2*nb,NBMAX)));
+      Arrays.fill(_head,nb,_head.length,-1);
+    }
+    int j = _head[b];
+    _b[i] = b;
+    _prev[i] = -1;
+    _next[i] = j;
+    if (j>=0)
+      _prev[j] = i;
+    _head[b] = i;
+    if (_n==1 || _type==Type.MIN && b<_bt || _type==Type.MAX && b>_bt)
+      _bt = b;
+  }
+
+  /**
+   * Removes the i'th entry from the list for its bucket.
+   */
+  private void unlink(int i) {
+    int p = _prev[i];
+    int q = _next[i];
+    if (p>=0) {
+      _next[p] = q;
+    } else {
+      _head[_b[i]] = q;
+    }
+    if (q>=0)
+      _prev[q] = p;
+  }
+
+  /**
+   * Moves the j'th entry to the i'th, and updates bucket lists.
+   */
+  private void relink(int j, int i) {
+    move(j,i);
+    int p = _prev[j];
+    int q = _next[j];
+    _b[i] = _b[j];
+    _prev[i] = p;
+    _next[i] = q;
+    if (p>=0) {
+      _next[p] = i;
+    } else {
+      _head[_b[i]] = i;
+    }
+    if (q>=0)
+      _prev[q] = i;
+  }
+
+  /**
+   * Returns the index of the first entry in the top non-empty bucket.
+   */
+  private int top() {
+    if (_type==Type.MIN) {
+      while (_head[_bt]<0) ++_bt;
+    } else {
+      while (_head[_bt]<0) --_bt;
+    }
+    return _head[_bt];
   }
 
   /**
@@ -308,15 +493,20 @@ class TimeHeap3 {
   private void grow(int minCapacity) {
     if (minCapacity<0) // overflow
       throw new OutOfMemoryError();
-    int oldCapacity = _e.length;
+    int oldCapacity = _k.length;
     int newCapacity = oldCapacity*2;
     if (newCapacity<0) // overflow
       newCapacity = Integer.MAX_VALUE;
     if (newCapacity<minCapacity)
       newCapacity = minCapacity;
-    Entry[] e = new Entry[newCapacity];
-    System.arraycopy(_e,0,e,0,oldCapacity);
-    _e = e;
+    _k = Arrays.copyOf(_k,newCapacity);
+    _t = Arrays.copyOf(_t,newCapacity);
+    _m = Arrays.copyOf(_m,newCapacity);
+    if (_head!=null) {
+      _b = Arrays.copyOf(_b,newCapacity);
+      _next = Arrays.copyOf(_next,newCapacity);
+      _prev = Arrays.copyOf(_prev,newCapacity);
+    }
   }
 
   /**
@@ -325,13 +515,17 @@ class TimeHeap3 {
   private void dump(String s, int i) {
     if (i<_n) {
       s = s+"  ";
-      Entry e = _e[i];
-      System.out.println(s+e.i1+" "+e.i2+" "+e.i3+" "+e.time);
+      int k = _k[i];
+      int i1 = k%_n1;
+      int i2 = (k/_n1)%_n2;
+      int i3 = k/_n1/_n2;
+      System.out.println(s+i1+" "+i2+" "+i3+" "+_t[i]);
       dump(s,2*i+1);
       dump(s,2*i+2);
     }
   }
 
+
   ///////////////////////////////////////////////////////////////////////////
   // testing
 
@@ -680,7 +680,7 @@ public class TimeMarker2 {
    * If a valid u can be computed, then the time returned is t0 = t1+u.
    * Otherwise, this method returns INFINITY.
    */
-  private static float computeTime(
+  static float computeTime(
     float d11, float d12, float d22,
     float s1, float s2, float t1, float t2) 
   {
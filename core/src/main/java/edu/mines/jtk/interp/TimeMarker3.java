@@ -789,7 +789,7 @@ public class TimeMarker3 {
    * If a valid u can be computed, then the time returned is t0 = t1+u.
    * Otherwise, this method returns INFINITY.
    */
-  private static float computeTime(
+  static float computeTime(
     float d11, float d12, float d13, float d22, float d23, float d33,
     float s1, float s2, float s3, float t1, float t2, float t3) 
   {
@@ -831,7 +831,7 @@ public class TimeMarker3 {
    * If a valid u can be computed, then the time returned is t0 = t1+u.
    * Otherwise, this method returns INFINITY.
    */
-  private static float computeTime(
+  static float computeTime(
     float d11, float d12, float d22,
     float s1, float s2, float t1, float t2) 
   {
@@ -96,6 +96,21 @@ class TimeMarker3X {
     _concurrency = concurrency;
   }
 
+  /**
+   * Sets the time quantum for the heap of known samples. Known samples
+   * are processed in order of decreasing times, and for a non-zero
+   * quantum that order is approximate, with times within one quantum.
+   * The order affects the cost of computing times for all samples, and
+   * because those times are computed iteratively with a finite tolerance,
+   * may slightly alter times and marks computed. (In tests, times change
+   * by less than one percent.) The default quantum is zero, for which the
+   * order is exact.
+   * @param quantum the time quantum; zero, for exact order.
+   */
+  public void setTimeQuantum(float quantum) {
+    _quantum = quantum;
+  }
+
   /**
    * Transforms the specified array of times and marks.
    * Known samples are those for which times are zero, and times
@@ -131,13 +146,16 @@ class TimeMarker3X {
     // Active list of samples used to compute times.
     ActiveList al = new ActiveList();
 
+    // Entry for the known sample removed from the heap.
+    TimeHeap3.Entry ek = new TimeHeap3.Entry();
+
     // For all known samples, ...
     for (int ik=0; ik<nk; ++ik) {
       if (ik%(1+(nk-1)/100)==0)
         log.fine("  apply: ik/nk="+ik+"/"+nk+" time="+(int)sw.time());
 
       // Remove known sample with largest time from the heap.
-      TimeHeap3.Entry ek = theap.remove();
+      theap.remove(ek);
       int k1 = ek.i1;
       int k2 = ek.i2;
       int k3 = ek.i3;
@@ -184,6 +202,7 @@ class TimeMarker3X {
   private Sample[][][] _s;
   private ArrayList<Sample> _als = new ArrayList<Sample>(2048);
   private Concurrency _concurrency = Concurrency.PARALLEL;
+  private float _quantum; // quantum for time heap; zero, if exact
 
   private void init(int n1, int n2, int n3, Tensors3 tensors) {
     _n1 = n1;
@@ -379,15 +398,16 @@ class TimeMarker3X {
     }
 
     // Build a heap of known samples. Ensure that the sample nearest 
-    // the middle of the sampling grid is at the top of the heap.
-    TimeHeap3 theap = new TimeHeap3(TimeHeap3.Type.MAX,_n1,_n2,_n3);
+    // the middle of the sampling grid is at the top of the heap. That
+    // sample is inserted last, so that it is removed first even from an
+    // untidy heap, in which very large times share one bucket.
+    TimeHeap3 theap = new TimeHeap3(TimeHeap3.Type.MAX,_n1,_n2,_n3,_quantum);
     for (int ik=0; ik<nk; ++ik) {
-      if (ik==ikmid) {
-        theap.insert(k1[ik],k2[ik],k3[ik],INFINITY,km[ik]);
-      } else {
+      if (ik!=ikmid)
         theap.insert(k1[ik],k2[ik],k3[ik],0.5f*INFINITY,km[ik]);
-      }
     }
+    if (nk>0)
+      theap.insert(k1[ikmid],k2[ikmid],k3[ikmid],INFINITY,km[ikmid]);
     return theap;
   }
 
@@ -434,7 +454,7 @@ class TimeMarker3X {
       if (0<i3) addSampleToList(i1,i2,i3-1);
       if (i1<_n1-1) addSampleToList(i1+1,i2,i3);
       if (i2<_n2-1) addSampleToList(i1,i2+1,i3);
-      if (i3<_n3-1) addSampleToList(i1,i3,i3+1);
+      if (i3<_n3-1) addSampleToList(i1,i2,i3+1);
     }
   }
   private void addSampleToList(int i1, int i2, int i3) {
@@ -0,0 +1,299 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import edu.mines.jtk.dsp.Tensors2;
+import edu.mines.jtk.util.Parallel;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * A parallel time and closest-point transform for 2D anisotropic eikonal
+ * equations. This transform is an alternative to {@link TimeMarker2},
+ * with the same inputs and outputs. It transforms an array of times and
+ * marks for known samples into an array of times and marks for all
+ * samples. Known samples are those for which times are zero, and times
+ * and marks for known samples are not modified.
+ * <p>
+ * Times for unknown samples are computed by solving an anisotropic eikonal
+ * equation grad(t) dot W grad(t) = 1, where W denotes a positive-definite
+ * (velocity-squared) metric tensor field. Times are computed for all known
+ * samples together, by fast sweeping (Zhao, 2005), with Gauss-Seidel
+ * iterations that sweep through samples in alternating directions, until
+ * no time decreases by more than a small fraction.
+ * <p>
+ * Marks propagate with times. The time for each unknown sample is the
+ * least of times computed from neighbor samples with the same mark, and
+ * the unknown sample is marked with the mark for that least time. Times
+ * and marks are therefore similar to those computed by a time marker,
+ * which computes one solution for each known sample.
+ * <p>
+ * For parallel sweeps, samples are grouped into square blocks. In each
+ * sweep, blocks on each diagonal line of blocks share no edges, and are
+ * swept concurrently, before blocks on the next line. Blocks are skipped
+ * when neither they nor adjacent blocks have changed since they were last
+ * swept. Times and marks computed do not depend on the number of threads.
+ * <pre>
+ * References:
+ * Detrixhe, M., F. Gibou, and C. Min, 2013, A parallel fast sweeping
+ * method for the eikonal equation: Journal of Computational Physics,
+ * v. 237, 46-55.
+ * Zhao, H., 2005, A fast sweeping method for eikonal equations:
+ * Mathematics of Computation, v. 74, 603-627.
+ * </pre>
+ * @version 2026.10.19
+ */
+public class TimeSweeper2 {
+
+  /**
+   * Constructs a time sweeper for the specified tensor field.
+   * @param n1 number of samples in 1st dimension.
+   * @param n2 number of samples in 2nd dimension.
+   * @param tensors velocity-squared tensors.
+   */
+  public TimeSweeper2(int n1, int n2, Tensors2 tensors) {
+    _n1 = n1;
+    _n2 = n2;
+    _nb1 = 1+(n1-1)/NB;
+    _nb2 = 1+(n2-1)/NB;
+    _tensors = tensors;
+  }
+
+  /**
+   * Sets the tensors used by this time sweeper.
+   * @param tensors the tensors.
+   */
+  public void setTensors(Tensors2 tensors) {
+    _tensors = tensors;
+  }
+
+  /**
+   * Transforms the specified array of times and marks.
+   * Known samples are those for which times are zero, and times
+   * and marks for these known samples are used to compute times
+   * and marks for unknown samples.
+   * @param times input/output array of times.
+   * @param marks input/output array of marks.
+   */
+  public void apply(float[][] times, int[][] marks) {
+
+    // Initialize all unknown times to infinity. Blocks with known
+    // samples are initially flagged as changed.
+    int[] changed = fillint(-1,_nb1*_nb2);
+    for (int i2=0; i2<_n2; ++i2) {
+      for (int i1=0; i1<_n1; ++i1) {
+        if (times[i2][i1]!=0.0f) {
+          times[i2][i1] = INFINITY;
+        } else {
+          changed[block(i1/NB,i2/NB)] = 0;
+        }
+      }
+    }
+
+    // Sweep in alternating directions, until no block changes.
+    int nb = changed.length;
+    for (int isweep=1,nchanged=1; nchanged>0; ++isweep) {
+      int idir = (isweep-1)%4;
+      sweep(isweep,S1[idir],S2[idir],changed,times,marks);
+      nchanged = 0;
+      for (int ib=0; ib<nb; ++ib)
+        if (changed[ib]==isweep) ++nchanged;
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  // Default time for samples not yet computed.
+  private static final float INFINITY = Float.MAX_VALUE;
+
+  // Times are converged when the fractional change is less than this value.
+  private static final float EPSILON = 0.001f;
+  private static final float ONE_MINUS_EPSILON = 1.0f-EPSILON;
+
+  // Number of samples in each dimension of blocks.
+  private static final int NB = 32;
+
+  // Directions for four sweeps.
+  private static final int[] S1 = { 1,-1, 1,-1};
+  private static final int[] S2 = { 1,-1,-1, 1};
+
+  private int _n1,_n2; // numbers of samples
+  private int _nb1,_nb2; // numbers of blocks
+  private Tensors2 _tensors;
+
+  private int block(int b1, int b2) {
+    return b1+_nb1*b2;
+  }
+
+  /*
+   * Sweeps all blocks in the specified direction. Blocks are swept in
+   * order of diagonal lines, and blocks in each line are swept in
+   * parallel. Blocks that change are flagged with the sweep index.
+   */
+  private void sweep(
+    final int isweep, final int s1, final int s2,
+    final int[] changed, final float[][] t, final int[][] m)
+  {
+    final int[] bl = new int[min(_nb1,_nb2)];
+    int nl = _nb1+_nb2-1;
+    for (int l=0; l<nl; ++l) {
+
+      // Indices of blocks in the l'th line, for which the sum of block
+      // indices, counted in the direction of the sweep, equals l.
+      int nbl = 0;
+      for (int c2=max(0,l-_nb1+1); c2<_nb2 && c2<=l; ++c2) {
+        int c1 = l-c2;
+        int b1 = (s1>0)?c1:_nb1-1-c1;
+        int b2 = (s2>0)?c2:_nb2-1-c2;
+        if (active(isweep,changed,b1,b2))
+          bl[nbl++] = block(b1,b2);
+      }
+      if (nbl==0)
+        continue;
+      Parallel.loop(nbl,new Parallel.LoopInt() {
+      public void compute(int ibl) {
+        int ib = bl[ibl];
+        if (sweepBlock(ib,s1,s2,t,m))
+          changed[ib] = isweep;
+      }});
+    }
+  }
+
+  /*
+   * Determines whether a block must be swept, because it or an adjacent
+   * block changed during this or the previous sweep.
+   */
+  private boolean active(int isweep, int[] changed, int b1, int b2) {
+    int c = changed[block(b1,b2)];
+    if (b1>0) c = max(c,changed[block(b1-1,b2)]);
+    if (b2>0) c = max(c,changed[block(b1,b2-1)]);
+    if (b1<_nb1-1) c = max(c,changed[block(b1+1,b2)]);
+    if (b2<_nb2-1) c = max(c,changed[block(b1,b2+1)]);
+    return c>=isweep-1;
+  }
+
+  /*
+   * Sweeps one block in the specified direction.
+   * Returns true, if any time decreased significantly; false, otherwise.
+   */
+  private boolean sweepBlock(int ib, int s1, int s2, float[][] t, int[][] m) {
+    int b1 = ib%_nb1;
+    int b2 = ib/_nb1;
+    int j1 = b1*NB, k1 = min(j1+NB,_n1)-1;
+    int j2 = b2*NB, k2 = min(j2+NB,_n2)-1;
+    if (s1<0) { int j = j1; j1 = k1; k1 = j; }
+    if (s2<0) { int j = j2; j2 = k2; k2 = j; }
+    float[] d = new float[3];
+    float[] tn = new float[4];
+    int[] mn = new int[4];
+    boolean changed = false;
+    for (int i2=j2; i2!=k2+s2; i2+=s2)
+      for (int i1=j1; i1!=k1+s1; i1+=s1)
+        if (update(i1,i2,t,m,d,tn,mn))
+          changed = true;
+    return changed;
+  }
+
+  /*
+   * Updates the time and mark for one sample. For each distinct mark of
+   * neighbor samples, computes a time from only those neighbors with that
+   * mark, and keeps the least time and its mark. Returns true, if the time
+   * decreased significantly; false, otherwise. The arrays d, tn and mn
+   * are work arrays for tensor coefficients and for neighbor times and
+   * marks, provided by the caller so that none are allocated here.
+   */
+  private boolean update(
+    int i1, int i2, float[][] t, int[][] m,
+    float[] d, float[] tn, int[] mn)
+  {
+
+    // Skip known samples and samples with no neighbor times less
+    // than the current time.
+    float tc = t[i2][i1];
+    if (tc==0.0f)
+      return false;
+    float t1m = (i1>0    )?t[i2][i1-1]:INFINITY;
+    float t1p = (i1<_n1-1)?t[i2][i1+1]:INFINITY;
+    float t2m = (i2>0    )?t[i2-1][i1]:INFINITY;
+    float t2p = (i2<_n2-1)?t[i2+1][i1]:INFINITY;
+    if (min(min(t1m,t1p),min(t2m,t2p))>=tc)
+      return false;
+    int m1m = (t1m<INFINITY)?m[i2][i1-1]:0;
+    int m1p = (t1p<INFINITY)?m[i2][i1+1]:0;
+    int m2m = (t2m<INFINITY)?m[i2-1][i1]:0;
+    int m2p = (t2p<INFINITY)?m[i2+1][i1]:0;
+
+    // Tensor coefficients, as in the time marker.
+    _tensors.getTensor(i1,i2,d);
+    float d11 = d[0];
+    float d12 = d[1];
+    float d22 = d[2];
+    float e12 = 1.0f/(d11*d22-d12*d12);
+    float s1 = sqrt(d22*e12);
+    float s2 = sqrt(d11*e12);
+
+    // Least time and its mark, for all distinct marks of neighbors.
+    tn[0] = t1m; tn[1] = t1p; tn[2] = t2m; tn[3] = t2p;
+    mn[0] = m1m; mn[1] = m1p; mn[2] = m2m; mn[3] = m2p;
+    float tb = tc;
+    int mb = 0;
+    boolean found = false;
+    for (int j=0; j<4; ++j) {
+      if (tn[j]==INFINITY)
+        continue;
+      int mj = mn[j];
+      boolean distinct = true;
+      for (int k=0; k<j && distinct; ++k)
+        distinct = tn[k]==INFINITY || mn[k]!=mj;
+      if (!distinct)
+        continue;
+      float tj = computeTime(d11,d12,d22,s1,s2,
+        (m1m==mj)?t1m:INFINITY,(m1p==mj)?t1p:INFINITY,
+        (m2m==mj)?t2m:INFINITY,(m2p==mj)?t2p:INFINITY);
+      if (tj<tb) {
+        tb = tj;
+        mb = mj;
+        found = true;
+      }
+    }
+    if (!found)
+      return false;
+    t[i2][i1] = tb;
+    m[i2][i1] = mb;
+    return tb<tc*ONE_MINUS_EPSILON;
+  }
+
+  /*
+   * Returns the least time computed for all tris and edges of neighbors
+   * with specified times. Some of those times may be infinite. The times
+   * s1 and s2 are those for edges in the 1st and 2nd dimensions.
+   */
+  private static float computeTime(
+    float d11, float d12, float d22, float s1, float s2,
+    float t1m, float t1p, float t2m, float t2p)
+  {
+    float tb = INFINITY;
+    for (int k2=-1; k2<=1; k2+=2) {
+      float t2 = (k2<0)?t2m:t2p;  if (t2==INFINITY) continue;
+      for (int k1=-1; k1<=1; k1+=2) {
+        float t1 = (k1<0)?t1m:t1p;  if (t1==INFINITY) continue;
+        tb = min(tb,TimeMarker2.computeTime(d11,d12,d22,k1,k2,t1,t2));
+      }
+    }
+    tb = min(tb,min(t1m,t1p)+s1);
+    tb = min(tb,min(t2m,t2p)+s2);
+    return tb;
+  }
+}
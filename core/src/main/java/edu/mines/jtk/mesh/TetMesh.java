@@ -2369,6 +2369,30 @@ public class TetMesh implements Serializable {
     return locatePoint((double)x,(double)y,(double)z);
   }
 
+  /**
+   * Locates a point with specified coordinates, beginning the search with
+   * a specified tet. If that tet is near the point, as when locating a
+   * sequence of nearby points, this search is faster than that performed
+   * by {@link #locatePoint(float,float,float)}.
+   * <p>
+   * Unlike that method, this method does not modify the mesh, and is not
+   * synchronized. It may be called by multiple threads concurrently, but
+   * only if no thread modifies the mesh.
+   * @param x the x coordinate.
+   * @param y the y coordinate.
+   * @param z the z coordinate.
+   * @param tet the tet in which to begin the search, typically that of
+   *  a previous location; if null, the search begins near the point.
+   * @return the {@link PointLocation}.
+   */
+  public PointLocation locatePoint(float x, float y, float z, Tet tet) {
+    if (_troot==null)
+      return locatePoint((double)x,(double)y,(double)z);
+    if (tet==null)
+      tet = tetNear(x,y,z);
+    return findPoint(tet,x,y,z);
+  }
+
   /**
    * Gets an iterator for all nodes in the mesh.
    * @return the iterator.
@@ -4704,6 +4728,14 @@ public class TetMesh implements Serializable {
     }
 
     // Otherwise, find a good tet in which to begin the recursive search.
+    return locatePoint(tetNear(x,y,z),x,y,z);
+  }
+
+  /**
+   * Returns a tet in which to begin a search for the point (x,y,z).
+   * This tet references the sampled node nearest to that point.
+   */
+  private Tet tetNear(double x, double y, double z) {
     Node nmin = _nroot;
     double dmin = distanceSquared(nmin,x,y,z);
     for (Node n:_sampledNodes) {
@@ -4713,18 +4745,24 @@ public class TetMesh implements Serializable {
         nmin = n;
       }
     }
-    Tet tet = nmin._tet;
-    return locatePoint(tet,x,y,z);
+    return nmin._tet;
   }
 
   /**
-   * Recursively searches tets beginning with the specified tet,
-   * to locate the point (x,y,z).
+   * Searches tets beginning with the specified tet, to locate the point
+   * (x,y,z), and then begins future searches in the last tet visited.
    */
   private PointLocation locatePoint(Tet tet, double x, double y, double z) {
+    PointLocation pl = findPoint(tet,x,y,z);
+    _troot = (pl.tet()!=null)?pl.tet():tet;
+    return pl;
+  }
 
-    // Begin future searches in the specified tet.
-    _troot = tet;
+  /**
+   * Recursively searches tets beginning with the specified tet,
+   * to locate the point (x,y,z). Does not modify the mesh.
+   */
+  private PointLocation findPoint(Tet tet, double x, double y, double z) {
 
     // Node coordinates.
     Node n0 = tet._n0;
@@ -4768,7 +4806,7 @@ public class TetMesh implements Serializable {
     if (d0>0.0) {
       Tet tetNabor = tet.tetNabor(n0);
       if (tetNabor!=null) {
-        return locatePoint(tetNabor,x,y,z);
+        return findPoint(tetNabor,x,y,z);
       } else {
         return new PointLocation(tet,false);
       }
@@ -4777,7 +4815,7 @@ public class TetMesh implements Serializable {
     if (d1>0.0) {
       Tet tetNabor = tet.tetNabor(n1);
       if (tetNabor!=null) {
-        return locatePoint(tetNabor,x,y,z);
+        return findPoint(tetNabor,x,y,z);
       } else {
         return new PointLocation(tet,false);
       }
@@ -4786,7 +4824,7 @@ public class TetMesh implements Serializable {
     if (d2>0.0) {
       Tet tetNabor = tet.tetNabor(n2);
       if (tetNabor!=null) {
-        return locatePoint(tetNabor,x,y,z);
+        return findPoint(tetNabor,x,y,z);
       } else {
         return new PointLocation(tet,false);
       }
@@ -4795,7 +4833,7 @@ public class TetMesh implements Serializable {
     if (d3>0.0) {
       Tet tetNabor = tet.tetNabor(n3);
       if (tetNabor!=null) {
-        return locatePoint(tetNabor,x,y,z);
+        return findPoint(tetNabor,x,y,z);
       } else {
         return new PointLocation(tet,false);
       }
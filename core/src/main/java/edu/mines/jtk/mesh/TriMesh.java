@@ -1735,6 +1735,29 @@ public class TriMesh implements Serializable {
     return locatePoint((double)x,(double)y);
   }
 
+  /**
+   * Locates a point with specified coordinates, beginning the search with
+   * a specified tri. If that tri is near the point, as when locating a
+   * sequence of nearby points, this search is faster than that performed
+   * by {@link #locatePoint(float,float)}.
+   * <p>
+   * Unlike that method, this method does not modify the mesh, and is not
+   * synchronized. It may be called by multiple threads concurrently, but
+   * only if no thread modifies the mesh.
+   * @param x the x coordinate.
+   * @param y the y coordinate.
+   * @param tri the tri in which to begin the search, typically that of
+   *  a previous location; if null, the search begins near the point.
+   * @return the {@link PointLocation}.
+   */
+  public PointLocation locatePoint(float x, float y, Tri tri) {
+    if (_troot==null)
+      return locatePoint((double)x,(double)y);
+    if (tri==null)
+      tri = triNear(x,y);
+    return findPoint(tri,x,y);
+  }
+
   /**
    * Gets an iterator for all nodes in the mesh.
    * @return the iterator.
@@ -2917,6 +2940,14 @@ public class TriMesh implements Serializable {
     }
 
     // Otherwise, find a good tri in which to begin the recursive search.
+    return locatePoint(triNear(x,y),x,y);
+  }
+
+  /**
+   * Returns a tri in which to begin a search for the point (x,y).
+   * This tri references the sampled node nearest to that point.
+   */
+  private Tri triNear(double x, double y) {
     Node nmin = _nroot;
     double dmin = distanceSquared(nmin,x,y);
     for (Node n:_sampledNodes) {
@@ -2926,18 +2957,24 @@ public class TriMesh implements Serializable {
         nmin = n;
       }
     }
-    Tri tri = nmin._tri;
-    return locatePoint(tri,x,y);
+    return nmin._tri;
   }
 
   /**
-   * Recursively searches tris beginning with the specified tri,
-   * to locate the point (x,y).
+   * Searches tris beginning with the specified tri, to locate the point
+   * (x,y), and then begins future searches in the last tri visited.
    */
   private PointLocation locatePoint(Tri tri, double x, double y) {
+    PointLocation pl = findPoint(tri,x,y);
+    _troot = (pl.tri()!=null)?pl.tri():tri;
+    return pl;
+  }
 
-    // Begin future searches in the specified tri.
-    _troot = tri;
+  /**
+   * Recursively searches tris beginning with the specified tri,
+   * to locate the point (x,y). Does not modify the mesh.
+   */
+  private PointLocation findPoint(Tri tri, double x, double y) {
 
     // Node coordinates.
     Node n0 = tri._n0;
@@ -2972,7 +3009,7 @@ public class TriMesh implements Serializable {
     if (d0>0.0) {
       Tri triNabor = tri.triNabor(n0);
       if (triNabor!=null) {
-        return locatePoint(triNabor,x,y);
+        return findPoint(triNabor,x,y);
       } else {
         return new PointLocation(tri,false);
       }
@@ -2981,7 +3018,7 @@ public class TriMesh implements Serializable {
     if (d1>0.0) {
       Tri triNabor = tri.triNabor(n1);
       if (triNabor!=null) {
-        return locatePoint(triNabor,x,y);
+        return findPoint(triNabor,x,y);
       } else {
         return new PointLocation(tri,false);
       }
@@ -2990,7 +3027,7 @@ public class TriMesh implements Serializable {
     if (d2>0.0) {
       Tri triNabor = tri.triNabor(n2);
       if (triNabor!=null) {
-        return locatePoint(triNabor,x,y);
+        return findPoint(triNabor,x,y);
       } else {
         return new PointLocation(tri,false);
       }
@@ -36,6 +36,12 @@ import static edu.mines.jtk.util.ArrayMath.*;
  * updated when percentiles are changed. If not using percentiles, because 
  * clipMin and clipMax are specified explicitly, then these arrays are 
  * ignored.
+ * <p>
+ * For arrays with many values, percentiles are estimated in one parallel
+ * pass with a {@link edu.mines.jtk.util.QuantileSketch}, so that values
+ * need not be copied and sorted. Such estimates have errors in rank that
+ * are small relative to the number of values. For smaller arrays, 
+ * percentiles are computed exactly.
  *
  * @author Dave Hale, Colorado School of Mines
  * @version 2007.01.10
@@ -263,6 +269,11 @@ public class Clips {
   private boolean _usePercentiles = true; // true, if using percentiles
   private Object _f; // array used to compute clips from percentiles
 
+  // If the number of values exceeds NSORT, then percentiles are estimated
+  // with a quantile sketch with parameter KSKETCH, instead of by sorting.
+  private static final long NSORT = 1L<<24;
+  private static final int KSKETCH = 2000;
+
   private void updateClips() {
     if (_clipsDirty && _usePercentiles) {
       boolean clipsComputed = false;
@@ -301,38 +312,61 @@ public class Clips {
 
       // Else if we must compute percentiles, ...
       else {
-        float[] a = null;
-        if (_f instanceof float[]) {
-          a = copy((float[])_f);
-        } else if (_f instanceof float[][]) {
-          a = flatten((float[][])_f);
-        } else if (_f instanceof float[][][]) {
-          a = flatten((float[][][])_f);
-        } else if (_f instanceof Float3) {
-          Float3 f3 = (Float3)_f;
-          int n1 = f3.getN1();
-          int n2 = f3.getN2();
-          int n3 = f3.getN3();
-          a = new float[n1*n2*n3];
-          f3.get123(n1,n2,n3,0,0,0,a);
+        long n = countValues();
+
+        // If too many values to copy and sort, estimate percentiles
+        // from a quantile sketch computed in one parallel pass.
+        if (n>NSORT) {
+          QuantileSketch qs = new QuantileSketch(KSKETCH);
+          if (_f instanceof float[]) {
+            qs.update((float[])_f);
+          } else if (_f instanceof float[][]) {
+            qs.update((float[][])_f);
+          } else if (_f instanceof float[][][]) {
+            qs.update((float[][][])_f);
+          } else if (_f instanceof Float3) {
+            qs.update((Float3)_f);
+          }
+          _clipMin = qs.getQuantile(_percMin*0.01);
+          _clipMax = qs.getQuantile(_percMax*0.01);
+          clipsComputed = true;
         }
-        if (a!=null) {
-          int n = a.length;
-          int kmin = (int)rint(_percMin*0.01*(n-1));
-          if (kmin<=0) {
-            _clipMin = min(a);
-          } else {
-            quickPartialSort(kmin,a);
-            _clipMin = a[kmin];
+
+        // Else, copy and partially sort values.
+        else {
+          float[] a = null;
+          if (_f instanceof float[]) {
+            a = copy((float[])_f);
+          } else if (_f instanceof float[][]) {
+            a = flatten((float[][])_f);
+          } else if (_f instanceof float[][][]) {
+            a = flatten((float[][][])_f);
+          } else if (_f instanceof Float3) {
+            Float3 f3 = (Float3)_f;
+            int n1 = f3.getN1();
+            int n2 = f3.getN2();
+            int n3 = f3.getN3();
+            a = new float[n1*n2*n3];
+            f3.get123(n1,n2,n3,0,0,0,a);
           }
-          int kmax = (int)rint(_percMax*0.01*(n-1));
-          if (kmax>=n-1) {
-            _clipMax = max(a);
-          } else {
-            quickPartialSort(kmax,a);
-            _clipMax = a[kmax];
+          if (a!=null) {
+            int na = a.length;
+            int kmin = (int)rint(_percMin*0.01*(na-1));
+            if (kmin<=0) {
+              _clipMin = min(a);
+            } else {
+              quickPartialSort(kmin,a);
+              _clipMin = a[kmin];
+            }
+            int kmax = (int)rint(_percMax*0.01*(na-1));
+            if (kmax>=na-1) {
+              _clipMax = max(a);
+            } else {
+              quickPartialSort(kmax,a);
+              _clipMax = a[kmax];
+            }
+            clipsComputed = true;
           }
-          clipsComputed = true;
         }
       }
 
@@ -343,6 +377,28 @@ public class Clips {
       }
     }
   }
+
+  /**
+   * Returns the number of values in the array used to compute clips.
+   */
+  private long countValues() {
+    long n = 0;
+    if (_f instanceof float[]) {
+      n = ((float[])_f).length;
+    } else if (_f instanceof float[][]) {
+      for (float[] f1:(float[][])_f)
+        n += f1.length;
+    } else if (_f instanceof float[][][]) {
+      for (float[][] f2:(float[][][])_f)
+        for (float[] f1:f2)
+          n += f1.length;
+    } else if (_f instanceof Float3) {
+      Float3 f3 = (Float3)_f;
+      n = (long)f3.getN1()*f3.getN2()*f3.getN3();
+    }
+    return n;
+  }
+
   private void makeClipsValid() {
     if (_clipMin>=_clipMax) {
       double clipAvg = 0.5*(_clipMin+_clipMax);
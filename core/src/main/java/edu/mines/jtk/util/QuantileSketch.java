@@ -0,0 +1,400 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * A mergeable sketch for estimating quantiles of a stream of values.
+ * A sketch processes values in one pass, retaining only a small sample
+ * of weighted values, from which any quantile may be estimated. Unlike
+ * {@link edu.mines.jtk.util.Quantiler}, which estimates one specified
+ * quantile, a sketch estimates all quantiles, and sketches for different
+ * parts of a data set may be merged. Minimum and maximum values (the
+ * 0 and 1 quantiles) are computed exactly.
+ * <p>
+ * Errors in estimated quantiles are bounded in rank. If n values have
+ * been processed, then the rank (the number of values less than or equal
+ * to the estimate) of an estimated q-quantile typically differs from q*n
+ * by no more than a small fraction of n. That fraction is proportional
+ * to 1/k, where k is a parameter that determines the size of the sketch.
+ * For the default k = 200, rank errors are typically less than 1% of n.
+ * The number of values retained in a sketch is approximately 3*k,
+ * regardless of the number of values processed.
+ * <p>
+ * Sketches are thread-safe. Multiple threads may update or merge the
+ * same sketch. Methods that update a sketch with values in 2-D and 3-D
+ * arrays process those values in parallel, updating one sketch for each
+ * of a fixed number of blocks of values, and merging those sketches in
+ * order when done.
+ * <p>
+ * Choices of values retained are pseudo-random, and a sketch constructed
+ * with a specified seed yields the same estimates for the same sequence
+ * of updates and merges, regardless of the number of threads.
+ * <p>
+ * Reference: Karnin, Z., Lang, K., and Liberty, E., 2016, Optimal quantile
+ * approximation in streams: IEEE 57th Annual Symposium on Foundations of
+ * Computer Science, p. 71-78.
+ * @version 2026.10.19
+ */
+public class QuantileSketch {
+
+  /**
+   * Constructs a sketch with default parameter k = 200.
+   */
+  public QuantileSketch() {
+    this(200);
+  }
+
+  /**
+   * Constructs a sketch with the specified parameter k. Rank errors are
+   * proportional to 1/k, and the size of the sketch is proportional to k.
+   * @param k the parameter; must be at least 8.
+   */
+  public QuantileSketch(int k) {
+    this(k,SEED);
+  }
+
+  /**
+   * Constructs a sketch with the specified parameter k and seed for
+   * pseudo-random choices of values retained.
+   * @param k the parameter; must be at least 8.
+   * @param seed the seed.
+   */
+  public QuantileSketch(int k, long seed) {
+    Check.argument(k>=8,"k>=8");
+    _k = k;
+    _seed = seed;
+    _random = new Random(seed);
+    _vmin =  Float.MAX_VALUE;
+    _vmax = -Float.MAX_VALUE;
+    grow();
+  }
+
+  /**
+   * Gets the parameter k for this sketch.
+   * @return the parameter k.
+   */
+  public int getK() {
+    return _k;
+  }
+
+  /**
+   * Gets the number of values processed by this sketch.
+   * @return the number of values.
+   */
+  public synchronized long getCount() {
+    return _n;
+  }
+
+  /**
+   * Gets the minimum value processed by this sketch.
+   * @return the minimum value.
+   */
+  public synchronized float getMinValue() {
+    return _vmin;
+  }
+
+  /**
+   * Gets the maximum value processed by this sketch.
+   * @return the maximum value.
+   */
+  public synchronized float getMaxValue() {
+    return _vmax;
+  }
+
+  /**
+   * Updates this sketch with the specified value.
+   * @param v the value.
+   */
+  public synchronized void update(float v) {
+    add(v);
+  }
+
+  /**
+   * Updates this sketch with the specified values.
+   * @param v array[] of values.
+   */
+  public synchronized void update(float[] v) {
+    int n = v.length;
+    for (int i=0; i<n; ++i)
+      add(v[i]);
+  }
+
+  /**
+   * Updates this sketch with the specified values.
+   * @param v array[][] of values.
+   */
+  public void update(final float[][] v) {
+    final int n = v.length;
+    final QuantileSketch[] qsb = sketches(n);
+    Parallel.loop(qsb.length,new Parallel.LoopInt() {
+      public void compute(int ib) {
+        QuantileSketch qs = qsb[ib];
+        for (int i=first(ib,n,qsb); i<first(ib+1,n,qsb); ++i)
+          qs.update(v[i]);
+      }
+    });
+    mergeAll(qsb);
+  }
+
+  /**
+   * Updates this sketch with the specified values.
+   * @param v array[][][] of values.
+   */
+  public void update(final float[][][] v) {
+    final int n = v.length;
+    final QuantileSketch[] qsb = sketches(n);
+    Parallel.loop(qsb.length,new Parallel.LoopInt() {
+      public void compute(int ib) {
+        QuantileSketch qs = qsb[ib];
+        for (int i=first(ib,n,qsb); i<first(ib+1,n,qsb); ++i) {
+          for (float[] vi:v[i])
+            qs.update(vi);
+        }
+      }
+    });
+    mergeAll(qsb);
+  }
+
+  /**
+   * Updates this sketch with the specified values. Slices of values with
+   * constant index i3 are got in parallel, so the get methods of the
+   * specified abstract array must be thread-safe.
+   * @param f3 abstract 3-D array of values.
+   */
+  public void update(final Float3 f3) {
+    final int n1 = f3.getN1();
+    final int n2 = f3.getN2();
+    final int n3 = f3.getN3();
+    final QuantileSketch[] qsb = sketches(n3);
+    final Parallel.Unsafe<float[][]> vu = new Parallel.Unsafe<float[][]>();
+    Parallel.loop(qsb.length,new Parallel.LoopInt() {
+      public void compute(int ib) {
+        QuantileSketch qs = qsb[ib];
+        float[][] v = vu.get();
+        if (v==null) vu.set(v=new float[n2][n1]);
+        for (int i3=first(ib,n3,qsb); i3<first(ib+1,n3,qsb); ++i3) {
+          f3.get12(n1,n2,0,0,i3,v);
+          for (float[] vi:v)
+            qs.update(vi);
+        }
+      }
+    });
+    mergeAll(qsb);
+  }
+
+  /**
+   * Merges the specified sketch into this sketch. After merging, this
+   * sketch represents all values processed by both sketches. The
+   * specified sketch is not modified.
+   * @param qs the sketch to merge into this sketch.
+   */
+  public void merge(QuantileSketch qs) {
+    Check.argument(qs!=this,"sketch is not merged with itself");
+    float[][] items;
+    int[] sizes;
+    long n;
+    float vmin,vmax;
+    synchronized(qs) {
+      int nh = qs._sizes.length;
+      items = new float[nh][];
+      sizes = new int[nh];
+      for (int ih=0; ih<nh; ++ih) {
+        sizes[ih] = qs._sizes[ih];
+        items[ih] = Arrays.copyOf(qs._items[ih],sizes[ih]);
+      }
+      n = qs._n;
+      vmin = qs._vmin;
+      vmax = qs._vmax;
+    }
+    synchronized(this) {
+      merge(items,sizes,n,vmin,vmax);
+    }
+  }
+
+  /**
+   * Gets an estimate of the specified quantile of values processed.
+   * Quantile fractions q = 0 and q = 1 yield exact minimum and maximum
+   * values, respectively. If no values have been processed, this method
+   * returns zero.
+   * @param q the quantile fraction; 0 &lt;= q &lt;= 1 is required.
+   * @return the estimated quantile.
+   */
+  public synchronized float getQuantile(double q) {
+    Check.argument(0.0<=q,"0<=q");
+    Check.argument(q<=1.0,"q<=1");
+    if (_n==0)
+      return 0.0f;
+    if (q==0.0)
+      return _vmin;
+    if (q==1.0)
+      return _vmax;
+
+    // Sort retained values, with weights 2^h for values in level h.
+    int nh = _sizes.length;
+    int m = _size;
+    float[] v = new float[m];
+    long[] w = new long[m];
+    for (int ih=0,j=0; ih<nh; ++ih) {
+      int ni = _sizes[ih];
+      System.arraycopy(_items[ih],0,v,j,ni);
+      Arrays.fill(w,j,j+ni,1L<<ih);
+      j += ni;
+    }
+    int[] k = rampint(0,1,m);
+    quickIndexSort(v,k);
+
+    // The estimate is the first value for which the cumulative weight
+    // exceeds the rank q*(n-1), with rank 0 for the minimum value. The
+    // total weight of all retained values equals the number of values.
+    double r = q*(_n-1);
+    long wsum = 0;
+    for (int j=0; j<m; ++j) {
+      wsum += w[k[j]];
+      if (wsum>r)
+        return v[k[j]];
+    }
+    return _vmax;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  // Levels are compactors. A value in level h has weight 2^h. When a level
+  // is full, its values are sorted, and either all odd or all even values
+  // (chosen randomly) are moved to the next level; others are discarded.
+  // Capacities of levels decrease geometrically (by factor C) from the
+  // highest level, which has capacity k.
+  private static final double C = 2.0/3.0;
+
+  // Default seed, and maximum number of blocks of values processed in
+  // parallel. The number of blocks does not depend on the number of
+  // threads, so that estimates do not either.
+  private static final long SEED = 314159L;
+  private static final int NBLOCK = 64;
+
+  private int _k; // parameter that determines size of this sketch
+  private float[][] _items; // retained values for each level
+  private int[] _sizes; // number of retained values for each level
+  private int _size; // total number of retained values
+  private int _maxSize; // sum of capacities of all levels
+  private long _n; // number of values processed
+  private float _vmin,_vmax; // minimum and maximum values processed
+  private long _seed; // seed for random choices
+  private Random _random; // for random choice of odd or even values
+
+  // Returns sketches for blocks of n values, arrays, or slices.
+  private QuantileSketch[] sketches(int n) {
+    QuantileSketch[] qsb = new QuantileSketch[min(n,NBLOCK)];
+    for (int ib=0; ib<qsb.length; ++ib)
+      qsb[ib] = new QuantileSketch(_k,_seed+ib+1);
+    return qsb;
+  }
+
+  // Returns the index of the first of n values in the specified block.
+  private static int first(int ib, int n, QuantileSketch[] qsb) {
+    return (int)((long)ib*n/qsb.length);
+  }
+
+  private void mergeAll(QuantileSketch[] qsb) {
+    for (QuantileSketch qs:qsb)
+      merge(qs);
+  }
+
+  private int capacity(int h) {
+    int depth = _sizes.length-h-1;
+    return max(2,(int)ceil(_k*pow(C,depth)));
+  }
+
+  private void grow() {
+    int nh = (_sizes==null)?0:_sizes.length;
+    float[][] items = new float[nh+1][];
+    int[] sizes = new int[nh+1];
+    for (int ih=0; ih<nh; ++ih) {
+      items[ih] = _items[ih];
+      sizes[ih] = _sizes[ih];
+    }
+    items[nh] = new float[_k];
+    _items = items;
+    _sizes = sizes;
+    _maxSize = 0;
+    for (int ih=0; ih<=nh; ++ih)
+      _maxSize += capacity(ih);
+  }
+
+  private void append(int h, float v) {
+    float[] items = _items[h];
+    int size = _sizes[h];
+    if (size==items.length)
+      _items[h] = items = Arrays.copyOf(items,2*size);
+    items[size] = v;
+    _sizes[h] = size+1;
+    ++_size;
+  }
+
+  private void add(float v) {
+    if (v<_vmin) _vmin = v;
+    if (v>_vmax) _vmax = v;
+    ++_n;
+    append(0,v);
+    if (_size>=_maxSize)
+      compress();
+  }
+
+  private void merge(
+    float[][] items, int[] sizes, long n, float vmin, float vmax)
+  {
+    int nh = sizes.length;
+    while (_sizes.length<nh)
+      grow();
+    for (int ih=0; ih<nh; ++ih) {
+      int ni = sizes[ih];
+      for (int i=0; i<ni; ++i)
+        append(ih,items[ih][i]);
+    }
+    _n += n;
+    if (vmin<_vmin) _vmin = vmin;
+    if (vmax>_vmax) _vmax = vmax;
+    while (_size>=_maxSize)
+      compress();
+  }
+
+  /**
+   * Compacts the lowest level that is full.
+   */
+  private void compress() {
+    for (int ih=0; ih<_sizes.length; ++ih) {
+      int size = _sizes[ih];
+      if (size>=capacity(ih)) {
+        if (ih+1==_sizes.length)
+          grow();
+        float[] items = _items[ih];
+        Arrays.sort(items,0,size);
+        int m = size-size%2;
+        for (int i=_random.nextBoolean()?1:0; i<m; i+=2)
+          append(ih+1,items[i]);
+        if (m<size)
+          items[0] = items[size-1];
+        _size -= m;
+        _sizes[ih] = size-m;
+        return;
+      }
+    }
+  }
+}
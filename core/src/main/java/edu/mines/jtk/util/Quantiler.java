@@ -31,6 +31,10 @@ package edu.mines.jtk.util;
  * R. and Chlamtac, I., 1985, The PP algorithm for dynamic calculation of
  * quantiles and histograms without storing observations:  Comm. ACM, 
  * v. 28, n. 10.
+ * <p>
+ * To estimate more than one quantile in one pass, or to estimate quantiles
+ * for values processed in parallel, use a
+ * {@link edu.mines.jtk.util.QuantileSketch} instead.
  *
  * @author Dave Hale, Colorado School of Mines
  * @version 2002.03.03, 2006.07.13
@@ -0,0 +1,66 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.dsp;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.dsp.BandPassFilter}.
+ */
+public class BandPassFilterTest {
+
+  @Test
+  public void testImpulse2() {
+    BandPassFilter bpf = new BandPassFilter(0.1,0.3,0.05,0.01);
+    float[][] h = bpf.getCoefficients2();
+    int nh = h.length;
+    int kh = (nh-1)/2;
+    for (int i2=0; i2<nh; ++i2) {
+      for (int i1=0; i1<nh; ++i1) {
+        assertEquals(h[i2][i1],h[nh-1-i2][i1],0.0f);
+        assertEquals(h[i2][i1],h[i2][nh-1-i1],0.0f);
+        assertEquals(h[i2][i1],h[i1][i2],0.0f);
+      }
+    }
+    int n1 = nh+10, n2 = nh+20;
+    float[][] x = new float[n2][n1];
+    x[kh+20][kh+10] = 1.0f;
+    float[][] y = new float[n2][n1];
+    new BandPassFilter(0.1,0.3,0.05,0.01).apply(x,y);
+    for (int i2=0; i2<nh; ++i2)
+      for (int i1=0; i1<nh; ++i1)
+        assertEquals(h[i2][i1],y[i2+20][i1+10],1.0e-5f);
+  }
+
+  @Test
+  public void testImpulse3() {
+    BandPassFilter bpf = new BandPassFilter(0.0,0.2,0.1,0.02);
+    float[][][] h = bpf.getCoefficients3();
+    int nh = h.length;
+    int kh = (nh-1)/2;
+    int n1 = nh+1, n2 = nh+2, n3 = nh+3;
+    float[][][] x = new float[n3][n2][n1];
+    x[kh+3][kh+2][kh+1] = 1.0f;
+    float[][][] y = new float[n3][n2][n1];
+    bpf.apply(x,y);
+    for (int i3=0; i3<nh; ++i3)
+      for (int i2=0; i2<nh; ++i2)
+        for (int i1=0; i1<nh; ++i1)
+          assertEquals(h[i3][i2][i1],y[i3+3][i2+2][i1+1],1.0e-5f);
+  }
+}
@@ -309,6 +309,97 @@ public class CausalFilterTest {
     //dump(s);
   }
 
+  @Test
+  public void testFactorFftFomelExample() {
+    float[] r = {24.0f,242.0f,867.0f,1334.0f,867.0f,242.0f,24.0f};
+    int[] lag1 = {0,1,2,3};
+    CausalFilter cf = new CausalFilter(lag1);
+    cf.factorWilsonBurgFft(20,FLT_EPSILON,r);
+    float[] a = cf.getA();
+    assertEquals(24.0f,a[0],0.001f);
+    assertEquals(26.0f,a[1],0.001f);
+    assertEquals( 9.0f,a[2],0.001f);
+    assertEquals( 1.0f,a[3],0.001f);
+  }
+
+  @Test
+  public void testFactorFftLaplacian2() {
+    float[][] r = {
+      { 0.000f,-0.999f, 0.000f},
+      {-0.999f, 4.000f,-0.999f},
+      { 0.000f,-0.999f, 0.000f}
+    };
+    int[] lag1 = {
+                   0, 1, 2, 3, 4,
+      -4,-3,-2,-1, 0
+    };
+    int[] lag2 = {
+                   0, 0, 0, 0, 0,
+       1, 1, 1, 1, 1
+    };
+    CausalFilter cf = new CausalFilter(lag1,lag2);
+    cf.factorWilsonBurgFft(100,FLT_EPSILON,r);
+    float[][] s = new float[3][3];
+    float[][] t = new float[3][3];
+    s[1][1] = 1.0f;
+    cf.apply(s,t);
+    cf.applyTranspose(t,s);
+    float emax = 0.01f*r[1][1];
+    for (int i2=0; i2<3; ++i2) {
+      for (int i1=0; i1<3; ++i1) {
+        assertEquals(r[i2][i1],s[i2][i1],emax);
+      }
+    }
+  }
+
+  @Test
+  public void testFactorFft3() {
+    int[] lag1 = {
+                   0, 1, 2,
+            -2,-1, 0, 1, 2,
+            -2,-1, 0, 1, 2,
+            -2,-1, 0, 1, 2,
+    };
+    int[] lag2 = {
+                   0, 0, 0,
+             1, 1, 1, 1, 1,
+            -1,-1,-1,-1,-1,
+             0, 0, 0, 0, 0,
+    };
+    int[] lag3 = {
+                   0, 0, 0,
+             0, 0, 0, 0, 0,
+             1, 1, 1, 1, 1,
+             1, 1, 1, 1, 1,
+    };
+    // Auto-correlation of a minimum-phase filter with lags in this table.
+    float[][][] b = sub(randfloat(new java.util.Random(314159),3,2,2),0.5f);
+    b[0][0][0] = 3.0f;
+    b[1][1] = new float[3];
+    float[][][] r = new float[3][3][5];
+    for (int i3=0; i3<3; ++i3) {
+      for (int i2=0; i2<3; ++i2) {
+        for (int i1=0; i1<5; ++i1) {
+          for (int j3=max(0,i3-1); j3<=min(1,i3); ++j3) {
+            for (int j2=max(0,i2-1); j2<=min(1,i2); ++j2) {
+              for (int j1=max(0,i1-2); j1<=min(2,i1); ++j1) {
+                r[i3][i2][i1] += b[j3][j2][j1]*b[j3-i3+1][j2-i2+1][j1-i1+2];
+              }
+            }
+          }
+        }
+      }
+    }
+    CausalFilter cfs = new CausalFilter(lag1,lag2,lag3);
+    CausalFilter cff = new CausalFilter(lag1,lag2,lag3);
+    cfs.factorWilsonBurg(100,FLT_EPSILON,r);
+    cff.factorWilsonBurgFft(100,FLT_EPSILON,r);
+    float[] as = cfs.getA();
+    float[] af = cff.getA();
+    for (int j=0; j<lag1.length; ++j)
+      assertEquals(as[j],af[j],0.0001f*as[0]);
+  }
+
   @Test(enabled = false)
   public void testFactorPlane2Filter() {
     int[] lag1 = {
@@ -111,6 +111,50 @@ public class FftFilterTest {
     }
   }
 
+  @Test
+  public void test3ZeroSlope() {
+    int ntest = 100;
+    int nmin = 1;
+    int nmax = 8;
+    for (int itest=0; itest<ntest; ++itest) {
+      int nh1 = nmin+_random.nextInt(1+nmax-nmin);
+      int nh2 = nmin+_random.nextInt(1+nmax-nmin);
+      int nh3 = nmin+_random.nextInt(1+nmax-nmin);
+      int nx1 = nmin+_random.nextInt(1+nmax-nmin);
+      int nx2 = nmin+_random.nextInt(1+nmax-nmin);
+      int nx3 = nmin+_random.nextInt(1+nmax-nmin);
+      int kh1 = _random.nextInt(nh1);
+      int kh2 = _random.nextInt(nh2);
+      int kh3 = _random.nextInt(nh3);
+      float[][][] h = randfloat(nh1,nh2,nh3);
+      float[][][] x = randfloat(nx1,nx2,nx3);
+      float[][][] y = randfloat(nx1,nx2,nx3);
+      float[][][] z = randfloat(nx1,nx2,nx3);
+      FftFilter ff = new FftFilter(kh1,kh2,kh3,h);
+      ff.setExtrapolation(FftFilter.Extrapolation.ZERO_SLOPE);
+      ff.apply(x,y);
+
+      // Convolution with input extended by constant values.
+      int m1 = nh1-1-kh1, m2 = nh2-1-kh2, m3 = nh3-1-kh3;
+      int ne1 = nx1+nh1-1, ne2 = nx2+nh2-1, ne3 = nx3+nh3-1;
+      float[][][] xe = new float[ne3][ne2][ne1];
+      for (int i3=0; i3<ne3; ++i3) {
+        int j3 = max(0,min(nx3-1,i3-m3));
+        for (int i2=0; i2<ne2; ++i2) {
+          int j2 = max(0,min(nx2-1,i2-m2));
+          for (int i1=0; i1<ne1; ++i1) {
+            int j1 = max(0,min(nx1-1,i1-m1));
+            xe[i3][i2][i1] = x[j3][j2][j1];
+          }
+        }
+      }
+      Conv.conv(nh1,nh2,nh3,-kh1,-kh2,-kh3,h,
+                ne1,ne2,ne3,-m1,-m2,-m3,xe,
+                nx1,nx2,nx3,0,0,0,z);
+      assertArrayEquals(z,y);
+    }
+  }
+
   private Random _random = new Random();
 
   private static final float TOLERANCE = 1000.0f*FLT_EPSILON;
@@ -16,6 +16,7 @@ package edu.mines.jtk.dsp;
 
 
 import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 import static edu.mines.jtk.util.ArrayMath.*;
@@ -76,6 +77,71 @@ public class HilbertTransformFilterTest {
     }
   }
 
+  @Test
+  public void testSinToCos() {
+    int n = 501;
+    float w = 0.2f*FLT_PI;
+    float[] x = new float[n];
+    float[] c = new float[n];
+    for (int i=0; i<n; ++i) {
+      x[i] = sin(w*i);
+      c[i] = cos(w*i);
+    }
+    for (boolean fft:new boolean[]{false,true}) {
+      HilbertTransformFilter htf = new HilbertTransformFilter();
+      htf.setFft(fft);
+      float[] y = new float[n];
+      htf.apply(n,x,y);
+      for (int i=n/4; i<3*n/4; ++i)
+        assertEquals(c[i],y[i],0.02f);
+    }
+  }
+
+  @Test
+  public void testAttributes() {
+    int n1 = 401, n2 = 3, n3 = 2;
+    float w = 0.15f*FLT_PI;
+    float[][][] x = new float[n3][n2][n1];
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        for (int i1=0; i1<n1; ++i1)
+          x[i3][i2][i1] = (1+i2+i3)*cos(w*i1);
+    for (boolean fft:new boolean[]{false,true}) {
+      HilbertTransformFilter htf = new HilbertTransformFilter();
+      htf.setFft(fft);
+      float[][][] e = new float[n3][n2][n1];
+      float[][][] p = new float[n3][n2][n1];
+      float[][][] f = new float[n3][n2][n1];
+      htf.applyForAttributes(x,e,p,f);
+      for (int i3=0; i3<n3; ++i3) {
+        for (int i2=0; i2<n2; ++i2) {
+          float[] ei = new float[n1];
+          float[] pi = new float[n1];
+          float[] fi = new float[n1];
+          htf.applyForAttributes(x[i3][i2],ei,pi,fi);
+          assertEquals(e[i3][i2],ei);
+          assertEquals(p[i3][i2],pi);
+          assertEquals(f[i3][i2],fi);
+          for (int i1=n1/4; i1<3*n1/4; ++i1) {
+            float dp = pi[i1]-w*i1;
+            assertEquals(0.0f,atan2(sin(dp),cos(dp)),0.02f);
+            assertEquals(1+i2+i3,ei[i1],0.02f*(1+i2+i3));
+            assertEquals(0.075f,fi[i1],0.002f);
+          }
+        }
+      }
+      float[][][] y = new float[n3][n2][n1];
+      htf.apply(x,y);
+      for (int i3=0; i3<n3; ++i3) {
+        for (int i2=0; i2<n2; ++i2) {
+          float[] yi = new float[n1];
+          htf.apply(n1,x[i3][i2],yi);
+          assertEquals(y[i3][i2],yi);
+        }
+      }
+    }
+  }
+
   private static final int NMAX_DEFAULT = 100000; // default max length.
   private static final float EMAX_DEFAULT = 0.010f; // default max error.
   private static final float FMIN_DEFAULT = 0.025f; // default min frequency.
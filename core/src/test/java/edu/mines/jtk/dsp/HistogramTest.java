@@ -14,9 +14,12 @@ limitations under the License.
 ****************************************************************************/
 package edu.mines.jtk.dsp;
 
+import java.util.Random;
+
 import org.testng.annotations.Test;
 import static org.testng.Assert.assertEquals;
 
+import edu.mines.jtk.util.SimpleFloat3;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -115,6 +118,73 @@ public class HistogramTest {
     assertEquals(0,h.getHighCount());
   }
 
+  @Test
+  public void testArrays() {
+    int n1 = 101, n2 = 102, n3 = 103;
+    Random r = new Random(314159);
+    float[][][] v3 = new float[n3][n2][n1];
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        for (int i1=0; i1<n1; ++i1)
+          v3[i3][i2][i1] = (float)r.nextGaussian();
+    float[] v1 = flatten(v3);
+    float[][] v2 = new float[n3*n2][];
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        v2[i2+i3*n2] = v3[i3][i2];
+
+    // Default range and number of bins.
+    Histogram h = new Histogram(v1);
+    assertEqual(h,new Histogram(v2));
+    assertEqual(h,new Histogram(v3));
+    assertEqual(h,new Histogram(new SimpleFloat3(v3)));
+
+    // Specified range and computed number of bins.
+    h = new Histogram(v1,-1.0f,2.0f);
+    assertEqual(h,new Histogram(v2,-1.0f,2.0f));
+    assertEqual(h,new Histogram(v3,-1.0f,2.0f));
+    assertEqual(h,new Histogram(new SimpleFloat3(v3),-1.0f,2.0f));
+
+    // Specified range and number of bins.
+    h = new Histogram(v1,-1.0f,2.0f,50);
+    assertEqual(h,new Histogram(v2,-1.0f,2.0f,50));
+    assertEqual(h,new Histogram(v3,-1.0f,2.0f,50));
+    assertEqual(h,new Histogram(new SimpleFloat3(v3),-1.0f,2.0f,50));
+  }
+
+  @Test
+  public void testManyEqualValues() {
+    int n1 = 1201, n2 = 1002;
+    float[][] v = new float[n2][n1];
+    v[n2/2][n1/2] = 1.0f;
+    v[n2/3][n1/3] = -1.0f;
+    assertEqual(new Histogram(flatten(v)),new Histogram(v));
+  }
+
+  @Test
+  public void testMerge() {
+    int n = 1001;
+    float[] v = rampfloat(0.0f,1.0f,n);
+    float[] va = copy(400,0,v);
+    float[] vb = copy(n-400,400,v);
+    Histogram h = new Histogram(v,100.0f,900.0f,8);
+    Histogram ha = new Histogram(va,100.0f,900.0f,8);
+    Histogram hb = new Histogram(vb,100.0f,900.0f,8);
+    assertEqual(h,ha.merge(hb));
+  }
+
+  private static void assertEqual(Histogram ha, Histogram hb) {
+    assertEquals(ha.getMinValue(),hb.getMinValue());
+    assertEquals(ha.getMaxValue(),hb.getMaxValue());
+    assertEquals(ha.getBinCount(),hb.getBinCount());
+    assertEquals(ha.getBinDelta(),hb.getBinDelta());
+    assertEquals(ha.getBinFirst(),hb.getBinFirst());
+    assertEquals(ha.getLowCount(),hb.getLowCount());
+    assertEquals(ha.getInCount(),hb.getInCount());
+    assertEquals(ha.getHighCount(),hb.getHighCount());
+    assertEquals(ha.getCounts(),hb.getCounts());
+  }
+
   /*
   public void testGaussian() {
     Random r = new Random();
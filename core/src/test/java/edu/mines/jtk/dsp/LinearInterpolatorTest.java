@@ -175,6 +175,34 @@ public class LinearInterpolatorTest {
     assertEquals(0.0f,li.interpolate( 0.0, 0.0, 4.0),0.0);
   }
 
+  @Test
+  public void testTraces() {
+    int nxu = 50, n2 = 7;
+    float[][] yu = randfloat(nxu,n2);
+    Sampling sx = new Sampling(201,0.27,-3.1);
+    float[] x = new float[201];
+    for (int ix=0; ix<201; ++ix)
+      x[ix] = (float)sx.getValue(ix);
+    for (LinearInterpolator.Extrapolation e:
+         LinearInterpolator.Extrapolation.values()) {
+      LinearInterpolator li = new LinearInterpolator();
+      li.setExtrapolation(e);
+      li.setUniformSampling(nxu,1.0,0.5);
+      float[][] ys = new float[n2][201];
+      float[][] yx = new float[n2][201];
+      li.interpolate(sx,yu,ys);
+      li.interpolate(201,x,yu,yx);
+      for (int i2=0; i2<n2; ++i2) {
+        li.setUniformSamples(yu[i2]);
+        float[] y = new float[201];
+        li.interpolate(sx,y);
+        assertEquals(ys[i2],y);
+        li.interpolate(201,x,y);
+        assertEquals(yx[i2],y);
+      }
+    }
+  }
+
   private static final float R0 = 3.0f;
   private static final float R1 = 4.0f;
   private static final float R2 = 5.0f;
@@ -0,0 +1,83 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.dsp;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.dsp.LocalPredictionFilter}.
+ */
+public class LocalPredictionFilterTest {
+
+  @Test
+  public void testPlaneWave2() {
+    int n1 = 101, n2 = 102;
+    float[][] f = new float[n2][n1];
+    for (int i2=0; i2<n2; ++i2)
+      for (int i1=0; i1<n1; ++i1)
+        f[i2][i1] = sin(0.3f*i1+0.1f*i2+0.0005f*i1*i2);
+    int[] lag1 = {1,2,0,1,-1};
+    int[] lag2 = {0,0,1,1, 1};
+    LocalPredictionFilter lpf = new LocalPredictionFilter(4.0);
+    float[][] g = new float[n2][n1];
+    lpf.applyPef(lag1,lag2,f,g);
+    float e = rms(g);
+    assertTrue(e<0.05f*rms(f));
+
+    // Coefficients from a decimated grid predict nearly as well.
+    lpf.setDecimation(3,2,1);
+    float[][] p = new float[n2][n1];
+    float[][][] a = lpf.apply(lag1,lag2,f,p);
+    assertEquals(lag1.length,a.length);
+    assertEquals(n2,a[0].length);
+    assertEquals(n1,a[0][0].length);
+    assertTrue(rms(sub(f,p))<2.0f*e);
+  }
+
+  @Test
+  public void testPlaneWave3() {
+    int n1 = 31, n2 = 32, n3 = 33;
+    float[][][] f = new float[n3][n2][n1];
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        for (int i1=0; i1<n1; ++i1)
+          f[i3][i2][i1] = sin(0.3f*i1+0.1f*i2-0.2f*i3);
+    int[] lag1 = {1,2,0,1,0,1};
+    int[] lag2 = {0,0,1,1,0,0};
+    int[] lag3 = {0,0,0,0,1,1};
+    LocalPredictionFilter lpf = new LocalPredictionFilter(3.0);
+    float[][][] g = new float[n3][n2][n1];
+    lpf.applyPef(lag1,lag2,lag3,f,g);
+    float e = rms(g);
+    assertTrue(e<0.05f*rms(f));
+
+    lpf.setDecimation(2,2,2);
+    float[][][] p = new float[n3][n2][n1];
+    float[][][][] a = lpf.apply(lag1,lag2,lag3,f,p);
+    assertEquals(n3,a[0].length);
+    assertTrue(rms(sub(f,p))<2.0f*e);
+  }
+
+  private static float rms(float[][] x) {
+    return sqrt(sum(mul(x,x))/x.length/x[0].length);
+  }
+  private static float rms(float[][][] x) {
+    return sqrt(sum(mul(x,x))/x.length/x[0].length/x[0][0].length);
+  }
+}
@@ -0,0 +1,72 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.dsp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.dsp.LocalSemblanceFilter}.
+ */
+public class LocalSemblanceFilterTest {
+
+  @Test
+  public void testTiles3() {
+    int n1 = 31, n2 = 32, n3 = 33;
+    float[][][] f = sub(randfloat(new Random(314159),n1,n2,n3),0.5f);
+    new RecursiveGaussianFilter(1.0).apply000(f,f);
+    EigenTensors3 t = new LocalOrientFilter(2.0).applyForTensors(f,false);
+    float[][][] au = new float[n3][n2][n1];
+    float[][][] av = new float[n3][n2][n1];
+    float[][][] aw = new float[n3][n2][n1];
+    t.getEigenvalues(au,av,aw);
+    LocalSemblanceFilter lsf = new LocalSemblanceFilter(2,2);
+    LocalSemblanceFilter.Direction3 d = LocalSemblanceFilter.Direction3.UV;
+    float[][][] s = lsf.semblance(d,t,f);
+    lsf.setTileSize(16,12);
+    float[][][] st = lsf.semblance(d,t,f);
+    assertTrue(min(s)>=0.0f && max(s)<=1.0f);
+    assertTrue(max(abs(sub(s,st)))<0.05f);
+
+    // Eigenvalues of tensors are unchanged.
+    float[][][] bu = new float[n3][n2][n1];
+    float[][][] bv = new float[n3][n2][n1];
+    float[][][] bw = new float[n3][n2][n1];
+    t.getEigenvalues(bu,bv,bw);
+    assertEquals(0.0f,max(abs(sub(au,bu))));
+    assertEquals(0.0f,max(abs(sub(av,bv))));
+    assertEquals(0.0f,max(abs(sub(aw,bw))));
+  }
+
+  @Test
+  public void testTiles2() {
+    int n1 = 61, n2 = 62;
+    float[][] f = sub(randfloat(new Random(314159),n1,n2),0.5f);
+    new RecursiveGaussianFilter(1.0).apply00(f,f);
+    EigenTensors2 t = new LocalOrientFilter(2.0).applyForTensors(f);
+    LocalSemblanceFilter lsf = new LocalSemblanceFilter(2,4);
+    LocalSemblanceFilter.Direction2 d = LocalSemblanceFilter.Direction2.V;
+    float[][] s = lsf.semblance(d,t,f);
+    lsf.setTileSize(32,16);
+    float[][] st = lsf.semblance(d,t,f);
+    assertTrue(min(s)>=0.0f && max(s)<=1.0f);
+    assertTrue(max(abs(sub(s,st)))<0.05f);
+  }
+}
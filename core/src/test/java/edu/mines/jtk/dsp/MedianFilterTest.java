@@ -0,0 +1,131 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.dsp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+import edu.mines.jtk.util.MedianFinder;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.dsp.MedianFilter}.
+ */
+public class MedianFilterTest {
+
+  @Test
+  public void test1() {
+    Random r = new Random(314159);
+    int n1 = 101;
+    float[] x = randfloat(r,n1);
+    x[n1/2] = x[n1/2+1] = x[n1/2+3] = 0.5f; // some equal values
+    float[] y = new float[n1];
+    for (int h1=0; h1<6; ++h1) {
+      MedianFilter mf = new MedianFilter(h1);
+      mf.apply(x,y);
+      assertEqual(y,median(h1,0,0,new float[][][]{{x}})[0][0]);
+      mf.apply(fillfloat(1.0f,n1),x,y);
+      assertEqual(y,median(h1,0,0,new float[][][]{{x}})[0][0]);
+    }
+  }
+
+  @Test
+  public void test2() {
+    Random r = new Random(314159);
+    int n1 = 31, n2 = 32;
+    float[][] x = randfloat(r,n1,n2);
+    float[][] y = new float[n2][n1];
+    int[][] hs = {{1,0},{0,2},{2,1},{3,3}};
+    for (int[] h:hs) {
+      MedianFilter mf = new MedianFilter(h[0],h[1]);
+      mf.apply(x,y);
+      assertEqual(y,median(h[0],h[1],0,new float[][][]{x})[0]);
+    }
+  }
+
+  @Test
+  public void test3() {
+    Random r = new Random(314159);
+    int n1 = 11, n2 = 12, n3 = 13;
+    float[][][] x = randfloat(r,n1,n2,n3);
+    float[][][] y = new float[n3][n2][n1];
+    int[][] hs = {{1,0,0},{0,0,1},{1,2,1}};
+    for (int[] h:hs) {
+      MedianFilter mf = new MedianFilter(h[0],h[1],h[2]);
+      mf.apply(x,y);
+      assertEqual(y,median(h[0],h[1],h[2],x));
+      mf.apply(fillfloat(1.0f,n1,n2,n3),x,y);
+      assertEqual(y,median(h[0],h[1],h[2],x));
+    }
+  }
+
+  @Test
+  public void testWeighted() {
+    float[] w = {1.0f,1.0f,1.0f,10.0f,1.0f,1.0f,1.0f};
+    float[] x = {1.0f,2.0f,3.0f, 9.0f,4.0f,5.0f,6.0f};
+    float[] y = new float[x.length];
+    MedianFilter mf = new MedianFilter(1);
+    mf.apply(w,x,y);
+    assertEqual(y,new float[]{1.0f,2.0f,9.0f,9.0f,9.0f,5.0f,6.0f});
+  }
+
+  private static void assertEqual(float[] x, float[] y) {
+    int n1 = x.length;
+    for (int i1=0; i1<n1; ++i1)
+      assertEquals(x[i1],y[i1],0.0f);
+  }
+  private static void assertEqual(float[][] x, float[][] y) {
+    int n2 = x.length;
+    for (int i2=0; i2<n2; ++i2)
+      assertEqual(x[i2],y[i2]);
+  }
+  private static void assertEqual(float[][][] x, float[][][] y) {
+    int n3 = x.length;
+    for (int i3=0; i3<n3; ++i3)
+      assertEqual(x[i3],y[i3]);
+  }
+
+  // Brute-force medians, with edge values extrapolated.
+  private static float[][][] median(int h1, int h2, int h3, float[][][] x) {
+    int n1 = x[0][0].length;
+    int n2 = x[0].length;
+    int n3 = x.length;
+    int m = (1+2*h1)*(1+2*h2)*(1+2*h3);
+    MedianFinder mf = new MedianFinder(m);
+    float[] xw = new float[m];
+    float[][][] y = new float[n3][n2][n1];
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        for (int i1=0; i1<n1; ++i1) {
+          int k = 0;
+          for (int k3=-h3; k3<=h3; ++k3) {
+            int j3 = max(0,min(n3-1,i3+k3));
+            for (int k2=-h2; k2<=h2; ++k2) {
+              int j2 = max(0,min(n2-1,i2+k2));
+              for (int k1=-h1; k1<=h1; ++k1) {
+                int j1 = max(0,min(n1-1,i1+k1));
+                xw[k++] = x[j3][j2][j1];
+              }
+            }
+          }
+          y[i3][i2][i1] = mf.findMedian(xw);
+        }
+      }
+    }
+    return y;
+  }
+}
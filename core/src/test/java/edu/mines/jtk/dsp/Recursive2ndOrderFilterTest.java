@@ -138,6 +138,83 @@ public class Recursive2ndOrderFilterTest {
     assertEqual(y1,y2);
   }
 
+  @Test
+  public void testTraces() {
+    int n1 = 101;
+    Recursive2ndOrderFilter rf =
+      new Recursive2ndOrderFilter(2.0f,4.0f,2.0f,1.8f,0.81f);
+    ButterworthFilter bf = new ButterworthFilter(0.1,0.9,0.2,0.1);
+    for (int n2:new int[]{1,3,70}) {
+      float[][] x = randfloat(n1,n2);
+      float[][] y1 = randfloat(n1,n2);
+      float[][] y2 = copy(y1);
+      rf.accumulate1Reverse(x,y1);
+      for (int i2=0; i2<n2; ++i2)
+        rf.accumulateReverse(x[i2],y2[i2]);
+      assertEquals(y1,y2);
+      rf.apply1Forward(x,y1);
+      for (int i2=0; i2<n2; ++i2)
+        rf.applyForward(x[i2],y2[i2]);
+      assertEquals(y1,y2);
+      bf.apply1ForwardReverse(x,y1);
+      for (int i2=0; i2<n2; ++i2)
+        bf.applyForwardReverse(x[i2],y2[i2]);
+      assertEquals(y1,y2);
+      y1 = copy(x);
+      bf.apply1Reverse(y1,y1);
+      for (int i2=0; i2<n2; ++i2)
+        bf.applyReverse(x[i2],y2[i2]);
+      assertEquals(y1,y2);
+    }
+  }
+
+  @Test
+  public void testStream() {
+    testStream(2.00f, 0.00f, 0.00f, 0.90f, 0.00f);
+    testStream(2.00f, 4.00f, 0.00f, 0.90f, 0.00f);
+    testStream(2.00f, 4.00f, 0.00f, 1.80f, 0.81f);
+    testStream(0.00f, 4.00f, 2.00f, 1.80f, 0.81f);
+    testStream(2.00f, 4.00f, 2.00f, 1.80f, 0.81f);
+  }
+  private void testStream(float b0, float b1, float b2, float a1, float a2) {
+    int n = 100;
+    float[] x = randfloat(n);
+    Recursive2ndOrderFilter rf = new Recursive2ndOrderFilter(b0,b1,b2,a1,a2);
+    float[] y1 = new float[n];
+    rf.applyForward(x,y1);
+    Recursive2ndOrderFilter.Stream rs = rf.newStream();
+    for (int m=1; m<=7; m+=3) {
+      float[] y2 = new float[n];
+      for (int j=0; j<n; j+=m) {
+        int l = min(m,n-j);
+        float[] xj = copy(l,j,x);
+        float[] yj = new float[l];
+        rs.applyForward(xj,yj);
+        copy(l,0,yj,j,y2);
+      }
+      assertEquals(y1,y2);
+      rs.reset();
+    }
+  }
+
+  @Test
+  public void testCascadeStream() {
+    int n = 1000;
+    float[] x = randfloat(n);
+    ButterworthFilter bf = new ButterworthFilter(0.1,0.9,0.2,0.1);
+    float[] y1 = new float[n];
+    bf.applyForward(x,y1);
+    RecursiveCascadeFilter.Stream bs = bf.newStream();
+    float[] y2 = copy(x);
+    for (int j=0,m=1; j<n; j+=m,m=1+m%37) {
+      int l = min(m,n-j);
+      float[] yj = copy(l,j,y2);
+      bs.applyForward(yj,yj);
+      copy(l,0,yj,j,y2);
+    }
+    assertEquals(y1,y2);
+  }
+
   private void assertEqual(float[] re, float[] ra) {
     int n = re.length;
     float tolerance = (float)(n)*FLT_EPSILON;
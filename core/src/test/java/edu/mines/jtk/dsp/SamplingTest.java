@@ -14,10 +14,14 @@ limitations under the License.
 ****************************************************************************/
 package edu.mines.jtk.dsp;
 
+import java.util.Random;
+
 import org.testng.annotations.Test;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
+import static edu.mines.jtk.util.ArrayMath.*;
+
 /**
  * Tests {@link edu.mines.jtk.dsp.Sampling}.
  * @author Dave Hale, Colorado School of Mines
@@ -156,4 +160,63 @@ public class SamplingTest {
             12.0,s.indexOfFloorExtended(12.0)),0.0);
   }
 
+  @Test
+  public void testLocateNonUniform() {
+    // Uniform with gaps, like depths of logs with missing samples.
+    Random r = new Random(314159);
+    int n = 0;
+    double[] v = new double[1000];
+    for (int i=0; i<1000; ++i)
+      if (r.nextFloat()<0.8f)
+        v[n++] = 0.5*i;
+    v = copy(n,v);
+    Sampling s = new Sampling(v);
+    assertTrue(!s.isUniform());
+    int nx = 2001;
+    double[] x = new double[nx];
+    for (int ix=0; ix<nx; ++ix)
+      x[ix] = -10.0+0.26*ix;
+    int[] i = new int[nx];
+    double[] f = new double[nx];
+    int[] k = new int[nx];
+    s.locate(x,i,f);
+    s.indexOfNearest(x,k);
+    for (int ix=0; ix<nx; ++ix) {
+      int j = binarySearch(v,x[ix]);
+      if (j<0) j = -(j+1)-1;
+      j = max(0,min(n-2,j));
+      assertEquals(j,i[ix]);
+      assertEquals((x[ix]-v[j])/(v[j+1]-v[j]),f[ix],0.0);
+      assertEquals(s.indexOfNearest(x[ix]),k[ix]);
+      int jn = (abs(x[ix]-v[j])<=abs(x[ix]-v[j+1]))?j:j+1;
+      assertEquals(abs(x[ix]-v[jn]),abs(x[ix]-v[k[ix]]),0.0);
+    }
+
+    // Unsorted values give the same results.
+    double[] xr = new double[nx];
+    for (int ix=0; ix<nx; ++ix)
+      xr[ix] = x[nx-1-ix];
+    int[] ir = new int[nx];
+    double[] fr = new double[nx];
+    s.locate(xr,ir,fr);
+    for (int ix=0; ix<nx; ++ix) {
+      assertEquals(i[ix],ir[nx-1-ix]);
+      assertEquals(f[ix],fr[nx-1-ix],0.0);
+    }
+  }
+
+  @Test
+  public void testLocateUniform() {
+    Sampling s = new Sampling(10,2.0,10.0);
+    double[] x = {9.0,10.0,10.5,11.0,27.0,28.0,29.0};
+    int[] i = new int[x.length];
+    double[] f = new double[x.length];
+    s.locate(x,i,f);
+    assertEquals(i,new int[]{0,0,0,0,8,8,8});
+    assertEquals(f,new double[]{-0.5,0.0,0.25,0.5,0.5,1.0,1.5});
+    s = new Sampling(1,1.0,3.0);
+    s.locate(x,i,f);
+    assertEquals(i,new int[x.length]);
+    assertEquals(f,new double[x.length]);
+  }
 }
@@ -0,0 +1,130 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.dsp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.dsp.SlabPipeline3}.
+ */
+public class SlabPipeline3Test {
+
+  @Test
+  public void testStructureTensors() {
+    int n1 = 13, n2 = 14, n3 = 37;
+    float[][][] f = randfloat(new Random(314159),n1,n2,n3);
+    RecursiveGaussianFilter rgf = new RecursiveGaussianFilter(1.0);
+    float[] d = {-0.5f,0.0f,0.5f};
+    float[] s = {0.25f,0.5f,0.25f};
+
+    // Gradients, products of gradients, and smoothed products.
+    SlabPipeline3 sp = new SlabPipeline3(1);
+    int[] g1 = sp.add(SlabPipeline3.gaussian(rgf,1,0),new int[]{0},1);
+    int[] g2 = sp.add(SlabPipeline3.gaussian(rgf,0,1),new int[]{0},1);
+    int[] g0 = sp.add(SlabPipeline3.gaussian(rgf,0,0),new int[]{0},1);
+    int[] g3 = sp.add(SlabPipeline3.stencil3(d),g0,1);
+    int[] gg = sp.add(new Products(),new int[]{g1[0],g2[0],g3[0]},6);
+    int[] tt = sp.add(SlabPipeline3.stencil3(s),gg,6);
+    int[] ts = sp.add(SlabPipeline3.gaussian(rgf,0,0),tt,6);
+    float[][][][] t = new float[7][n3][n2][n1];
+    int[] outputs = {ts[0],ts[1],ts[2],ts[3],ts[4],ts[5],g3[0]};
+    sp.apply(new float[][][][]{f},outputs,t);
+
+    // The same computation, with full-size intermediate arrays.
+    float[][][][] g = new float[4][n3][n2][n1];
+    for (int i3=0; i3<n3; ++i3) {
+      rgf.apply10(f[i3],g[1][i3]);
+      rgf.apply01(f[i3],g[2][i3]);
+      rgf.apply00(f[i3],g[0][i3]);
+    }
+    stencil3(d,g[0],g[3]);
+    float[][][][] p = {
+      mul(g[1],g[1]),mul(g[1],g[2]),mul(g[1],g[3]),
+      mul(g[2],g[2]),mul(g[2],g[3]),mul(g[3],g[3])
+    };
+    for (int ip=0; ip<6; ++ip) {
+      float[][][] q = new float[n3][n2][n1];
+      stencil3(s,p[ip],q);
+      for (int i3=0; i3<n3; ++i3)
+        rgf.apply00(q[i3],q[i3]);
+      assertEquals(0.0f,max(abs(sub(q,t[ip]))),0.0f);
+    }
+    assertEquals(0.0f,max(abs(sub(g[3],t[6]))),0.0f);
+  }
+
+  @Test
+  public void testHalos() {
+    int n1 = 5, n2 = 4, n3 = 29;
+    float[][][] f = randfloat(new Random(314159),n1,n2,n3);
+    float[] c2 = {0.1f,-0.2f,0.3f,0.4f,0.5f};
+    float[] c3 = {0.7f,0.2f,0.3f,0.4f,0.5f,0.6f,0.1f};
+    SlabPipeline3 sp = new SlabPipeline3(1);
+    int[] a = sp.add(SlabPipeline3.stencil3(c2),new int[]{0},1);
+    int[] b = sp.add(SlabPipeline3.stencil3(c3),a,1);
+    int[] c = sp.add(SlabPipeline3.stencil3(c2),new int[]{a[0],b[0]},2);
+    float[][][][] y = new float[3][n3][n2][n1];
+    sp.apply(new float[][][][]{f},new int[]{c[1],c[0],a[0]},y);
+    float[][][] fa = new float[n3][n2][n1];
+    float[][][] fb = new float[n3][n2][n1];
+    float[][][] fc = new float[n3][n2][n1];
+    stencil3(c2,f,fa);
+    stencil3(c3,fa,fb);
+    assertEquals(0.0f,max(abs(sub(fa,y[2]))),0.0f);
+    stencil3(c2,fa,fc);
+    assertEquals(0.0f,max(abs(sub(fc,y[1]))),0.0f);
+    stencil3(c2,fb,fc);
+    assertEquals(0.0f,max(abs(sub(fc,y[0]))),0.0f);
+  }
+
+  // Pointwise products of three gradient components.
+  private static class Products implements SlabPipeline3.Stage {
+    public int getHalo() {
+      return 0;
+    }
+    public void apply(int i3, float[][][][] x, float[][][] y) {
+      float[][] g1 = x[0][0], g2 = x[1][0], g3 = x[2][0];
+      mul(g1,g1,y[0]);
+      mul(g1,g2,y[1]);
+      mul(g1,g3,y[2]);
+      mul(g2,g2,y[3]);
+      mul(g2,g3,y[4]);
+      mul(g3,g3,y[5]);
+    }
+  }
+
+  // Same as a stencil in the pipeline, with constant extrapolation.
+  private static void stencil3(float[] c, float[][][] x, float[][][] y) {
+    int n1 = x[0][0].length;
+    int n2 = x[0].length;
+    int n3 = x.length;
+    int h = (c.length-1)/2;
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        float[] yi = y[i3][i2];
+        zero(yi);
+        for (int k=0; k<=2*h; ++k) {
+          float[] xi = x[max(0,min(n3-1,i3+k-h))][i2];
+          for (int i1=0; i1<n1; ++i1)
+            yi[i1] += c[k]*xi[i1];
+        }
+      }
+    }
+  }
+}
@@ -185,6 +185,42 @@ public class SymmetricTridiagonalFilterTest {
     }
   }
 
+  @Test
+  public void testBlocks() {
+    java.util.Random r = new java.util.Random();
+    int n1 = 1031;
+    int n2 = 67;
+    int n3 = 5;
+    float[][][] t = randfloat(r,n1,n2,n3);
+    float[][][] x = copy(t);
+    float[][][] y = zerofloat(n1,n2,n3);
+    float[][][] z = zerofloat(n1,n2,n3);
+    SymmetricTridiagonalFilter stf = 
+      new SymmetricTridiagonalFilter(2.6,2.5,2.7,1.2);
+
+    // Solving in blocks is equivalent to solving one array at a time.
+    stf.applyInverse1(x,y);
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        stf.applyInverse(x[i3][i2],z[i3][i2]);
+    assertArrayEquals(z,y);
+
+    // Filtering along the 3rd dimension is equivalent to filtering along 
+    // the 2nd dimension of an array with 2nd and 3rd dimensions swapped.
+    stf.apply3(x,y);
+    float[][][] w = transpose23(x);
+    stf.apply2(w,w);
+    assertArrayEquals(transpose23(w),y);
+    stf.applyInverse3(y,z);
+    assertArrayEquals(t,z);
+    stf.apply2(x,y);
+    stf.applyInverse2(y,z);
+    assertArrayEquals(t,z);
+    stf.apply1(x,y);
+    stf.applyInverse1(y,y);
+    assertArrayEquals(t,y);
+  }
+
   @Test
   private static SymmetricTridiagonalFilter makeRandomFilter() {
     java.util.Random r = new java.util.Random();
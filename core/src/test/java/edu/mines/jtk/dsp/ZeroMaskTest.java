@@ -0,0 +1,103 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.dsp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.dsp.ZeroMask}.
+ */
+public class ZeroMaskTest {
+
+  @Test
+  public void testNonZero() {
+    int n1 = 131, n2 = 12, n3 = 13;
+    float[][][] x = sub(randfloat(new Random(314159),n1,n2,n3),0.5f);
+    x = clip(-0.1f,0.1f,x);
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        for (int i1=0; i1<n1; ++i1)
+          if (x[i3][i2][i1]>0.0f && x[i3][i2][i1]<0.1f)
+            x[i3][i2][i1] = 0.0f;
+    float[][][] m = new float[n3][n2][n1];
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        for (int i1=0; i1<n1; ++i1)
+          m[i3][i2][i1] = (x[i3][i2][i1]!=0.0f)?1.0f:0.0f;
+    ZeroMask zm3 = new ZeroMask(x);
+    assertEqual(m,zm3.getAsFloats3());
+    ZeroMask zm2 = new ZeroMask(x[1]);
+    assertEqual(m[1],zm2.getAsFloats2());
+
+    float[][][] v = fillfloat(1.0f,n1,n2,n3);
+    zm3.apply(0.0f,v);
+    assertEqual(m,v);
+    EigenTensors3 e = new EigenTensors3(n1,n2,n3,false);
+    float[] efalse = {1.0f,0.0f,0.0f,0.5f,0.0f,0.25f};
+    zm3.apply(efalse,e);
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        for (int i1=0; i1<n1; ++i1) {
+          float e11 = e.getTensor(i1,i2,i3)[0];
+          assertEquals((m[i3][i2][i1]==0.0f)?1.0f:0.0f,e11,1.0e-6f);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSmall() {
+    int n1 = 70, n2 = 31, n3 = 32;
+    float[][][] x = sub(randfloat(new Random(314159),n1,n2,n3),0.5f);
+    for (int i3=0; i3<n3/2; ++i3)
+      mul(0.01f,x[i3],x[i3]);
+    double small = 0.2;
+    ZeroMask zm = new ZeroMask(small,2.0,2.0,2.0,x);
+
+    // Expected mask, computed as for full 3D arrays.
+    float[][][] t = abs(x);
+    float[][][] b = new float[n3][n2][n1];
+    new RecursiveGaussianFilter(2.0).apply0XX(t,b);
+    new RecursiveGaussianFilter(2.0).applyX0X(b,t);
+    new RecursiveGaussianFilter(2.0).applyXX0(t,b);
+    double a = sum(abs(x))/n1/n2/n3;
+    float[][][] m = zm.getAsFloats3();
+    int nbad = 0;
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        for (int i1=0; i1<n1; ++i1) {
+          float mi = (b[i3][i2][i1]>=small*a)?1.0f:0.0f;
+          if (mi!=m[i3][i2][i1])
+            ++nbad;
+        }
+      }
+    }
+    assertEquals(0,nbad);
+    assertEquals(0.0f,m[0][0][0]);
+    assertEquals(1.0f,m[n3-1][0][0]);
+  }
+
+  private static void assertEqual(float[][] x, float[][] y) {
+    assertEquals(0.0f,max(abs(sub(x,y))));
+  }
+  private static void assertEqual(float[][][] x, float[][][] y) {
+    assertEquals(0.0f,max(abs(sub(x,y))));
+  }
+}
@@ -0,0 +1,70 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.dsp.Sampling;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.BlendedGridder2}.
+ */
+public class BlendedGridder2Test {
+
+  @Test
+  public void testTimeQuantum() {
+    BlendedGridder2 bg = makeGridder();
+    bg.setTimeMarkerX(true);
+    float[][] g = bg.grid(S1,S2);
+    bg.setTimeQuantum(0.25);
+    float[][] q = bg.grid(S1,S2);
+
+    // With a non-zero time quantum, known samples are processed in only
+    // approximately decreasing order of times, which may slightly alter
+    // times and marks, and therefore gridded values.
+    float[][] e = abs(sub(q,g));
+    float range = max(g)-min(g);
+    assertTrue(max(e)>0.0f);
+    assertTrue(max(e)<0.05f*range);
+    assertTrue(sum(e)/N1/N2<0.002f*range);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private static final int N1 = 101, N2 = 87;
+  private static final Sampling S1 = new Sampling(N1,0.5,1.0);
+  private static final Sampling S2 = new Sampling(N2,0.5,2.0);
+
+  private static BlendedGridder2 makeGridder() {
+    int n = 200;
+    Random r = new Random(314159);
+    float[] f = new float[n];
+    float[] x1 = new float[n];
+    float[] x2 = new float[n];
+    for (int i=0; i<n; ++i) {
+      x1[i] = (float)S1.getValue(r.nextInt(N1));
+      x2[i] = (float)S2.getValue(r.nextInt(N2));
+      f[i] = x1[i]+2.0f*x2[i]+sin(x1[i]-x2[i]);
+    }
+    BlendedGridder2 bg = new BlendedGridder2(f,x1,x2);
+    bg.setTimeMax(6.0);
+    return bg;
+  }
+}
@@ -0,0 +1,123 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.dsp.Sampling;
+import edu.mines.jtk.util.SimpleFloat3;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.BlendedGridder3}.
+ */
+public class BlendedGridder3Test {
+
+  @Test
+  public void testOneBrick() {
+    BlendedGridder3 bg = makeGridder();
+    bg.setBrickSize(N1,N2,N3);
+    float[][][] q = new float[N3][N2][N1];
+    bg.grid(S1,S2,S3,new SimpleFloat3(q));
+    assertEquals(q,bg.grid(S1,S2,S3));
+  }
+
+  @Test
+  public void testBricks() {
+    BlendedGridder3 bg = makeGridder();
+    bg.setBrickSize(16,16,16);
+    float[][][] g = bg.grid(S1,S2,S3);
+    float[][][] q = new float[N3][N2][N1];
+    bg.grid(S1,S2,S3,new SimpleFloat3(q));
+
+    // Blending solves a linear system only approximately, with errors
+    // that depend on the extent of the grid. Values gridded with bricks
+    // may therefore differ slightly from those gridded without bricks.
+    float[][][] e = abs(sub(q,g));
+    float range = max(g)-min(g);
+    assertTrue(max(e)<0.05f*range);
+    assertTrue(sum(e)/N1/N2/N3<0.002f*range);
+  }
+
+  @Test
+  public void testTimeQuantum() {
+    BlendedGridder3 bg = makeGridder();
+    bg.setTimeMarkerX(true);
+    float[][][] g = bg.grid(S1,S2,S3);
+    bg.setTimeQuantum(0.25);
+    float[][][] q = bg.grid(S1,S2,S3);
+
+    // With a non-zero time quantum, known samples are processed in only
+    // approximately decreasing order of times, which may slightly alter
+    // times and marks, and therefore gridded values.
+    float[][][] e = abs(sub(q,g));
+    float range = max(g)-min(g);
+    assertTrue(max(e)>0.0f);
+    assertTrue(max(e)<0.05f*range);
+    assertTrue(sum(e)/N1/N2/N3<0.002f*range);
+  }
+
+  @Test
+  public void testEmptyBricks() {
+    float[] f = {1.0f,2.0f};
+    float[] x1 = {1.0f,20.0f};
+    float[] x2 = {2.0f,2.0f};
+    float[] x3 = {3.0f,3.0f};
+    BlendedGridder3 bg = new BlendedGridder3(f,x1,x2,x3);
+    bg.setTimeMax(2.0);
+    bg.setBrickSize(10,10,10);
+    float[][][] q = new float[N3][N2][N1];
+    bg.grid(S1,S2,S3,new SimpleFloat3(q));
+    assertEquals(q[0][0][0],1.0f);
+    assertEquals(q[0][0][N1-1],2.0f);
+    for (int i3=20; i3<30; ++i3) {
+      for (int i2=20; i2<30; ++i2) {
+        for (int i1=0; i1<10; ++i1)
+          assertEquals(q[i3][i2][i1],1.0f);
+        for (int i1=30; i1<40; ++i1)
+          assertEquals(q[i3][i2][i1],2.0f);
+      }
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private static final int N1 = 41, N2 = 37, N3 = 33;
+  private static final Sampling S1 = new Sampling(N1,0.5,1.0);
+  private static final Sampling S2 = new Sampling(N2,0.5,2.0);
+  private static final Sampling S3 = new Sampling(N3,0.5,3.0);
+
+  private static BlendedGridder3 makeGridder() {
+    int n = 400;
+    Random r = new Random(314159);
+    float[] f = new float[n];
+    float[] x1 = new float[n];
+    float[] x2 = new float[n];
+    float[] x3 = new float[n];
+    for (int i=0; i<n; ++i) {
+      x1[i] = (float)S1.getValue(r.nextInt(N1));
+      x2[i] = (float)S2.getValue(r.nextInt(N2));
+      x3[i] = (float)S3.getValue(r.nextInt(N3));
+      f[i] = x1[i]+2.0f*x2[i]-x3[i]+sin(x1[i]+x3[i]);
+    }
+    BlendedGridder3 bg = new BlendedGridder3(f,x1,x2,x3);
+    bg.setTimeMax(6.0);
+    return bg;
+  }
+}
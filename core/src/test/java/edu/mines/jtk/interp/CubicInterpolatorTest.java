@@ -19,6 +19,7 @@ import java.util.Random;
 import org.testng.annotations.Test;
 import static org.junit.Assert.assertTrue;
 
+import edu.mines.jtk.dsp.Sampling;
 import static edu.mines.jtk.util.ArrayMath.*;
 
 /**
@@ -52,6 +53,28 @@ public class CubicInterpolatorTest {
       assertNear(yi[i],ci.interpolate3(xi[i]));
   }
 
+  @Test
+  public void testTraces() {
+    int nc = 20, m = 5;
+    float[] xc = mul(10.0f,randfloat(nc));
+    quickSort(xc);
+    float[][] yc = randfloat(nc,m);
+    Sampling s = new Sampling(101,0.11,-0.5);
+    float[][] yi = new float[m][101];
+    for (CubicInterpolator.Method method:CubicInterpolator.Method.values()) {
+      CubicInterpolator.interpolate(method,xc,yc,s,yi);
+      for (int k=0; k<m; ++k) {
+        CubicInterpolator ci = new CubicInterpolator(method,xc,yc[k]);
+        float[] y = new float[101];
+        ci.interpolate(s,y);
+        for (int i=0; i<101; ++i) {
+          assertNear(yi[k][i],y[i]);
+          assertNear(y[i],ci.interpolate((float)s.getValue(i)));
+        }
+      }
+    }
+  }
+
   @Test
   public void testLinearAndSpline() {
     //create set of data points
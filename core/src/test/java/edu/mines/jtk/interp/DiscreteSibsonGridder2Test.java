@@ -0,0 +1,165 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+import edu.mines.jtk.dsp.Sampling;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.DiscreteSibsonGridder2}.
+ */
+public class DiscreteSibsonGridder2Test {
+
+  @Test
+  public void testScatter() {
+    checkScatter(1.0,0.0,1.0,0.0,0);
+    checkScatter(0.5,10.0,2.0,-4.0,0);
+  }
+
+  @Test
+  public void testSmooth() {
+    checkScatter(1.0,0.0,1.0,0.0,4);
+    checkScatter(0.5,10.0,2.0,-4.0,4);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  // Compares gridded values with those computed simply, for samplings
+  // with specified intervals and first values, and a specified number of
+  // smoothing iterations. Sampling intervals are powers of two, so that
+  // squared distances are computed exactly, and ties are the same in both.
+  private static void checkScatter(
+    double d1, double f1, double d2, double f2, int nsmooth)
+  {
+    int n1 = 41, n2 = 53;
+    Sampling s1 = new Sampling(n1,d1,f1);
+    Sampling s2 = new Sampling(n2,d2,f2);
+    float[][] f = makeSamples(n1,n2);
+    int n = f[0].length;
+    float[] x1 = new float[n];
+    float[] x2 = new float[n];
+    for (int i=0; i<n; ++i) {
+      x1[i] = (float)(f1+d1*f[1][i]);
+      x2[i] = (float)(f2+d2*f[2][i]);
+    }
+    DiscreteSibsonGridder2 dsg = new DiscreteSibsonGridder2(f[0],x1,x2);
+    dsg.setSmooth(nsmooth);
+    float[][] g = dsg.grid(s1,s2);
+    float[][] e = gridSimply(n1,n2,d1,d2,nsmooth,f[0],f[1],f[2]);
+    for (int i2=0; i2<n2; ++i2)
+      for (int i1=0; i1<n1; ++i1)
+        assertEquals(g[i2][i1],e[i2][i1],1.0e-5f);
+  }
+
+  // Returns values and coordinates of random samples, including two in
+  // one bin and one out of bounds.
+  private static float[][] makeSamples(int n1, int n2) {
+    int n = 60;
+    Random r = new Random(11);
+    float[][] f = new float[3][n];
+    for (int i=0; i<n; ++i) {
+      f[0][i] = r.nextFloat();
+      f[1][i] = (n1-0.1f)*r.nextFloat()-0.45f;
+      f[2][i] = (n2-0.1f)*r.nextFloat()-0.45f;
+    }
+    f[1][1] = f[1][0]+0.1f;
+    f[2][1] = f[2][0]-0.1f;
+    f[1][2] = n1+1.0f;
+    return f;
+  }
+
+  // Discrete Sibson interpolation computed simply, for sample coordinates
+  // x1 and x2 in units of the sampling intervals d1 and d2, followed by
+  // the specified number of smoothing iterations. Of known bins equally
+  // near, the first is nearest.
+  private static float[][] gridSimply(
+    int n1, int n2, double d1, double d2, int nsmooth,
+    float[] f, float[] x1, float[] x2)
+  {
+    float[][] g = new float[n2][n1];
+    float[][] c = new float[n2][n1];
+    for (int i=0; i<f.length; ++i) {
+      if (x1[i]<0.0f || x1[i]>n1-1 || x2[i]<0.0f || x2[i]>n2-1) continue;
+      int i1 = Math.round(x1[i]);
+      int i2 = Math.round(x2[i]);
+      g[i2][i1] += f[i];
+      c[i2][i1] -= 1.0f;
+    }
+    for (int i2=0; i2<n2; ++i2)
+      for (int i1=0; i1<n1; ++i1)
+        if (c[i2][i1]<0.0f) g[i2][i1] /= -c[i2][i1];
+    float[][] s = new float[n2][n1];
+    float[][] t = new float[n2][n1];
+    for (int i2=0; i2<n2; ++i2) {
+      for (int i1=0; i1<n1; ++i1) {
+        double dmin = Double.MAX_VALUE;
+        float fmin = 0.0f;
+        for (int j2=0; j2<n2; ++j2) {
+          for (int j1=0; j1<n1; ++j1) {
+            double d = distanceSquared(j1-i1,j2-i2,d1,d2);
+            if (c[j2][j1]<0.0f && d<dmin) {
+              dmin = d;
+              fmin = g[j2][j1];
+            }
+          }
+        }
+        for (int j2=0; j2<n2; ++j2) {
+          for (int j1=0; j1<n1; ++j1) {
+            double d = distanceSquared(j1-i1,j2-i2,d1,d2);
+            if (c[j2][j1]==0.0f && d<=dmin) {
+              s[j2][j1] += fmin;
+              t[j2][j1] += 1.0f;
+            }
+          }
+        }
+      }
+    }
+    for (int i2=0; i2<n2; ++i2)
+      for (int i1=0; i1<n1; ++i1)
+        if (c[i2][i1]==0.0f) g[i2][i1] = s[i2][i1]/t[i2][i1];
+
+    // Gauss-Seidel iterations of bi-Laplacian smoothing of unknown bins.
+    float a1 =  8.0f/20.0f;
+    float a2 = -2.0f/20.0f;
+    float a3 = -1.0f/20.0f;
+    for (int jsmooth=0; jsmooth<nsmooth; ++jsmooth) {
+      for (int i2=0; i2<n2; ++i2) {
+        int i2m = max(0,i2-1), i2mm = max(0,i2m-1);
+        int i2p = min(n2-1,i2+1), i2pp = min(n2-1,i2p+1);
+        for (int i1=0; i1<n1; ++i1) {
+          int i1m = max(0,i1-1), i1mm = max(0,i1m-1);
+          int i1p = min(n1-1,i1+1), i1pp = min(n1-1,i1p+1);
+          if (c[i2][i1]==0.0f) {
+            float g1 = a1*(g[i2 ][i1m]+g[i2 ][i1p]+g[i2m][i1 ]+g[i2p][i1 ]);
+            float g2 = a2*(g[i2m][i1m]+g[i2m][i1p]+g[i2p][i1m]+g[i2p][i1p]);
+            float g3 = a3*(g[i2][i1mm]+g[i2][i1pp]+g[i2mm][i1]+g[i2pp][i1]);
+            g[i2][i1] = g1+g2+g3;
+          }
+        }
+      }
+    }
+    return g;
+  }
+  private static double distanceSquared(int k1, int k2, double d1, double d2) {
+    double e1 = k1*d1, e2 = k2*d2;
+    return e1*e1+e2*e2;
+  }
+}
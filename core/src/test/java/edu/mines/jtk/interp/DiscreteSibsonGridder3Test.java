@@ -0,0 +1,169 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.dsp.Sampling;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.DiscreteSibsonGridder3}.
+ */
+public class DiscreteSibsonGridder3Test {
+
+  @Test
+  public void testScatter() {
+    checkScatter(1.0,0.0,1.0,0.0,1.0,0.0);
+    checkScatter(0.5,10.0,2.0,-4.0,0.25,1.0);
+  }
+
+  @Test
+  public void testConstant() {
+    int n1 = 23, n2 = 19, n3 = 35;
+    Sampling s1 = new Sampling(n1,0.7,1.0);
+    Sampling s2 = new Sampling(n2,1.3,-2.0);
+    Sampling s3 = new Sampling(n3,0.9,0.0);
+    float[][] f = makeSamples(n1,n2,n3);
+    for (int i=0; i<f[0].length; ++i) {
+      f[0][i] = 3.0f;
+      f[1][i] = 1.0f+0.7f*f[1][i];
+      f[2][i] = -2.0f+1.3f*f[2][i];
+      f[3][i] = 0.9f*f[3][i];
+    }
+    float[][][] g =
+      new DiscreteSibsonGridder3(f[0],f[1],f[2],f[3]).grid(s1,s2,s3);
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        for (int i1=0; i1<n1; ++i1)
+          assertEquals(g[i3][i2][i1],3.0f,1.0e-5f);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  // Compares gridded values with those computed simply, for samplings
+  // with specified intervals and first values. Sampling intervals are
+  // powers of two, so that squared distances are computed exactly, and
+  // ties are the same in both.
+  private static void checkScatter(
+    double d1, double f1, double d2, double f2, double d3, double f3)
+  {
+    int n1 = 9, n2 = 37, n3 = 21;
+    Sampling s1 = new Sampling(n1,d1,f1);
+    Sampling s2 = new Sampling(n2,d2,f2);
+    Sampling s3 = new Sampling(n3,d3,f3);
+    float[][] f = makeSamples(n1,n2,n3);
+    int n = f[0].length;
+    float[] x1 = new float[n];
+    float[] x2 = new float[n];
+    float[] x3 = new float[n];
+    for (int i=0; i<n; ++i) {
+      x1[i] = (float)(f1+d1*f[1][i]);
+      x2[i] = (float)(f2+d2*f[2][i]);
+      x3[i] = (float)(f3+d3*f[3][i]);
+    }
+    float[][][] g =
+      new DiscreteSibsonGridder3(f[0],x1,x2,x3).grid(s1,s2,s3);
+    float[][][] e = gridSimply(n1,n2,n3,d1,d2,d3,f[0],f[1],f[2],f[3]);
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        for (int i1=0; i1<n1; ++i1)
+          assertEquals(g[i3][i2][i1],e[i3][i2][i1],1.0e-5f);
+  }
+
+  // Returns values and coordinates of random samples, including two in
+  // one bin and one out of bounds.
+  private static float[][] makeSamples(int n1, int n2, int n3) {
+    int n = 40;
+    Random r = new Random(13);
+    float[][] f = new float[4][n];
+    for (int i=0; i<n; ++i) {
+      f[0][i] = r.nextFloat();
+      f[1][i] = (n1-0.1f)*r.nextFloat()-0.45f;
+      f[2][i] = (n2-0.1f)*r.nextFloat()-0.45f;
+      f[3][i] = (n3-0.1f)*r.nextFloat()-0.45f;
+    }
+    f[1][1] = f[1][0]+0.1f;
+    f[2][1] = f[2][0]-0.1f;
+    f[3][1] = f[3][0];
+    f[3][2] = -1.0f;
+    return f;
+  }
+
+  // Discrete Sibson interpolation computed simply, for sample coordinates
+  // x1, x2 and x3 in units of the sampling intervals d1, d2 and d3. Of
+  // known bins equally near, the first is nearest.
+  private static float[][][] gridSimply(
+    int n1, int n2, int n3, double d1, double d2, double d3,
+    float[] f, float[] x1, float[] x2, float[] x3)
+  {
+    float[][][] g = new float[n3][n2][n1];
+    float[][][] c = new float[n3][n2][n1];
+    for (int i=0; i<f.length; ++i) {
+      if (x1[i]<0.0f || x1[i]>n1-1 || x2[i]<0.0f || x2[i]>n2-1 ||
+          x3[i]<0.0f || x3[i]>n3-1) continue;
+      int i1 = Math.round(x1[i]);
+      int i2 = Math.round(x2[i]);
+      int i3 = Math.round(x3[i]);
+      g[i3][i2][i1] += f[i];
+      c[i3][i2][i1] -= 1.0f;
+    }
+    int n = n1*n2*n3;
+    float[] gk = new float[n];
+    float[] ck = new float[n];
+    for (int k=0; k<n; ++k) {
+      int k1 = k%n1, k2 = (k/n1)%n2, k3 = k/n1/n2;
+      if (c[k3][k2][k1]<0.0f) g[k3][k2][k1] /= -c[k3][k2][k1];
+      gk[k] = g[k3][k2][k1];
+      ck[k] = c[k3][k2][k1];
+    }
+    float[] s = new float[n];
+    float[] t = new float[n];
+    for (int i=0; i<n; ++i) {
+      int i1 = i%n1, i2 = (i/n1)%n2, i3 = i/n1/n2;
+      double dmin = Double.MAX_VALUE;
+      float fmin = 0.0f;
+      for (int j=0; j<n; ++j) {
+        double d = distanceSquared(j,i1,i2,i3,n1,n2,d1,d2,d3);
+        if (ck[j]<0.0f && d<dmin) {
+          dmin = d;
+          fmin = gk[j];
+        }
+      }
+      for (int j=0; j<n; ++j) {
+        double d = distanceSquared(j,i1,i2,i3,n1,n2,d1,d2,d3);
+        if (ck[j]==0.0f && d<=dmin) {
+          s[j] += fmin;
+          t[j] += 1.0f;
+        }
+      }
+    }
+    for (int k=0; k<n; ++k) {
+      int k1 = k%n1, k2 = (k/n1)%n2, k3 = k/n1/n2;
+      if (ck[k]==0.0f) g[k3][k2][k1] = s[k]/t[k];
+    }
+    return g;
+  }
+  private static double distanceSquared(
+    int j, int i1, int i2, int i3, int n1, int n2,
+    double d1, double d2, double d3)
+  {
+    double e1 = (j%n1-i1)*d1, e2 = ((j/n1)%n2-i2)*d2, e3 = (j/n1/n2-i3)*d3;
+    return e1*e1+e2*e2+e3*e3;
+  }
+}
@@ -0,0 +1,82 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+import edu.mines.jtk.dsp.Sampling;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.NearestGridder2}.
+ */
+public class NearestGridder2Test {
+
+  @Test
+  public void testScattered() {
+    Random r = new Random(314159);
+    int n = 500;
+    float[] x1 = randfloat(r,n);
+    float[] x2 = randfloat(r,n);
+    for (int i=0; i<n/5; ++i) { // some clustered samples
+      x1[i] = 0.3f+0.01f*x1[i];
+      x2[i] = 0.6f+0.01f*x2[i];
+    }
+    test(x1,x2);
+  }
+
+  @Test
+  public void testDegenerate() {
+    float[] x1 = {0.1f,0.3f,0.5f,0.7f,0.9f};
+    float[] x2 = {0.5f,0.5f,0.5f,0.5f,0.5f};
+    test(x1,x2);
+    test(new float[]{0.5f},new float[]{0.5f});
+  }
+
+  private static void test(float[] x1, float[] x2) {
+    int n = x1.length;
+    float[] f = rampfloat(0.0f,1.0f,n);
+    Sampling s1 = new Sampling(51,0.03,-0.25);
+    Sampling s2 = new Sampling(41,0.04,-0.3);
+    int n1 = s1.getCount();
+    int n2 = s2.getCount();
+    float[][] d = new float[n2][n1];
+    float[][] g = new float[n2][n1];
+    NearestGridder2 ng = new NearestGridder2(f,x1,x2);
+    ng.computeDistancesAndValues(s1,s2,d,g);
+    for (int i2=0; i2<n2; ++i2) {
+      float y2 = (float)s2.getValue(i2);
+      for (int i1=0; i1<n1; ++i1) {
+        float y1 = (float)s1.getValue(i1);
+        int kmin = 0;
+        float dmin = Float.MAX_VALUE;
+        for (int k=0; k<n; ++k) {
+          float d1 = y1-x1[k];
+          float d2 = y2-x2[k];
+          float dk = d1*d1+d2*d2;
+          if (dk<dmin) {
+            dmin = dk;
+            kmin = k;
+          }
+        }
+        assertEquals(f[kmin],g[i2][i1]);
+        assertEquals(sqrt(dmin),d[i2][i1]);
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+import edu.mines.jtk.dsp.Sampling;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.NearestGridder3}.
+ */
+public class NearestGridder3Test {
+
+  @Test
+  public void testScattered() {
+    Random r = new Random(314159);
+    int n = 300;
+    float[] x1 = randfloat(r,n);
+    float[] x2 = randfloat(r,n);
+    float[] x3 = randfloat(r,n);
+    for (int i=0; i<n/5; ++i) { // some clustered samples
+      x1[i] = 0.3f+0.01f*x1[i];
+      x2[i] = 0.6f+0.01f*x2[i];
+      x3[i] = 0.2f+0.01f*x3[i];
+    }
+    test(x1,x2,x3);
+  }
+
+  @Test
+  public void testPlanar() {
+    Random r = new Random(271828);
+    int n = 50;
+    float[] x1 = randfloat(r,n);
+    float[] x2 = randfloat(r,n);
+    float[] x3 = fillfloat(0.5f,n);
+    test(x1,x2,x3);
+  }
+
+  private static void test(float[] x1, float[] x2, float[] x3) {
+    int n = x1.length;
+    float[] f = rampfloat(0.0f,1.0f,n);
+    Sampling s1 = new Sampling(21,0.07,-0.2);
+    Sampling s2 = new Sampling(19,0.08,-0.3);
+    Sampling s3 = new Sampling(17,0.09,-0.25);
+    int n1 = s1.getCount();
+    int n2 = s2.getCount();
+    int n3 = s3.getCount();
+    float[][][] d = new float[n3][n2][n1];
+    float[][][] g = new float[n3][n2][n1];
+    NearestGridder3 ng = new NearestGridder3(f,x1,x2,x3);
+    ng.computeDistancesAndValues(s1,s2,s3,d,g);
+    for (int i3=0; i3<n3; ++i3) {
+      float y3 = (float)s3.getValue(i3);
+      for (int i2=0; i2<n2; ++i2) {
+        float y2 = (float)s2.getValue(i2);
+        for (int i1=0; i1<n1; ++i1) {
+          float y1 = (float)s1.getValue(i1);
+          int kmin = 0;
+          float dmin = Float.MAX_VALUE;
+          for (int k=0; k<n; ++k) {
+            float d1 = y1-x1[k];
+            float d2 = y2-x2[k];
+            float d3 = y3-x3[k];
+            float dk = d1*d1+d2*d2+d3*d3;
+            if (dk<dmin) {
+              dmin = dk;
+              kmin = k;
+            }
+          }
+          assertEquals(f[kmin],g[i3][i2][i1]);
+          assertEquals(sqrt(dmin),d[i3][i2][i1]);
+        }
+      }
+    }
+  }
+}
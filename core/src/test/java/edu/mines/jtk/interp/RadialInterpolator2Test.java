@@ -0,0 +1,93 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.dsp.Sampling;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.RadialInterpolator2}.
+ */
+public class RadialInterpolator2Test {
+
+  @Test
+  public void testPatchesAtSamples() {
+    int n = 5000;
+    makeSamples(n);
+    RadialInterpolator2 ri = makeInterpolator();
+    ri.setPatchSize(32);
+    for (int i=0; i<n; ++i)
+      assertEquals(ri.interpolate(_x1[i],_x2[i]),_f[i],0.001f);
+  }
+
+  @Test
+  public void testPatchesAndGlobal() {
+    makeSamples(400);
+    RadialInterpolator2 ri = makeInterpolator();
+    Sampling s = new Sampling(21,0.04,0.1);
+    float[][] g = ri.interpolate(s,s);
+    ri.setPatchSize(64);
+    float[][] p = ri.interpolate(s,s);
+    for (int i2=0; i2<21; ++i2) {
+      for (int i1=0; i1<21; ++i1) {
+        float x1 = (float)s.getValue(i1);
+        float x2 = (float)s.getValue(i2);
+        assertEquals(g[i2][i1],f(x1,x2),0.02f);
+        assertEquals(p[i2][i1],f(x1,x2),0.02f);
+      }
+    }
+  }
+
+  @Test
+  public void testPatchesAndTrend() {
+    makeSamples(1000);
+    for (int i=0; i<_f.length; ++i)
+      _f[i] = 1.0f+2.0f*_x1[i]-3.0f*_x2[i];
+    RadialInterpolator2 ri = makeInterpolator();
+    ri.setPolyTrend(1);
+    ri.setPatchSize(16);
+    assertEquals(ri.interpolate(1.5f,-0.5f),1.0f+3.0f+1.5f,0.001f);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private float[] _f,_x1,_x2;
+
+  private static float f(float x1, float x2) {
+    return (float)(Math.sin(3.0*x1)*Math.cos(2.0*x2));
+  }
+
+  private void makeSamples(int n) {
+    Random r = new Random(5);
+    _f = new float[n];
+    _x1 = new float[n];
+    _x2 = new float[n];
+    for (int i=0; i<n; ++i) {
+      _x1[i] = r.nextFloat();
+      _x2[i] = r.nextFloat();
+      _f[i] = f(_x1[i],_x2[i]);
+    }
+  }
+
+  private RadialInterpolator2 makeInterpolator() {
+    RadialInterpolator2.Basis basis = new RadialInterpolator2.Biharmonic();
+    return new RadialInterpolator2(basis,_f,_x1,_x2);
+  }
+}
@@ -14,6 +14,7 @@ limitations under the License.
 ****************************************************************************/
 package edu.mines.jtk.interp;
 
+import java.io.*;
 import javax.swing.*;
 
 import org.testng.annotations.Test;
@@ -124,6 +125,81 @@ public class SibsonInterpolator2Test {
     }
   }
 
+  @Test
+  public void testGrid() {
+    testGrid(HL);
+    testGrid(BS);
+    testGrid(WS);
+  }
+  private void testGrid(SibsonInterpolator2.Method m) {
+    TestFunction tf = TestFunction.makeSine();
+    float[][] fx = tf.sampleScattered2(NS);
+    float[] f = fx[0], x1 = fx[1], x2 = fx[2];
+    SibsonInterpolator2 si = new SibsonInterpolator2(m,f,x1,x2);
+    si.setGradientPower(1.0);
+    for (int ibounds=0; ibounds<2; ++ibounds) {
+      if (ibounds==1)
+        si.setBounds(SX,SX);
+      float[][] g = si.interpolate(SX,SX);
+      for (int i2=0; i2<NX; ++i2) {
+        float x2i = (float)SX.getValue(i2);
+        for (int i1=0; i1<NX; ++i1) {
+          float x1i = (float)SX.getValue(i1);
+          assertEquals(si.interpolate(x1i,x2i),g[i2][i1]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testWeights() throws Exception {
+    TestFunction tf = TestFunction.makeSine();
+    float[][] fx = tf.sampleScattered2(NS);
+    float[] f = fx[0], x1 = fx[1], x2 = fx[2];
+    SibsonInterpolator2 si = new SibsonInterpolator2(f,x1,x2);
+    si.setNullValue(999.0f);
+    SibsonWeights sw = si.getWeights(SX,SX);
+    assertEquals(NX*NX,sw.getPointCount());
+    assertEquals(NS,sw.getSampleCount());
+
+    // Serialize and deserialize the table.
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    ObjectOutputStream oos = new ObjectOutputStream(bos);
+    oos.writeObject(sw);
+    oos.close();
+    ObjectInputStream ois = new ObjectInputStream(
+      new ByteArrayInputStream(bos.toByteArray()));
+    sw = (SibsonWeights)ois.readObject();
+
+    // Values for multiple functions, including the sampled function.
+    float[][] fs = {f,mul(2.0f,f),fillfloat(1.0f,NS)};
+    float[][] gs = sw.apply(fs);
+    float[][] g = si.interpolate(SX,SX);
+    for (int i2=0; i2<NX; ++i2) {
+      for (int i1=0; i1<NX; ++i1) {
+        int i = i1+i2*NX;
+        if (g[i2][i1]==999.0f) {
+          assertEquals(999.0f,gs[2][i]);
+        } else {
+          assertEquals(g[i2][i1],gs[0][i],TOLERANCE);
+          assertEquals(2.0f*g[i2][i1],gs[1][i],TOLERANCE);
+          assertEquals(1.0f,gs[2][i],TOLERANCE);
+        }
+      }
+    }
+
+    // Weights for scattered points equal those for the grid.
+    float[] y1 = new float[NX*NX];
+    float[] y2 = new float[NX*NX];
+    for (int i2=0,i=0; i2<NX; ++i2) {
+      for (int i1=0; i1<NX; ++i1,++i) {
+        y1[i] = (float)SX.getValue(i1);
+        y2[i] = (float)SX.getValue(i2);
+      }
+    }
+    assertEquals(sw.apply(f),si.getWeights(y1,y2).apply(f));
+  }
+
   private static final double TOLERANCE = 1.0e-5;
   private void assertValue(
     SibsonInterpolator2 si, float x1, float x2, float f) 
@@ -113,6 +113,53 @@ public class SibsonInterpolator3Test {
     }
   }
 
+  @Test
+  public void testGrid() {
+    testGrid(HL);
+    testGrid(BS);
+    testGrid(WS);
+  }
+  private void testGrid(SibsonInterpolator3.Method m) {
+    TestFunction tf = TestFunction.makeSine();
+    float[][] fx = tf.sampleScattered3(NS);
+    float[] f = fx[0], x1 = fx[1], x2 = fx[2], x3 = fx[3];
+    SibsonInterpolator3 si = new SibsonInterpolator3(m,f,x1,x2,x3);
+    si.setGradientPower(1.0);
+    Sampling s = new Sampling(21,0.05,0.0);
+    for (int ibounds=0; ibounds<2; ++ibounds) {
+      if (ibounds==1)
+        si.setBounds(s,s,s);
+      float[][][] g = si.interpolate(s,s,s);
+      for (int i3=0; i3<21; ++i3) {
+        float x3i = (float)s.getValue(i3);
+        for (int i2=0; i2<21; ++i2) {
+          float x2i = (float)s.getValue(i2);
+          for (int i1=0; i1<21; ++i1) {
+            float x1i = (float)s.getValue(i1);
+            assertEquals(si.interpolate(x1i,x2i,x3i),g[i3][i2][i1]);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testWeights() {
+    TestFunction tf = TestFunction.makeSine();
+    float[][] fx = tf.sampleScattered3(NS);
+    float[] f = fx[0], x1 = fx[1], x2 = fx[2], x3 = fx[3];
+    SibsonInterpolator3 si = new SibsonInterpolator3(f,x1,x2,x3);
+    Sampling s = new Sampling(21,0.05,0.0);
+    si.setBounds(s,s,s);
+    SibsonWeights sw = si.getWeights(s,s,s);
+    float[] gs = sw.apply(f);
+    float[][][] g = si.interpolate(s,s,s);
+    for (int i3=0,i=0; i3<21; ++i3)
+      for (int i2=0; i2<21; ++i2)
+        for (int i1=0; i1<21; ++i1,++i)
+          assertEquals(g[i3][i2][i1],gs[i],TOLERANCE);
+  }
+
   public static void benchMethods() {
     TestFunction tf = TestFunction.makeSine();
     //TestFunction tf = TestFunction.makeLinear();
@@ -0,0 +1,49 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.dsp.Sampling;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.SimpleGridder2}.
+ */
+public class SimpleGridder2Test {
+
+  @Test
+  public void testStatistics() {
+    float[] f = {1.0f,2.0f,6.0f,4.0f,5.0f};
+    float[] x1 = {0.1f,-0.2f,0.3f,2.0f,9.0f};
+    float[] x2 = {1.0f,0.9f,1.2f,0.0f,0.0f};
+    Sampling s1 = new Sampling(3,1.0,0.0);
+    Sampling s2 = new Sampling(2,1.0,0.0);
+    SimpleGridder2 sg = new SimpleGridder2(f,x1,x2);
+    sg.setNullValue(-1.0f);
+    BinStatistic[] stats = {
+      BinStatistic.COUNT,BinStatistic.MEAN,BinStatistic.MIN,
+      BinStatistic.MAX,BinStatistic.VARIANCE
+    };
+    float[][][] g = sg.gridStatistics(s1,s2,stats);
+    assertEquals(g[0],new float[][]{{0.0f,0.0f,1.0f},{3.0f,0.0f,0.0f}});
+    assertEquals(g[1],new float[][]{{-1.0f,-1.0f,4.0f},{3.0f,-1.0f,-1.0f}});
+    assertEquals(g[2][1][0],1.0f);
+    assertEquals(g[3][1][0],6.0f);
+    assertEquals(g[4][1][0],14.0f/3.0f,1.0e-6f);
+    assertEquals(g[4][0][2],0.0f);
+    assertEquals(sg.grid(s1,s2),g[1]);
+  }
+}
@@ -0,0 +1,100 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.dsp.Sampling;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.SimpleGridder3}.
+ */
+public class SimpleGridder3Test {
+
+  @Test
+  public void testStatistics() {
+    int n = 300000;
+    int n1 = 7, n2 = 6, n3 = 5;
+    Sampling s1 = new Sampling(n1,1.0,0.0);
+    Sampling s2 = new Sampling(n2,1.0,0.0);
+    Sampling s3 = new Sampling(n3,1.0,0.0);
+    Random r = new Random(7);
+    float[] f = new float[n];
+    float[] x1 = new float[n];
+    float[] x2 = new float[n];
+    float[] x3 = new float[n];
+    for (int i=0; i<n; ++i) {
+      x1[i] = 8.0f*r.nextFloat()-0.5f;
+      x2[i] = 7.0f*r.nextFloat()-0.5f;
+      x3[i] = 4.0f*r.nextFloat()-0.5f;
+      f[i] = 10.0f+r.nextFloat();
+    }
+
+    // Statistics computed simply, for comparison.
+    double[][][] c = new double[n3][n2][n1];
+    double[][][] s = new double[n3][n2][n1];
+    double[][][] v = new double[n3][n2][n1];
+    float[][][] lo = new float[n3][n2][n1];
+    float[][][] hi = new float[n3][n2][n1];
+    for (int pass=0; pass<2; ++pass) {
+      for (int i=0; i<n; ++i) {
+        if (x1[i]>n1-0.5f || x2[i]>n2-0.5f) continue;
+        int i1 = s1.indexOfNearest(x1[i]);
+        int i2 = s2.indexOfNearest(x2[i]);
+        int i3 = s3.indexOfNearest(x3[i]);
+        if (pass==0) {
+          if (c[i3][i2][i1]==0.0 || f[i]<lo[i3][i2][i1]) lo[i3][i2][i1] = f[i];
+          if (c[i3][i2][i1]==0.0 || f[i]>hi[i3][i2][i1]) hi[i3][i2][i1] = f[i];
+          c[i3][i2][i1] += 1.0;
+          s[i3][i2][i1] += f[i];
+        } else {
+          double d = f[i]-s[i3][i2][i1]/c[i3][i2][i1];
+          v[i3][i2][i1] += d*d;
+        }
+      }
+    }
+
+    BinStatistic[] stats = BinStatistic.values();
+    SimpleGridder3 sg = new SimpleGridder3(f,x1,x2,x3);
+    sg.setNullValue(-1.0f);
+    float[][][][] g = sg.gridStatistics(s1,s2,s3,stats);
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        for (int i1=0; i1<n1; ++i1) {
+          double ci = c[i3][i2][i1];
+          if (i3==n3-1) {
+            assertEquals(g[0][i3][i2][i1],0.0f);
+            assertEquals(g[1][i3][i2][i1],0.0f);
+            for (int is=2; is<stats.length; ++is)
+              assertEquals(g[is][i3][i2][i1],-1.0f);
+            continue;
+          }
+          assertTrue(ci>0.0);
+          double si = s[i3][i2][i1];
+          assertEquals(g[0][i3][i2][i1],ci,0.0);
+          assertEquals(g[1][i3][i2][i1],si,1.0e-6*si);
+          assertEquals(g[2][i3][i2][i1],si/ci,1.0e-5);
+          assertEquals(g[3][i3][i2][i1],lo[i3][i2][i1]);
+          assertEquals(g[4][i3][i2][i1],hi[i3][i2][i1]);
+          assertEquals(g[5][i3][i2][i1],v[i3][i2][i1]/ci,1.0e-5);
+        }
+      }
+    }
+    assertEquals(sg.grid(s1,s2,s3),g[2]);
+  }
+}
@@ -0,0 +1,99 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.dsp.Sampling;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.SplinesGridder2}.
+ */
+public class SplinesGridder2Test {
+
+  @Test
+  public void testLinear() {
+    for (boolean coarseStart:new boolean[]{false,true}) {
+      float[][] q = makeGridder(coarseStart,true).grid(S,S);
+      for (int i2=0; i2<N; ++i2) {
+        float x2 = (float)S.getValue(i2);
+        for (int i1=0; i1<N; ++i1) {
+          float x1 = (float)S.getValue(i1);
+          assertEquals(q[i2][i1],linear(x1,x2),0.001f);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCoarseStart() {
+    SplinesGridder2 sg = makeGridder(false,false);
+    float[][] p = sg.grid(S,S);
+    int np = sg.getIterationCount();
+    SplinesGridder2 cg = makeGridder(true,false);
+    float[][] q = cg.grid(S,S);
+    int nq = cg.getIterationCount();
+    assertTrue(nq<np);
+    assertTrue(cg.getResiduals()[0]<0.5f);
+
+    // Iterations end before known values are honored exactly.
+    for (int i=0; i<NS; ++i) {
+      int i1 = S.indexOfNearest(_x1[i]);
+      int i2 = S.indexOfNearest(_x2[i]);
+      assertEquals(p[i2][i1],_f[i],0.05f);
+      assertEquals(q[i2][i1],_f[i],0.05f);
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private static final int N = 101;
+  private static final int NS = 30;
+  private static final Sampling S = new Sampling(N,1.0/(N-1),0.0);
+  private float[] _f,_x1,_x2;
+
+  private static float linear(float x1, float x2) {
+    return 1.0f+2.0f*x1-3.0f*x2;
+  }
+
+  // Samples are located exactly on distinct grid points, at which gridded
+  // values approach the sample values as iterations converge.
+  private SplinesGridder2 makeGridder(boolean coarseStart, boolean linear) {
+    Random r = new Random(3);
+    _f = new float[NS];
+    _x1 = new float[NS];
+    _x2 = new float[NS];
+    boolean[][] used = new boolean[N][N];
+    for (int i=0; i<NS; ++i) {
+      int i1 = r.nextInt(N), i2 = r.nextInt(N);
+      while (used[i2][i1]) {
+        i1 = r.nextInt(N); i2 = r.nextInt(N);
+      }
+      used[i2][i1] = true;
+      _x1[i] = (float)S.getValue(i1);
+      _x2[i] = (float)S.getValue(i2);
+      _f[i] = (linear) ?
+        linear(_x1[i],_x2[i]) :
+        (float)Math.sin(5.0*_x1[i])+_x2[i];
+    }
+    SplinesGridder2 sg = new SplinesGridder2(_f,_x1,_x2);
+    sg.setCoarseStart(coarseStart);
+    return sg;
+  }
+}
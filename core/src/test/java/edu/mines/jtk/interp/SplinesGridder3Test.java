@@ -0,0 +1,104 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.dsp.Sampling;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.SplinesGridder3}.
+ */
+public class SplinesGridder3Test {
+
+  @Test
+  public void testLinear() {
+    for (boolean coarseStart:new boolean[]{false,true}) {
+      float[][][] q = makeGridder(coarseStart,true).grid(S,S,S);
+      for (int i3=0; i3<N; ++i3) {
+        float x3 = (float)S.getValue(i3);
+        for (int i2=0; i2<N; ++i2) {
+          float x2 = (float)S.getValue(i2);
+          for (int i1=0; i1<N; ++i1) {
+            float x1 = (float)S.getValue(i1);
+            assertEquals(q[i3][i2][i1],linear(x1,x2,x3),0.001f);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCoarseStart() {
+    SplinesGridder3 sg = makeGridder(false,false);
+    float[][][] p = sg.grid(S,S,S);
+    int np = sg.getIterationCount();
+    SplinesGridder3 cg = makeGridder(true,false);
+    float[][][] q = cg.grid(S,S,S);
+    int nq = cg.getIterationCount();
+    assertTrue(nq<np);
+
+    // Iterations end before known values are honored exactly.
+    for (int i=0; i<NS; ++i) {
+      int i1 = S.indexOfNearest(_x1[i]);
+      int i2 = S.indexOfNearest(_x2[i]);
+      int i3 = S.indexOfNearest(_x3[i]);
+      assertEquals(p[i3][i2][i1],_f[i],0.05f);
+      assertEquals(q[i3][i2][i1],_f[i],0.05f);
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // private
+
+  private static final int N = 33;
+  private static final int NS = 20;
+  private static final Sampling S = new Sampling(N,1.0/(N-1),0.0);
+  private float[] _f,_x1,_x2,_x3;
+
+  private static float linear(float x1, float x2, float x3) {
+    return 1.0f+2.0f*x1-3.0f*x2+0.5f*x3;
+  }
+
+  // Samples are located exactly on distinct grid points, at which gridded
+  // values approach the sample values as iterations converge.
+  private SplinesGridder3 makeGridder(boolean coarseStart, boolean linear) {
+    Random r = new Random(3);
+    _f = new float[NS];
+    _x1 = new float[NS];
+    _x2 = new float[NS];
+    _x3 = new float[NS];
+    boolean[][][] used = new boolean[N][N][N];
+    for (int i=0; i<NS; ++i) {
+      int i1 = r.nextInt(N), i2 = r.nextInt(N), i3 = r.nextInt(N);
+      while (used[i3][i2][i1]) {
+        i1 = r.nextInt(N); i2 = r.nextInt(N); i3 = r.nextInt(N);
+      }
+      used[i3][i2][i1] = true;
+      _x1[i] = (float)S.getValue(i1);
+      _x2[i] = (float)S.getValue(i2);
+      _x3[i] = (float)S.getValue(i3);
+      _f[i] = (linear) ?
+        linear(_x1[i],_x2[i],_x3[i]) :
+        (float)Math.sin(5.0*_x1[i])+_x2[i]*_x3[i];
+    }
+    SplinesGridder3 sg = new SplinesGridder3(_f,_x1,_x2,_x3);
+    sg.setCoarseStart(coarseStart);
+    return sg;
+  }
+}
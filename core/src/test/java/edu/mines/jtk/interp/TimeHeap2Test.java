@@ -0,0 +1,108 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.TimeHeap2}.
+ */
+public class TimeHeap2Test {
+
+  @Test
+  public void testExact() {
+    test(TimeHeap2.Type.MIN,0.0f);
+    test(TimeHeap2.Type.MAX,0.0f);
+  }
+
+  @Test
+  public void testUntidy() {
+    test(TimeHeap2.Type.MIN,0.05f);
+    test(TimeHeap2.Type.MAX,0.05f);
+    test(TimeHeap2.Type.MIN,1.0e-6f); // many times in the last bucket
+    test(TimeHeap2.Type.MAX,1.0e-6f);
+  }
+
+  @Test
+  public void testClear() {
+    TimeHeap2 heap = new TimeHeap2(TimeHeap2.Type.MIN,3,4,0.1f);
+    heap.insert(1,2,0.5f);
+    heap.insert(2,3,0.7f);
+    assertTrue(heap.contains(1,2));
+    heap.clear();
+    assertTrue(heap.isEmpty());
+    assertFalse(heap.contains(1,2));
+    heap.insert(2,3,0.9f,7);
+    heap.insert(0,1,0.3f,8);
+    TimeHeap2.Entry e = heap.remove();
+    assertEquals(e.i1,0);
+    assertEquals(e.i2,1);
+    assertEquals(e.mark,8);
+    assertEquals(heap.size(),1);
+  }
+
+  private static void test(TimeHeap2.Type type, float quantum) {
+    int n1 = 29, n2 = 37;
+    int n = n1*n2;
+    Random r = new Random(314159);
+    TimeHeap2 heap = new TimeHeap2(type,n1,n2,quantum);
+    float[][] t = randfloat(r,n1,n2);
+    for (int i2=0; i2<n2; ++i2)
+      for (int i1=0; i1<n1; ++i1)
+        heap.insert(i1,i2,t[i2][i1],i1+n1*i2);
+    for (int i2=0; i2<n2; i2+=2) {
+      for (int i1=0; i1<n1; ++i1) {
+        t[i2][i1] *= 1.0f-0.5f*r.nextFloat();
+        heap.reduce(i1,i2,t[i2][i1]);
+      }
+    }
+    assertEquals(heap.size(),n);
+    boolean[][] removed = new boolean[n2][n1];
+    TimeHeap2.Entry e = new TimeHeap2.Entry();
+    for (int i=0; i<n; ++i) {
+      heap.remove(e);
+      int i1 = e.i1, i2 = e.i2;
+      assertFalse(removed[i2][i1]);
+      assertEquals(e.time,t[i2][i1]);
+      assertEquals(e.mark,i1+n1*i2);
+      assertFalse(heap.contains(i1,i2));
+      float ti = clip(e.time,quantum);
+      removed[i2][i1] = true;
+      for (int j2=0; j2<n2; ++j2) {
+        for (int j1=0; j1<n1; ++j1) {
+          if (!removed[j2][j1]) {
+            float tj = clip(t[j2][j1],quantum);
+            if (type==TimeHeap2.Type.MIN) {
+              assertTrue(tj>=ti-quantum);
+            } else {
+              assertTrue(tj<=ti+quantum);
+            }
+          }
+        }
+      }
+    }
+    assertTrue(heap.isEmpty());
+  }
+
+  // Times are ordered only up to a maximum number of quanta.
+  private static float clip(float t, float quantum) {
+    return (quantum>0.0f)?min(t,65535.0f*quantum):t;
+  }
+}
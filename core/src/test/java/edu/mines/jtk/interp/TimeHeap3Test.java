@@ -0,0 +1,177 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.util.Stopwatch;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.TimeHeap3}.
+ */
+public class TimeHeap3Test {
+
+  @Test
+  public void testExact() {
+    test(TimeHeap3.Type.MIN,0.0f);
+    test(TimeHeap3.Type.MAX,0.0f);
+  }
+
+  @Test
+  public void testUntidy() {
+    test(TimeHeap3.Type.MIN,0.05f);
+    test(TimeHeap3.Type.MAX,0.05f);
+    test(TimeHeap3.Type.MIN,1.0e-6f); // many times in the last bucket
+    test(TimeHeap3.Type.MAX,1.0e-6f);
+  }
+
+  @Test
+  public void testClear() {
+    TimeHeap3 heap = new TimeHeap3(TimeHeap3.Type.MIN,3,4,5,0.1f);
+    heap.insert(1,2,3,0.5f);
+    heap.insert(2,3,4,0.7f);
+    assertTrue(heap.contains(1,2,3));
+    heap.clear();
+    assertTrue(heap.isEmpty());
+    assertFalse(heap.contains(1,2,3));
+    heap.insert(2,3,4,0.9f,7);
+    heap.insert(0,1,2,0.3f,8);
+    TimeHeap3.Entry e = heap.remove();
+    assertEquals(e.i1,0);
+    assertEquals(e.i2,1);
+    assertEquals(e.i3,2);
+    assertEquals(e.mark,8);
+    assertEquals(heap.size(),1);
+  }
+
+  private static void test(TimeHeap3.Type type, float quantum) {
+    int n1 = 9, n2 = 11, n3 = 13;
+    int n = n1*n2*n3;
+    Random r = new Random(314159);
+    TimeHeap3 heap = new TimeHeap3(type,n1,n2,n3,quantum);
+    float[][][] t = randfloat(r,n1,n2,n3);
+    for (int i3=0; i3<n3; ++i3)
+      for (int i2=0; i2<n2; ++i2)
+        for (int i1=0; i1<n1; ++i1)
+          heap.insert(i1,i2,i3,t[i3][i2][i1],i1+n1*(i2+n2*i3));
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; i2+=2) {
+        for (int i1=0; i1<n1; ++i1) {
+          t[i3][i2][i1] *= 1.0f-0.5f*r.nextFloat();
+          heap.reduce(i1,i2,i3,t[i3][i2][i1]);
+        }
+      }
+    }
+    assertEquals(heap.size(),n);
+    boolean[][][] removed = new boolean[n3][n2][n1];
+    TimeHeap3.Entry e = new TimeHeap3.Entry();
+    for (int i=0; i<n; ++i) {
+      heap.remove(e);
+      int i1 = e.i1, i2 = e.i2, i3 = e.i3;
+      assertFalse(removed[i3][i2][i1]);
+      assertEquals(e.time,t[i3][i2][i1]);
+      assertEquals(e.mark,i1+n1*(i2+n2*i3));
+      assertFalse(heap.contains(i1,i2,i3));
+      float ti = clip(e.time,quantum);
+      removed[i3][i2][i1] = true;
+      for (int j3=0; j3<n3; ++j3) {
+        for (int j2=0; j2<n2; ++j2) {
+          for (int j1=0; j1<n1; ++j1) {
+            if (!removed[j3][j2][j1]) {
+              float tj = clip(t[j3][j2][j1],quantum);
+              if (type==TimeHeap3.Type.MIN) {
+                assertTrue(tj>=ti-quantum);
+              } else {
+                assertTrue(tj<=ti+quantum);
+              }
+            }
+          }
+        }
+      }
+    }
+    assertTrue(heap.isEmpty());
+  }
+
+  // Times are ordered only up to a maximum number of quanta.
+  private static float clip(float t, float quantum) {
+    return (quantum>0.0f)?min(t,65535.0f*quantum):t;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // benchmark
+
+  public static void main(String[] args) {
+    bench();
+  }
+
+  // Times heaps with the access pattern of fast marching, from the center
+  // of a 150^3 grid with random times between adjacent samples, which
+  // requires about 8 million heap operations.
+  public static void bench() {
+    int n1 = 150, n2 = 150, n3 = 150;
+    float[][][] d = add(0.5f,randfloat(new Random(314159),n1,n2,n3));
+    Stopwatch sw = new Stopwatch();
+    for (int ntrial=0; ntrial<3; ++ntrial) {
+      sw.restart();
+      int nop = march(new TimeHeap3(TimeHeap3.Type.MIN,n1,n2,n3),d);
+      sw.stop();
+      System.out.println("exact: nop="+nop+" time="+sw.time());
+      sw.restart();
+      nop = march(new TimeHeap3(TimeHeap3.Type.MIN,n1,n2,n3,1.0f),d);
+      sw.stop();
+      System.out.println("untidy: nop="+nop+" time="+sw.time());
+    }
+  }
+
+  // Marches times outward from the center sample, with times between
+  // adjacent samples d, and returns the number of heap operations.
+  // Uses only methods of the original heap, for comparisons with it.
+  private static int march(TimeHeap3 heap, float[][][] d) {
+    int n1 = heap.getN1(), n2 = heap.getN2(), n3 = heap.getN3();
+    float[][][] t = fillfloat(Float.MAX_VALUE,n1,n2,n3);
+    boolean[][][] done = new boolean[n3][n2][n1];
+    int[] k1 = {-1, 1, 0, 0, 0, 0};
+    int[] k2 = { 0, 0,-1, 1, 0, 0};
+    int[] k3 = { 0, 0, 0, 0,-1, 1};
+    t[n3/2][n2/2][n1/2] = 0.0f;
+    heap.insert(n1/2,n2/2,n3/2,0.0f);
+    int nop = 1;
+    while (!heap.isEmpty()) {
+      TimeHeap3.Entry e = heap.remove();
+      ++nop;
+      done[e.i3][e.i2][e.i1] = true;
+      for (int k=0; k<6; ++k) {
+        int j1 = e.i1+k1[k], j2 = e.i2+k2[k], j3 = e.i3+k3[k];
+        if (j1<0 || j1>=n1 || j2<0 || j2>=n2 || j3<0 || j3>=n3) continue;
+        if (done[j3][j2][j1]) continue;
+        float tj = e.time+d[j3][j2][j1];
+        if (tj<t[j3][j2][j1]) {
+          if (heap.contains(j1,j2,j3)) {
+            heap.reduce(j1,j2,j3,tj);
+          } else {
+            heap.insert(j1,j2,j3,tj);
+          }
+          t[j3][j2][j1] = tj;
+          ++nop;
+        }
+      }
+    }
+    return nop;
+  }
+}
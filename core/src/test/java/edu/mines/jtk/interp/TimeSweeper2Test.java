@@ -0,0 +1,100 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.dsp.Tensors2;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.TimeSweeper2}.
+ */
+public class TimeSweeper2Test {
+
+  @Test
+  public void testOneKnownSample() {
+    int n1 = 101, n2 = 83;
+    int k1 = 31, k2 = 55;
+    float[][] t = fillfloat(1.0f,n1,n2);
+    int[][] m = new int[n2][n1];
+    t[k2][k1] = 0.0f;
+    m[k2][k1] = 7;
+    new TimeSweeper2(n1,n2,IDENTITY).apply(t,m);
+    for (int i2=0; i2<n2; ++i2) {
+      for (int i1=0; i1<n1; ++i1) {
+        float d1 = i1-k1, d2 = i2-k2;
+        float d = sqrt(d1*d1+d2*d2);
+        float ti = t[i2][i1];
+        assertEquals(m[i2][i1],7);
+        assertTrue(d<=ti && ti<=1.25f*d);
+        if (d1==0.0f || d2==0.0f)
+          assertEquals(ti,d,0.0001f*d);
+      }
+    }
+  }
+
+  @Test
+  public void testTimeMarker() {
+    testTimeMarker(IDENTITY);
+    testTimeMarker(new Tensors2() {
+      public void getTensor(int i1, int i2, float[] d) {
+        d[0] = 1.0f; d[1] = 0.3f; d[2] = 0.5f;
+      }
+    });
+  }
+
+  private static void testTimeMarker(Tensors2 tensors) {
+    int n1 = 101, n2 = 97;
+    int n = n1*n2;
+    Random r = new Random(314159);
+    float[][] ts = fillfloat(1.0f,n1,n2);
+    int[][] ms = new int[n2][n1];
+    for (int k=1; k<=40; ++k) {
+      int i1 = r.nextInt(n1), i2 = r.nextInt(n2);
+      ts[i2][i1] = 0.0f;
+      ms[i2][i1] = k;
+    }
+    float[][] tm = copy(ts);
+    int[][] mm = copy(ms);
+    new TimeSweeper2(n1,n2,tensors).apply(ts,ms);
+    new TimeMarker2(n1,n2,tensors).apply(tm,mm);
+    int nm = 0;
+    double e = 0.0;
+    for (int i2=0; i2<n2; ++i2) {
+      for (int i1=0; i1<n1; ++i1) {
+        if (tm[i2][i1]==0.0f) {
+          assertEquals(ts[i2][i1],0.0f);
+          assertEquals(ms[i2][i1],mm[i2][i1]);
+        } else {
+          e += abs(ts[i2][i1]-tm[i2][i1])/tm[i2][i1];
+        }
+        if (ms[i2][i1]==mm[i2][i1])
+          ++nm;
+      }
+    }
+    assertTrue(e/n<0.01);
+    assertTrue(nm>0.9*n);
+  }
+
+  private static final Tensors2 IDENTITY = new Tensors2() {
+    public void getTensor(int i1, int i2, float[] d) {
+      d[0] = 1.0f; d[1] = 0.0f; d[2] = 1.0f;
+    }
+  };
+}
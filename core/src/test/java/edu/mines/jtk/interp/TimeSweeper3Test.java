@@ -0,0 +1,106 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.interp;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import edu.mines.jtk.dsp.Tensors3;
+import static edu.mines.jtk.util.ArrayMath.*;
+
+/**
+ * Tests {@link edu.mines.jtk.interp.TimeSweeper3}.
+ */
+public class TimeSweeper3Test {
+
+  @Test
+  public void testOneKnownSample() {
+    int n1 = 41, n2 = 37, n3 = 23;
+    int k1 = 11, k2 = 25, k3 = 9;
+    float[][][] t = fillfloat(1.0f,n1,n2,n3);
+    int[][][] m = new int[n3][n2][n1];
+    t[k3][k2][k1] = 0.0f;
+    m[k3][k2][k1] = 7;
+    new TimeSweeper3(n1,n2,n3,IDENTITY).apply(t,m);
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        for (int i1=0; i1<n1; ++i1) {
+          float d1 = i1-k1, d2 = i2-k2, d3 = i3-k3;
+          float d = sqrt(d1*d1+d2*d2+d3*d3);
+          float ti = t[i3][i2][i1];
+          assertEquals(m[i3][i2][i1],7);
+          assertTrue(d<=ti && ti<=1.35f*d);
+          if ((d1==0.0f?1:0)+(d2==0.0f?1:0)+(d3==0.0f?1:0)>=2)
+            assertEquals(ti,d,0.0001f*d);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testTimeMarker() {
+    testTimeMarker(IDENTITY);
+    testTimeMarker(new Tensors3() {
+      public void getTensor(int i1, int i2, int i3, float[] d) {
+        d[0] = 1.0f; d[1] = 0.3f; d[2] = 0.1f;
+        d[3] = 0.5f; d[4] = 0.1f; d[5] = 0.3f;
+      }
+    });
+  }
+
+  private static void testTimeMarker(Tensors3 tensors) {
+    int n1 = 31, n2 = 29, n3 = 27;
+    int n = n1*n2*n3;
+    Random r = new Random(314159);
+    float[][][] ts = fillfloat(1.0f,n1,n2,n3);
+    int[][][] ms = new int[n3][n2][n1];
+    for (int k=1; k<=40; ++k) {
+      int i1 = r.nextInt(n1), i2 = r.nextInt(n2), i3 = r.nextInt(n3);
+      ts[i3][i2][i1] = 0.0f;
+      ms[i3][i2][i1] = k;
+    }
+    float[][][] tm = copy(ts);
+    int[][][] mm = copy(ms);
+    new TimeSweeper3(n1,n2,n3,tensors).apply(ts,ms);
+    new TimeMarker3(n1,n2,n3,tensors).apply(tm,mm);
+    int nm = 0;
+    double e = 0.0;
+    for (int i3=0; i3<n3; ++i3) {
+      for (int i2=0; i2<n2; ++i2) {
+        for (int i1=0; i1<n1; ++i1) {
+          if (tm[i3][i2][i1]==0.0f) {
+            assertEquals(ts[i3][i2][i1],0.0f);
+            assertEquals(ms[i3][i2][i1],mm[i3][i2][i1]);
+          } else {
+            e += abs(ts[i3][i2][i1]-tm[i3][i2][i1])/tm[i3][i2][i1];
+          }
+          if (ms[i3][i2][i1]==mm[i3][i2][i1])
+            ++nm;
+        }
+      }
+    }
+    assertTrue(e/n<0.01);
+    assertTrue(nm>0.9*n);
+  }
+
+  private static final Tensors3 IDENTITY = new Tensors3() {
+    public void getTensor(int i1, int i2, int i3, float[] d) {
+      d[0] = 1.0f; d[1] = 0.0f; d[2] = 0.0f;
+      d[3] = 1.0f; d[4] = 0.0f; d[5] = 1.0f;
+    }
+  };
+}
@@ -0,0 +1,104 @@
+/****************************************************************************
+Copyright 2026, Colorado School of Mines and others.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+****************************************************************************/
+package edu.mines.jtk.util;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static edu.mines.jtk.util.ArrayMath.*;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link edu.mines.jtk.util.QuantileSketch}.
+ */
+public class QuantileSketchTest {
+
+  @Test
+  public void testRamp() {
+    int n = 100001;
+    float[] f = rampfloat(0.0f,1.0f/(n-1),n);
+    QuantileSketch qs = new QuantileSketch();
+    qs.update(f);
+    assertEquals(n,qs.getCount());
+    assertEquals(0.0f,qs.getMinValue());
+    assertEquals(f[n-1],qs.getMaxValue());
+    assertEquals(0.0f,qs.getQuantile(0.0));
+    assertEquals(f[n-1],qs.getQuantile(1.0));
+    for (int i=1; i<100; ++i) {
+      float q = 0.01f*i;
+      assertEquals(q,qs.getQuantile(q),0.01f);
+    }
+  }
+
+  @Test
+  public void testArrays() {
+    int n1 = 101, n2 = 102, n3 = 103;
+    float[][][] f = randfloat(new Random(314159),n1,n2,n3);
+    QuantileSketch qs3 = new QuantileSketch(1000);
+    qs3.update(f);
+    QuantileSketch qsf = new QuantileSketch(1000);
+    qsf.update(new SimpleFloat3(f));
+    QuantileSketch qs2 = new QuantileSketch(1000);
+    for (int i3=0; i3<n3; ++i3)
+      qs2.update(f[i3]);
+    long n = (long)n1*n2*n3;
+    assertEquals(n,qs3.getCount());
+    assertEquals(n,qsf.getCount());
+    assertEquals(n,qs2.getCount());
+    assertEquals(min(f),qs3.getMinValue());
+    assertEquals(max(f),qs3.getMaxValue());
+    for (int i=1; i<100; ++i) {
+      float q = 0.01f*i;
+      assertEquals(q,qs3.getQuantile(q),0.005f);
+      assertEquals(q,qsf.getQuantile(q),0.005f);
+      assertEquals(q,qs2.getQuantile(q),0.005f);
+    }
+  }
+
+  @Test
+  public void testReproducible() {
+    float[][][] f = randfloat(new Random(314159),51,52,53);
+    QuantileSketch qsp = new QuantileSketch(100);
+    qsp.update(f);
+    QuantileSketch qss = new QuantileSketch(100);
+    Parallel.setParallel(false);
+    try {
+      qss.update(f);
+    } finally {
+      Parallel.setParallel(true);
+    }
+    for (int i=1; i<100; ++i)
+      assertEquals(qsp.getQuantile(0.01*i),qss.getQuantile(0.01*i));
+  }
+
+  @Test
+  public void testMerge() {
+    int n = 10000;
+    Random r = new Random(314159);
+    QuantileSketch qs = new QuantileSketch();
+    for (int j=0; j<10; ++j) {
+      QuantileSketch qsj = new QuantileSketch();
+      qsj.update(add(j,randfloat(r,n)));
+      qs.merge(qsj);
+    }
+    assertEquals(10*n,qs.getCount());
+    assertTrue(qs.getMinValue()>=0.0f);
+    assertTrue(qs.getMaxValue()<=10.0f);
+    for (int i=1; i<10; ++i)
+      assertEquals(i,qs.getQuantile(0.1*i),0.1f);
+  }
+}